@@ -0,0 +1,129 @@
+/*
+ * SPDX-License-Identifier: Apache-2.0
+ *
+ * The OpenSearch Contributors require contributions made to
+ * this file be licensed under the Apache-2.0 license or a
+ * compatible open source license.
+ */
+package org.opensearch.search.relevance.benchmark;
+
+import com.ibm.icu.text.BreakIterator;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+import org.opensearch.search.relevance.transformer.kendraintelligentranking.preprocess.PassageGenerator;
+import org.opensearch.search.relevance.transformer.kendraintelligentranking.preprocess.SentenceSplitter;
+import org.opensearch.search.relevance.transformer.kendraintelligentranking.preprocess.TextTokenizer;
+
+import java.util.Locale;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Measures sentence and word segmentation of the documents in a typical Kendra rerank of 100 hits, comparing
+ * a new {@link BreakIterator} per call with iterators reused through setText.
+ * Run with {@code -prof gc} to compare allocations.
+ */
+@Fork(1)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@State(Scope.Thread)
+public class SegmenterBenchmark {
+    private static final int NUMBER_OF_HITS = 100;
+    private static final int WORDS_PER_DOCUMENT = 400;
+    private static final String[] WORDS = ("search relevance ranking document passage query index cluster node shard " +
+            "the of and to in is for on with as by at from this that an be are was it or " +
+            "OpenSearch Kendra Personalize results score model user item campaign request response pipeline processor " +
+            "configuration analytics open source suite install instructions performance latency throughput 2023 3.14 " +
+            "e-mail don't U.S. https://opensearch.org/docs").split(" ");
+
+    private String[] documents;
+    private BreakIterator sentenceIterator;
+    private BreakIterator wordIterator;
+    private SentenceSplitter sentenceSplitter;
+    private TextTokenizer textTokenizer;
+    private PassageGenerator passageGenerator;
+
+    @Setup
+    public void setup() {
+        Random random = new Random(0);
+        documents = new String[NUMBER_OF_HITS];
+        for (int i = 0; i < NUMBER_OF_HITS; i++) {
+            StringBuilder document = new StringBuilder();
+            int sentenceLength = 0;
+            for (int j = 0; j < WORDS_PER_DOCUMENT; j++) {
+                String word = WORDS[random.nextInt(WORDS.length)];
+                document.append(sentenceLength == 0 ? Character.toUpperCase(word.charAt(0)) + word.substring(1) : word);
+                sentenceLength++;
+                if (sentenceLength > 5 && random.nextInt(12) == 0) {
+                    document.append(". ");
+                    sentenceLength = 0;
+                } else {
+                    document.append(random.nextInt(10) == 0 ? ", " : " ");
+                }
+            }
+            documents[i] = document.toString();
+        }
+        sentenceIterator = BreakIterator.getSentenceInstance(Locale.ENGLISH);
+        wordIterator = BreakIterator.getWordInstance(Locale.ENGLISH);
+        sentenceSplitter = new SentenceSplitter();
+        textTokenizer = new TextTokenizer();
+        passageGenerator = new PassageGenerator();
+    }
+
+    /**
+     * Segmentation as done before iterators were reused: a sentence iterator per document and a word iterator per sentence
+     */
+    @Benchmark
+    public void segmentWithNewIterators(Blackhole blackhole) {
+        for (String document : documents) {
+            BreakIterator sentences = BreakIterator.getSentenceInstance(Locale.ENGLISH);
+            segment(document, sentences, null, blackhole);
+        }
+    }
+
+    @Benchmark
+    public void segmentWithReusedIterators(Blackhole blackhole) {
+        for (String document : documents) {
+            segment(document, sentenceIterator, wordIterator, blackhole);
+        }
+    }
+
+    @Benchmark
+    public void splitAndTokenize(Blackhole blackhole) {
+        for (String document : documents) {
+            for (String sentence : sentenceSplitter.split(document)) {
+                textTokenizer.tokenize(sentence, (buffer, offset, length) -> blackhole.consume(length));
+            }
+        }
+    }
+
+    @Benchmark
+    public void generatePassages(Blackhole blackhole) {
+        for (String document : documents) {
+            blackhole.consume(passageGenerator.generatePassages(document));
+        }
+    }
+
+    private static void segment(String document, BreakIterator sentences, BreakIterator reusedWords, Blackhole blackhole) {
+        sentences.setText(document);
+        int start = sentences.first();
+        for (int end = sentences.next(); end != BreakIterator.DONE; start = end, end = sentences.next()) {
+            BreakIterator words = reusedWords == null ? BreakIterator.getWordInstance(Locale.ENGLISH) : reusedWords;
+            words.setText(document.substring(start, end));
+            for (int boundary = words.first(); boundary != BreakIterator.DONE; boundary = words.next()) {
+                blackhole.consume(boundary);
+            }
+        }
+    }
+}
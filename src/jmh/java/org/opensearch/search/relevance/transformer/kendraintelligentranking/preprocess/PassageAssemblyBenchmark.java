@@ -0,0 +1,64 @@
+/*
+ * SPDX-License-Identifier: Apache-2.0
+ *
+ * The OpenSearch Contributors require contributions made to
+ * this file be licensed under the Apache-2.0 license or a
+ * compatible open source license.
+ */
+package org.opensearch.search.relevance.transformer.kendraintelligentranking.preprocess;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Measures combining the tokenized sentences of long documents, such as manuals and legal text, into passages.
+ * Every sentence is assembled into a passage, so the time per sentence should stay flat as the sentence count grows.
+ * Lives in the preprocess package to reach the package-private assembly step directly.
+ */
+@Fork(1)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@State(Scope.Benchmark)
+public class PassageAssemblyBenchmark {
+    private static final int MAX_SENTENCE_LENGTH_IN_TOKENS = 35;
+    private static final int MIN_PASSAGE_LENGTH_IN_TOKENS = 100;
+
+    @Param({ "1000", "10000", "50000" })
+    public int sentenceCount;
+
+    private List<List<String>> tokenizedSentences;
+    private PassageGenerator passageGenerator;
+
+    @Setup
+    public void setup() {
+        Random random = new Random(0);
+        tokenizedSentences = new ArrayList<>(sentenceCount);
+        for (int i = 0; i < sentenceCount; i++) {
+            // Sentence contents do not matter to assembly, only their lengths
+            tokenizedSentences.add(Collections.nCopies(1 + random.nextInt(MAX_SENTENCE_LENGTH_IN_TOKENS), "token"));
+        }
+        passageGenerator = new PassageGenerator();
+    }
+
+    @Benchmark
+    public List<List<List<String>>> combineSentencesIntoPassages() {
+        return passageGenerator.combineSentencesIntoPassages(tokenizedSentences, MIN_PASSAGE_LENGTH_IN_TOKENS, Integer.MAX_VALUE);
+    }
+}
@@ -7,42 +7,76 @@
  */
 package org.opensearch.search.relevance;
 
+import org.opensearch.action.ActionRequest;
+import org.opensearch.action.ActionResponse;
 import org.opensearch.action.support.ActionFilter;
 import org.opensearch.client.Client;
 import org.opensearch.cluster.metadata.IndexNameExpressionResolver;
+import org.opensearch.cluster.node.DiscoveryNodes;
 import org.opensearch.cluster.service.ClusterService;
 import org.opensearch.core.common.io.stream.NamedWriteableRegistry;
+import org.opensearch.common.settings.ClusterSettings;
+import org.opensearch.common.settings.IndexScopedSettings;
 import org.opensearch.common.settings.Setting;
+import org.opensearch.common.settings.Settings;
+import org.opensearch.common.settings.SettingsFilter;
+import org.opensearch.common.util.concurrent.OpenSearchExecutors;
 import org.opensearch.core.xcontent.NamedXContentRegistry;
 import org.opensearch.env.Environment;
 import org.opensearch.env.NodeEnvironment;
 import org.opensearch.plugins.ActionPlugin;
+import org.opensearch.plugins.IngestPlugin;
 import org.opensearch.plugins.Plugin;
 import org.opensearch.plugins.SearchPipelinePlugin;
 import org.opensearch.plugins.SearchPlugin;
 import org.opensearch.repositories.RepositoriesService;
+import org.opensearch.rest.RestController;
+import org.opensearch.rest.RestHandler;
 import org.opensearch.script.ScriptService;
 import org.opensearch.search.pipeline.Processor;
 import org.opensearch.search.pipeline.SearchResponseProcessor;
 import org.opensearch.search.relevance.actionfilter.SearchActionFilter;
-import org.opensearch.search.relevance.client.OpenSearchClient;
+import org.opensearch.search.relevance.actionfilter.TransformerPlanCache;
 import org.opensearch.search.relevance.configuration.ResultTransformerConfigurationFactory;
+import org.opensearch.search.relevance.transformer.kendraintelligentranking.client.KendraClientComponents;
 import org.opensearch.search.relevance.transformer.kendraintelligentranking.client.KendraClientSettings;
 import org.opensearch.search.relevance.transformer.kendraintelligentranking.client.KendraHttpClient;
+import org.opensearch.search.relevance.transformer.kendraintelligentranking.client.KendraRescoreCache;
+import org.opensearch.search.relevance.transformer.kendraintelligentranking.client.RescoreHedger;
 import org.opensearch.search.relevance.configuration.SearchConfigurationExtBuilder;
+import org.opensearch.search.relevance.stats.RestSearchRelevanceStatsAction;
+import org.opensearch.search.relevance.stats.SearchRelevanceStats;
+import org.opensearch.search.relevance.stats.SearchRelevanceStatsAction;
+import org.opensearch.search.relevance.stats.TransportSearchRelevanceStatsAction;
 import org.opensearch.search.relevance.transformer.kendraintelligentranking.KendraIntelligentRanker;
+import org.opensearch.search.relevance.transformer.kendraintelligentranking.KendraRankerComponents;
+import org.opensearch.search.relevance.transformer.RemoteClientRegistry;
+import org.opensearch.search.relevance.transformer.RemoteTransportSettings;
 import org.opensearch.search.relevance.transformer.ResultTransformer;
+import org.opensearch.search.relevance.transformer.RerankCircuitBreakers;
+import org.opensearch.search.relevance.transformer.RerankDeadlineTracker;
+import org.opensearch.search.relevance.transformer.SingleFlight;
 import org.opensearch.search.relevance.transformer.kendraintelligentranking.configuration.KendraIntelligentRankerSettings;
 import org.opensearch.search.relevance.transformer.kendraintelligentranking.configuration.KendraIntelligentRankingConfigurationFactory;
+import org.opensearch.search.relevance.transformer.kendraintelligentranking.model.dto.RescoreResult;
+import org.opensearch.search.relevance.transformer.kendraintelligentranking.pipeline.KendraPassageProcessor;
 import org.opensearch.search.relevance.transformer.kendraintelligentranking.pipeline.KendraRankingResponseProcessor;
+import org.opensearch.search.relevance.transformer.kendraintelligentranking.preprocess.ParallelPreprocessor;
+import org.opensearch.search.relevance.transformer.kendraintelligentranking.preprocess.PassageCache;
+import org.opensearch.search.relevance.transformer.personalizeintelligentranking.PersonalizeRankerComponents;
 import org.opensearch.search.relevance.transformer.personalizeintelligentranking.PersonalizeRankingResponseProcessor;
 import org.opensearch.search.relevance.transformer.personalizeintelligentranking.client.PersonalizeClient;
 import org.opensearch.search.relevance.transformer.personalizeintelligentranking.client.PersonalizeClientSettings;
+import org.opensearch.search.relevance.transformer.personalizeintelligentranking.client.PersonalizeCredentialsProviderFactory;
+import org.opensearch.search.relevance.transformer.personalizeintelligentranking.client.PersonalizeRankingCache;
 import org.opensearch.search.relevance.transformer.personalizeintelligentranking.requestparameter.PersonalizeRequestParametersExtBuilder;
 import org.opensearch.search.relevance.transformer.personalizeintelligentranking.reranker.PersonalizedRanker;
+import org.opensearch.threadpool.ExecutorBuilder;
+import org.opensearch.threadpool.FixedExecutorBuilder;
 import org.opensearch.threadpool.ThreadPool;
 import org.opensearch.watcher.ResourceWatcherService;
 
+import java.io.IOException;
 import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.Collection;
@@ -51,13 +85,27 @@ import java.util.Map;
 import java.util.function.Supplier;
 import java.util.stream.Collectors;
 
-public class SearchRelevancePlugin extends Plugin implements ActionPlugin, SearchPlugin, SearchPipelinePlugin {
+import static org.opensearch.search.relevance.configuration.Constants.PREPROCESS_THREAD_POOL_NAME;
+import static org.opensearch.search.relevance.configuration.Constants.PREPROCESS_THREAD_POOL_QUEUE_SIZE;
+import static org.opensearch.search.relevance.configuration.Constants.RERANK_THREAD_POOL_NAME;
+import static org.opensearch.search.relevance.configuration.Constants.RERANK_THREAD_POOL_QUEUE_SIZE;
 
-    private OpenSearchClient openSearchClient;
-    private KendraHttpClient kendraClient;
+public class SearchRelevancePlugin extends Plugin implements ActionPlugin, IngestPlugin, SearchPlugin, SearchPipelinePlugin {
+
+    private ThreadPool threadPool;
+    private RemoteClientRegistry<KendraClientSettings, KendraHttpClient> kendraClientRegistry;
+    private RemoteClientRegistry.Lease<KendraHttpClient> kendraClientLease;
+    private RescoreHedger kendraRescoreHedger;
+    private KendraRankerComponents kendraRankerComponents;
     private KendraIntelligentRanker kendraIntelligentRanker;
     private KendraClientSettings kendraClientSettings;
     private PersonalizeClientSettings personalizeClientSettings;
+    private PersonalizeRankerComponents personalizeRankerComponents;
+    private RemoteClientRegistry<PersonalizeClient.Key, PersonalizeClient> personalizeClientRegistry;
+    private RerankDeadlineTracker rerankDeadlineTracker;
+    private RerankCircuitBreakers rerankCircuitBreakers;
+    private TransformerPlanCache transformerPlanCache;
+    private SearchRelevanceStats searchRelevanceStats;
 
     private Collection<ResultTransformer> getAllResultTransformers() {
         // Initialize and add other transformers here
@@ -70,7 +118,23 @@ public class SearchRelevancePlugin extends Plugin implements ActionPlugin, Searc
 
     @Override
     public List<ActionFilter> getActionFilters() {
-        return Arrays.asList(new SearchActionFilter(getAllResultTransformers(), openSearchClient));
+        return Arrays.asList(new SearchActionFilter(transformerPlanCache, rerankDeadlineTracker, threadPool));
+    }
+
+    @Override
+    public List<ActionHandler<? extends ActionRequest, ? extends ActionResponse>> getActions() {
+        return List.of(new ActionHandler<>(SearchRelevanceStatsAction.INSTANCE, TransportSearchRelevanceStatsAction.class));
+    }
+
+    @Override
+    public List<RestHandler> getRestHandlers(Settings settings,
+                                             RestController restController,
+                                             ClusterSettings clusterSettings,
+                                             IndexScopedSettings indexScopedSettings,
+                                             SettingsFilter settingsFilter,
+                                             IndexNameExpressionResolver indexNameExpressionResolver,
+                                             Supplier<DiscoveryNodes> nodesInCluster) {
+        return List.of(new RestSearchRelevanceStatsAction());
     }
 
     @Override
@@ -79,6 +143,9 @@ public class SearchRelevancePlugin extends Plugin implements ActionPlugin, Searc
         List<Setting<?>> allTransformerSettings = new ArrayList<>();
         allTransformerSettings.addAll(KendraIntelligentRankerSettings.getAllSettings());
         allTransformerSettings.addAll(PersonalizeClientSettings.getAllSettings());
+        allTransformerSettings.addAll(PersonalizeRankingCache.getAllSettings());
+        allTransformerSettings.add(SearchActionFilter.RERANK_TIMEOUT_SETTING);
+        allTransformerSettings.addAll(RerankCircuitBreakers.getAllSettings());
         // Add settings for other transformers here
         return allTransformerSettings;
     }
@@ -97,17 +164,69 @@ public class SearchRelevancePlugin extends Plugin implements ActionPlugin, Searc
             IndexNameExpressionResolver indexNameExpressionResolver,
             Supplier<RepositoriesService> repositoriesServiceSupplier
     ) {
-        this.openSearchClient = new OpenSearchClient(client);
+        this.threadPool = threadPool;
         this.kendraClientSettings = KendraClientSettings.getClientSettings(environment.settings());
-        this.kendraClient = new KendraHttpClient(this.kendraClientSettings);
-        this.kendraIntelligentRanker = new KendraIntelligentRanker(this.kendraClient);
+        this.rerankDeadlineTracker = new RerankDeadlineTracker();
+        this.kendraRescoreHedger = new RescoreHedger(threadPool,
+                KendraIntelligentRankerSettings.HEDGING_DELAY_PERCENTILE_SETTING.get(environment.settings()),
+                KendraIntelligentRankerSettings.HEDGING_MIN_DELAY_SETTING.get(environment.settings()),
+                KendraIntelligentRankerSettings.HEDGING_BUDGET_PERCENT_SETTING.get(environment.settings()));
+        this.rerankCircuitBreakers = new RerankCircuitBreakers(environment.settings());
+        // Clients are shared by every transformer and pipeline calling the same endpoint with the same credentials and role
+        RemoteTransportSettings kendraTransportSettings = KendraIntelligentRankerSettings.TRANSPORT_SETTINGS.get(environment.settings());
+        this.kendraClientRegistry = new RemoteClientRegistry<>("kendra", clientSettings -> new KendraHttpClient(clientSettings,
+                new KendraClientComponents(threadPool, this.kendraRescoreHedger,
+                        this.rerankCircuitBreakers.forEndpoint("kendra:" + clientSettings.getServiceEndpoint()),
+                        kendraTransportSettings)));
+        // The index-level transformer holds its client for the life of the node
+        this.kendraClientLease = this.kendraClientRegistry.acquire(this.kendraClientSettings);
+        KendraRescoreCache kendraRescoreCache = new KendraRescoreCache(environment.settings());
+        PassageCache kendraPassageCache = new PassageCache(environment.settings());
+        ParallelPreprocessor kendraParallelPreprocessor = new ParallelPreprocessor(threadPool.executor(PREPROCESS_THREAD_POOL_NAME),
+                threadPool.info(PREPROCESS_THREAD_POOL_NAME).getMax(),
+                KendraIntelligentRankerSettings.PARALLEL_PREPROCESS_THRESHOLD_SETTING.get(environment.settings()));
+        SingleFlight<KendraRescoreCache.Key, RescoreResult> kendraRescoreSingleFlight = new SingleFlight<>(threadPool,
+                KendraIntelligentRankerSettings.RESCORE_COALESCING_MAX_WAITERS_SETTING.get(environment.settings()),
+                KendraIntelligentRankerSettings.RESCORE_COALESCING_WAIT_TIMEOUT_SETTING.get(environment.settings()));
+        // Caches, coalescing and stats are shared by the index-level transformer and every Kendra pipeline
+        this.kendraRankerComponents = new KendraRankerComponents(kendraRescoreCache, kendraPassageCache, kendraParallelPreprocessor,
+                kendraRescoreSingleFlight, this.rerankDeadlineTracker, threadPool);
+        this.kendraIntelligentRanker = new KendraIntelligentRanker(this.kendraClientLease.get(), this.kendraRankerComponents);
         this.personalizeClientSettings = PersonalizeClientSettings.getClientSettings(environment.settings());
+        PersonalizeRankingCache personalizeRankingCache = new PersonalizeRankingCache(environment.settings());
+        SingleFlight<PersonalizeRankingCache.Key, List<String>> personalizeRankingSingleFlight = new SingleFlight<>(threadPool,
+                PersonalizeClientSettings.RANKING_COALESCING_MAX_WAITERS_SETTING.get(environment.settings()),
+                PersonalizeClientSettings.RANKING_COALESCING_WAIT_TIMEOUT_SETTING.get(environment.settings()));
+        this.personalizeRankerComponents = new PersonalizeRankerComponents(personalizeRankingCache, personalizeRankingSingleFlight,
+                this.rerankDeadlineTracker, threadPool);
+        // Clients of the same region share the circuit breaker of the regional endpoint
+        RemoteTransportSettings personalizeTransportSettings = PersonalizeClientSettings.TRANSPORT_SETTINGS.get(environment.settings());
+        this.personalizeClientRegistry = new RemoteClientRegistry<>("personalize", key -> new PersonalizeClient(
+                PersonalizeCredentialsProviderFactory.getCredentialsProvider(this.personalizeClientSettings, key.getIamRoleArn(), key.getAwsRegion()),
+                key.getAwsRegion(), this.rerankCircuitBreakers.forEndpoint("personalize:" + key.getAwsRegion()), personalizeTransportSettings));
+        // Transformers of each index are compiled from the cluster state rather than read from its settings on each search
+        this.transformerPlanCache = new TransformerPlanCache(getAllResultTransformers());
+        clusterService.addListener(this.transformerPlanCache);
+        this.searchRelevanceStats = new SearchRelevanceStats();
+        this.searchRelevanceStats.register("kendra_rescore_cache", kendraRescoreCache::stats);
+        this.searchRelevanceStats.register("kendra_passage_cache", kendraPassageCache::stats);
+        this.searchRelevanceStats.register("personalize_ranking_cache", personalizeRankingCache::stats);
+        this.searchRelevanceStats.register("kendra_rescore_coalescing", kendraRescoreSingleFlight::stats);
+        this.searchRelevanceStats.register("personalize_ranking_coalescing", personalizeRankingSingleFlight::stats);
+        this.searchRelevanceStats.register("rerank_deadline_misses", this.rerankDeadlineTracker::stats);
+        this.searchRelevanceStats.register("kendra_rescore_hedging", this.kendraRescoreHedger::stats);
+        this.searchRelevanceStats.register("rerank_circuit_breakers", this.rerankCircuitBreakers::stats);
+        this.searchRelevanceStats.register("kendra_clients", this.kendraClientRegistry::stats);
+        this.searchRelevanceStats.register("personalize_clients", this.personalizeClientRegistry::stats);
 
         return Arrays.asList(
-                this.openSearchClient,
                 this.kendraClientSettings,
-                this.kendraClient,
-                this.kendraIntelligentRanker
+                this.kendraClientLease.get(),
+                kendraRescoreCache,
+                kendraPassageCache,
+                this.kendraIntelligentRanker,
+                personalizeRankingCache,
+                this.searchRelevanceStats
         );
     }
 
@@ -125,7 +244,38 @@ public class SearchRelevancePlugin extends Plugin implements ActionPlugin, Searc
 
     @Override
     public Map<String, Processor.Factory<SearchResponseProcessor>> getResponseProcessors(Parameters parameters) {
-        return Map.of(PersonalizeRankingResponseProcessor.TYPE, new PersonalizeRankingResponseProcessor.Factory(this.personalizeClientSettings ),
-                KendraRankingResponseProcessor.TYPE, new KendraRankingResponseProcessor.Factory(this.kendraClientSettings));
+        return Map.of(PersonalizeRankingResponseProcessor.TYPE, new PersonalizeRankingResponseProcessor.Factory(this.personalizeClientRegistry, this.personalizeRankerComponents),
+                KendraRankingResponseProcessor.TYPE, new KendraRankingResponseProcessor.Factory(this.kendraClientSettings, this.kendraClientRegistry, this.kendraRankerComponents));
+    }
+
+    @Override
+    public void close() throws IOException {
+        // Releases the leases still held by pipelines and by the index-level transformer, closing their clients
+        try {
+            if (this.kendraClientRegistry != null) {
+                this.kendraClientRegistry.close();
+            }
+        } finally {
+            if (this.personalizeClientRegistry != null) {
+                this.personalizeClientRegistry.close();
+            }
+        }
+    }
+
+    @Override
+    public Map<String, org.opensearch.ingest.Processor.Factory> getProcessors(org.opensearch.ingest.Processor.Parameters parameters) {
+        return Map.of(KendraPassageProcessor.TYPE, new KendraPassageProcessor.Factory());
+    }
+
+    @Override
+    public List<ExecutorBuilder<?>> getExecutorBuilders(Settings settings) {
+        // Reranking runs on its own bounded pool so that bursts of rerank work cannot starve core search threads
+        // Preprocessing of hits fans out to a separate pool, so rerank threads never wait on work queued behind them
+        return List.of(new FixedExecutorBuilder(settings, RERANK_THREAD_POOL_NAME,
+                OpenSearchExecutors.allocatedProcessors(settings), RERANK_THREAD_POOL_QUEUE_SIZE,
+                "thread_pool." + RERANK_THREAD_POOL_NAME),
+                new FixedExecutorBuilder(settings, PREPROCESS_THREAD_POOL_NAME,
+                OpenSearchExecutors.allocatedProcessors(settings), PREPROCESS_THREAD_POOL_QUEUE_SIZE,
+                "thread_pool." + PREPROCESS_THREAD_POOL_NAME));
     }
 }
\ No newline at end of file
@@ -13,18 +13,19 @@ import org.opensearch.OpenSearchException;
 import org.opensearch.action.ActionListener;
 import org.opensearch.action.ActionRequest;
 import org.opensearch.action.ActionResponse;
+import org.opensearch.action.search.MultiSearchAction;
+import org.opensearch.action.search.MultiSearchRequest;
 import org.opensearch.action.search.SearchAction;
 import org.opensearch.action.search.SearchRequest;
 import org.opensearch.action.search.SearchResponse;
 import org.opensearch.action.search.SearchResponseSections;
 import org.opensearch.action.support.ActionFilter;
 import org.opensearch.action.support.ActionFilterChain;
-import org.opensearch.common.io.stream.BytesStreamOutput;
-import org.opensearch.core.common.io.stream.NamedWriteableAwareStreamInput;
-import org.opensearch.core.common.io.stream.NamedWriteableRegistry;
-import org.opensearch.core.common.io.stream.StreamInput;
+import org.opensearch.action.support.ContextPreservingActionListener;
+import org.opensearch.common.collect.Tuple;
 import org.opensearch.common.settings.Setting;
-import org.opensearch.common.settings.Settings;
+import org.opensearch.common.unit.TimeValue;
+import org.opensearch.common.util.concurrent.AbstractRunnable;
 import org.opensearch.search.SearchHit;
 import org.opensearch.search.SearchHits;
 import org.opensearch.search.aggregations.InternalAggregations;
@@ -32,38 +33,59 @@ import org.opensearch.search.builder.SearchSourceBuilder;
 import org.opensearch.search.fetch.subphase.FetchSourceContext;
 import org.opensearch.search.internal.InternalSearchResponse;
 import org.opensearch.search.profile.SearchProfileShardResults;
-import org.opensearch.search.relevance.client.OpenSearchClient;
 import org.opensearch.search.relevance.configuration.ConfigurationUtils;
 import org.opensearch.search.relevance.configuration.ResultTransformerConfiguration;
+import org.opensearch.search.relevance.transformer.RerankDeadline;
+import org.opensearch.search.relevance.transformer.RerankDeadlineExceededException;
+import org.opensearch.search.relevance.transformer.RerankDeadlineTracker;
 import org.opensearch.search.relevance.transformer.ResultTransformer;
 import org.opensearch.tasks.Task;
+import org.opensearch.threadpool.ThreadPool;
 
 import java.util.ArrayList;
 import java.util.Arrays;
-import java.util.Collection;
 import java.util.Collections;
+import java.util.IdentityHashMap;
+import java.util.Iterator;
 import java.util.LinkedHashMap;
 import java.util.List;
 import java.util.Map;
 import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
 import java.util.stream.Collectors;
 
+import static org.opensearch.search.relevance.configuration.Constants.PLUGIN_SETTING_PREFIX;
+import static org.opensearch.search.relevance.configuration.Constants.RERANK_THREAD_POOL_NAME;
+
 public class SearchActionFilter implements ActionFilter {
     private static final Logger logger = LogManager.getLogger(SearchActionFilter.class);
 
+    /**
+     * Time from receiving a search by which its hits must be reranked, beyond which the search returns the ranking
+     * it had before the transformer that missed the deadline. The search request timeout bounds reranking too, so the
+     * earlier of the two applies.
+     * Disabled by default.
+     */
+    public static final Setting<TimeValue> RERANK_TIMEOUT_SETTING = Setting.timeSetting(PLUGIN_SETTING_PREFIX + ".rerank_timeout",
+            TimeValue.MINUS_ONE, TimeValue.MINUS_ONE, Setting.Property.Dynamic, Setting.Property.IndexScope);
+
     private final int order;
 
-    private final NamedWriteableRegistry namedWriteableRegistry;
     private final Map<String, ResultTransformer> resultTransformerMap;
-    private final OpenSearchClient openSearchClient;
-
-    public SearchActionFilter(Collection<ResultTransformer> supportedResultTransformers,
-                              OpenSearchClient openSearchClient) {
+    private final TransformerPlanCache transformerPlanCache;
+    private final ThreadPool threadPool;
+    private final RerankDeadlineTracker rerankDeadlineTracker;
+    // Searches of in-flight multi searches whose transformers were prepared up front
+    private final Map<SearchRequest, TransformContext> multiSearchRequests = Collections.synchronizedMap(new IdentityHashMap<>());
+
+    public SearchActionFilter(TransformerPlanCache transformerPlanCache,
+                              RerankDeadlineTracker rerankDeadlineTracker,
+                              ThreadPool threadPool) {
         order = 10; // TODO: Finalize this value
-        namedWriteableRegistry = new NamedWriteableRegistry(Collections.emptyList());
-        resultTransformerMap = supportedResultTransformers.stream()
-                .collect(Collectors.toMap(t -> t.getConfigurationFactory().getName(), t -> t));
-        this.openSearchClient = openSearchClient;
+        resultTransformerMap = transformerPlanCache.getResultTransformers();
+        this.transformerPlanCache = transformerPlanCache;
+        this.rerankDeadlineTracker = rerankDeadlineTracker;
+        this.threadPool = threadPool;
     }
 
     @Override
@@ -81,13 +103,41 @@ public class SearchActionFilter implements ActionFilter {
 
         final long startTime = System.nanoTime();
 
+        if (MultiSearchAction.INSTANCE.name().equals(action)) {
+            applyMultiSearch(task, action, request, listener, chain);
+            return;
+        }
+
         if (!SearchAction.INSTANCE.name().equals(action)) {
             chain.proceed(task, action, request, listener);
             return;
         }
 
         SearchRequest searchRequest = (SearchRequest) request;
+        final TransformContext multiSearchContext = multiSearchRequests.remove(searchRequest);
+        if (multiSearchContext != null) {
+            // Part of a multi search, transformed as soon as its own response arrives
+            chain.proceed(task, action, request, createSearchResponseListener(listener, startTime, multiSearchContext));
+            return;
+        }
+
+        prepareTransform(searchRequest, ActionListener.wrap(transformContext -> {
+            if (transformContext == null) {
+                chain.proceed(task, action, request, listener);
+                return;
+            }
+            final ActionListener<Response> searchResponseListener = createSearchResponseListener(listener, startTime, transformContext);
+            chain.proceed(task, action, request, searchResponseListener);
+        }, e -> listener.onFailure(e)));
+    }
 
+    /**
+     * Find the transformers that apply to a search request, and preprocess the request for them
+     *
+     * @param searchRequest input search request, which is updated by the transformers
+     * @param listener      listener notified with what is needed to transform the response, or null if no transformer applies
+     */
+    private void prepareTransform(final SearchRequest searchRequest, final ActionListener<TransformContext> listener) {
         // TODO: Remove originalSearchSource and replace with a deep copy of the SearchRequest object
         // once https://github.com/opensearch-project/OpenSearch/issues/869 is implemented
         SearchSourceBuilder originalSearchSource;
@@ -106,14 +156,27 @@ public class SearchActionFilter implements ActionFilter {
         final String[] indices = searchRequest.indices();
         // Skip if no, or more than 1, index is specified.
         if (indices == null || indices.length != 1) {
-            chain.proceed(task, action, request, listener);
+            listener.onResponse(null);
             return;
         }
 
 
-        ActionListener<List<ResultTransformerConfiguration>> resultTransformerConfigsListener = ActionListener.wrap(rtc -> {
-            LinkedHashMap<ResultTransformer, ResultTransformerConfiguration> orderedTransformersAndConfigs = new LinkedHashMap<>();
-            SearchRequest transformedRequest = searchRequest;
+        final Tuple<List<ResultTransformerConfiguration>, TimeValue> configsAndTimeout;
+        try {
+            configsAndTimeout = getResultTransformerConfigurations(indices[0], searchRequest);
+        } catch (Exception e) {
+            listener.onFailure(e);
+            return;
+        }
+        if (configsAndTimeout == null) {
+            listener.onResponse(null);
+            return;
+        }
+
+        List<ResultTransformerConfiguration> rtc = configsAndTimeout.v1();
+        LinkedHashMap<ResultTransformer, ResultTransformerConfiguration> orderedTransformersAndConfigs = new LinkedHashMap<>();
+        SearchRequest transformedRequest = searchRequest;
+        try {
             for (ResultTransformerConfiguration config : rtc) {
                 ResultTransformer resultTransformer = resultTransformerMap.get(config.getTransformerName());
                 // TODO: Should transformers make a decision based on the original request or the request they receive in the chain
@@ -122,142 +185,137 @@ public class SearchActionFilter implements ActionFilter {
                     orderedTransformersAndConfigs.put(resultTransformer, config);
                 }
             }
+        } catch (Exception e) {
+            listener.onFailure(e);
+            return;
+        }
 
-            if (!orderedTransformersAndConfigs.isEmpty()) {
-                final ActionListener<Response> searchResponseListener = createSearchResponseListener(
-                        listener, startTime, orderedTransformersAndConfigs, transformedRequest, originalSearchSource);
-                chain.proceed(task, action, request, searchResponseListener);
-                return;
+        if (!orderedTransformersAndConfigs.isEmpty()) {
+            listener.onResponse(new TransformContext(orderedTransformersAndConfigs, transformedRequest, originalSearchSource,
+                    configsAndTimeout.v2()));
+            return;
+        }
+        listener.onResponse(null);
+    }
+
+    /**
+     * Prepare the transformers of every search of a multi search up front, so that each search is dispatched ready to
+     * be transformed as soon as its own response arrives, without waiting for the other searches of the multi search.
+     * The calls to remote ranking services for the searches of a multi search are thereby in flight concurrently.
+     * Searches whose transformers cannot be determined up front are left to be transformed individually.
+     */
+    private <Request extends ActionRequest, Response extends ActionResponse> void applyMultiSearch(
+            final Task task,
+            final String action,
+            final Request request,
+            final ActionListener<Response> listener,
+            final ActionFilterChain<Request, Response> chain) {
+        final List<SearchRequest> searchRequests = ((MultiSearchRequest) request).requests();
+        if (searchRequests.isEmpty()) {
+            chain.proceed(task, action, request, listener);
+            return;
+        }
+        final TransformContext[] transformContexts = new TransformContext[searchRequests.size()];
+        final AtomicInteger pendingSearches = new AtomicInteger(searchRequests.size());
+        for (int i = 0; i < searchRequests.size(); ++i) {
+            final int slot = i;
+            prepareTransform(searchRequests.get(slot), ActionListener.wrap(transformContext -> {
+                transformContexts[slot] = transformContext;
+                if (pendingSearches.decrementAndGet() == 0) {
+                    proceedMultiSearch(task, action, request, listener, chain, searchRequests, transformContexts);
+                }
+            }, e -> {
+                logger.warn("Failed to get result transformers for a search in a multi search. Transforming it individually.", e);
+                if (pendingSearches.decrementAndGet() == 0) {
+                    proceedMultiSearch(task, action, request, listener, chain, searchRequests, transformContexts);
+                }
+            }));
+        }
+    }
+
+    private <Request extends ActionRequest, Response extends ActionResponse> void proceedMultiSearch(
+            final Task task,
+            final String action,
+            final Request request,
+            final ActionListener<Response> listener,
+            final ActionFilterChain<Request, Response> chain,
+            final List<SearchRequest> searchRequests,
+            final TransformContext[] transformContexts) {
+        final List<SearchRequest> registeredRequests = new ArrayList<>();
+        for (int i = 0; i < transformContexts.length; ++i) {
+            if (transformContexts[i] != null) {
+                registeredRequests.add(searchRequests.get(i));
             }
+        }
+        if (registeredRequests.isEmpty()) {
             chain.proceed(task, action, request, listener);
-        }, listener::onFailure);
+            return;
+        }
+        // Searches are dispatched with the same request objects, which lets the filter recognize them
+        for (int i = 0; i < transformContexts.length; ++i) {
+            if (transformContexts[i] != null) {
+                multiSearchRequests.put(searchRequests.get(i), transformContexts[i]);
+            }
+        }
 
-        getResultTransformerConfigurations(indices[0], searchRequest, resultTransformerConfigsListener);
+        // Searches that failed before reaching the filter are still registered
+        chain.proceed(task, action, request, ActionListener.runAfter(listener,
+                () -> multiSearchRequests.keySet().removeAll(registeredRequests)));
     }
 
     /**
-     * Parse and return a list of result transformers from request and index level configurations
+     * Return the list of result transformers from request and index level configurations
      * Request level configuration takes precedence over index level
      *
      * @param indexName     name of the OpenSearch index
      * @param searchRequest input request
-     * @return ordered and validated list of result transformers, empty list if not specified at
-     * either request or index level
+     * @return ordered and validated list of result transformers along with the rerank timeout of the index, or null
+     * if not specified at either request or index level. Index level transformers are looked up in the plans compiled
+     * from the cluster state. When transformers are configured in the request, the rerank timeout is only set by the
+     * request timeout.
      */
-    private void getResultTransformerConfigurations(
+    private Tuple<List<ResultTransformerConfiguration>, TimeValue> getResultTransformerConfigurations(
             final String indexName,
-            final SearchRequest searchRequest,
-            ActionListener<List<ResultTransformerConfiguration>> resultTransformerConfigListener) {
-
-        List<ResultTransformerConfiguration> configs = new ArrayList<>();
-
+            final SearchRequest searchRequest) {
         // Request level configuration takes precedence over index level
-        configs = ConfigurationUtils.getResultTransformersFromRequestConfiguration(searchRequest);
+        List<ResultTransformerConfiguration> configs = ConfigurationUtils.getResultTransformersFromRequestConfiguration(searchRequest);
         if (!configs.isEmpty()) {
-            resultTransformerConfigListener.onResponse(configs);
-            return;
+            return Tuple.tuple(configs, TimeValue.MINUS_ONE);
         }
 
-        // Fetch all index settings for this plugin
-        String[] settingNames = resultTransformerMap.values()
-                .stream()
-                .flatMap(t -> t.getTransformerSettings()
-                        .stream()
-                        .map(Setting::getKey))
-                .toArray(String[]::new);
-
-
-        ActionListener<Settings> settingsListener = ActionListener.map(resultTransformerConfigListener,
-                s -> ConfigurationUtils.getResultTransformersFromIndexConfiguration(s, resultTransformerMap));
-        openSearchClient.getIndexSettings(indexName, settingNames, settingsListener);
+        TransformerPlanCache.TransformerPlan plan = transformerPlanCache.getPlan(indexName);
+        if (plan == null) {
+            // No transformer configured on the index
+            return null;
+        }
+        return Tuple.tuple(plan.getConfigs(), plan.getRerankTimeout());
     }
 
     /**
      * Create a Listener that, during the OpenSearch response chain,
      * calls external service Kendra Ranking to rerank OpenSearch hits
      *
-     * @param listener                      default listened
-     * @param startTime                     time when request was received, used to calculate latency added by reranking
-     * @param searchRequest                 input search request
-     * @param orderedTransformersAndConfigs transformers to apply, with their corresponding configurations
-     * @param originalSearchSource          original search source without any modifications made by transformers
-     * @param <Response>                    OpenSearch response type
+     * @param listener         default listened
+     * @param startTime        time when request was received, used to calculate latency added by reranking
+     * @param transformContext transformers to apply and the request they were prepared for
+     * @param <Response>       OpenSearch response type
      * @return ActionListener with override for onResponse method
      */
     private <Response extends ActionResponse> ActionListener<Response> createSearchResponseListener(
             final ActionListener<Response> listener,
             final long startTime,
-            final LinkedHashMap<ResultTransformer, ResultTransformerConfiguration> orderedTransformersAndConfigs,
-            final SearchRequest searchRequest,
-            final SearchSourceBuilder originalSearchSource) {
+            final TransformContext transformContext) {
+        // Transformers may complete on threads owned by their remote clients, so restore the caller's context,
+        // keeping the response headers marking reranking that missed its deadline
+        final ActionListener<Response> contextPreservingListener = new ContextPreservingActionListener<>(
+                threadPool.getThreadContext().newRestorableContext(true), listener);
         return new ActionListener<Response>() {
 
             @Override
             public void onResponse(final Response response) {
-                final SearchResponse searchResponse = (SearchResponse) response;
-                final long totalHits = searchResponse.getHits().getTotalHits().value;
-                if (totalHits == 0) {
-                    logger.info("TotalHits = 0. Returning search response without transforming.");
-                    listener.onResponse(response);
-                    return;
-                }
-
-                logger.debug("Starting re-ranking for search response: {}", searchResponse);
-                try {
-
-                    // Clone search hits (by serializing + deserializing) before transforming
-                    final BytesStreamOutput out = new BytesStreamOutput();
-                    searchResponse.getHits().writeTo(out);
-                    final StreamInput in = new NamedWriteableAwareStreamInput(out.bytes().streamInput(),
-                            namedWriteableRegistry);
-                    SearchHits hits = new SearchHits(in);
-
-                    for (Map.Entry<ResultTransformer, ResultTransformerConfiguration> entry : orderedTransformersAndConfigs.entrySet()) {
-                        long startTime = System.nanoTime();
-                        hits = entry.getKey().transform(hits, searchRequest, entry.getValue());
-                        long timeTookMillis = TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - startTime);
-                        logger.info(entry.getValue().getTransformerName() + ": took " + timeTookMillis + " ms");
-                    }
-
-                    List<SearchHit> searchHitsList = Arrays.asList(hits.getHits());
-                    if (originalSearchSource != null) {
-                        if (originalSearchSource.fetchSource() != null &&
-                                !originalSearchSource.fetchSource().fetchSource()) {
-                            searchHitsList = searchHitsList.stream()
-                                    .map(hit -> hit.sourceRef(null))
-                                    .collect(Collectors.toList());
-                        }
-                        if (originalSearchSource.from() >= 0 && originalSearchSource.size() >= 0) {
-                            final int lastHitIndex = Math.min(searchHitsList.size(),
-                                    (originalSearchSource.from() + originalSearchSource.size()));
-                            if (originalSearchSource.from() > lastHitIndex) {
-                                searchHitsList = Collections.emptyList();
-                            } else {
-                                searchHitsList = searchHitsList.subList(originalSearchSource.from(), lastHitIndex);
-                            }
-                        }
-                    }
-
-                    hits = new SearchHits(
-                            searchHitsList.toArray(new SearchHit[0]),
-                            hits.getTotalHits(),
-                            hits.getMaxScore());
-
-                    final SearchResponseSections internalResponse = new InternalSearchResponse(hits,
-                            (InternalAggregations) searchResponse.getAggregations(), searchResponse.getSuggest(),
-                            new SearchProfileShardResults(searchResponse.getProfileResults()), searchResponse.isTimedOut(),
-                            searchResponse.isTerminatedEarly(), searchResponse.getNumReducePhases());
-
-                    final long tookInMillis = TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - startTime);
-                    final SearchResponse newResponse = new SearchResponse(internalResponse, searchResponse.getScrollId(),
-                            searchResponse.getTotalShards(), searchResponse.getSuccessfulShards(),
-                            searchResponse.getSkippedShards(), tookInMillis, searchResponse.getShardFailures(),
-                            searchResponse.getClusters());
-                    listener.onResponse((Response) newResponse);
-                } catch (final Exception e) {
-                    logger.error("Result transformer operations failed.", e);
-                    throw new OpenSearchException("Result transformer operations failed.", e);
-                }
+                transformResponse((SearchResponse) response, transformContext, startTime,
+                        ActionListener.wrap(transformedResponse -> contextPreservingListener.onResponse((Response) transformedResponse),
+                                contextPreservingListener::onFailure));
             }
 
             @Override
@@ -266,4 +324,154 @@ public class SearchActionFilter implements ActionFilter {
             }
         };
     }
+
+    /**
+     * Apply the transformers to a search response on the rerank executor
+     *
+     * @param searchResponse   search response to transform
+     * @param transformContext transformers to apply and the request they were prepared for
+     * @param startTime        time when request was received, used to calculate latency added by reranking
+     * @param listener         listener notified with the transformed response. If the rerank executor is saturated, it
+     *                         is notified with the original ranking on the calling thread.
+     */
+    private void transformResponse(final SearchResponse searchResponse,
+                                   final TransformContext transformContext,
+                                   final long startTime,
+                                   final ActionListener<SearchResponse> listener) {
+        final long totalHits = searchResponse.getHits().getTotalHits().value;
+        if (totalHits == 0) {
+            logger.info("TotalHits = 0. Returning search response without transforming.");
+            listener.onResponse(searchResponse);
+            return;
+        }
+
+        logger.debug("Starting re-ranking for search response: {}", searchResponse);
+        threadPool.executor(RERANK_THREAD_POOL_NAME).execute(new AbstractRunnable() {
+            @Override
+            protected void doRun() throws Exception {
+                // Hits are transformed without being copied. Transformers build a new SearchHits for the new
+                // order and only update the scores of hits once the transformation can no longer fail.
+                // Reranking must complete within both the rerank timeout of the index and the request timeout
+                final RerankDeadline deadline = RerankDeadline.after(threadPool, startTime, transformContext.rerankTimeout)
+                        .min(RerankDeadline.after(threadPool, startTime, transformContext.originalSearchSource == null ?
+                                null : transformContext.originalSearchSource.timeout()));
+                transformHits(transformContext.orderedTransformersAndConfigs.entrySet().iterator(), searchResponse.getHits(),
+                        transformContext.transformedRequest, deadline,
+                        ActionListener.wrap(transformedHits -> listener.onResponse(buildTransformedResponse(
+                                searchResponse, transformedHits, transformContext.originalSearchSource, startTime)), this::onFailure));
+            }
+
+            @Override
+            public void onRejection(final Exception e) {
+                // Fall back to the original ranking rather than queueing more rerank work
+                logger.warn("Rerank thread pool rejected the request. Returning search response without transforming.", e);
+                listener.onResponse(buildTransformedResponse(
+                        searchResponse, searchResponse.getHits(), transformContext.originalSearchSource, startTime));
+            }
+
+            @Override
+            public void onFailure(final Exception e) {
+                logger.error("Result transformer operations failed.", e);
+                listener.onFailure(new OpenSearchException("Result transformer operations failed.", e));
+            }
+        });
+    }
+
+    /**
+     * Apply the remaining transformers one after another, each resuming once the previous one has
+     * notified its listener. If a transformer misses the deadline, the remaining transformers are skipped and the
+     * listener is notified with the hits produced before it.
+     *
+     * @param transformers  iterator over the transformers still to apply, with their configurations
+     * @param hits          hits produced by the previous transformer
+     * @param searchRequest input search request
+     * @param deadline      deadline by which all transformers must complete
+     * @param listener      listener notified with the hits produced by the last transformer
+     */
+    private void transformHits(final Iterator<Map.Entry<ResultTransformer, ResultTransformerConfiguration>> transformers,
+                               final SearchHits hits,
+                               final SearchRequest searchRequest,
+                               final RerankDeadline deadline,
+                               final ActionListener<SearchHits> listener) {
+        if (!transformers.hasNext()) {
+            listener.onResponse(hits);
+            return;
+        }
+        final Map.Entry<ResultTransformer, ResultTransformerConfiguration> entry = transformers.next();
+        final long startTime = System.nanoTime();
+        entry.getKey().transformAsync(hits, searchRequest, entry.getValue(), deadline, ActionListener.wrap(transformedHits -> {
+            long timeTookMillis = TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - startTime);
+            logger.info(entry.getValue().getTransformerName() + ": took " + timeTookMillis + " ms");
+            transformHits(transformers, transformedHits, searchRequest, deadline, listener);
+        }, e -> {
+            if (e instanceof RerankDeadlineExceededException) {
+                logger.warn("{}: missed the rerank deadline. Returning search response without transforming. {}",
+                        entry.getValue().getTransformerName(), e.getMessage());
+                rerankDeadlineTracker.recordMiss(threadPool.getThreadContext(), entry.getValue().getTransformerName());
+                listener.onResponse(hits);
+                return;
+            }
+            listener.onFailure(e);
+        }));
+    }
+
+    private SearchResponse buildTransformedResponse(final SearchResponse searchResponse,
+                                                    final SearchHits transformedHits,
+                                                    final SearchSourceBuilder originalSearchSource,
+                                                    final long startTime) {
+        List<SearchHit> searchHitsList = Arrays.asList(transformedHits.getHits());
+        if (originalSearchSource != null) {
+            if (originalSearchSource.fetchSource() != null &&
+                    !originalSearchSource.fetchSource().fetchSource()) {
+                searchHitsList = searchHitsList.stream()
+                        .map(hit -> hit.sourceRef(null))
+                        .collect(Collectors.toList());
+            }
+            if (originalSearchSource.from() >= 0 && originalSearchSource.size() >= 0) {
+                final int lastHitIndex = Math.min(searchHitsList.size(),
+                        (originalSearchSource.from() + originalSearchSource.size()));
+                if (originalSearchSource.from() > lastHitIndex) {
+                    searchHitsList = Collections.emptyList();
+                } else {
+                    searchHitsList = searchHitsList.subList(originalSearchSource.from(), lastHitIndex);
+                }
+            }
+        }
+
+        final SearchHits hits = new SearchHits(
+                searchHitsList.toArray(new SearchHit[0]),
+                transformedHits.getTotalHits(),
+                transformedHits.getMaxScore());
+
+        final SearchResponseSections internalResponse = new InternalSearchResponse(hits,
+                (InternalAggregations) searchResponse.getAggregations(), searchResponse.getSuggest(),
+                new SearchProfileShardResults(searchResponse.getProfileResults()), searchResponse.isTimedOut(),
+                searchResponse.isTerminatedEarly(), searchResponse.getNumReducePhases());
+
+        final long tookInMillis = TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - startTime);
+        return new SearchResponse(internalResponse, searchResponse.getScrollId(),
+                searchResponse.getTotalShards(), searchResponse.getSuccessfulShards(),
+                searchResponse.getSkippedShards(), tookInMillis, searchResponse.getShardFailures(),
+                searchResponse.getClusters());
+    }
+
+    /**
+     * Transformers that apply to a search, with what is needed to transform its response
+     */
+    private static final class TransformContext {
+        private final LinkedHashMap<ResultTransformer, ResultTransformerConfiguration> orderedTransformersAndConfigs;
+        private final SearchRequest transformedRequest;
+        private final SearchSourceBuilder originalSearchSource;
+        private final TimeValue rerankTimeout;
+
+        private TransformContext(LinkedHashMap<ResultTransformer, ResultTransformerConfiguration> orderedTransformersAndConfigs,
+                                 SearchRequest transformedRequest,
+                                 SearchSourceBuilder originalSearchSource,
+                                 TimeValue rerankTimeout) {
+            this.orderedTransformersAndConfigs = orderedTransformersAndConfigs;
+            this.transformedRequest = transformedRequest;
+            this.originalSearchSource = originalSearchSource;
+            this.rerankTimeout = rerankTimeout;
+        }
+    }
 }
@@ -0,0 +1,142 @@
+/*
+ * SPDX-License-Identifier: Apache-2.0
+ *
+ * The OpenSearch Contributors require contributions made to
+ * this file be licensed under the Apache-2.0 license or a
+ * compatible open source license.
+ */
+package org.opensearch.search.relevance.actionfilter;
+
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+import org.opensearch.cluster.ClusterChangedEvent;
+import org.opensearch.cluster.ClusterStateListener;
+import org.opensearch.cluster.metadata.IndexMetadata;
+import org.opensearch.cluster.metadata.Metadata;
+import org.opensearch.common.settings.Settings;
+import org.opensearch.common.unit.TimeValue;
+import org.opensearch.search.relevance.configuration.ConfigurationUtils;
+import org.opensearch.search.relevance.configuration.ResultTransformerConfiguration;
+import org.opensearch.search.relevance.transformer.ResultTransformer;
+
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.stream.Collectors;
+
+import static org.opensearch.search.relevance.actionfilter.SearchActionFilter.RERANK_TIMEOUT_SETTING;
+
+/**
+ * Node-local plans of the result transformers configured on each index, compiled from the index settings in the
+ * cluster state whenever they change, so that searches find the transformers of their index without fetching and
+ * parsing its settings.
+ */
+public class TransformerPlanCache implements ClusterStateListener {
+    private static final Logger logger = LogManager.getLogger(TransformerPlanCache.class);
+
+    private final Map<String, ResultTransformer> resultTransformerMap;
+    // Replaced as a whole on cluster state updates, and never modified once published
+    private volatile Map<String, TransformerPlan> plans = Collections.emptyMap();
+    // Metadata the plans were compiled from, only accessed on the cluster applier thread
+    private Metadata compiledMetadata;
+
+    public TransformerPlanCache(Collection<ResultTransformer> supportedResultTransformers) {
+        resultTransformerMap = Collections.unmodifiableMap(supportedResultTransformers.stream()
+                .collect(Collectors.toMap(t -> t.getConfigurationFactory().getName(), t -> t)));
+    }
+
+    /**
+     * @return supported result transformers, by name
+     */
+    public Map<String, ResultTransformer> getResultTransformers() {
+        return resultTransformerMap;
+    }
+
+    /**
+     * @param indexName name of the OpenSearch index
+     * @return plan of the transformers configured on the index, or null if the index has none or is unknown
+     */
+    public TransformerPlan getPlan(String indexName) {
+        return plans.get(indexName);
+    }
+
+    @Override
+    public void clusterChanged(ClusterChangedEvent event) {
+        if (!event.metadataChanged()) {
+            return;
+        }
+        Map<String, TransformerPlan> previousPlans = plans;
+        Map<String, TransformerPlan> newPlans = new HashMap<>();
+        Metadata metadata = event.state().metadata();
+        for (IndexMetadata indexMetadata : metadata.indices().values()) {
+            String indexName = indexMetadata.getIndex().getName();
+            // Index metadata is only replaced when the index changes, so the plans of other indices are kept as is
+            TransformerPlan plan;
+            if (compiledMetadata != null && compiledMetadata.index(indexName) == indexMetadata) {
+                plan = previousPlans.get(indexName);
+            } else {
+                plan = compile(indexMetadata);
+            }
+            if (plan != null) {
+                newPlans.put(indexName, plan);
+            }
+        }
+        plans = Collections.unmodifiableMap(newPlans);
+        compiledMetadata = metadata;
+    }
+
+    /**
+     * @return plan of the transformers configured on the index, or null if the index has none
+     */
+    TransformerPlan compile(IndexMetadata indexMetadata) {
+        // Index settings are validated against the registered settings, so only known transformer settings are set
+        Settings settings = indexMetadata.getSettings();
+        List<ResultTransformerConfiguration> configs;
+        try {
+            configs = ConfigurationUtils.getResultTransformersFromIndexConfiguration(settings, resultTransformerMap);
+        } catch (RuntimeException e) {
+            // Searches on the index fail with the same error as when the settings were read on each search
+            logger.warn("Invalid result transformer settings on index [" + indexMetadata.getIndex().getName() + "]", e);
+            return new TransformerPlan(Collections.emptyList(), TimeValue.MINUS_ONE, e);
+        }
+        if (configs.isEmpty()) {
+            return null;
+        }
+        return new TransformerPlan(Collections.unmodifiableList(configs), RERANK_TIMEOUT_SETTING.get(settings), null);
+    }
+
+    /**
+     * Ordered and validated configurations of the transformers of an index, along with its rerank timeout.
+     * Plans are shared by every search on the index and must not be modified.
+     */
+    public static final class TransformerPlan {
+        private final List<ResultTransformerConfiguration> configs;
+        private final TimeValue rerankTimeout;
+        private final RuntimeException failure;
+
+        private TransformerPlan(List<ResultTransformerConfiguration> configs,
+                                TimeValue rerankTimeout,
+                                RuntimeException failure) {
+            this.configs = configs;
+            this.rerankTimeout = rerankTimeout;
+            this.failure = failure;
+        }
+
+        /**
+         * @return ordered and validated list of result transformers
+         * @throws RuntimeException if the transformer settings of the index are invalid
+         */
+        public List<ResultTransformerConfiguration> getConfigs() {
+            if (failure != null) {
+                throw failure;
+            }
+            return configs;
+        }
+
+        public TimeValue getRerankTimeout() {
+            return rerankTimeout;
+        }
+    }
+}
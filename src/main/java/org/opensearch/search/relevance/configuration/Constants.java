@@ -20,4 +20,9 @@ public class Constants {
 
   public static final String PROPERTIES = "properties";
   public static final String ORDER = "order";
+
+  public static final String RERANK_THREAD_POOL_NAME = "search_relevance_rerank";
+  public static final int RERANK_THREAD_POOL_QUEUE_SIZE = 1000;
+  public static final String PREPROCESS_THREAD_POOL_NAME = "search_relevance_preprocess";
+  public static final int PREPROCESS_THREAD_POOL_QUEUE_SIZE = 1000;
 }
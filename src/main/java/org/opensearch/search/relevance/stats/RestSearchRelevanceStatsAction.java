@@ -0,0 +1,44 @@
+/*
+ * SPDX-License-Identifier: Apache-2.0
+ *
+ * The OpenSearch Contributors require contributions made to
+ * this file be licensed under the Apache-2.0 license or a
+ * compatible open source license.
+ */
+package org.opensearch.search.relevance.stats;
+
+import org.opensearch.client.node.NodeClient;
+import org.opensearch.rest.BaseRestHandler;
+import org.opensearch.rest.RestRequest;
+import org.opensearch.rest.action.RestActions;
+
+import java.util.List;
+
+import static org.opensearch.rest.RestRequest.Method.GET;
+
+/**
+ * Exposes the plugin's stats at {@code GET /_plugins/_search_relevance/stats}, optionally filtered by node
+ */
+public class RestSearchRelevanceStatsAction extends BaseRestHandler {
+    private static final String STATS_PATH = "/_plugins/_search_relevance/stats";
+    private static final String NODE_STATS_PATH = "/_plugins/_search_relevance/{nodeId}/stats";
+
+    @Override
+    public String getName() {
+        return "search_relevance_stats_action";
+    }
+
+    @Override
+    public List<Route> routes() {
+        return List.of(new Route(GET, STATS_PATH), new Route(GET, NODE_STATS_PATH));
+    }
+
+    @Override
+    protected RestChannelConsumer prepareRequest(RestRequest request, NodeClient client) {
+        String[] nodesIds = request.paramAsStringArray("nodeId", new String[0]);
+        SearchRelevanceStatsRequest statsRequest = new SearchRelevanceStatsRequest(nodesIds);
+        statsRequest.timeout(request.param("timeout"));
+        return channel -> client.execute(SearchRelevanceStatsAction.INSTANCE, statsRequest,
+                new RestActions.NodesResponseRestListener<>(channel));
+    }
+}
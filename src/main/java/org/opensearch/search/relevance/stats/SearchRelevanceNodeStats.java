@@ -0,0 +1,54 @@
+/*
+ * SPDX-License-Identifier: Apache-2.0
+ *
+ * The OpenSearch Contributors require contributions made to
+ * this file be licensed under the Apache-2.0 license or a
+ * compatible open source license.
+ */
+package org.opensearch.search.relevance.stats;
+
+import org.opensearch.action.support.nodes.BaseNodeResponse;
+import org.opensearch.cluster.node.DiscoveryNode;
+import org.opensearch.core.common.io.stream.StreamInput;
+import org.opensearch.core.common.io.stream.StreamOutput;
+import org.opensearch.core.xcontent.ToXContentFragment;
+import org.opensearch.core.xcontent.XContentBuilder;
+
+import java.io.IOException;
+import java.util.Map;
+
+/**
+ * The plugin's stats on a single node
+ */
+public class SearchRelevanceNodeStats extends BaseNodeResponse implements ToXContentFragment {
+    private final Map<String, Object> stats;
+
+    public SearchRelevanceNodeStats(DiscoveryNode node, Map<String, Object> stats) {
+        super(node);
+        this.stats = stats;
+    }
+
+    public SearchRelevanceNodeStats(StreamInput in) throws IOException {
+        super(in);
+        this.stats = in.readMap();
+    }
+
+    public Map<String, Object> getStats() {
+        return stats;
+    }
+
+    @Override
+    public void writeTo(StreamOutput out) throws IOException {
+        super.writeTo(out);
+        out.writeMap(stats);
+    }
+
+    @Override
+    public XContentBuilder toXContent(XContentBuilder builder, Params params) throws IOException {
+        builder.field("name", getNode().getName());
+        for (Map.Entry<String, Object> entry : stats.entrySet()) {
+            builder.field(entry.getKey(), entry.getValue());
+        }
+        return builder;
+    }
+}
@@ -0,0 +1,43 @@
+/*
+ * SPDX-License-Identifier: Apache-2.0
+ *
+ * The OpenSearch Contributors require contributions made to
+ * this file be licensed under the Apache-2.0 license or a
+ * compatible open source license.
+ */
+package org.opensearch.search.relevance.stats;
+
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Supplier;
+
+/**
+ * Node-level registry of the plugin's stats. Components register a supplier of their current stats under a unique
+ * name, and the stats API reports a snapshot of every registered supplier.
+ */
+public class SearchRelevanceStats {
+    private final Map<String, Supplier<Map<String, Object>>> statsSuppliers = new ConcurrentHashMap<>();
+
+    /**
+     * Register a supplier of stats
+     *
+     * @param name           name under which the stats are reported
+     * @param statsSupplier  supplier of a snapshot of the stats. Values must be writeable with
+     *                       {@link org.opensearch.core.common.io.stream.StreamOutput#writeGenericValue}.
+     */
+    public void register(String name, Supplier<Map<String, Object>> statsSupplier) {
+        if (statsSuppliers.putIfAbsent(name, statsSupplier) != null) {
+            throw new IllegalArgumentException("Stats [" + name + "] are already registered");
+        }
+    }
+
+    /**
+     * @return a snapshot of all registered stats, sorted by name
+     */
+    public Map<String, Object> getStats() {
+        Map<String, Object> stats = new TreeMap<>();
+        statsSuppliers.forEach((name, statsSupplier) -> stats.put(name, statsSupplier.get()));
+        return stats;
+    }
+}
@@ -0,0 +1,22 @@
+/*
+ * SPDX-License-Identifier: Apache-2.0
+ *
+ * The OpenSearch Contributors require contributions made to
+ * this file be licensed under the Apache-2.0 license or a
+ * compatible open source license.
+ */
+package org.opensearch.search.relevance.stats;
+
+import org.opensearch.action.ActionType;
+
+/**
+ * Action returning the plugin's stats for each node
+ */
+public class SearchRelevanceStatsAction extends ActionType<SearchRelevanceStatsResponse> {
+    public static final SearchRelevanceStatsAction INSTANCE = new SearchRelevanceStatsAction();
+    public static final String NAME = "cluster:monitor/search_relevance/stats";
+
+    private SearchRelevanceStatsAction() {
+        super(NAME, SearchRelevanceStatsResponse::new);
+    }
+}
@@ -0,0 +1,27 @@
+/*
+ * SPDX-License-Identifier: Apache-2.0
+ *
+ * The OpenSearch Contributors require contributions made to
+ * this file be licensed under the Apache-2.0 license or a
+ * compatible open source license.
+ */
+package org.opensearch.search.relevance.stats;
+
+import org.opensearch.action.support.nodes.BaseNodesRequest;
+import org.opensearch.core.common.io.stream.StreamInput;
+
+import java.io.IOException;
+
+/**
+ * Request for the plugin's stats on a set of nodes. No node IDs means all nodes.
+ */
+public class SearchRelevanceStatsRequest extends BaseNodesRequest<SearchRelevanceStatsRequest> {
+
+    public SearchRelevanceStatsRequest(String... nodesIds) {
+        super(nodesIds);
+    }
+
+    public SearchRelevanceStatsRequest(StreamInput in) throws IOException {
+        super(in);
+    }
+}
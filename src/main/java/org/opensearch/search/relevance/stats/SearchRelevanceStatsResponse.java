@@ -0,0 +1,56 @@
+/*
+ * SPDX-License-Identifier: Apache-2.0
+ *
+ * The OpenSearch Contributors require contributions made to
+ * this file be licensed under the Apache-2.0 license or a
+ * compatible open source license.
+ */
+package org.opensearch.search.relevance.stats;
+
+import org.opensearch.action.FailedNodeException;
+import org.opensearch.action.support.nodes.BaseNodesResponse;
+import org.opensearch.cluster.ClusterName;
+import org.opensearch.core.common.io.stream.StreamInput;
+import org.opensearch.core.common.io.stream.StreamOutput;
+import org.opensearch.core.xcontent.ToXContentFragment;
+import org.opensearch.core.xcontent.XContentBuilder;
+
+import java.io.IOException;
+import java.util.List;
+
+/**
+ * The plugin's stats across the requested nodes
+ */
+public class SearchRelevanceStatsResponse extends BaseNodesResponse<SearchRelevanceNodeStats> implements ToXContentFragment {
+
+    public SearchRelevanceStatsResponse(StreamInput in) throws IOException {
+        super(in);
+    }
+
+    public SearchRelevanceStatsResponse(ClusterName clusterName, List<SearchRelevanceNodeStats> nodes, List<FailedNodeException> failures) {
+        super(clusterName, nodes, failures);
+    }
+
+    @Override
+    protected List<SearchRelevanceNodeStats> readNodesFrom(StreamInput in) throws IOException {
+        return in.readList(SearchRelevanceNodeStats::new);
+    }
+
+    @Override
+    protected void writeNodesTo(StreamOutput out, List<SearchRelevanceNodeStats> nodes) throws IOException {
+        out.writeList(nodes);
+    }
+
+    @Override
+    public XContentBuilder toXContent(XContentBuilder builder, Params params) throws IOException {
+        builder.field("cluster_name", getClusterName().value());
+        builder.startObject("nodes");
+        for (SearchRelevanceNodeStats nodeStats : getNodes()) {
+            builder.startObject(nodeStats.getNode().getId());
+            nodeStats.toXContent(builder, params);
+            builder.endObject();
+        }
+        builder.endObject();
+        return builder;
+    }
+}
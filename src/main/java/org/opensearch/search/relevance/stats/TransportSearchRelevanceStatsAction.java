@@ -0,0 +1,75 @@
+/*
+ * SPDX-License-Identifier: Apache-2.0
+ *
+ * The OpenSearch Contributors require contributions made to
+ * this file be licensed under the Apache-2.0 license or a
+ * compatible open source license.
+ */
+package org.opensearch.search.relevance.stats;
+
+import org.opensearch.action.FailedNodeException;
+import org.opensearch.action.support.ActionFilters;
+import org.opensearch.action.support.nodes.TransportNodesAction;
+import org.opensearch.cluster.service.ClusterService;
+import org.opensearch.common.inject.Inject;
+import org.opensearch.core.common.io.stream.StreamInput;
+import org.opensearch.threadpool.ThreadPool;
+import org.opensearch.transport.TransportRequest;
+import org.opensearch.transport.TransportService;
+
+import java.io.IOException;
+import java.util.List;
+
+/**
+ * Collects the plugin's stats from each requested node
+ */
+public class TransportSearchRelevanceStatsAction extends TransportNodesAction<SearchRelevanceStatsRequest,
+        SearchRelevanceStatsResponse, TransportSearchRelevanceStatsAction.NodeRequest, SearchRelevanceNodeStats> {
+
+    private final SearchRelevanceStats searchRelevanceStats;
+
+    @Inject
+    public TransportSearchRelevanceStatsAction(ThreadPool threadPool,
+                                               ClusterService clusterService,
+                                               TransportService transportService,
+                                               ActionFilters actionFilters,
+                                               SearchRelevanceStats searchRelevanceStats) {
+        super(SearchRelevanceStatsAction.NAME, threadPool, clusterService, transportService, actionFilters,
+                SearchRelevanceStatsRequest::new, NodeRequest::new, ThreadPool.Names.MANAGEMENT, SearchRelevanceNodeStats.class);
+        this.searchRelevanceStats = searchRelevanceStats;
+    }
+
+    @Override
+    protected SearchRelevanceStatsResponse newResponse(SearchRelevanceStatsRequest request,
+                                                       List<SearchRelevanceNodeStats> responses,
+                                                       List<FailedNodeException> failures) {
+        return new SearchRelevanceStatsResponse(clusterService.getClusterName(), responses, failures);
+    }
+
+    @Override
+    protected NodeRequest newNodeRequest(SearchRelevanceStatsRequest request) {
+        return new NodeRequest();
+    }
+
+    @Override
+    protected SearchRelevanceNodeStats newNodeResponse(StreamInput in) throws IOException {
+        return new SearchRelevanceNodeStats(in);
+    }
+
+    @Override
+    protected SearchRelevanceNodeStats nodeOperation(NodeRequest request) {
+        return new SearchRelevanceNodeStats(clusterService.localNode(), searchRelevanceStats.getStats());
+    }
+
+    /**
+     * Per-node request. Every node reports all of its stats, so the request carries no parameters.
+     */
+    public static class NodeRequest extends TransportRequest {
+        public NodeRequest() {
+        }
+
+        public NodeRequest(StreamInput in) throws IOException {
+            super(in);
+        }
+    }
+}
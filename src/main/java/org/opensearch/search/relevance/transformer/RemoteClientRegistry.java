@@ -0,0 +1,206 @@
+/*
+ * SPDX-License-Identifier: Apache-2.0
+ *
+ * The OpenSearch Contributors require contributions made to
+ * this file be licensed under the Apache-2.0 license or a
+ * compatible open source license.
+ */
+package org.opensearch.search.relevance.transformer;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.lang.ref.Cleaner;
+import java.security.AccessController;
+import java.security.PrivilegedAction;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.function.Function;
+
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+import org.opensearch.common.metrics.CounterMetric;
+
+/**
+ * Node-level registry of clients of remote ranking services, so that search pipelines calling the same service share
+ * a client, along with its connection pool and credentials, rather than each building its own.
+ * Clients are reference counted: each user holds a {@link Lease}, and a client is closed once its last lease is
+ * released. Closing the registry releases every lease still held. Search pipeline processors have no close hook, so
+ * leases of processors whose pipeline was updated or deleted are held until the node closes, unless they are released
+ * earlier once the processor is no longer reachable, which is only a backstop against leaking clients.
+ *
+ * @param <K> key identifying clients that can be shared, such as the endpoint, region and role of the client
+ * @param <C> client
+ */
+public class RemoteClientRegistry<K, C extends Closeable> implements Closeable {
+  private static final Logger logger = LogManager.getLogger(RemoteClientRegistry.class);
+  private static final Cleaner CLEANER = AccessController.doPrivileged((PrivilegedAction<Cleaner>) Cleaner::create);
+
+  private final String name;
+  private final Function<K, C> factory;
+  // Guarded by this
+  private final Map<K, Entry<C>> clients = new HashMap<>();
+  // Leases not released yet, guarded by this
+  private final Set<Lease<C>> leases = new HashSet<>();
+  private boolean closed;
+  private final CounterMetric createdClients = new CounterMetric();
+  private final CounterMetric closedClients = new CounterMetric();
+
+  /**
+   * @param name    name of the remote service, used in logs
+   * @param factory creates the client for a key
+   */
+  public RemoteClientRegistry(String name, Function<K, C> factory) {
+    this.name = name;
+    this.factory = factory;
+  }
+
+  /**
+   * Get the client for a key, creating it if no user holds it
+   * @param key key identifying the client
+   * @return a lease on the client, to release once the client is no longer used
+   */
+  public Lease<C> acquire(K key) {
+    Entry<C> entry;
+    Lease<C> lease;
+    synchronized (this) {
+      if (closed) {
+        throw new IllegalStateException("Registry of " + name + " clients is closed");
+      }
+      entry = clients.get(key);
+      if (entry == null) {
+        entry = new Entry<>(factory.apply(key));
+        clients.put(key, entry);
+        createdClients.inc();
+        logger.debug("Created {} client for [{}]", name, key);
+      }
+      entry.references++;
+      lease = new Lease<>(this, key, entry);
+      leases.add(lease);
+    }
+    return lease;
+  }
+
+  /**
+   * @return number of clients and of leases on them, along with the number of clients created and closed so far
+   */
+  public Map<String, Object> stats() {
+    Map<String, Object> stats = new LinkedHashMap<>();
+    synchronized (this) {
+      stats.put("client_count", clients.size());
+      stats.put("lease_count", clients.values().stream().mapToInt(e -> e.references).sum());
+    }
+    stats.put("created_count", createdClients.count());
+    stats.put("closed_count", closedClients.count());
+    return stats;
+  }
+
+  /**
+   * Release every lease still held and close every client
+   */
+  @Override
+  public void close() {
+    List<Lease<C>> toRelease;
+    List<C> toClose;
+    synchronized (this) {
+      closed = true;
+      toRelease = new ArrayList<>(leases);
+      leases.clear();
+      toClose = new ArrayList<>();
+      for (Entry<C> entry : clients.values()) {
+        toClose.add(entry.client);
+      }
+      clients.clear();
+    }
+    // Clients are no longer registered, so releasing the leases only stops them from being released again
+    toRelease.forEach(Lease::close);
+    toClose.forEach(this::closeClient);
+  }
+
+  private void release(Lease<C> lease, K key, Entry<C> entry) {
+    synchronized (this) {
+      leases.remove(lease);
+      if (--entry.references > 0 || clients.get(key) != entry) {
+        return;
+      }
+      clients.remove(key);
+    }
+    logger.debug("Closing {} client for [{}], which is no longer used", name, key);
+    closeClient(entry.client);
+  }
+
+  private void closeClient(C client) {
+    try {
+      client.close();
+    } catch (IOException | RuntimeException e) {
+      logger.warn("Failed to close " + name + " client", e);
+    }
+    closedClients.inc();
+  }
+
+  /**
+   * A client shared by the users holding a lease on it
+   */
+  private static final class Entry<C> {
+    private final C client;
+    // Guarded by the registry
+    private int references;
+
+    Entry(C client) {
+      this.client = client;
+    }
+  }
+
+  /**
+   * A reference to a shared client, released exactly once
+   */
+  public static final class Lease<C extends Closeable> implements Closeable {
+    private final Runnable release;
+    private final C client;
+    private final AtomicBoolean released = new AtomicBoolean();
+    private volatile Cleaner.Cleanable cleanable;
+
+    private <K> Lease(RemoteClientRegistry<K, C> registry, K key, Entry<C> entry) {
+      this.client = entry.client;
+      this.release = () -> registry.release(this, key, entry);
+    }
+
+    public C get() {
+      return client;
+    }
+
+    /**
+     * Release the lease once the given owner is no longer reachable, if it was not released before
+     * @param owner user of the client, which must not be referenced by the lease
+     * @return this lease
+     */
+    public Lease<C> releaseWhenUnreachable(Object owner) {
+      // The cleaning action only references the release action, so that it does not keep the owner reachable
+      AtomicBoolean released = this.released;
+      Runnable release = this.release;
+      cleanable = CLEANER.register(owner, () -> {
+        if (released.compareAndSet(false, true)) {
+          release.run();
+        }
+      });
+      return this;
+    }
+
+    @Override
+    public void close() {
+      if (released.compareAndSet(false, true)) {
+        release.run();
+      }
+      // The owner no longer needs to be tracked
+      Cleaner.Cleanable cleanable = this.cleanable;
+      if (cleanable != null) {
+        cleanable.clean();
+      }
+    }
+  }
+}
@@ -0,0 +1,205 @@
+/*
+ * SPDX-License-Identifier: Apache-2.0
+ *
+ * The OpenSearch Contributors require contributions made to
+ * this file be licensed under the Apache-2.0 license or a
+ * compatible open source license.
+ */
+package org.opensearch.search.relevance.transformer;
+
+import com.amazonaws.ClientConfiguration;
+
+import java.security.AccessController;
+import java.security.PrivilegedAction;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+import org.opensearch.common.settings.Setting;
+import org.opensearch.common.settings.Settings;
+import org.opensearch.common.unit.TimeValue;
+import org.opensearch.core.common.unit.ByteSizeUnit;
+import org.opensearch.core.common.unit.ByteSizeValue;
+
+/**
+ * Transport settings of the clients of a remote ranking service: connection pool, timeouts, TCP keep-alive and
+ * compression. Each client reads its own node settings, named {@code <prefix>.transport.<setting>} after the settings
+ * prefix of the client, such as {@code kendra_intelligent_ranking.transport.read_timeout}.
+ */
+public class RemoteTransportSettings {
+  private static final ByteSizeValue DEFAULT_REQUEST_COMPRESSION_THRESHOLD = new ByteSizeValue(8, ByteSizeUnit.KB);
+
+  private final int maxConnections;
+  private final TimeValue connectionMaxIdle;
+  private final boolean tcpKeepAlive;
+  private final TimeValue connectTimeout;
+  private final TimeValue readTimeout;
+  private final boolean requestCompressionEnabled;
+  private final ByteSizeValue requestCompressionThreshold;
+  private final boolean responseCompressionEnabled;
+
+  public RemoteTransportSettings(int maxConnections, TimeValue connectionMaxIdle, boolean tcpKeepAlive, TimeValue connectTimeout,
+                                 TimeValue readTimeout, boolean requestCompressionEnabled, ByteSizeValue requestCompressionThreshold,
+                                 boolean responseCompressionEnabled) {
+    this.maxConnections = maxConnections;
+    this.connectionMaxIdle = connectionMaxIdle;
+    this.tcpKeepAlive = tcpKeepAlive;
+    this.connectTimeout = connectTimeout;
+    this.readTimeout = readTimeout;
+    this.requestCompressionEnabled = requestCompressionEnabled;
+    this.requestCompressionThreshold = requestCompressionThreshold;
+    this.responseCompressionEnabled = responseCompressionEnabled;
+  }
+
+  /**
+   * @return the default transport settings, which compress neither requests nor responses
+   */
+  public static RemoteTransportSettings defaults() {
+    return new RemoteTransportSettings(ClientConfiguration.DEFAULT_MAX_CONNECTIONS,
+        TimeValue.timeValueMillis(ClientConfiguration.DEFAULT_CONNECTION_MAX_IDLE_MILLIS), true,
+        TimeValue.timeValueMillis(ClientConfiguration.DEFAULT_CONNECTION_TIMEOUT),
+        TimeValue.timeValueMillis(ClientConfiguration.DEFAULT_SOCKET_TIMEOUT), false, DEFAULT_REQUEST_COMPRESSION_THRESHOLD, false);
+  }
+
+  public int getMaxConnections() {
+    return maxConnections;
+  }
+
+  public TimeValue getConnectionMaxIdle() {
+    return connectionMaxIdle;
+  }
+
+  public boolean isTcpKeepAlive() {
+    return tcpKeepAlive;
+  }
+
+  public TimeValue getConnectTimeout() {
+    return connectTimeout;
+  }
+
+  public TimeValue getReadTimeout() {
+    return readTimeout;
+  }
+
+  public boolean isRequestCompressionEnabled() {
+    return requestCompressionEnabled;
+  }
+
+  public ByteSizeValue getRequestCompressionThreshold() {
+    return requestCompressionThreshold;
+  }
+
+  /**
+   * @param bodyLength length of a request body
+   * @return true if the body should be gzipped
+   */
+  public boolean shouldCompressRequest(long bodyLength) {
+    return requestCompressionEnabled && bodyLength >= requestCompressionThreshold.getBytes();
+  }
+
+  public boolean isResponseCompressionEnabled() {
+    return responseCompressionEnabled;
+  }
+
+  /**
+   * @return the configuration of AWS SDK clients, with idle connections reaped in the background
+   */
+  public ClientConfiguration toClientConfiguration() {
+    return AccessController.doPrivileged((PrivilegedAction<ClientConfiguration>) () -> new ClientConfiguration()
+        .withMaxConnections(maxConnections)
+        .withConnectionMaxIdleMillis(connectionMaxIdle.millis())
+        .withReaper(true)
+        .withTcpKeepAlive(tcpKeepAlive)
+        .withConnectionTimeout(Math.toIntExact(connectTimeout.millis()))
+        .withSocketTimeout(Math.toIntExact(readTimeout.millis())));
+  }
+
+  /**
+   * Node settings from which the transport settings of a client are read
+   */
+  public static final class Group {
+    private final Setting<Integer> maxConnections;
+    private final Setting<TimeValue> connectionMaxIdle;
+    private final Setting<Boolean> tcpKeepAlive;
+    private final Setting<TimeValue> connectTimeout;
+    private final Setting<TimeValue> readTimeout;
+    // Null for clients that do not compress requests
+    private final Setting<Boolean> requestCompressionEnabled;
+    private final Setting<ByteSizeValue> requestCompressionThreshold;
+    // Null for clients that do not ask for compressed responses
+    private final Setting<Boolean> responseCompressionEnabled;
+
+    private Group(String prefix, boolean requestCompression, boolean responseCompression) {
+      final String transportPrefix = prefix + ".transport.";
+      final RemoteTransportSettings defaults = defaults();
+      maxConnections = Setting.intSetting(transportPrefix + "max_connections", defaults.maxConnections, 1,
+          Setting.Property.NodeScope);
+      connectionMaxIdle = Setting.timeSetting(transportPrefix + "connection_max_idle", defaults.connectionMaxIdle,
+          TimeValue.timeValueMillis(1), Setting.Property.NodeScope);
+      tcpKeepAlive = Setting.boolSetting(transportPrefix + "tcp_keep_alive", defaults.tcpKeepAlive, Setting.Property.NodeScope);
+      connectTimeout = Setting.timeSetting(transportPrefix + "connect_timeout", defaults.connectTimeout,
+          TimeValue.timeValueMillis(1), Setting.Property.NodeScope);
+      readTimeout = Setting.timeSetting(transportPrefix + "read_timeout", defaults.readTimeout,
+          TimeValue.timeValueMillis(1), Setting.Property.NodeScope);
+      requestCompressionEnabled = requestCompression ? Setting.boolSetting(transportPrefix + "request_compression.enabled", false,
+          Setting.Property.NodeScope) : null;
+      requestCompressionThreshold = requestCompression ? Setting.byteSizeSetting(transportPrefix + "request_compression.threshold",
+          DEFAULT_REQUEST_COMPRESSION_THRESHOLD, new ByteSizeValue(0), new ByteSizeValue(Integer.MAX_VALUE),
+          Setting.Property.NodeScope) : null;
+      responseCompressionEnabled = responseCompression ? Setting.boolSetting(transportPrefix + "response_compression.enabled", false,
+          Setting.Property.NodeScope) : null;
+    }
+
+    /**
+     * Settings of a client that may gzip request bodies above a threshold. The service must accept gzipped bodies.
+     * @param prefix settings prefix of the client
+     * @return the transport settings of the client
+     */
+    public static Group withRequestCompression(String prefix) {
+      return new Group(prefix, true, false);
+    }
+
+    /**
+     * Settings of a client that may ask the service to gzip its responses.
+     * @param prefix settings prefix of the client
+     * @return the transport settings of the client
+     */
+    public static Group withResponseCompression(String prefix) {
+      return new Group(prefix, false, true);
+    }
+
+    /**
+     * @param settings node settings
+     * @return the transport settings of the client
+     */
+    public RemoteTransportSettings get(Settings settings) {
+      return new RemoteTransportSettings(
+          maxConnections.get(settings),
+          connectionMaxIdle.get(settings),
+          tcpKeepAlive.get(settings),
+          connectTimeout.get(settings),
+          readTimeout.get(settings),
+          requestCompressionEnabled != null && requestCompressionEnabled.get(settings),
+          requestCompressionThreshold == null ? DEFAULT_REQUEST_COMPRESSION_THRESHOLD : requestCompressionThreshold.get(settings),
+          responseCompressionEnabled != null && responseCompressionEnabled.get(settings));
+    }
+
+    public List<Setting<?>> getAllSettings() {
+      List<Setting<?>> settings = new ArrayList<>(Arrays.asList(
+          maxConnections,
+          connectionMaxIdle,
+          tcpKeepAlive,
+          connectTimeout,
+          readTimeout
+      ));
+      if (requestCompressionEnabled != null) {
+        settings.add(requestCompressionEnabled);
+        settings.add(requestCompressionThreshold);
+      }
+      if (responseCompressionEnabled != null) {
+        settings.add(responseCompressionEnabled);
+      }
+      return settings;
+    }
+  }
+}
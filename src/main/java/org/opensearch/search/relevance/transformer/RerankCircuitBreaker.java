@@ -0,0 +1,266 @@
+/*
+ * SPDX-License-Identifier: Apache-2.0
+ *
+ * The OpenSearch Contributors require contributions made to
+ * this file be licensed under the Apache-2.0 license or a
+ * compatible open source license.
+ */
+package org.opensearch.search.relevance.transformer;
+
+import java.util.LinkedHashMap;
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.function.Consumer;
+import java.util.function.LongSupplier;
+import java.util.function.Supplier;
+
+import org.opensearch.action.ActionListener;
+import org.opensearch.common.metrics.CounterMetric;
+import org.opensearch.common.unit.TimeValue;
+
+/**
+ * Guards the calls to the endpoint of a remote ranking service, so that a degraded service fails searches over to
+ * their original ranking right away, rather than holding each of them for the full client timeout.
+ * The breaker opens after a number of consecutive failed calls, and rejects every call while open. Once the open
+ * duration has elapsed, a single probe call is let through, which closes the breaker if it succeeds and opens it
+ * again otherwise.
+ * While closed, the number of calls in flight is bounded by a limit that only reacts to failures, with additive
+ * increase and multiplicative decrease: each successful call raises the limit by the inverse of the limit, so by one
+ * per limit calls, and each failed call halves it. The limit starts at its maximum and does not track latency, so an
+ * endpoint that slows down without failing keeps its limit.
+ * A call that fails with a {@link RerankDeadlineExceededException} ran out of the time its caller allowed, which says
+ * nothing about the endpoint. It releases its permit without counting as a success or a failure.
+ */
+public class RerankCircuitBreaker {
+  /**
+   * State of a circuit breaker
+   */
+  public enum State {
+    CLOSED, OPEN, HALF_OPEN
+  }
+
+  private static final double BACKOFF_RATIO = 0.5;
+  private static final int MIN_CONCURRENCY = 1;
+
+  private final String name;
+  private final int failureThreshold;
+  private final long openDurationNanos;
+  private final int maxConcurrency;
+  private final LongSupplier nanoClock;
+
+  // Guarded by this
+  private State state = State.CLOSED;
+  private int consecutiveFailures;
+  private long openedAtNanos;
+  private boolean probeInFlight;
+  private double concurrencyLimit;
+  private int inFlight;
+
+  private final CounterMetric openCount = new CounterMetric();
+  private final CounterMetric rejectedOpenCount = new CounterMetric();
+  private final CounterMetric rejectedLimitCount = new CounterMetric();
+
+  /**
+   * @param name             name of the guarded endpoint
+   * @param failureThreshold number of consecutive failed calls that opens the breaker. Set to 0 to disable the breaker.
+   * @param openDuration     time during which an open breaker rejects every call
+   * @param maxConcurrency   maximum number of calls in flight, which is also the initial limit
+   */
+  public RerankCircuitBreaker(String name, int failureThreshold, TimeValue openDuration, int maxConcurrency) {
+    this(name, failureThreshold, openDuration, maxConcurrency, System::nanoTime);
+  }
+
+  RerankCircuitBreaker(String name, int failureThreshold, TimeValue openDuration, int maxConcurrency, LongSupplier nanoClock) {
+    this.name = name;
+    this.failureThreshold = failureThreshold;
+    this.openDurationNanos = openDuration.nanos();
+    this.maxConcurrency = maxConcurrency;
+    this.concurrencyLimit = maxConcurrency;
+    this.nanoClock = nanoClock;
+  }
+
+  /**
+   * @return a breaker that never rejects calls
+   */
+  public static RerankCircuitBreaker disabled() {
+    return new RerankCircuitBreaker("disabled", 0, TimeValue.ZERO, Integer.MAX_VALUE);
+  }
+
+  public boolean isEnabled() {
+    return failureThreshold > 0;
+  }
+
+  public synchronized State getState() {
+    return state;
+  }
+
+  /**
+   * Make an asynchronous call through the breaker
+   * @param call     makes the call, notifying the given listener with its result
+   * @param listener listener notified with the result of the call, or with a {@link RerankCircuitBreakingException}
+   *                 if the call is rejected
+   */
+  public <T> void execute(Consumer<ActionListener<T>> call, ActionListener<T> listener) {
+    if (!isEnabled()) {
+      call.accept(listener);
+      return;
+    }
+    final Permit permit;
+    try {
+      permit = acquire();
+    } catch (RerankCircuitBreakingException e) {
+      listener.onFailure(e);
+      return;
+    }
+    try {
+      call.accept(new ActionListener<T>() {
+        @Override
+        public void onResponse(T result) {
+          permit.onSuccess();
+          listener.onResponse(result);
+        }
+
+        @Override
+        public void onFailure(Exception e) {
+          permit.onFailure(e);
+          listener.onFailure(e);
+        }
+      });
+    } catch (RuntimeException e) {
+      permit.onFailure(e);
+      throw e;
+    }
+  }
+
+  /**
+   * Make a blocking call through the breaker
+   * @param call makes the call
+   * @return the result of the call
+   * @throws RerankCircuitBreakingException if the call is rejected
+   */
+  public <T> T executeBlocking(Supplier<T> call) {
+    if (!isEnabled()) {
+      return call.get();
+    }
+    Permit permit = acquire();
+    T result;
+    try {
+      result = call.get();
+    } catch (RuntimeException e) {
+      permit.onFailure(e);
+      throw e;
+    }
+    permit.onSuccess();
+    return result;
+  }
+
+  /**
+   * @return state of the breaker, its concurrency limit and the calls it rejected
+   */
+  public Map<String, Object> stats() {
+    Map<String, Object> stats = new LinkedHashMap<>();
+    synchronized (this) {
+      // Report an open breaker whose open duration elapsed as half open, as the next call will be a probe
+      State reportedState = state == State.OPEN && nanoClock.getAsLong() - openedAtNanos >= openDurationNanos ?
+          State.HALF_OPEN : state;
+      stats.put("state", reportedState.name().toLowerCase(Locale.ROOT));
+      stats.put("concurrency_limit", (int) concurrencyLimit);
+      stats.put("in_flight", inFlight);
+      stats.put("consecutive_failures", consecutiveFailures);
+    }
+    stats.put("open_count", openCount.count());
+    stats.put("rejected_open_count", rejectedOpenCount.count());
+    stats.put("rejected_limit_count", rejectedLimitCount.count());
+    return stats;
+  }
+
+  private synchronized Permit acquire() {
+    if (state == State.OPEN) {
+      if (nanoClock.getAsLong() - openedAtNanos < openDurationNanos) {
+        rejectedOpenCount.inc();
+        throw new RerankCircuitBreakingException("Circuit breaker of [{}] is open", name);
+      }
+      state = State.HALF_OPEN;
+    }
+    if (state == State.HALF_OPEN) {
+      if (probeInFlight) {
+        rejectedOpenCount.inc();
+        throw new RerankCircuitBreakingException("Circuit breaker of [{}] is waiting for a probe call", name);
+      }
+      probeInFlight = true;
+      inFlight++;
+      return new Permit(true);
+    }
+    if (inFlight >= (int) concurrencyLimit) {
+      rejectedLimitCount.inc();
+      throw new RerankCircuitBreakingException("Concurrency limit [{}] of [{}] is reached", (int) concurrencyLimit, name);
+    }
+    inFlight++;
+    return new Permit(false);
+  }
+
+  private synchronized void onSuccess(boolean probe) {
+    inFlight--;
+    consecutiveFailures = 0;
+    if (probe) {
+      probeInFlight = false;
+      state = State.CLOSED;
+    }
+    concurrencyLimit = Math.min(maxConcurrency, concurrencyLimit + 1 / concurrencyLimit);
+  }
+
+  private synchronized void onFailure(boolean probe) {
+    inFlight--;
+    consecutiveFailures++;
+    concurrencyLimit = Math.max(MIN_CONCURRENCY, concurrencyLimit * BACKOFF_RATIO);
+    if (probe) {
+      probeInFlight = false;
+      open();
+    } else if (state == State.CLOSED && consecutiveFailures >= failureThreshold) {
+      open();
+    }
+  }
+
+  private synchronized void onDeadlineExceeded(boolean probe) {
+    inFlight--;
+    if (probe) {
+      // Let the next call probe the endpoint
+      probeInFlight = false;
+    }
+  }
+
+  private void open() {
+    state = State.OPEN;
+    openedAtNanos = nanoClock.getAsLong();
+    openCount.inc();
+  }
+
+  /**
+   * Permission to make a single call, released exactly once with its outcome
+   */
+  private final class Permit {
+    private final boolean probe;
+    private final AtomicBoolean released = new AtomicBoolean();
+
+    Permit(boolean probe) {
+      this.probe = probe;
+    }
+
+    void onSuccess() {
+      if (released.compareAndSet(false, true)) {
+        RerankCircuitBreaker.this.onSuccess(probe);
+      }
+    }
+
+    void onFailure(Exception e) {
+      if (released.compareAndSet(false, true)) {
+        if (e instanceof RerankDeadlineExceededException) {
+          RerankCircuitBreaker.this.onDeadlineExceeded(probe);
+        } else {
+          RerankCircuitBreaker.this.onFailure(probe);
+        }
+      }
+    }
+  }
+}
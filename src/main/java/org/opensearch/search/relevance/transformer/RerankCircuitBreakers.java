@@ -0,0 +1,90 @@
+/*
+ * SPDX-License-Identifier: Apache-2.0
+ *
+ * The OpenSearch Contributors require contributions made to
+ * this file be licensed under the Apache-2.0 license or a
+ * compatible open source license.
+ */
+package org.opensearch.search.relevance.transformer;
+
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+
+import org.opensearch.common.settings.Setting;
+import org.opensearch.common.settings.Settings;
+import org.opensearch.common.unit.TimeValue;
+
+/**
+ * Node-level circuit breakers of the endpoints of remote ranking services, one per endpoint
+ */
+public class RerankCircuitBreakers {
+  /**
+   * Number of consecutive failed calls to an endpoint that opens its circuit breaker. Set to 0 to disable circuit
+   * breakers.
+   */
+  public static final Setting<Integer> FAILURE_THRESHOLD_SETTING = Setting.intSetting(
+      "search_relevance.circuit_breaker.failure_threshold", 5, 0, Setting.Property.NodeScope);
+
+  /**
+   * Time during which an open circuit breaker rejects every call, before letting a probe call through.
+   */
+  public static final Setting<TimeValue> OPEN_DURATION_SETTING = Setting.timeSetting(
+      "search_relevance.circuit_breaker.open_duration", TimeValue.timeValueSeconds(30), TimeValue.timeValueMillis(1),
+      Setting.Property.NodeScope);
+
+  /**
+   * Maximum number of calls in flight to an endpoint, up to which the concurrency limit grows back after failures.
+   */
+  public static final Setting<Integer> MAX_CONCURRENCY_SETTING = Setting.intSetting(
+      "search_relevance.circuit_breaker.max_concurrency", 50, 1, Setting.Property.NodeScope);
+
+  private final int failureThreshold;
+  private final TimeValue openDuration;
+  private final int maxConcurrency;
+  private final ConcurrentMap<String, RerankCircuitBreaker> breakers = new ConcurrentHashMap<>();
+
+  public RerankCircuitBreakers(Settings settings) {
+    this(FAILURE_THRESHOLD_SETTING.get(settings), OPEN_DURATION_SETTING.get(settings), MAX_CONCURRENCY_SETTING.get(settings));
+  }
+
+  public RerankCircuitBreakers(int failureThreshold, TimeValue openDuration, int maxConcurrency) {
+    this.failureThreshold = failureThreshold;
+    this.openDuration = openDuration;
+    this.maxConcurrency = maxConcurrency;
+  }
+
+  /**
+   * @return breakers that never reject calls
+   */
+  public static RerankCircuitBreakers disabled() {
+    return new RerankCircuitBreakers(0, TimeValue.ZERO, Integer.MAX_VALUE);
+  }
+
+  /**
+   * @param endpoint name of the endpoint
+   * @return the circuit breaker of the endpoint, shared by every client calling it
+   */
+  public RerankCircuitBreaker forEndpoint(String endpoint) {
+    if (failureThreshold <= 0) {
+      return RerankCircuitBreaker.disabled();
+    }
+    return breakers.computeIfAbsent(endpoint, e -> new RerankCircuitBreaker(e, failureThreshold, openDuration, maxConcurrency));
+  }
+
+  /**
+   * @return stats of the circuit breaker of each endpoint called so far
+   */
+  public Map<String, Object> stats() {
+    Map<String, Object> stats = new TreeMap<>();
+    breakers.forEach((endpoint, breaker) -> stats.put(endpoint, breaker.stats()));
+    return stats;
+  }
+
+  public static Collection<? extends Setting<?>> getAllSettings() {
+    return Arrays.asList(FAILURE_THRESHOLD_SETTING, OPEN_DURATION_SETTING, MAX_CONCURRENCY_SETTING);
+  }
+}
@@ -0,0 +1,21 @@
+/*
+ * SPDX-License-Identifier: Apache-2.0
+ *
+ * The OpenSearch Contributors require contributions made to
+ * this file be licensed under the Apache-2.0 license or a
+ * compatible open source license.
+ */
+package org.opensearch.search.relevance.transformer;
+
+import org.opensearch.OpenSearchException;
+
+/**
+ * Thrown when a call to a remote ranking service is rejected without being made, because the circuit breaker of its
+ * endpoint is open or its concurrency limit is reached. Searches are then returned with their original ranking.
+ */
+public class RerankCircuitBreakingException extends OpenSearchException {
+
+  public RerankCircuitBreakingException(String message, Object... args) {
+    super(message, args);
+  }
+}
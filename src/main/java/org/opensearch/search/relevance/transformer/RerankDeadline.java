@@ -0,0 +1,167 @@
+/*
+ * SPDX-License-Identifier: Apache-2.0
+ *
+ * The OpenSearch Contributors require contributions made to
+ * this file be licensed under the Apache-2.0 license or a
+ * compatible open source license.
+ */
+package org.opensearch.search.relevance.transformer;
+
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+import org.opensearch.action.ActionListener;
+import org.opensearch.action.search.SearchRequest;
+import org.opensearch.action.search.SearchResponse;
+import org.opensearch.common.unit.TimeValue;
+import org.opensearch.common.util.concurrent.AbstractRunnable;
+import org.opensearch.threadpool.Scheduler;
+import org.opensearch.threadpool.ThreadPool;
+
+import static org.opensearch.search.relevance.configuration.Constants.RERANK_THREAD_POOL_NAME;
+
+/**
+ * Point in time by which reranking of a search must complete, so that a slow remote ranking service cannot push the
+ * search past its latency budget.
+ */
+public final class RerankDeadline {
+  /**
+   * No deadline, reranking takes as long as the remote ranking service takes
+   */
+  public static final RerankDeadline NONE = new RerankDeadline(null, Long.MAX_VALUE);
+
+  private final ThreadPool threadPool;
+  private final long deadlineNanos;
+
+  private RerankDeadline(ThreadPool threadPool, long deadlineNanos) {
+    this.threadPool = threadPool;
+    this.deadlineNanos = deadlineNanos;
+  }
+
+  /**
+   * @param threadPool thread pool used to time out listeners
+   * @param startNanos {@link System#nanoTime()} at which the timeout started
+   * @param timeout    time allowed from the start, may be null or negative for no deadline
+   * @return the deadline
+   */
+  public static RerankDeadline after(ThreadPool threadPool, long startNanos, TimeValue timeout) {
+    if (timeout == null || timeout.nanos() < 0) {
+      return NONE;
+    }
+    return new RerankDeadline(threadPool, startNanos + timeout.nanos());
+  }
+
+  /**
+   * Deadline for reranking a search response in a search pipeline, which is the earlier of the pipeline timeout
+   * from now, and the search request timeout from when the search started
+   * @param threadPool      thread pool used to time out listeners
+   * @param request         search request, whose timeout bounds the whole search
+   * @param response        search response to rerank
+   * @param pipelineTimeout time allowed for reranking from now, may be null or negative for no timeout
+   * @return the deadline
+   */
+  public static RerankDeadline forSearchResponse(ThreadPool threadPool, SearchRequest request, SearchResponse response,
+      TimeValue pipelineTimeout) {
+    long now = System.nanoTime();
+    RerankDeadline deadline = after(threadPool, now, pipelineTimeout);
+    if (request != null && request.source() != null && request.source().timeout() != null
+        && request.source().timeout().nanos() >= 0) {
+      long took = response.getTook() == null ? 0 : response.getTook().nanos();
+      deadline = deadline.min(new RerankDeadline(threadPool, now + request.source().timeout().nanos() - took));
+    }
+    return deadline;
+  }
+
+  /**
+   * @return the earlier of this deadline and the other
+   */
+  public RerankDeadline min(RerankDeadline other) {
+    if (!isBounded()) {
+      return other;
+    }
+    if (!other.isBounded()) {
+      return this;
+    }
+    return other.deadlineNanos - deadlineNanos < 0 ? other : this;
+  }
+
+  public boolean isBounded() {
+    return this != NONE && deadlineNanos != Long.MAX_VALUE;
+  }
+
+  public boolean isExpired() {
+    return isBounded() && deadlineNanos - System.nanoTime() <= 0;
+  }
+
+  /**
+   * @return time left until the deadline, zero once it has passed, or null if there is no deadline
+   */
+  public TimeValue remaining() {
+    if (!isBounded()) {
+      return null;
+    }
+    return TimeValue.timeValueNanos(Math.max(0, deadlineNanos - System.nanoTime()));
+  }
+
+  /**
+   * Bound the wait for a listener to the deadline
+   * @param listener listener to bound
+   * @return a listener that fails the given listener with a {@link RerankDeadlineExceededException} once the deadline
+   * passes, unless it completed earlier. Completions after the deadline are dropped.
+   */
+  public <T> ActionListener<T> bound(ActionListener<T> listener) {
+    if (!isBounded()) {
+      return listener;
+    }
+    AtomicBoolean completed = new AtomicBoolean();
+    TimeValue remaining = remaining();
+    // Time out on the rerank pool rather than the scheduler thread, as the listener goes on to build the response
+    Scheduler.ScheduledCancellable timeout = threadPool.schedule(new AbstractRunnable() {
+      @Override
+      protected void doRun() {
+        if (completed.compareAndSet(false, true)) {
+          listener.onFailure(new RerankDeadlineExceededException("Reranking did not complete within [{}]", remaining));
+        }
+      }
+
+      @Override
+      public boolean isForceExecution() {
+        return true;
+      }
+
+      @Override
+      public void onRejection(Exception e) {
+        // The pool is shutting down, time out inline so that the listener does not hang
+        doRun();
+      }
+
+      @Override
+      public void onFailure(Exception e) {
+        // doRun does not throw
+      }
+    }, remaining, RERANK_THREAD_POOL_NAME);
+    return new ActionListener<T>() {
+      @Override
+      public void onResponse(T response) {
+        if (completed.compareAndSet(false, true)) {
+          timeout.cancel();
+          listener.onResponse(response);
+        }
+      }
+
+      @Override
+      public void onFailure(Exception e) {
+        if (completed.compareAndSet(false, true)) {
+          timeout.cancel();
+          listener.onFailure(e);
+        }
+      }
+    };
+  }
+
+  @Override
+  public String toString() {
+    return isBounded() ? "RerankDeadline[in " + TimeUnit.NANOSECONDS.toMillis(deadlineNanos - System.nanoTime()) + "ms]" :
+        "RerankDeadline[none]";
+  }
+}
@@ -0,0 +1,21 @@
+/*
+ * SPDX-License-Identifier: Apache-2.0
+ *
+ * The OpenSearch Contributors require contributions made to
+ * this file be licensed under the Apache-2.0 license or a
+ * compatible open source license.
+ */
+package org.opensearch.search.relevance.transformer;
+
+import org.opensearch.OpenSearchTimeoutException;
+
+/**
+ * Thrown when reranking does not complete before its deadline. Transformers that throw it leave the hits unchanged,
+ * so that the search can be answered with the ranking it had before the transformer ran.
+ */
+public class RerankDeadlineExceededException extends OpenSearchTimeoutException {
+
+  public RerankDeadlineExceededException(String message, Object... args) {
+    super(message, args);
+  }
+}
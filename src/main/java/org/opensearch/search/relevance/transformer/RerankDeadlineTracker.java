@@ -0,0 +1,48 @@
+/*
+ * SPDX-License-Identifier: Apache-2.0
+ *
+ * The OpenSearch Contributors require contributions made to
+ * this file be licensed under the Apache-2.0 license or a
+ * compatible open source license.
+ */
+package org.opensearch.search.relevance.transformer;
+
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+
+import org.opensearch.common.metrics.CounterMetric;
+import org.opensearch.common.util.concurrent.ThreadContext;
+
+/**
+ * Node-level record of searches answered without reranking because the reranker missed its deadline.
+ * Misses are counted per transformer, and marked on the response with the {@link #RESPONSE_HEADER} header.
+ */
+public class RerankDeadlineTracker {
+  /**
+   * Response header listing the transformers that missed their deadline
+   */
+  public static final String RESPONSE_HEADER = "X-Rerank-Deadline-Exceeded";
+
+  private final ConcurrentMap<String, CounterMetric> misses = new ConcurrentHashMap<>();
+
+  /**
+   * Record a missed deadline. Must be called on the thread that goes on to deliver the response.
+   * @param threadContext  thread context of the search
+   * @param transformerName name of the transformer or processor that missed the deadline
+   */
+  public void recordMiss(ThreadContext threadContext, String transformerName) {
+    misses.computeIfAbsent(transformerName, name -> new CounterMetric()).inc();
+    threadContext.addResponseHeader(RESPONSE_HEADER, transformerName);
+  }
+
+  /**
+   * @return number of missed deadlines per transformer
+   */
+  public Map<String, Object> stats() {
+    Map<String, Object> stats = new TreeMap<>();
+    misses.forEach((name, count) -> stats.put(name, count.count()));
+    return stats;
+  }
+}
@@ -7,6 +7,7 @@
  */
 package org.opensearch.search.relevance.transformer;
 
+import org.opensearch.action.ActionListener;
 import org.opensearch.action.search.SearchRequest;
 import org.opensearch.common.settings.Setting;
 import org.opensearch.search.SearchHits;
@@ -45,7 +46,9 @@ public interface ResultTransformer {
       final ResultTransformerConfiguration configuration);
 
   /**
-   * Rank hits based on the provided query
+   * Rank hits based on the provided query.
+   * Hits are passed without being copied, so implementations must return a new SearchHits instead of reordering the
+   * input, and must only update the scores of hits once the transformation can no longer fail.
    * @param hits hits to be re-ranked
    * @param request Search request
    * @param configuration Configuration parameters for the transformer
@@ -54,4 +57,46 @@ public interface ResultTransformer {
   SearchHits transform(final SearchHits hits,
       final SearchRequest request,
       final ResultTransformerConfiguration configuration);
+
+  /**
+   * Rank hits based on the provided query, notifying the listener once done. Transformers that call
+   * remote services should override this to avoid holding the calling thread while they wait.
+   * The default implementation delegates to {@link #transform} on the calling thread.
+   * @param hits hits to be re-ranked
+   * @param request Search request
+   * @param configuration Configuration parameters for the transformer
+   * @param listener listener notified with the SearchHits ordered by score generated by ranker
+   */
+  default void transformAsync(final SearchHits hits,
+      final SearchRequest request,
+      final ResultTransformerConfiguration configuration,
+      final ActionListener<SearchHits> listener) {
+    ActionListener.completeWith(listener, () -> transform(hits, request, configuration));
+  }
+
+  /**
+   * Rank hits based on the provided query, notifying the listener once done or once the deadline passes.
+   * If the deadline passes first, implementations fail the listener with a {@link RerankDeadlineExceededException}
+   * and must leave the hits unchanged, including when the remote service responds afterwards.
+   * The default implementation only checks the deadline before delegating to
+   * {@link #transformAsync(SearchHits, SearchRequest, ResultTransformerConfiguration, ActionListener)}, which suits
+   * transformers that do not call remote services.
+   * @param hits hits to be re-ranked
+   * @param request Search request
+   * @param configuration Configuration parameters for the transformer
+   * @param deadline deadline by which ranking must complete
+   * @param listener listener notified with the SearchHits ordered by score generated by ranker
+   */
+  default void transformAsync(final SearchHits hits,
+      final SearchRequest request,
+      final ResultTransformerConfiguration configuration,
+      final RerankDeadline deadline,
+      final ActionListener<SearchHits> listener) {
+    if (deadline.isExpired()) {
+      listener.onFailure(new RerankDeadlineExceededException("Rerank deadline passed before running [{}]",
+          configuration.getTransformerName()));
+      return;
+    }
+    transformAsync(hits, request, configuration, listener);
+  }
 }
@@ -0,0 +1,321 @@
+/*
+ * SPDX-License-Identifier: Apache-2.0
+ *
+ * The OpenSearch Contributors require contributions made to
+ * this file be licensed under the Apache-2.0 license or a
+ * compatible open source license.
+ */
+package org.opensearch.search.relevance.transformer;
+
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.function.Consumer;
+import java.util.function.Supplier;
+
+import org.opensearch.OpenSearchTimeoutException;
+import org.opensearch.action.ActionListener;
+import org.opensearch.action.support.PlainActionFuture;
+import org.opensearch.common.metrics.CounterMetric;
+import org.opensearch.common.unit.TimeValue;
+import org.opensearch.common.util.concurrent.AbstractRunnable;
+import org.opensearch.threadpool.Scheduler;
+import org.opensearch.threadpool.ThreadPool;
+
+import static org.opensearch.search.relevance.configuration.Constants.RERANK_THREAD_POOL_NAME;
+
+/**
+ * Coalesces concurrent identical calls to a remote ranking service, so that a burst of identical requests results in
+ * a single remote call whose result is shared by every caller.
+ * The first caller for a key makes the call. Callers that arrive while it is in flight wait for its result, up to
+ * a maximum number of waiters per call, beyond which callers make their own call. Waiters give up with an
+ * {@link OpenSearchTimeoutException} after the wait timeout, while the call itself is bounded by the client timeouts.
+ * Results are shared between callers and must not be modified.
+ *
+ * @param <K> key identifying identical calls
+ * @param <V> result of a call
+ */
+public class SingleFlight<K, V> {
+  private final ThreadPool threadPool;
+  private final int maxWaiters;
+  private final TimeValue waitTimeout;
+  private final ConcurrentMap<K, Flight<V>> flights = new ConcurrentHashMap<>();
+  private final CounterMetric calls = new CounterMetric();
+  private final CounterMetric coalescedCalls = new CounterMetric();
+  private final CounterMetric waiterLimitReached = new CounterMetric();
+  private final CounterMetric waitTimeouts = new CounterMetric();
+
+  /**
+   * @param threadPool  thread pool used to time out waiters
+   * @param maxWaiters  maximum number of callers waiting on a single call. Set to 0 to disable coalescing.
+   * @param waitTimeout time after which waiters stop waiting for the call they joined
+   */
+  public SingleFlight(ThreadPool threadPool, int maxWaiters, TimeValue waitTimeout) {
+    this.threadPool = threadPool;
+    this.maxWaiters = maxWaiters;
+    this.waitTimeout = waitTimeout;
+  }
+
+  /**
+   * @return an instance that never coalesces calls
+   */
+  public static <K, V> SingleFlight<K, V> disabled() {
+    return new SingleFlight<>(null, 0, TimeValue.MINUS_ONE);
+  }
+
+  public boolean isEnabled() {
+    return maxWaiters > 0;
+  }
+
+  /**
+   * Make an asynchronous call, or join an identical call already in flight
+   * @param key      key identifying identical calls. Calls with a null key are never coalesced.
+   * @param call     makes the call, notifying the given listener with its result
+   * @param listener listener notified with the result of the call
+   */
+  public void execute(K key, Consumer<ActionListener<V>> call, ActionListener<V> listener) {
+    if (!isEnabled() || key == null) {
+      call.accept(listener);
+      return;
+    }
+    Flight<V> flight = new Flight<>();
+    Flight<V> inFlight = flights.putIfAbsent(key, flight);
+    if (inFlight == null) {
+      calls.inc();
+      try {
+        call.accept(new ActionListener<V>() {
+          @Override
+          public void onResponse(V result) {
+            complete(key, flight, result, null);
+            listener.onResponse(result);
+          }
+
+          @Override
+          public void onFailure(Exception e) {
+            complete(key, flight, null, e);
+            listener.onFailure(e);
+          }
+        });
+      } catch (RuntimeException e) {
+        complete(key, flight, null, e);
+        throw e;
+      }
+      return;
+    }
+    Waiter<V> waiter = new Waiter<>(listener);
+    if (!inFlight.join(waiter, maxWaiters)) {
+      waiterLimitReached.inc();
+      call.accept(listener);
+      return;
+    }
+    coalescedCalls.inc();
+    // Time out on the rerank pool rather than the scheduler thread, as the waiter goes on to rerank
+    Scheduler.ScheduledCancellable timeout = threadPool.schedule(new AbstractRunnable() {
+      @Override
+      protected void doRun() {
+        if (waiter.onFailure(new OpenSearchTimeoutException("Timed out after [{}] waiting for an identical call", waitTimeout))) {
+          waitTimeouts.inc();
+          inFlight.leave(waiter);
+        }
+      }
+
+      @Override
+      public boolean isForceExecution() {
+        return true;
+      }
+
+      @Override
+      public void onRejection(Exception e) {
+        // The pool is shutting down, time out inline so that the waiter does not hang
+        doRun();
+      }
+
+      @Override
+      public void onFailure(Exception e) {
+        // doRun does not throw
+      }
+    }, waitTimeout, RERANK_THREAD_POOL_NAME);
+    waiter.onDone(timeout::cancel);
+  }
+
+  /**
+   * Make a blocking call, or wait for an identical call already in flight
+   * @param key  key identifying identical calls. Calls with a null key are never coalesced.
+   * @param call makes the call
+   * @return the result of the call
+   * @throws OpenSearchTimeoutException if the identical call did not complete within the wait timeout
+   */
+  public V executeBlocking(K key, Supplier<V> call) {
+    return executeBlocking(key, call, null);
+  }
+
+  /**
+   * Make a blocking call, or wait for an identical call already in flight for at most the given time
+   * @param key     key identifying identical calls. Calls with a null key are never coalesced.
+   * @param call    makes the call
+   * @param maxWait time after which to stop waiting for an identical call if shorter than the wait timeout, or null
+   * @return the result of the call
+   * @throws OpenSearchTimeoutException if the identical call did not complete in time
+   */
+  public V executeBlocking(K key, Supplier<V> call, TimeValue maxWait) {
+    if (!isEnabled() || key == null) {
+      return call.get();
+    }
+    Flight<V> flight = new Flight<>();
+    Flight<V> inFlight = flights.putIfAbsent(key, flight);
+    if (inFlight == null) {
+      calls.inc();
+      V result;
+      try {
+        result = call.get();
+      } catch (RuntimeException e) {
+        complete(key, flight, null, e);
+        throw e;
+      }
+      complete(key, flight, result, null);
+      return result;
+    }
+    PlainActionFuture<V> future = PlainActionFuture.newFuture();
+    Waiter<V> waiter = new Waiter<>(future);
+    if (!inFlight.join(waiter, maxWaiters)) {
+      waiterLimitReached.inc();
+      return call.get();
+    }
+    coalescedCalls.inc();
+    try {
+      return future.actionGet(maxWait != null && maxWait.nanos() < waitTimeout.nanos() ? maxWait : waitTimeout);
+    } catch (OpenSearchTimeoutException e) {
+      if (waiter.onFailure(e)) {
+        waitTimeouts.inc();
+        inFlight.leave(waiter);
+        throw e;
+      }
+      // The call completed as the wait timed out
+      return future.actionGet();
+    }
+  }
+
+  /**
+   * @return number of calls made, calls coalesced into them, callers that made their own call because the waiter
+   * limit was reached, and waiters that timed out
+   */
+  public Map<String, Object> stats() {
+    Map<String, Object> stats = new LinkedHashMap<>();
+    stats.put("enabled", isEnabled());
+    if (isEnabled()) {
+      stats.put("in_flight", flights.size());
+      stats.put("call_count", calls.count());
+      stats.put("coalesced_count", coalescedCalls.count());
+      stats.put("waiter_limit_reached_count", waiterLimitReached.count());
+      stats.put("wait_timeout_count", waitTimeouts.count());
+    }
+    return stats;
+  }
+
+  private void complete(K key, Flight<V> flight, V result, Exception failure) {
+    // Remove the call first, so that callers arriving from now on make a new call rather than reuse this result
+    flights.remove(key, flight);
+    flight.complete(result, failure);
+  }
+
+  /**
+   * A call in flight, along with the callers waiting for its result. The caller making the call is not a waiter.
+   */
+  private static final class Flight<V> {
+    private final List<Waiter<V>> waiters = new ArrayList<>();
+    private boolean done;
+    private V result;
+    private Exception failure;
+
+    /**
+     * @return false if the waiter limit is reached
+     */
+    boolean join(Waiter<V> waiter, int maxWaiters) {
+      synchronized (this) {
+        if (!done) {
+          if (waiters.size() >= maxWaiters) {
+            return false;
+          }
+          waiters.add(waiter);
+          return true;
+        }
+      }
+      // Joined as the call completed, its result is as fresh as that of a new call
+      waiter.notify(result, failure);
+      return true;
+    }
+
+    synchronized void leave(Waiter<V> waiter) {
+      waiters.remove(waiter);
+    }
+
+    void complete(V result, Exception failure) {
+      List<Waiter<V>> toNotify;
+      synchronized (this) {
+        if (done) {
+          return;
+        }
+        this.done = true;
+        this.result = result;
+        this.failure = failure;
+        toNotify = new ArrayList<>(waiters);
+        waiters.clear();
+      }
+      for (Waiter<V> waiter : toNotify) {
+        waiter.notify(result, failure);
+      }
+    }
+  }
+
+  /**
+   * A caller notified exactly once, either with the result of the call or when it gives up waiting
+   */
+  private static final class Waiter<V> {
+    private final ActionListener<V> listener;
+    private final AtomicBoolean notified = new AtomicBoolean();
+    private volatile Runnable onDone;
+
+    Waiter(ActionListener<V> listener) {
+      this.listener = listener;
+    }
+
+    void onDone(Runnable onDone) {
+      this.onDone = onDone;
+      if (notified.get()) {
+        onDone.run();
+      }
+    }
+
+    void notify(V result, Exception failure) {
+      if (failure != null) {
+        onFailure(failure);
+      } else if (notified.compareAndSet(false, true)) {
+        runOnDone();
+        listener.onResponse(result);
+      }
+    }
+
+    /**
+     * @return false if the waiter was already notified
+     */
+    boolean onFailure(Exception failure) {
+      if (!notified.compareAndSet(false, true)) {
+        return false;
+      }
+      runOnDone();
+      listener.onFailure(failure);
+      return true;
+    }
+
+    private void runOnDone() {
+      Runnable runnable = onDone;
+      if (runnable != null) {
+        runnable.run();
+      }
+    }
+  }
+}
@@ -0,0 +1,115 @@
+/*
+ * SPDX-License-Identifier: Apache-2.0
+ *
+ * The OpenSearch Contributors require contributions made to
+ * this file be licensed under the Apache-2.0 license or a
+ * compatible open source license.
+ */
+package org.opensearch.search.relevance.transformer;
+
+import java.io.IOException;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Map;
+import java.util.Set;
+
+import org.opensearch.OpenSearchParseException;
+import org.opensearch.common.xcontent.XContentHelper;
+import org.opensearch.core.common.bytes.BytesReference;
+import org.opensearch.core.xcontent.DeprecationHandler;
+import org.opensearch.core.xcontent.MediaTypeRegistry;
+import org.opensearch.core.xcontent.NamedXContentRegistry;
+import org.opensearch.core.xcontent.XContentParser;
+import org.opensearch.search.SearchHit;
+
+/**
+ * Reads a few fields from the source of search hits with a streaming parser, rather than parsing the whole source into
+ * nested maps with {@link SearchHit#getSourceAsMap()}.
+ * Objects that cannot contain a requested field are skipped without being materialized, and parsing stops as soon as
+ * every requested field has been found.
+ * Field paths are matched against the dotted path of each source field, so {@code "a.b"} matches both
+ * {@code {"a.b": ...}} and {@code {"a": {"b": ...}}}.
+ * Extractors are immutable and can be shared across threads.
+ */
+public class SourceFieldExtractor {
+  private final Set<String> fieldPaths;
+  // Proper prefixes of the requested paths, which are the only objects worth descending into
+  private final Set<String> parentPaths;
+
+  /**
+   * @param fieldPaths paths of the source fields to read. Null paths are ignored.
+   */
+  public SourceFieldExtractor(String... fieldPaths) {
+    this.fieldPaths = new HashSet<>();
+    this.parentPaths = new HashSet<>();
+    for (String fieldPath : fieldPaths) {
+      if (fieldPath == null) {
+        continue;
+      }
+      this.fieldPaths.add(fieldPath);
+      for (int dot = fieldPath.indexOf('.'); dot >= 0; dot = fieldPath.indexOf('.', dot + 1)) {
+        this.parentPaths.add(fieldPath.substring(0, dot));
+      }
+    }
+  }
+
+  /**
+   * Read the requested fields from the source of a hit
+   * @param hit search hit
+   * @return values of the requested fields that are present in the source, keyed by field path. Values are converted
+   * like {@link SearchHit#getSourceAsMap()} would. The map is empty if the hit has no source.
+   */
+  public Map<String, Object> extract(SearchHit hit) {
+    BytesReference source = hit.getSourceRef();
+    if (source == null || fieldPaths.isEmpty()) {
+      return Collections.emptyMap();
+    }
+    Map<String, Object> values = new HashMap<>();
+    try (XContentParser parser = XContentHelper.createParser(NamedXContentRegistry.EMPTY,
+        DeprecationHandler.THROW_UNSUPPORTED_OPERATION, source, MediaTypeRegistry.xContentType(source))) {
+      if (parser.nextToken() == XContentParser.Token.START_OBJECT) {
+        extractObject(parser, null, values);
+      }
+    } catch (IOException e) {
+      throw new OpenSearchParseException("Failed to parse source of document [" + hit.getId() + "]", e);
+    }
+    return values;
+  }
+
+  /**
+   * @return false once every requested field has been found, so that the rest of the source is not parsed
+   */
+  private boolean extractObject(XContentParser parser, String parentPath, Map<String, Object> values) throws IOException {
+    for (XContentParser.Token token = parser.nextToken(); token == XContentParser.Token.FIELD_NAME; token = parser.nextToken()) {
+      String path = parentPath == null ? parser.currentName() : parentPath + "." + parser.currentName();
+      XContentParser.Token valueToken = parser.nextToken();
+      if (fieldPaths.contains(path) && !values.containsKey(path)) {
+        values.put(path, readValue(parser, valueToken));
+        if (values.size() == fieldPaths.size()) {
+          return false;
+        }
+      } else if (valueToken == XContentParser.Token.START_OBJECT && parentPaths.contains(path)) {
+        if (!extractObject(parser, path, values)) {
+          return false;
+        }
+      } else {
+        parser.skipChildren();
+      }
+    }
+    return true;
+  }
+
+  private static Object readValue(XContentParser parser, XContentParser.Token token) throws IOException {
+    switch (token) {
+      case START_OBJECT:
+        return parser.map();
+      case START_ARRAY:
+        return parser.list();
+      case VALUE_NULL:
+        return null;
+      default:
+        return parser.objectText();
+    }
+  }
+}
@@ -9,6 +9,7 @@ package org.opensearch.search.relevance.transformer.kendraintelligentranking;
 
 import org.apache.logging.log4j.LogManager;
 import org.apache.logging.log4j.Logger;
+import org.opensearch.action.ActionListener;
 import org.opensearch.action.search.SearchRequest;
 import org.opensearch.common.settings.Setting;
 import org.opensearch.search.SearchHit;
@@ -16,8 +17,14 @@ import org.opensearch.search.SearchHits;
 import org.opensearch.search.SearchService;
 import org.opensearch.search.relevance.configuration.ResultTransformerConfiguration;
 import org.opensearch.search.relevance.configuration.ResultTransformerConfigurationFactory;
+import org.opensearch.search.relevance.transformer.RerankDeadline;
+import org.opensearch.search.relevance.transformer.RerankCircuitBreakingException;
+import org.opensearch.search.relevance.transformer.RerankDeadlineExceededException;
 import org.opensearch.search.relevance.transformer.ResultTransformer;
+import org.opensearch.search.relevance.transformer.SingleFlight;
+import org.opensearch.search.relevance.transformer.SourceFieldExtractor;
 import org.opensearch.search.relevance.transformer.kendraintelligentranking.client.KendraHttpClient;
+import org.opensearch.search.relevance.transformer.kendraintelligentranking.client.KendraRescoreCache;
 import org.opensearch.search.relevance.transformer.kendraintelligentranking.configuration.KendraIntelligentRankerSettings;
 import org.opensearch.search.relevance.transformer.kendraintelligentranking.configuration.KendraIntelligentRankingConfiguration;
 import org.opensearch.search.relevance.transformer.kendraintelligentranking.configuration.KendraIntelligentRankingConfigurationFactory;
@@ -26,15 +33,17 @@ import org.opensearch.search.relevance.transformer.kendraintelligentranking.mode
 import org.opensearch.search.relevance.transformer.kendraintelligentranking.model.dto.Document;
 import org.opensearch.search.relevance.transformer.kendraintelligentranking.model.dto.RescoreRequest;
 import org.opensearch.search.relevance.transformer.kendraintelligentranking.model.dto.RescoreResult;
-import org.opensearch.search.relevance.transformer.kendraintelligentranking.model.dto.RescoreResultItem;
-import org.opensearch.search.relevance.transformer.kendraintelligentranking.preprocess.BM25Scorer;
+import org.opensearch.search.relevance.transformer.kendraintelligentranking.preprocess.ParallelPreprocessor;
+import org.opensearch.search.relevance.transformer.kendraintelligentranking.preprocess.PassageCache;
 import org.opensearch.search.relevance.transformer.kendraintelligentranking.preprocess.PassageGenerator;
+import org.opensearch.search.relevance.transformer.kendraintelligentranking.preprocess.PassageScorer;
+import org.opensearch.search.relevance.transformer.kendraintelligentranking.preprocess.PrecomputedPassages;
 import org.opensearch.search.relevance.transformer.kendraintelligentranking.preprocess.QueryParser;
 import org.opensearch.search.relevance.transformer.kendraintelligentranking.preprocess.QueryParser.QueryParserResult;
+import org.opensearch.search.relevance.transformer.kendraintelligentranking.preprocess.QueryTerms;
 import org.opensearch.search.relevance.transformer.kendraintelligentranking.preprocess.TextTokenizer;
 
 import java.util.ArrayList;
-import java.util.Arrays;
 import java.util.Collections;
 import java.util.Comparator;
 import java.util.HashMap;
@@ -47,9 +56,6 @@ import static org.opensearch.search.relevance.transformer.kendraintelligentranki
 
 public class KendraIntelligentRanker implements ResultTransformer {
     public static final String NAME = "kendra_intelligent_ranking";
-    private static final int MAX_SENTENCE_LENGTH_IN_TOKENS = 35;
-    private static final int MIN_PASSAGE_LENGTH_IN_TOKENS = 100;
-    private static final int MAX_PASSAGE_COUNT = 10;
     private static final int TITLE_TOKENS_TRIMMED = 15;
     private static final int BODY_PASSAGE_TRIMMED = 200;
     private static final double BM25_B_VALUE = 0.75;
@@ -59,11 +65,23 @@ public class KendraIntelligentRanker implements ResultTransformer {
     private static final Logger logger = LogManager.getLogger(KendraIntelligentRanker.class);
 
     private final KendraHttpClient kendraClient;
+    private final KendraRescoreCache rescoreCache;
+    private final PassageCache passageCache;
+    private final ParallelPreprocessor parallelPreprocessor;
+    private final SingleFlight<KendraRescoreCache.Key, RescoreResult> rescoreSingleFlight;
     private final TextTokenizer textTokenizer;
     private final QueryParser queryParser;
 
-    public KendraIntelligentRanker(KendraHttpClient kendraClient) {
+    /**
+     * @param kendraClient client for the Kendra Intelligent Ranking service
+     * @param components   caches, preprocessing and coalescing shared by every Kendra ranker of the node
+     */
+    public KendraIntelligentRanker(KendraHttpClient kendraClient, KendraRankerComponents components) {
         this.kendraClient = kendraClient;
+        this.rescoreCache = components.getRescoreCache();
+        this.passageCache = components.getPassageCache();
+        this.parallelPreprocessor = components.getParallelPreprocessor();
+        this.rescoreSingleFlight = components.getRescoreSingleFlight();
         this.textTokenizer = new TextTokenizer();
         this.queryParser = new QueryParser();
     }
@@ -138,98 +156,300 @@ public class KendraIntelligentRanker implements ResultTransformer {
             // Avoid call to rerank empty results
             return hits;
         }
-        KendraIntelligentRankingConfiguration kendraConfig = (KendraIntelligentRankingConfiguration) configuration;
-        QueryParserResult queryParserResult = queryParser.parse(
-                request.source().query(),
-                kendraConfig.getProperties().getBodyFields(),
-                kendraConfig.getProperties().getTitleFields());
+        KendraIntelligentRankingConfiguration kendraConfiguration = (KendraIntelligentRankingConfiguration) configuration;
+        QueryParserResult queryParserResult = parseQuery(request, kendraConfiguration);
         if (queryParserResult == null) {
             // Unknown query type or query does not reference body field
             return hits;
         }
+        try {
+            RescoreContext rescoreContext = buildRescoreContext(hits, queryParserResult, kendraConfiguration);
+            RescoreResult rescoreResult = rescoreCache.get(rescoreContext.cacheKey);
+            if (rescoreResult == null) {
+                // Identical concurrent searches share a single call, which preprocesses the hits of the first search
+                rescoreResult = rescoreSingleFlight.executeBlocking(rescoreContext.cacheKey, () -> {
+                    RescoreResult result = kendraClient.rescore(buildRescoreRequest(hits, queryParserResult, rescoreContext));
+                    rescoreCache.put(rescoreContext.cacheKey, result);
+                    return result;
+                });
+            }
+            return applyRescoreResult(hits, rescoreContext, rescoreResult);
+        } catch (RerankCircuitBreakingException ex) {
+            logger.debug("Rescore call rejected. Returning original search results without rescore. {}", ex.getMessage());
+            return hits;
+        } catch (Exception ex) {
+            logger.error("Failed to rescore. Returning original search results without rescore.", ex);
+            return hits;
+        }
+    }
+
+    /**
+     * Rerank hits without blocking on the call to the rescore service. The listener is notified with
+     * the original hits if reranking fails, mirroring {@link #transform}.
+     *
+     * @param hits          Search hits to rerank with respect to query
+     * @param request       Search request
+     * @param configuration Configuration parameters for the transformer
+     * @param listener      listener notified with the reranked search hits
+     */
+    @Override
+    public void transformAsync(final SearchHits hits,
+                               final SearchRequest request,
+                               final ResultTransformerConfiguration configuration,
+                               final ActionListener<SearchHits> listener) {
+        transformAsync(hits, request, configuration, RerankDeadline.NONE, listener);
+    }
+
+    /**
+     * Rerank hits without blocking on the call to the rescore service, giving up on the rescore service once the
+     * deadline passes. The listener is notified with the original hits if reranking fails, and fails with a
+     * {@link RerankDeadlineExceededException} if the deadline passes first. A rescore result arriving after the
+     * deadline is still cached, but never applied to the hits.
+     *
+     * @param hits          Search hits to rerank with respect to query
+     * @param request       Search request
+     * @param configuration Configuration parameters for the transformer
+     * @param deadline      deadline by which reranking must complete
+     * @param listener      listener notified with the reranked search hits
+     */
+    @Override
+    public void transformAsync(final SearchHits hits,
+                               final SearchRequest request,
+                               final ResultTransformerConfiguration configuration,
+                               final RerankDeadline deadline,
+                               final ActionListener<SearchHits> listener) {
+        if (hits.getHits().length == 0) {
+            // Avoid call to rerank empty results
+            listener.onResponse(hits);
+            return;
+        }
         KendraIntelligentRankingConfiguration kendraConfiguration = (KendraIntelligentRankingConfiguration) configuration;
+        final QueryParserResult queryParserResult;
+        try {
+            queryParserResult = parseQuery(request, kendraConfiguration);
+        } catch (Exception ex) {
+            listener.onFailure(ex);
+            return;
+        }
+        if (queryParserResult == null) {
+            // Unknown query type or query does not reference body field
+            listener.onResponse(hits);
+            return;
+        }
+        final RescoreContext rescoreContext;
+        final RescoreResult cachedRescoreResult;
         try {
-            List<SearchHit> originalHits = Arrays.asList(hits.getHits());
-            final int numberOfHitsToRerank = Math.min(originalHits.size(), kendraConfiguration.getProperties().getDocLimit());
-            List<Document> originalHitsAsDocuments = new ArrayList<>();
-            Map<String, SearchHit> idToSearchHitMap = new HashMap<>();
-            for (int j = 0; j < numberOfHitsToRerank; ++j) {
-                Map<String, Object> docSourceMap = originalHits.get(j).getSourceAsMap();
-                PassageGenerator passageGenerator = new PassageGenerator();
-                String bodyFieldName = queryParserResult.getBodyFieldName();
-                String titleFieldName = queryParserResult.getTitleFieldName();
-                if (docSourceMap.get(bodyFieldName) == null) {
-                    String errorMessage = String.format(Locale.ENGLISH,
-                            "Kendra Intelligent Ranking cannot be applied when documents are missing %s [%s]. Document ID [%s].",
-                            BODY_FIELD, bodyFieldName, originalHits.get(j).getId());
-                    logger.error(errorMessage);
-                    throw new KendraIntelligentRankingException(errorMessage);
+            rescoreContext = buildRescoreContext(hits, queryParserResult, kendraConfiguration);
+            cachedRescoreResult = rescoreCache.get(rescoreContext.cacheKey);
+        } catch (Exception ex) {
+            logger.error("Failed to rescore. Returning original search results without rescore.", ex);
+            listener.onResponse(hits);
+            return;
+        }
+        if (cachedRescoreResult != null) {
+            SearchHits rerankedHits;
+            try {
+                rerankedHits = applyRescoreResult(hits, rescoreContext, cachedRescoreResult);
+            } catch (Exception ex) {
+                logger.error("Failed to rescore. Returning original search results without rescore.", ex);
+                rerankedHits = hits;
+            }
+            listener.onResponse(rerankedHits);
+            return;
+        }
+        if (deadline.isExpired()) {
+            listener.onFailure(new RerankDeadlineExceededException("Rerank deadline passed before calling the rescore service"));
+            return;
+        }
+        // Identical concurrent searches share a single call, which preprocesses the hits of the first search
+        rescoreSingleFlight.execute(rescoreContext.cacheKey, rescoreListener -> {
+            RescoreRequest rescoreRequest;
+            try {
+                rescoreRequest = buildRescoreRequest(hits, queryParserResult, rescoreContext);
+            } catch (Exception ex) {
+                rescoreListener.onFailure(ex);
+                return;
+            }
+            kendraClient.rescoreAsync(rescoreRequest, ActionListener.map(rescoreListener, rescoreResult -> {
+                rescoreCache.put(rescoreContext.cacheKey, rescoreResult);
+                return rescoreResult;
+            }));
+        }, deadline.bound(new ActionListener<>() {
+            @Override
+            public void onResponse(RescoreResult rescoreResult) {
+                SearchHits rerankedHits;
+                try {
+                    rerankedHits = applyRescoreResult(hits, rescoreContext, rescoreResult);
+                } catch (Exception ex) {
+                    logger.error("Failed to rescore. Returning original search results without rescore.", ex);
+                    rerankedHits = hits;
                 }
-                List<List<String>> passages = passageGenerator.generatePassages(docSourceMap.get(bodyFieldName).toString(),
-                        MAX_SENTENCE_LENGTH_IN_TOKENS, MIN_PASSAGE_LENGTH_IN_TOKENS, MAX_PASSAGE_COUNT);
-                List<List<String>> topPassages = getTopPassages(queryParserResult.getQueryText(), passages);
-                List<String> tokenizedTitle = null;
-                if (titleFieldName != null && docSourceMap.get(titleFieldName) != null) {
-                    tokenizedTitle = textTokenizer.tokenize(docSourceMap.get(queryParserResult.getTitleFieldName()).toString());
-                    // If tokens list is empty, use null
-                    if (tokenizedTitle.isEmpty()) {
-                        tokenizedTitle = null;
-                    } else if (tokenizedTitle.size() > TITLE_TOKENS_TRIMMED) {
-                        tokenizedTitle = tokenizedTitle.subList(0, TITLE_TOKENS_TRIMMED);
-                    }
+                listener.onResponse(rerankedHits);
+            }
+
+            @Override
+            public void onFailure(Exception ex) {
+                if (ex instanceof RerankDeadlineExceededException) {
+                    listener.onFailure(ex);
+                    return;
                 }
-                for (int i = 0; i < topPassages.size(); ++i) {
-                    List<String> passageTokens = topPassages.get(i);
-                    if (passageTokens != null && !passageTokens.isEmpty() && passageTokens.size() > BODY_PASSAGE_TRIMMED) {
-                        passageTokens = passageTokens.subList(0, BODY_PASSAGE_TRIMMED);
-                    }
-                    originalHitsAsDocuments.add(new Document(
-                            originalHits.get(j).getId() + "@" + (i + 1),
-                            originalHits.get(j).getId(),
-                            tokenizedTitle,
-                            passageTokens,
-                            originalHits.get(j).getScore()));
+                if (ex instanceof RerankCircuitBreakingException) {
+                    // The rescore service is known to be failing and was not called
+                    logger.debug("Rescore call rejected. Returning original search results without rescore. {}", ex.getMessage());
+                    listener.onResponse(hits);
+                    return;
                 }
-                // Map search hits by their ID in order to map Kendra response documents back to hits later
-                idToSearchHitMap.put(originalHits.get(j).getId(), originalHits.get(j));
+                logger.error("Failed to rescore. Returning original search results without rescore.", ex);
+                listener.onResponse(hits);
             }
+        }));
+    }
 
-            final RescoreRequest rescoreRequest = new RescoreRequest(queryParserResult.getQueryText(), originalHitsAsDocuments);
-            final RescoreResult rescoreResult = kendraClient.rescore(rescoreRequest);
-
-            List<SearchHit> newSearchHits = new ArrayList<>();
-            float maxScore = 0;
-            for (RescoreResultItem rescoreResultItem : rescoreResult.getResultItems()) {
-                SearchHit searchHit = idToSearchHitMap.get(rescoreResultItem.getDocumentId());
-                if (searchHit == null) {
-                    String errorMessage = String.format(Locale.ENGLISH,
-                            "Response from Kendra Intelligent Ranking service references document ID [%s], which does not exist in original results",
-                            rescoreResultItem.getDocumentId());
-                    logger.error(errorMessage);
-                    throw new KendraIntelligentRankingException(errorMessage);
-                }
-                searchHit.score(rescoreResultItem.getScore());
-                maxScore = Math.max(maxScore, rescoreResultItem.getScore());
-                newSearchHits.add(searchHit);
+    private QueryParserResult parseQuery(final SearchRequest request,
+                                         final KendraIntelligentRankingConfiguration kendraConfig) {
+        return queryParser.parse(
+                request.source().query(),
+                kendraConfig.getProperties().getBodyFields(),
+                kendraConfig.getProperties().getTitleFields());
+    }
+
+    /**
+     * Collect what is needed to look up a cached rescore result and to map a rescore result back to hits
+     */
+    private RescoreContext buildRescoreContext(final SearchHits hits,
+                                               final QueryParserResult queryParserResult,
+                                               final KendraIntelligentRankingConfiguration kendraConfiguration) {
+        SearchHit[] originalHits = hits.getHits();
+        final int numberOfHitsToRerank = Math.min(originalHits.length, kendraConfiguration.getProperties().getDocLimit());
+        Map<String, SearchHit> idToSearchHitMap = new HashMap<>();
+        for (int j = 0; j < numberOfHitsToRerank; ++j) {
+            // Map search hits by their ID in order to map Kendra response documents back to hits later
+            idToSearchHitMap.put(originalHits[j].getId(), originalHits[j]);
+        }
+        // The key identifies both cached results and identical calls in flight
+        final KendraRescoreCache.Key cacheKey = rescoreCache.isEnabled() || rescoreSingleFlight.isEnabled() ?
+                KendraRescoreCache.newKey(queryParserResult.getQueryText(), queryParserResult.getBodyFieldName(),
+                        queryParserResult.getTitleFieldName(), originalHits, numberOfHitsToRerank) : null;
+        return new RescoreContext(cacheKey, idToSearchHitMap, numberOfHitsToRerank);
+    }
+
+    /**
+     * Build the rescore request from the passages of the top hits
+     */
+    private RescoreRequest buildRescoreRequest(final SearchHits hits,
+                                               final QueryParserResult queryParserResult,
+                                               final RescoreContext rescoreContext) {
+        final SearchHit[] originalHits = hits.getHits();
+        final PassageGenerator passageGenerator = new PassageGenerator();
+        // Tokenize the query once for all documents
+        final QueryTerms queryTerms = new QueryTerms(textTokenizer.tokenize(queryParserResult.getQueryText()));
+        // Only the body, title and precomputed passages are read from the source of each hit
+        final SourceFieldExtractor sourceFieldExtractor = new SourceFieldExtractor(queryParserResult.getBodyFieldName(),
+                queryParserResult.getTitleFieldName(), PrecomputedPassages.fieldName(queryParserResult.getBodyFieldName()));
+        // Hits are preprocessed independently, possibly in parallel, and their documents are kept in hit order
+        List<List<Document>> documentsPerHit = parallelPreprocessor.process(rescoreContext.numberOfHitsToRerank,
+                j -> buildDocuments(originalHits[j], queryParserResult, queryTerms, sourceFieldExtractor, passageGenerator));
+        List<Document> originalHitsAsDocuments = new ArrayList<>();
+        for (List<Document> documents : documentsPerHit) {
+            originalHitsAsDocuments.addAll(documents);
+        }
+
+        return new RescoreRequest(queryParserResult.getQueryText(), originalHitsAsDocuments);
+    }
+
+    /**
+     * Build the documents sent to the rescore service for the top passages of a hit
+     */
+    private List<Document> buildDocuments(final SearchHit hit,
+                                          final QueryParserResult queryParserResult,
+                                          final QueryTerms queryTerms,
+                                          final SourceFieldExtractor sourceFieldExtractor,
+                                          final PassageGenerator passageGenerator) {
+        Map<String, Object> sourceFields = sourceFieldExtractor.extract(hit);
+        String bodyFieldName = queryParserResult.getBodyFieldName();
+        String titleFieldName = queryParserResult.getTitleFieldName();
+        final Object body = sourceFields.get(bodyFieldName);
+        if (body == null) {
+            String errorMessage = String.format(Locale.ENGLISH,
+                    "Kendra Intelligent Ranking cannot be applied when documents are missing %s [%s]. Document ID [%s].",
+                    BODY_FIELD, bodyFieldName, hit.getId());
+            logger.error(errorMessage);
+            throw new KendraIntelligentRankingException(errorMessage);
+        }
+        // Prefer passages generated at index time, which skips tokenizing the body on the search path
+        List<List<String>> passages = PrecomputedPassages.decode(sourceFields.get(PrecomputedPassages.fieldName(bodyFieldName)));
+        if (passages == null) {
+            passages = passageCache.getOrGenerate(hit, bodyFieldName,
+                    () -> passageGenerator.generatePassages(body.toString()));
+        }
+        List<List<String>> topPassages = getTopPassages(queryTerms, passages);
+        List<String> tokenizedTitle = null;
+        if (titleFieldName != null && sourceFields.get(titleFieldName) != null) {
+            tokenizedTitle = textTokenizer.tokenize(sourceFields.get(titleFieldName).toString());
+            // If tokens list is empty, use null
+            if (tokenizedTitle.isEmpty()) {
+                tokenizedTitle = null;
+            } else if (tokenizedTitle.size() > TITLE_TOKENS_TRIMMED) {
+                tokenizedTitle = tokenizedTitle.subList(0, TITLE_TOKENS_TRIMMED);
             }
-            // Add remaining hits to response, which are already sorted by OpenSearch score
-            for (int i = numberOfHitsToRerank; i < originalHits.size(); ++i) {
-                newSearchHits.add(originalHits.get(i));
+        }
+        List<Document> documents = new ArrayList<>(topPassages.size());
+        for (int i = 0; i < topPassages.size(); ++i) {
+            List<String> passageTokens = topPassages.get(i);
+            if (passageTokens != null && !passageTokens.isEmpty() && passageTokens.size() > BODY_PASSAGE_TRIMMED) {
+                passageTokens = passageTokens.subList(0, BODY_PASSAGE_TRIMMED);
             }
-            return new SearchHits(newSearchHits.toArray(new SearchHit[0]), hits.getTotalHits(), maxScore);
-        } catch (Exception ex) {
-            logger.error("Failed to rescore. Returning original search results without rescore.", ex);
-            return hits;
+            documents.add(new Document(
+                    hit.getId() + "@" + (i + 1),
+                    hit.getId(),
+                    tokenizedTitle,
+                    passageTokens,
+                    hit.getScore()));
+        }
+        return documents;
+    }
+
+    private SearchHits applyRescoreResult(final SearchHits hits,
+                                          final RescoreContext rescoreContext,
+                                          final RescoreResult rescoreResult) {
+        SearchHit[] originalHits = hits.getHits();
+        List<SearchHit> newSearchHits = new ArrayList<>();
+        if (!rescoreResult.hasResultItems()) {
+            String errorMessage = "Response from Kendra Intelligent Ranking service contains no result items";
+            logger.error(errorMessage);
+            throw new KendraIntelligentRankingException(errorMessage);
         }
+        // Map every result to a hit before updating any score, so that an invalid result leaves the hits unchanged
+        for (int i = 0; i < rescoreResult.getResultItemCount(); ++i) {
+            SearchHit searchHit = rescoreContext.idToSearchHitMap.get(rescoreResult.getDocumentId(i));
+            if (searchHit == null) {
+                String errorMessage = String.format(Locale.ENGLISH,
+                        "Response from Kendra Intelligent Ranking service references document ID [%s], which does not exist in original results",
+                        rescoreResult.getDocumentId(i));
+                logger.error(errorMessage);
+                throw new KendraIntelligentRankingException(errorMessage);
+            }
+            newSearchHits.add(searchHit);
+        }
+        float maxScore = 0;
+        for (int i = 0; i < newSearchHits.size(); ++i) {
+            float score = rescoreResult.getScore(i);
+            newSearchHits.get(i).score(score);
+            maxScore = Math.max(maxScore, score);
+        }
+        // Add remaining hits to response, which are already sorted by OpenSearch score
+        for (int i = rescoreContext.numberOfHitsToRerank; i < originalHits.length; ++i) {
+            newSearchHits.add(originalHits[i]);
+        }
+        return new SearchHits(newSearchHits.toArray(new SearchHit[0]), hits.getTotalHits(), maxScore);
     }
 
-    private List<List<String>> getTopPassages(final String queryText, final List<List<String>> passages) {
-        List<String> query = textTokenizer.tokenize(queryText);
-        BM25Scorer bm25Scorer = new BM25Scorer(BM25_B_VALUE, BM25_K1_VALUE, passages);
+    private List<List<String>> getTopPassages(final QueryTerms queryTerms, final List<List<String>> passages) {
+        PassageScorer passageScorer = new PassageScorer(BM25_B_VALUE, BM25_K1_VALUE, queryTerms, passages);
         PriorityQueue<PassageScore> pq = new PriorityQueue<>(Comparator.comparingDouble(PassageScore::getScore));
 
         for (int i = 0; i < passages.size(); i++) {
-            double score = bm25Scorer.score(query, passages.get(i));
+            double score = passageScorer.score(i);
             pq.offer(new PassageScore(score, i));
             if (pq.size() > TOP_K_PASSAGES) {
                 // Maintain heap of top K passages
@@ -244,4 +464,19 @@ public class KendraIntelligentRanker implements ResultTransformer {
         Collections.reverse(topPassages); // reverse to order from highest to lowest score
         return topPassages;
     }
+
+    /**
+     * State carried from selecting the hits to rescore to applying the rescore result
+     */
+    private static final class RescoreContext {
+        private final KendraRescoreCache.Key cacheKey;
+        private final Map<String, SearchHit> idToSearchHitMap;
+        private final int numberOfHitsToRerank;
+
+        private RescoreContext(KendraRescoreCache.Key cacheKey, Map<String, SearchHit> idToSearchHitMap, int numberOfHitsToRerank) {
+            this.cacheKey = cacheKey;
+            this.idToSearchHitMap = idToSearchHitMap;
+            this.numberOfHitsToRerank = numberOfHitsToRerank;
+        }
+    }
 }
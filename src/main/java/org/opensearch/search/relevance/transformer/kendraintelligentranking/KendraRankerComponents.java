@@ -0,0 +1,82 @@
+/*
+ * SPDX-License-Identifier: Apache-2.0
+ *
+ * The OpenSearch Contributors require contributions made to
+ * this file be licensed under the Apache-2.0 license or a
+ * compatible open source license.
+ */
+package org.opensearch.search.relevance.transformer.kendraintelligentranking;
+
+import org.opensearch.search.relevance.transformer.RerankDeadlineTracker;
+import org.opensearch.search.relevance.transformer.SingleFlight;
+import org.opensearch.search.relevance.transformer.kendraintelligentranking.client.KendraRescoreCache;
+import org.opensearch.search.relevance.transformer.kendraintelligentranking.model.dto.RescoreResult;
+import org.opensearch.search.relevance.transformer.kendraintelligentranking.preprocess.ParallelPreprocessor;
+import org.opensearch.search.relevance.transformer.kendraintelligentranking.preprocess.PassageCache;
+import org.opensearch.threadpool.ThreadPool;
+
+/**
+ * Node-level components shared by the Kendra Intelligent Ranking transformer and every Kendra ranking processor.
+ * They are created once by the plugin, so that caches, coalescing and stats cover every search reranked by Kendra.
+ */
+public final class KendraRankerComponents {
+    private final KendraRescoreCache rescoreCache;
+    private final PassageCache passageCache;
+    private final ParallelPreprocessor parallelPreprocessor;
+    private final SingleFlight<KendraRescoreCache.Key, RescoreResult> rescoreSingleFlight;
+    private final RerankDeadlineTracker rerankDeadlineTracker;
+    private final ThreadPool threadPool;
+
+    /**
+     * @param rescoreCache          cache consulted before calling the rescore service
+     * @param passageCache          cache of passages generated from document bodies
+     * @param parallelPreprocessor  spreads the preprocessing of hits over several threads when there are enough hits
+     * @param rescoreSingleFlight   coalesces concurrent identical calls to the rescore service
+     * @param rerankDeadlineTracker records searches returned without reranking because Kendra was too slow
+     * @param threadPool            thread pool providing the rerank executor
+     */
+    public KendraRankerComponents(KendraRescoreCache rescoreCache, PassageCache passageCache,
+                                  ParallelPreprocessor parallelPreprocessor,
+                                  SingleFlight<KendraRescoreCache.Key, RescoreResult> rescoreSingleFlight,
+                                  RerankDeadlineTracker rerankDeadlineTracker, ThreadPool threadPool) {
+        this.rescoreCache = rescoreCache;
+        this.passageCache = passageCache;
+        this.parallelPreprocessor = parallelPreprocessor;
+        this.rescoreSingleFlight = rescoreSingleFlight;
+        this.rerankDeadlineTracker = rerankDeadlineTracker;
+        this.threadPool = threadPool;
+    }
+
+    /**
+     * @param threadPool thread pool providing the rerank executor, or null if only blocking calls are made
+     * @return components that neither cache, coalesce nor parallelize
+     */
+    public static KendraRankerComponents disabled(ThreadPool threadPool) {
+        return new KendraRankerComponents(KendraRescoreCache.disabled(), PassageCache.disabled(),
+                ParallelPreprocessor.sequential(), SingleFlight.disabled(), new RerankDeadlineTracker(), threadPool);
+    }
+
+    public KendraRescoreCache getRescoreCache() {
+        return rescoreCache;
+    }
+
+    public PassageCache getPassageCache() {
+        return passageCache;
+    }
+
+    public ParallelPreprocessor getParallelPreprocessor() {
+        return parallelPreprocessor;
+    }
+
+    public SingleFlight<KendraRescoreCache.Key, RescoreResult> getRescoreSingleFlight() {
+        return rescoreSingleFlight;
+    }
+
+    public RerankDeadlineTracker getRerankDeadlineTracker() {
+        return rerankDeadlineTracker;
+    }
+
+    public ThreadPool getThreadPool() {
+        return threadPool;
+    }
+}
@@ -0,0 +1,61 @@
+/*
+ * SPDX-License-Identifier: Apache-2.0
+ *
+ * The OpenSearch Contributors require contributions made to
+ * this file be licensed under the Apache-2.0 license or a
+ * compatible open source license.
+ */
+package org.opensearch.search.relevance.transformer.kendraintelligentranking.client;
+
+import org.opensearch.search.relevance.transformer.RemoteTransportSettings;
+import org.opensearch.search.relevance.transformer.RerankCircuitBreaker;
+import org.opensearch.threadpool.ThreadPool;
+
+/**
+ * Components and transport options of a {@link KendraHttpClient}, other than the settings identifying the service.
+ */
+public final class KendraClientComponents {
+  private final ThreadPool threadPool;
+  private final RescoreHedger hedger;
+  private final RerankCircuitBreaker circuitBreaker;
+  private final RemoteTransportSettings transportSettings;
+
+  /**
+   * @param threadPool thread pool whose rerank executor completes asynchronous rescores, and which evicts idle
+   *                   connections. If null, listeners are completed on the HTTP client's I/O thread.
+   * @param hedger hedges slow rescore calls
+   * @param circuitBreaker rejects rescore calls right away while the service is failing
+   * @param transportSettings connection pool, timeouts and compression of the client
+   */
+  public KendraClientComponents(ThreadPool threadPool, RescoreHedger hedger, RerankCircuitBreaker circuitBreaker,
+                                RemoteTransportSettings transportSettings) {
+    this.threadPool = threadPool;
+    this.hedger = hedger;
+    this.circuitBreaker = circuitBreaker;
+    this.transportSettings = transportSettings;
+  }
+
+  /**
+   * @return components that neither hedge nor circuit break, with the default transport settings and no thread pool
+   */
+  public static KendraClientComponents defaults() {
+    return new KendraClientComponents(null, RescoreHedger.disabled(), RerankCircuitBreaker.disabled(),
+        RemoteTransportSettings.defaults());
+  }
+
+  public ThreadPool getThreadPool() {
+    return threadPool;
+  }
+
+  public RescoreHedger getHedger() {
+    return hedger;
+  }
+
+  public RerankCircuitBreaker getCircuitBreaker() {
+    return circuitBreaker;
+  }
+
+  public RemoteTransportSettings getTransportSettings() {
+    return transportSettings;
+  }
+}
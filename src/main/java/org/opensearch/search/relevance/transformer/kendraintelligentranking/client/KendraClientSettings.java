@@ -16,6 +16,7 @@ import static org.opensearch.search.relevance.transformer.kendraintelligentranki
 import static org.opensearch.search.relevance.transformer.kendraintelligentranking.configuration.KendraIntelligentRankerSettings.SESSION_TOKEN_SETTING;
 
 import com.amazonaws.auth.AWSCredentials;
+import com.amazonaws.auth.AWSSessionCredentials;
 import com.amazonaws.auth.BasicAWSCredentials;
 import com.amazonaws.auth.BasicSessionCredentials;
 
@@ -25,6 +26,10 @@ import org.opensearch.core.common.settings.SecureString;
 import org.opensearch.common.settings.Settings;
 import org.opensearch.common.settings.SettingsException;
 
+import java.util.Arrays;
+import java.util.List;
+import java.util.Objects;
+
 /**
  * A container for settings used to create a Kendra client.
  */
@@ -69,6 +74,46 @@ public final class KendraClientSettings {
     return assumeRoleArn;
   }
 
+  /**
+   * Settings are equal when they connect to the same endpoint and execution plan with the same credentials, so that
+   * clients built from equal settings can be shared.
+   */
+  @Override
+  public boolean equals(Object o) {
+    if (this == o) {
+      return true;
+    }
+    if (o == null || getClass() != o.getClass()) {
+      return false;
+    }
+    KendraClientSettings that = (KendraClientSettings) o;
+    return Objects.equals(getCredentialsKey(credentials), getCredentialsKey(that.credentials))
+        && Objects.equals(serviceEndpoint, that.serviceEndpoint)
+        && Objects.equals(serviceRegion, that.serviceRegion)
+        && Objects.equals(executionPlanId, that.executionPlanId)
+        && Objects.equals(assumeRoleArn, that.assumeRoleArn);
+  }
+
+  @Override
+  public int hashCode() {
+    return Objects.hash(getCredentialsKey(credentials), serviceEndpoint, serviceRegion, executionPlanId, assumeRoleArn);
+  }
+
+  @Override
+  public String toString() {
+    // Credentials are left out of logs
+    return "endpoint=" + serviceEndpoint + ", region=" + serviceRegion + ", execution_plan_id=" + executionPlanId
+        + ", role=" + assumeRoleArn;
+  }
+
+  private static List<String> getCredentialsKey(AWSCredentials credentials) {
+    if (credentials == null) {
+      return null;
+    }
+    return Arrays.asList(credentials.getAWSAccessKeyId(), credentials.getAWSSecretKey(),
+        credentials instanceof AWSSessionCredentials ? ((AWSSessionCredentials) credentials).getSessionToken() : null);
+  }
+
   static AWSCredentials loadCredentials(Settings settings) {
     try (SecureString key = ACCESS_KEY_SETTING.get(settings);
         SecureString secret = SECRET_KEY_SETTING.get(settings);
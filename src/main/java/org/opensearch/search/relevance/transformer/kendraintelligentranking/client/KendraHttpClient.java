@@ -8,7 +8,6 @@
 package org.opensearch.search.relevance.transformer.kendraintelligentranking.client;
 
 import com.amazonaws.AmazonServiceException;
-import com.amazonaws.ClientConfiguration;
 import com.amazonaws.DefaultRequest;
 import com.amazonaws.Request;
 import com.amazonaws.Response;
@@ -25,44 +24,87 @@ import com.amazonaws.http.HttpResponseHandler;
 import com.amazonaws.services.securitytoken.AWSSecurityTokenService;
 import com.amazonaws.services.securitytoken.AWSSecurityTokenServiceClientBuilder;
 
-import com.fasterxml.jackson.databind.DeserializationFeature;
-import com.fasterxml.jackson.databind.ObjectMapper;
-
-import java.io.ByteArrayInputStream;
 import java.io.Closeable;
 import java.io.IOException;
+import java.io.InputStream;
 import java.net.URI;
 import java.nio.charset.StandardCharsets;
 import java.security.AccessController;
 import java.security.PrivilegedAction;
+import java.util.Map;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.TimeUnit;
 
 import org.apache.commons.lang3.StringUtils;
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+import org.apache.http.HttpEntity;
+import org.apache.http.HttpHeaders;
+import org.apache.http.HttpResponse;
+import org.apache.http.client.config.RequestConfig;
+import org.apache.http.client.methods.HttpPost;
+import org.apache.http.concurrent.FutureCallback;
+import org.apache.http.impl.client.DefaultConnectionKeepAliveStrategy;
+import org.apache.http.impl.nio.client.CloseableHttpAsyncClient;
+import org.apache.http.impl.nio.client.HttpAsyncClients;
+import org.apache.http.impl.nio.conn.PoolingNHttpClientConnectionManager;
+import org.apache.http.impl.nio.reactor.DefaultConnectingIOReactor;
+import org.apache.http.impl.nio.reactor.IOReactorConfig;
+import org.apache.http.util.EntityUtils;
+import org.opensearch.action.ActionListener;
+import org.opensearch.action.support.PlainActionFuture;
+import org.opensearch.action.support.ThreadedActionListener;
+import org.opensearch.common.unit.TimeValue;
+import org.opensearch.search.relevance.transformer.RemoteTransportSettings;
+import org.opensearch.search.relevance.transformer.RerankCircuitBreaker;
+import org.opensearch.search.relevance.transformer.RerankCircuitBreakingException;
 import org.opensearch.search.relevance.transformer.kendraintelligentranking.model.dto.RescoreRequest;
 import org.opensearch.search.relevance.transformer.kendraintelligentranking.model.dto.RescoreResult;
+import org.opensearch.threadpool.Scheduler;
+import org.opensearch.threadpool.ThreadPool;
+
+import static org.opensearch.search.relevance.configuration.Constants.RERANK_THREAD_POOL_NAME;
 
 public class KendraHttpClient implements Closeable {
+  private static final Logger logger = LogManager.getLogger(KendraHttpClient.class);
   private static final String KENDRA_RANKING_SERVICE_NAME = "kendra-ranking";
   private static final String KENDRA_RESCORE_URI = "rescore";
   private static final String KENDRA_RESCORE_EXECUTION_PLANS = "rescore-execution-plans";
   private static final String ASSUME_ROLE_SESSION_NAME = "OpenSearchKendraIntelligentRankingPluginSession";
+  private static final String CONTENT_TYPE_JSON = "application/json";
+  private static final String CONTENT_ENCODING_GZIP = "gzip";
 
   private final AmazonHttpClient amazonHttpClient;
   private final HttpResponseHandler<AmazonServiceException> errorHandler;
-  private final HttpResponseHandler<String> responseHandler;
+  private final HttpResponseHandler<RescoreResult> responseHandler;
   private final AWSCredentialsProvider awsCredentialsProvider;
   private final AWS4Signer aws4Signer;
   private final String serviceEndpoint;
   private final String executionPlanId;
-  private final ObjectMapper objectMapper = new ObjectMapper()
-          .configure(DeserializationFeature.FAIL_ON_UNKNOWN_PROPERTIES, false);
+  private final ThreadPool threadPool;
+  private final RescoreHedger hedger;
+  private final RerankCircuitBreaker circuitBreaker;
+  private final RemoteTransportSettings transportSettings;
+  private final RescoreCodec codec = new RescoreCodec();
+  private CloseableHttpAsyncClient asyncHttpClient;
+  private Scheduler.Cancellable idleConnectionEvictor;
+  private boolean closed;
 
-  public KendraHttpClient(KendraClientSettings clientSettings) {
+  /**
+   * @param clientSettings settings used to connect to the Kendra Intelligent Ranking service
+   * @param components thread pool, hedger, circuit breaker and transport settings of the client
+   */
+  public KendraHttpClient(KendraClientSettings clientSettings, KendraClientComponents components) {
+    this.threadPool = components.getThreadPool();
+    this.hedger = components.getHedger();
+    this.circuitBreaker = components.getCircuitBreaker();
+    this.transportSettings = components.getTransportSettings();
     serviceEndpoint = clientSettings.getServiceEndpoint();
     executionPlanId = clientSettings.getExecutionPlanId();
     if (isValid()) {
-      amazonHttpClient = AccessController.doPrivileged((PrivilegedAction<AmazonHttpClient>) () -> new AmazonHttpClient(new ClientConfiguration()));
+      amazonHttpClient = AccessController.doPrivileged((PrivilegedAction<AmazonHttpClient>) () -> new AmazonHttpClient(this.transportSettings.toClientConfiguration()));
       errorHandler = new SimpleAwsErrorHandler();
-      responseHandler = new SimpleResponseHandler();
+      responseHandler = new RescoreResponseHandler();
       aws4Signer = new AWS4Signer();
       aws4Signer.setServiceName(KENDRA_RANKING_SERVICE_NAME);
       aws4Signer.setRegionName(clientSettings.getServiceRegion());
@@ -104,28 +146,213 @@ public class KendraHttpClient implements Closeable {
   }
 
   public RescoreResult rescore(RescoreRequest rescoreRequest) {
-    return AccessController.doPrivileged((PrivilegedAction<RescoreResult>) () -> {
+    if (hedger.isEnabled()) {
+      // Only calls made with the non-blocking client can be hedged. The future is completed on the client's I/O
+      // thread rather than on the rerank executor, which the caller may be blocking, and the response is decoded by
+      // the caller.
+      PlainActionFuture<HttpEntity> future = PlainActionFuture.newFuture();
+      hedgedRescore(rescoreRequest, future);
+      final HttpEntity entity = future.actionGet(getHedgedRescoreTimeout());
+      try {
+        return decodeRescoreResult(entity);
+      } catch (IOException ex) {
+        throw new RuntimeException("Exception executing request.", ex);
+      }
+    }
+    return circuitBreaker.executeBlocking(() -> AccessController.doPrivileged((PrivilegedAction<RescoreResult>) () -> {
       try {
-        Request<Void> request = new DefaultRequest<>(aws4Signer.getServiceName());
-        request.setHttpMethod(HttpMethodName.POST);
-        request.setEndpoint(buildRescoreURI());
-        request.setContent(new ByteArrayInputStream(objectMapper.writeValueAsString(rescoreRequest).getBytes(StandardCharsets.UTF_8)));
-        aws4Signer.sign(request, awsCredentialsProvider.getCredentials());
-
-        Response<String> rsp = amazonHttpClient
-            .requestExecutionBuilder()
-            .executionContext(new ExecutionContext(true))
-            .request(request)
-            .errorResponseHandler(errorHandler)
-            .execute(responseHandler);
-
-        return objectMapper.readValue(rsp.getAwsResponse(), RescoreResult.class);
+        RescoreCodec.RequestBody body = encodeRescoreRequest(rescoreRequest);
+        try {
+          Request<Void> request = buildSignedRescoreRequest(body);
+
+          Response<RescoreResult> rsp = amazonHttpClient
+              .requestExecutionBuilder()
+              .executionContext(new ExecutionContext(true))
+              .request(request)
+              .errorResponseHandler(errorHandler)
+              .execute(responseHandler);
+
+          return rsp.getAwsResponse();
+        } finally {
+          body.release();
+        }
       } catch (Exception ex) {
         throw new RuntimeException("Exception executing request.", ex);
       }
+    }));
+  }
+
+  /**
+   * Send a rescore request without blocking the calling thread. The response is decoded and the listener is completed
+   * on the rerank executor once the service replies, so that no work runs on the HTTP client's I/O thread.
+   * If the service is slow to reply, the request may be hedged with an identical one. While the service is failing,
+   * the request is rejected with a {@link RerankCircuitBreakingException} without being sent.
+   * @param rescoreRequest request to send to the rescore API
+   * @param rescoreListener listener notified with the parsed result, or with the failure
+   */
+  public void rescoreAsync(RescoreRequest rescoreRequest, ActionListener<RescoreResult> rescoreListener) {
+    final ActionListener<HttpEntity> decodingListener = ActionListener.map(rescoreListener, this::decodeRescoreResult);
+    final ActionListener<HttpEntity> listener = threadPool == null ? decodingListener
+        : new ThreadedActionListener<>(logger, threadPool, RERANK_THREAD_POOL_NAME, decodingListener, true);
+    hedgedRescore(rescoreRequest, listener);
+  }
+
+  /**
+   * An attempt fails once it cannot connect or read within the transport timeouts, and the hedge of a call starts at
+   * most after the hedge delay, so a hedged call that has not completed within their sum never will.
+   */
+  private TimeValue getHedgedRescoreTimeout() {
+    final TimeValue hedgeDelay = hedger.getHedgeDelay();
+    return TimeValue.timeValueNanos(transportSettings.getConnectTimeout().nanos() + transportSettings.getReadTimeout().nanos()
+        + (hedgeDelay == null ? 0 : hedgeDelay.nanos()));
+  }
+
+  private void hedgedRescore(RescoreRequest rescoreRequest, ActionListener<HttpEntity> listener) {
+    final RescoreCodec.RequestBody body;
+    try {
+      body = encodeRescoreRequest(rescoreRequest);
+    } catch (Exception ex) {
+      listener.onFailure(new RuntimeException("Exception executing request.", ex));
+      return;
+    }
+    // Every attempt reads the body in place, so it is only released once the call and all of its attempts completed
+    circuitBreaker.execute(
+        guardedListener -> hedger.execute(
+            attemptListener -> sendRescoreRequest(body.retain(), ActionListener.runBefore(attemptListener, body::release)),
+            guardedListener),
+        ActionListener.runBefore(listener, body::release));
+  }
+
+  private void sendRescoreRequest(RescoreCodec.RequestBody body, ActionListener<HttpEntity> listener) {
+    AccessController.doPrivileged((PrivilegedAction<Void>) () -> {
+      try {
+        Request<Void> request = buildSignedRescoreRequest(body);
+        HttpPost httpPost = new HttpPost(buildRescoreURI());
+        for (Map.Entry<String, String> header : request.getHeaders().entrySet()) {
+          // Content-Length is derived from the entity by the client
+          if (!HttpHeaders.CONTENT_LENGTH.equalsIgnoreCase(header.getKey())) {
+            httpPost.addHeader(header.getKey(), header.getValue());
+          }
+        }
+        httpPost.setEntity(body.newEntity());
+
+        getAsyncHttpClient().execute(httpPost, new FutureCallback<>() {
+          @Override
+          public void completed(HttpResponse response) {
+            final HttpEntity entity;
+            try {
+              entity = getAsyncResponseEntity(response);
+            } catch (Exception ex) {
+              listener.onFailure(ex);
+              return;
+            }
+            listener.onResponse(entity);
+          }
+
+          @Override
+          public void failed(Exception ex) {
+            listener.onFailure(new RuntimeException("Exception executing request.", ex));
+          }
+
+          @Override
+          public void cancelled() {
+            listener.onFailure(new CancellationException("Rescore request was cancelled."));
+          }
+        });
+      } catch (Exception ex) {
+        listener.onFailure(new RuntimeException("Exception executing request.", ex));
+      }
+      return null;
     });
   }
 
+  /**
+   * The non-blocking client owns its own I/O threads, so it is only started once an asynchronous rescore is made.
+   */
+  private synchronized CloseableHttpAsyncClient getAsyncHttpClient() throws IOException {
+    if (closed) {
+      throw new IllegalStateException("Kendra client is closed.");
+    }
+    if (asyncHttpClient == null) {
+      final int connectTimeoutMillis = Math.toIntExact(transportSettings.getConnectTimeout().millis());
+      final int readTimeoutMillis = Math.toIntExact(transportSettings.getReadTimeout().millis());
+      final long connectionMaxIdleMillis = transportSettings.getConnectionMaxIdle().millis();
+      final PoolingNHttpClientConnectionManager connectionManager = new PoolingNHttpClientConnectionManager(
+          new DefaultConnectingIOReactor(IOReactorConfig.custom()
+              .setSoKeepAlive(transportSettings.isTcpKeepAlive())
+              .setConnectTimeout(connectTimeoutMillis)
+              .setSoTimeout(readTimeoutMillis)
+              .build()));
+      connectionManager.setMaxTotal(transportSettings.getMaxConnections());
+      connectionManager.setDefaultMaxPerRoute(transportSettings.getMaxConnections());
+      asyncHttpClient = HttpAsyncClients.custom()
+          .setConnectionManager(connectionManager)
+          .setDefaultRequestConfig(RequestConfig.custom()
+              .setConnectTimeout(connectTimeoutMillis)
+              .setSocketTimeout(readTimeoutMillis)
+              .build())
+          // Pooled connections are not reused past the Keep-Alive timeout of the service, nor past the max idle time
+          .setKeepAliveStrategy((response, context) -> {
+            final long keepAliveMillis = DefaultConnectionKeepAliveStrategy.INSTANCE.getKeepAliveDuration(response, context);
+            return keepAliveMillis < 0 ? connectionMaxIdleMillis : Math.min(keepAliveMillis, connectionMaxIdleMillis);
+          })
+          .build();
+      asyncHttpClient.start();
+      if (threadPool != null) {
+        // Expired connections are only discarded when leased otherwise, so close them while the client is idle.
+        // Connections are closed at most twice the max idle time after their last use.
+        idleConnectionEvictor = threadPool.scheduleWithFixedDelay(() -> {
+          connectionManager.closeExpiredConnections();
+          connectionManager.closeIdleConnections(connectionMaxIdleMillis, TimeUnit.MILLISECONDS);
+        }, transportSettings.getConnectionMaxIdle(), ThreadPool.Names.GENERIC);
+      }
+    }
+    return asyncHttpClient;
+  }
+
+  private RescoreCodec.RequestBody encodeRescoreRequest(RescoreRequest rescoreRequest) throws IOException {
+    RescoreCodec.RequestBody body = codec.encode(rescoreRequest);
+    return transportSettings.shouldCompressRequest(body.length()) ? codec.compress(body) : body;
+  }
+
+  private Request<Void> buildSignedRescoreRequest(RescoreCodec.RequestBody body) {
+    Request<Void> request = new DefaultRequest<>(aws4Signer.getServiceName());
+    request.setHttpMethod(HttpMethodName.POST);
+    request.setEndpoint(buildRescoreURI());
+    request.addHeader(HttpHeaders.CONTENT_TYPE, CONTENT_TYPE_JSON);
+    if (body.isCompressed()) {
+      request.addHeader(HttpHeaders.CONTENT_ENCODING, CONTENT_ENCODING_GZIP);
+    }
+    request.setContent(body.newInputStream());
+    aws4Signer.sign(request, awsCredentialsProvider.getCredentials());
+    return request;
+  }
+
+  /**
+   * @return the buffered content of a successful response, left to be decoded off the HTTP client's I/O thread
+   */
+  private HttpEntity getAsyncResponseEntity(HttpResponse response) throws IOException {
+    final int statusCode = response.getStatusLine().getStatusCode();
+    if (statusCode / 100 != 2) {
+      final byte[] content = response.getEntity() == null ? new byte[0] : EntityUtils.toByteArray(response.getEntity());
+      AmazonServiceException ase = new AmazonServiceException(new String(content, StandardCharsets.UTF_8));
+      ase.setStatusCode(statusCode);
+      ase.setServiceName(aws4Signer.getServiceName());
+      ase.setErrorCode(response.getStatusLine().getReasonPhrase());
+      throw ase;
+    }
+    if (response.getEntity() == null) {
+      throw new IOException("Rescore response has no content");
+    }
+    return response.getEntity();
+  }
+
+  private RescoreResult decodeRescoreResult(HttpEntity entity) throws IOException {
+    try (InputStream content = entity.getContent()) {
+      return RescoreCodec.decode(content);
+    }
+  }
+
   public URI buildRescoreURI() {
     return URI.create(String.join("/",
         serviceEndpoint, KENDRA_RESCORE_EXECUTION_PLANS, executionPlanId, KENDRA_RESCORE_URI));
@@ -140,5 +367,14 @@ public class KendraHttpClient implements Closeable {
     if (amazonHttpClient != null) {
       amazonHttpClient.shutdown();
     }
+    synchronized (this) {
+      closed = true;
+      if (idleConnectionEvictor != null) {
+        idleConnectionEvictor.cancel();
+      }
+      if (asyncHttpClient != null) {
+        asyncHttpClient.close();
+      }
+    }
   }
 }
@@ -0,0 +1,230 @@
+/*
+ * SPDX-License-Identifier: Apache-2.0
+ *
+ * The OpenSearch Contributors require contributions made to
+ * this file be licensed under the Apache-2.0 license or a
+ * compatible open source license.
+ */
+package org.opensearch.search.relevance.transformer.kendraintelligentranking.client;
+
+import static org.opensearch.index.seqno.SequenceNumbers.UNASSIGNED_SEQ_NO;
+import static org.opensearch.search.relevance.transformer.kendraintelligentranking.configuration.KendraIntelligentRankerSettings.RESCORE_CACHE_SIZE_SETTING;
+import static org.opensearch.search.relevance.transformer.kendraintelligentranking.configuration.KendraIntelligentRankerSettings.RESCORE_CACHE_TTL_SETTING;
+
+import java.util.Arrays;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Objects;
+
+import org.apache.lucene.util.BytesRef;
+import org.opensearch.common.cache.Cache;
+import org.opensearch.common.cache.CacheBuilder;
+import org.opensearch.common.hash.MurmurHash3;
+import org.opensearch.common.settings.Settings;
+import org.opensearch.common.unit.TimeValue;
+import org.opensearch.core.common.bytes.BytesReference;
+import org.opensearch.core.common.unit.ByteSizeValue;
+import org.opensearch.core.index.shard.ShardId;
+import org.opensearch.search.SearchHit;
+import org.opensearch.search.relevance.transformer.kendraintelligentranking.model.dto.RescoreResult;
+
+/**
+ * Node-level cache of Kendra Intelligent Ranking rescore results, so that repeated queries over an unchanged
+ * candidate set skip passage generation and the call to the rescore service.
+ */
+public class KendraRescoreCache {
+  // Rough per-object overheads used to weigh entries against the configured cache size
+  private static final long KEY_BASE_BYTES = 64;
+  private static final long PER_DOCUMENT_BYTES = 48;
+  // ID reference and string header, along with the score, of each result item
+  private static final long RESULT_ITEM_BYTES = 52;
+
+  private final Cache<Key, RescoreResult> cache;
+
+  /**
+   * Create a cache sized from the node settings. A size of 0 disables caching.
+   * @param settings node settings
+   */
+  public KendraRescoreCache(Settings settings) {
+    this(RESCORE_CACHE_SIZE_SETTING.get(settings), RESCORE_CACHE_TTL_SETTING.get(settings));
+  }
+
+  public KendraRescoreCache(ByteSizeValue maxSize, TimeValue ttl) {
+    if (maxSize.getBytes() <= 0) {
+      this.cache = null;
+    } else {
+      this.cache = CacheBuilder.<Key, RescoreResult>builder()
+          .setMaximumWeight(maxSize.getBytes())
+          .setExpireAfterWrite(ttl)
+          .weigher(KendraRescoreCache::weigh)
+          .build();
+    }
+  }
+
+  /**
+   * @return a cache that never stores results
+   */
+  public static KendraRescoreCache disabled() {
+    return new KendraRescoreCache(ByteSizeValue.ZERO, TimeValue.MINUS_ONE);
+  }
+
+  public boolean isEnabled() {
+    return cache != null;
+  }
+
+  /**
+   * Build the key identifying a rescore over the given hits. The key captures the normalized query text, the fields
+   * passages are built from, and the ordered candidate documents along with a fingerprint of their contents. The
+   * fingerprint is the shard of the document along with its _seq_no and _primary_term when the hit carries them, and
+   * a hash of the document source otherwise.
+   * @param queryText query text sent to the rescore service
+   * @param bodyFieldName document field used to build passages
+   * @param titleFieldName document field used as title, may be null
+   * @param hits search hits in their original order
+   * @param numberOfHits number of leading hits sent for rescoring
+   * @return the key of the rescore
+   */
+  public static Key newKey(String queryText, String bodyFieldName, String titleFieldName, SearchHit[] hits, int numberOfHits) {
+    String[] documentIds = new String[numberOfHits];
+    // Three longs per document: two for the version or content fingerprint, one for the original score,
+    // which the rescore service blends into its result
+    long[] fingerprints = new long[numberOfHits * 3];
+    MurmurHash3.Hash128 hash = new MurmurHash3.Hash128();
+    for (int i = 0; i < numberOfHits; ++i) {
+      SearchHit hit = hits[i];
+      if (hit.getSeqNo() != UNASSIGNED_SEQ_NO && hit.getShard() != null) {
+        // _seq_no and _primary_term only identify a version within a shard: an index deleted and recreated under
+        // the same name, or a document with the same _id routed to another shard, reuses them
+        ShardId shardId = hit.getShard().getShardId();
+        documentIds[i] = shardId.getIndex().getUUID() + "/" + shardId.id() + "/" + hit.getId();
+        fingerprints[3 * i] = hit.getSeqNo();
+        fingerprints[3 * i + 1] = hit.getPrimaryTerm();
+      } else {
+        documentIds[i] = hit.getIndex() == null ? hit.getId() : hit.getIndex() + "/" + hit.getId();
+        BytesReference source = hit.getSourceRef();
+        if (source != null) {
+          BytesRef bytes = source.toBytesRef();
+          MurmurHash3.hash128(bytes.bytes, bytes.offset, bytes.length, 0, hash);
+          fingerprints[3 * i] = hash.h1;
+          fingerprints[3 * i + 1] = hash.h2;
+        }
+      }
+      fingerprints[3 * i + 2] = Float.floatToIntBits(hit.getScore());
+    }
+    return new Key(normalizeQueryText(queryText), bodyFieldName, titleFieldName, documentIds, fingerprints);
+  }
+
+  /**
+   * @param key cache key, may be null if caching is disabled
+   * @return the cached rescore result, or null on a miss
+   */
+  public RescoreResult get(Key key) {
+    if (cache == null || key == null) {
+      return null;
+    }
+    return cache.get(key);
+  }
+
+  /**
+   * @param key cache key, may be null if caching is disabled
+   * @param rescoreResult rescore result to cache. The result must not be modified afterwards.
+   */
+  public void put(Key key, RescoreResult rescoreResult) {
+    if (cache == null || key == null || rescoreResult == null || !rescoreResult.hasResultItems()) {
+      return;
+    }
+    cache.put(key, rescoreResult);
+  }
+
+  public void invalidateAll() {
+    if (cache != null) {
+      cache.invalidateAll();
+    }
+  }
+
+  /**
+   * @return hit, miss and eviction counts along with the current size of the cache
+   */
+  public Map<String, Object> stats() {
+    Map<String, Object> stats = new LinkedHashMap<>();
+    stats.put("enabled", cache != null);
+    if (cache != null) {
+      Cache.CacheStats cacheStats = cache.stats();
+      stats.put("count", cache.count());
+      stats.put("size_in_bytes", cache.weight());
+      stats.put("hit_count", cacheStats.getHits());
+      stats.put("miss_count", cacheStats.getMisses());
+      stats.put("evictions", cacheStats.getEvictions());
+    }
+    return stats;
+  }
+
+  /**
+   * Queries that only differ by surrounding or repeated whitespace are tokenized alike by the rescore service.
+   * Case is kept, since the query text is sent to the service as it is.
+   */
+  static String normalizeQueryText(String queryText) {
+    return queryText.trim().replaceAll("\\s+", " ");
+  }
+
+  private static long weigh(Key key, RescoreResult rescoreResult) {
+    long weight = key.ramBytesUsed();
+    for (int i = 0; i < rescoreResult.getResultItemCount(); i++) {
+      String documentId = rescoreResult.getDocumentId(i);
+      weight += RESULT_ITEM_BYTES + (documentId == null ? 0 : 2L * documentId.length());
+    }
+    return weight;
+  }
+
+  /**
+   * Identifies a rescore by its normalized query and the ordered candidate documents
+   */
+  public static final class Key {
+    private final String queryText;
+    private final String bodyFieldName;
+    private final String titleFieldName;
+    private final String[] documentIds;
+    private final long[] fingerprints;
+    private final int hashCode;
+
+    Key(String queryText, String bodyFieldName, String titleFieldName, String[] documentIds, long[] fingerprints) {
+      this.queryText = queryText;
+      this.bodyFieldName = bodyFieldName;
+      this.titleFieldName = titleFieldName;
+      this.documentIds = documentIds;
+      this.fingerprints = fingerprints;
+      this.hashCode = 31 * (31 * Objects.hash(queryText, bodyFieldName, titleFieldName) + Arrays.hashCode(documentIds))
+          + Arrays.hashCode(fingerprints);
+    }
+
+    long ramBytesUsed() {
+      long bytes = KEY_BASE_BYTES + 2L * queryText.length() + 8L * fingerprints.length;
+      for (String documentId : documentIds) {
+        bytes += PER_DOCUMENT_BYTES + 2L * documentId.length();
+      }
+      return bytes;
+    }
+
+    @Override
+    public boolean equals(Object o) {
+      if (this == o) {
+        return true;
+      }
+      if (o == null || getClass() != o.getClass()) {
+        return false;
+      }
+      Key other = (Key) o;
+      return hashCode == other.hashCode &&
+          queryText.equals(other.queryText) &&
+          Objects.equals(bodyFieldName, other.bodyFieldName) &&
+          Objects.equals(titleFieldName, other.titleFieldName) &&
+          Arrays.equals(documentIds, other.documentIds) &&
+          Arrays.equals(fingerprints, other.fingerprints);
+    }
+
+    @Override
+    public int hashCode() {
+      return hashCode;
+    }
+  }
+}
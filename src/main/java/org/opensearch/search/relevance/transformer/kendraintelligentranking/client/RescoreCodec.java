@@ -0,0 +1,302 @@
+/*
+ * SPDX-License-Identifier: Apache-2.0
+ *
+ * The OpenSearch Contributors require contributions made to
+ * this file be licensed under the Apache-2.0 license or a
+ * compatible open source license.
+ */
+package org.opensearch.search.relevance.transformer.kendraintelligentranking.client;
+
+import com.fasterxml.jackson.core.JsonFactory;
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.core.JsonToken;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.zip.GZIPOutputStream;
+
+import org.apache.http.HttpEntity;
+import org.apache.http.entity.ByteArrayEntity;
+import org.opensearch.search.relevance.transformer.kendraintelligentranking.model.dto.Document;
+import org.opensearch.search.relevance.transformer.kendraintelligentranking.model.dto.RescoreRequest;
+import org.opensearch.search.relevance.transformer.kendraintelligentranking.model.dto.RescoreResult;
+
+/**
+ * Streaming JSON codec for the rescore API.
+ * Requests are written token by token into a pooled buffer, which is signed and sent as is rather than copied into
+ * a string and then into a byte array. Responses are parsed from the response stream straight into the document ID
+ * and score arrays of a {@link RescoreResult}, without reading the whole response first or binding an object per
+ * result item. Large requests may be gzipped into another pooled buffer. Each client has its own pool of buffers.
+ */
+public class RescoreCodec {
+  private static final JsonFactory JSON_FACTORY = new JsonFactory();
+  // A rescore request of 100 documents of 3 passages of 200 tokens takes a few hundred kilobytes
+  private static final int INITIAL_BUFFER_SIZE = 64 * 1024;
+  // Buffers grown past this size by an unusually large request are released rather than kept in the pool
+  static final int MAX_POOLED_BUFFER_SIZE = 4 * 1024 * 1024;
+  static final int MAX_POOLED_BUFFERS = 32;
+  private static final int GZIP_BUFFER_SIZE = 8 * 1024;
+
+  private final Queue<RequestBuffer> pool = new ConcurrentLinkedQueue<>();
+  private final AtomicInteger pooledBuffers = new AtomicInteger();
+
+  /**
+   * Serialize a rescore request into a pooled buffer
+   * @param rescoreRequest request to serialize
+   * @return the serialized request, to release once it was sent
+   */
+  public RequestBody encode(RescoreRequest rescoreRequest) throws IOException {
+    RequestBuffer buffer = takeBuffer();
+    try (JsonGenerator generator = JSON_FACTORY.createGenerator(buffer)) {
+      writeRescoreRequest(generator, rescoreRequest);
+    } catch (IOException | RuntimeException e) {
+      recycle(buffer);
+      throw e;
+    }
+    return new RequestBody(buffer, false);
+  }
+
+  /**
+   * Gzip a serialized request into another pooled buffer
+   * @param body serialized request, which is released
+   * @return the compressed request, to release once it was sent
+   */
+  public RequestBody compress(RequestBody body) throws IOException {
+    RequestBuffer buffer = takeBuffer();
+    try (GZIPOutputStream gzip = new GZIPOutputStream(buffer, GZIP_BUFFER_SIZE)) {
+      gzip.write(body.buffer.array(), 0, body.length());
+    } catch (IOException | RuntimeException e) {
+      recycle(buffer);
+      throw e;
+    } finally {
+      body.release();
+    }
+    return new RequestBody(buffer, true);
+  }
+
+  /**
+   * Parse a rescore response, ignoring unknown fields
+   * @param content response stream, which is not closed
+   * @return the parsed result
+   */
+  public static RescoreResult decode(InputStream content) throws IOException {
+    try (JsonParser parser = JSON_FACTORY.createParser(content)) {
+      expectToken(parser, parser.nextToken(), JsonToken.START_OBJECT);
+      String rescoreId = null;
+      String[] documentIds = null;
+      float[] scores = null;
+      int count = 0;
+      while (parser.nextToken() == JsonToken.FIELD_NAME) {
+        String fieldName = parser.getCurrentName();
+        JsonToken token = parser.nextToken();
+        if ("RescoreId".equals(fieldName)) {
+          rescoreId = token == JsonToken.VALUE_NULL ? null : parser.getValueAsString();
+        } else if ("ResultItems".equals(fieldName) && token != JsonToken.VALUE_NULL) {
+          expectToken(parser, token, JsonToken.START_ARRAY);
+          documentIds = new String[16];
+          scores = new float[16];
+          count = 0;
+          while (parser.nextToken() != JsonToken.END_ARRAY) {
+            expectToken(parser, parser.currentToken(), JsonToken.START_OBJECT);
+            if (count == documentIds.length) {
+              documentIds = Arrays.copyOf(documentIds, count * 2);
+              scores = Arrays.copyOf(scores, count * 2);
+            }
+            readResultItem(parser, documentIds, scores, count++);
+          }
+        } else {
+          parser.skipChildren();
+        }
+      }
+      if (documentIds == null) {
+        RescoreResult result = new RescoreResult();
+        result.setRescoreId(rescoreId);
+        return result;
+      }
+      return new RescoreResult(rescoreId, Arrays.copyOf(documentIds, count), Arrays.copyOf(scores, count));
+    }
+  }
+
+  private RequestBuffer takeBuffer() {
+    RequestBuffer buffer = pool.poll();
+    if (buffer == null) {
+      return new RequestBuffer();
+    }
+    pooledBuffers.decrementAndGet();
+    buffer.reset();
+    return buffer;
+  }
+
+  /**
+   * @return number of buffers waiting in the pool
+   */
+  int getPooledBufferCount() {
+    return pooledBuffers.get();
+  }
+
+  private static void readResultItem(JsonParser parser, String[] documentIds, float[] scores, int index) throws IOException {
+    boolean hasScore = false;
+    while (parser.nextToken() == JsonToken.FIELD_NAME) {
+      String fieldName = parser.getCurrentName();
+      JsonToken token = parser.nextToken();
+      if ("DocumentId".equals(fieldName)) {
+        documentIds[index] = token == JsonToken.VALUE_NULL ? null : parser.getValueAsString();
+      } else if ("Score".equals(fieldName) && token != JsonToken.VALUE_NULL) {
+        scores[index] = parser.getFloatValue();
+        hasScore = true;
+      } else {
+        parser.skipChildren();
+      }
+    }
+    if (!hasScore) {
+      throw new IOException("Rescore result item [" + documentIds[index] + "] has no score");
+    }
+  }
+
+  private static void expectToken(JsonParser parser, JsonToken actual, JsonToken expected) throws IOException {
+    if (actual != expected) {
+      throw new IOException("Expected " + expected + " but got " + actual + " at " + parser.getCurrentLocation());
+    }
+  }
+
+  private static void writeRescoreRequest(JsonGenerator generator, RescoreRequest rescoreRequest) throws IOException {
+    generator.writeStartObject();
+    generator.writeStringField("SearchQuery", rescoreRequest.getSearchQuery());
+    generator.writeFieldName("Documents");
+    List<Document> documents = rescoreRequest.getDocuments();
+    if (documents == null) {
+      generator.writeNull();
+    } else {
+      generator.writeStartArray();
+      for (Document document : documents) {
+        writeDocument(generator, document);
+      }
+      generator.writeEndArray();
+    }
+    generator.writeEndObject();
+  }
+
+  private static void writeDocument(JsonGenerator generator, Document document) throws IOException {
+    generator.writeStartObject();
+    generator.writeStringField("Id", document.getId());
+    generator.writeStringField("GroupId", document.getGroupId());
+    writeTokens(generator, "TokenizedTitle", document.getTokenizedTitle());
+    writeTokens(generator, "TokenizedBody", document.getTokenizedBody());
+    generator.writeFieldName("OriginalScore");
+    if (document.getOriginalScore() == null) {
+      generator.writeNull();
+    } else {
+      generator.writeNumber(document.getOriginalScore());
+    }
+    generator.writeEndObject();
+  }
+
+  private static void writeTokens(JsonGenerator generator, String fieldName, List<String> tokens) throws IOException {
+    generator.writeFieldName(fieldName);
+    if (tokens == null) {
+      generator.writeNull();
+      return;
+    }
+    generator.writeStartArray();
+    for (String token : tokens) {
+      generator.writeString(token);
+    }
+    generator.writeEndArray();
+  }
+
+  private void recycle(RequestBuffer buffer) {
+    if (buffer.capacity() > MAX_POOLED_BUFFER_SIZE) {
+      return;
+    }
+    if (pooledBuffers.incrementAndGet() > MAX_POOLED_BUFFERS) {
+      pooledBuffers.decrementAndGet();
+      return;
+    }
+    pool.offer(buffer);
+  }
+
+  /**
+   * A growable buffer whose content can be read in place
+   */
+  private static final class RequestBuffer extends ByteArrayOutputStream {
+    RequestBuffer() {
+      super(INITIAL_BUFFER_SIZE);
+    }
+
+    byte[] array() {
+      return buf;
+    }
+
+    int capacity() {
+      return buf.length;
+    }
+  }
+
+  /**
+   * A serialized rescore request, read in place by each attempt to send it. The buffer goes back to the pool once
+   * every holder released it, so each hedged attempt retains the body until its HTTP exchange completes.
+   */
+  public final class RequestBody {
+    private final RequestBuffer buffer;
+    private final boolean compressed;
+    private final AtomicInteger references = new AtomicInteger(1);
+
+    private RequestBody(RequestBuffer buffer, boolean compressed) {
+      this.buffer = buffer;
+      this.compressed = compressed;
+    }
+
+    /**
+     * @return true if the body is gzipped, and must be sent with a gzip content encoding
+     */
+    public boolean isCompressed() {
+      return compressed;
+    }
+
+    public int length() {
+      return buffer.size();
+    }
+
+    /**
+     * @return a stream over the body, supporting mark and reset so that the body can be hashed when signing
+     */
+    public InputStream newInputStream() {
+      return new ByteArrayInputStream(buffer.array(), 0, buffer.size());
+    }
+
+    public HttpEntity newEntity() {
+      return new ByteArrayEntity(buffer.array(), 0, buffer.size());
+    }
+
+    /**
+     * Take an additional reference to the body, to release once done with it
+     */
+    public RequestBody retain() {
+      int current;
+      do {
+        current = references.get();
+        if (current <= 0) {
+          throw new IllegalStateException("Rescore request body was already released");
+        }
+      } while (!references.compareAndSet(current, current + 1));
+      return this;
+    }
+
+    public void release() {
+      int remaining = references.decrementAndGet();
+      if (remaining == 0) {
+        recycle(buffer);
+      } else if (remaining < 0) {
+        throw new IllegalStateException("Rescore request body was released too many times");
+      }
+    }
+  }
+}
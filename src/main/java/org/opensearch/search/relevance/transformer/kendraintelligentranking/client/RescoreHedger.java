@@ -0,0 +1,255 @@
+/*
+ * SPDX-License-Identifier: Apache-2.0
+ *
+ * The OpenSearch Contributors require contributions made to
+ * this file be licensed under the Apache-2.0 license or a
+ * compatible open source license.
+ */
+package org.opensearch.search.relevance.transformer.kendraintelligentranking.client;
+
+import java.util.Arrays;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Consumer;
+
+import org.opensearch.action.ActionListener;
+import org.opensearch.common.metrics.CounterMetric;
+import org.opensearch.common.unit.TimeValue;
+import org.opensearch.threadpool.Scheduler;
+import org.opensearch.threadpool.ThreadPool;
+
+/**
+ * Hedges calls to the rescore service, to cut the tail latency added by occasional slow responses.
+ * When a call has not completed after a delay set to a percentile of recent call latencies, an identical call is
+ * made, and whichever succeeds first is used. A failure is only reported once no call is left in flight.
+ * Hedges are capped by a budget: each call earns a percentage of a hedge, and each hedge spends a whole one.
+ * Calls are not hedged until enough latencies have been recorded to estimate the percentile.
+ * Hedgers are shared by every client of the node, which all call the same endpoint.
+ */
+public class RescoreHedger {
+  // Number of recent latencies from which the hedge delay is computed
+  static final int LATENCY_WINDOW = 1000;
+  // Number of latencies to record before hedging, and between updates of the hedge delay
+  static final int MIN_SAMPLES = 20;
+  private static final int CREDITS_PER_HEDGE = 100;
+  private static final int MAX_CREDITS = 10 * CREDITS_PER_HEDGE;
+
+  private final ThreadPool threadPool;
+  private final int delayPercentile;
+  private final TimeValue minDelay;
+  private final int budgetPercent;
+
+  private final long[] latencies = new long[LATENCY_WINDOW];
+  private int nextLatency;
+  private int latencyCount;
+  private int latenciesSinceUpdate;
+  private volatile long hedgeDelayNanos = -1;
+  private int credits;
+
+  private final CounterMetric calls = new CounterMetric();
+  private final CounterMetric hedges = new CounterMetric();
+  private final CounterMetric hedgeWins = new CounterMetric();
+  private final CounterMetric budgetExhausted = new CounterMetric();
+
+  /**
+   * @param threadPool      thread pool used to schedule hedges
+   * @param delayPercentile percentile of recent call latencies after which a call is hedged
+   * @param minDelay        minimum time after which a call is hedged
+   * @param budgetPercent   maximum number of hedges, as a percentage of calls. Set to 0 to disable hedging.
+   */
+  public RescoreHedger(ThreadPool threadPool, int delayPercentile, TimeValue minDelay, int budgetPercent) {
+    this.threadPool = threadPool;
+    this.delayPercentile = delayPercentile;
+    this.minDelay = minDelay;
+    this.budgetPercent = budgetPercent;
+  }
+
+  /**
+   * @return a hedger that never hedges calls
+   */
+  public static RescoreHedger disabled() {
+    return new RescoreHedger(null, 100, TimeValue.ZERO, 0);
+  }
+
+  public boolean isEnabled() {
+    return threadPool != null && budgetPercent > 0;
+  }
+
+  /**
+   * Make a call, hedging it if it is slow
+   * @param call     makes one attempt of the call, notifying the given listener with its result. May be invoked twice.
+   * @param listener listener notified with the first successful result, or with a failure once every attempt failed
+   */
+  public <T> void execute(Consumer<ActionListener<T>> call, ActionListener<T> listener) {
+    if (!isEnabled()) {
+      call.accept(listener);
+      return;
+    }
+    calls.inc();
+    synchronized (this) {
+      credits = Math.min(MAX_CREDITS, credits + budgetPercent);
+    }
+    HedgedCall<T> hedgedCall = new HedgedCall<>(call, listener);
+    hedgedCall.attempt(false);
+    long delayNanos = hedgeDelayNanos;
+    if (delayNanos >= 0) {
+      hedgedCall.scheduleHedge(TimeValue.timeValueNanos(delayNanos));
+    }
+  }
+
+  /**
+   * @return the current hedge delay, or null until enough latencies have been recorded
+   */
+  public TimeValue getHedgeDelay() {
+    long delayNanos = hedgeDelayNanos;
+    return delayNanos < 0 ? null : TimeValue.timeValueNanos(delayNanos);
+  }
+
+  /**
+   * @return number of calls, hedges and hedges that completed first, along with the hedge rate and current delay
+   */
+  public Map<String, Object> stats() {
+    Map<String, Object> stats = new LinkedHashMap<>();
+    stats.put("enabled", isEnabled());
+    if (isEnabled()) {
+      long callCount = calls.count();
+      long hedgeCount = hedges.count();
+      stats.put("call_count", callCount);
+      stats.put("hedge_count", hedgeCount);
+      stats.put("hedge_rate", callCount == 0 ? 0.0 : (double) hedgeCount / callCount);
+      stats.put("hedge_win_count", hedgeWins.count());
+      stats.put("budget_exhausted_count", budgetExhausted.count());
+      long delayNanos = hedgeDelayNanos;
+      stats.put("hedge_delay_in_millis", delayNanos < 0 ? -1L : TimeUnit.NANOSECONDS.toMillis(delayNanos));
+    }
+    return stats;
+  }
+
+  synchronized void recordLatency(long latencyNanos) {
+    latencies[nextLatency] = latencyNanos;
+    nextLatency = (nextLatency + 1) % LATENCY_WINDOW;
+    latencyCount = Math.min(latencyCount + 1, LATENCY_WINDOW);
+    if (++latenciesSinceUpdate >= MIN_SAMPLES && latencyCount >= MIN_SAMPLES) {
+      latenciesSinceUpdate = 0;
+      long[] sorted = Arrays.copyOf(latencies, latencyCount);
+      Arrays.sort(sorted);
+      int index = Math.max(0, (int) Math.ceil(delayPercentile / 100.0 * latencyCount) - 1);
+      hedgeDelayNanos = Math.max(minDelay.nanos(), sorted[index]);
+    }
+  }
+
+  private synchronized boolean tryAcquireHedge() {
+    if (credits < CREDITS_PER_HEDGE) {
+      return false;
+    }
+    credits -= CREDITS_PER_HEDGE;
+    return true;
+  }
+
+  /**
+   * A call with up to two attempts in flight, whose listener is notified exactly once
+   */
+  private final class HedgedCall<T> {
+    private final Consumer<ActionListener<T>> call;
+    private final ActionListener<T> listener;
+    private boolean done;
+    private boolean hedged;
+    private int pending;
+    private Exception failure;
+    private Scheduler.ScheduledCancellable hedgeTimer;
+
+    HedgedCall(Consumer<ActionListener<T>> call, ActionListener<T> listener) {
+      this.call = call;
+      this.listener = listener;
+    }
+
+    void scheduleHedge(TimeValue delay) {
+      Scheduler.ScheduledCancellable timer = threadPool.schedule(this::hedge, delay, ThreadPool.Names.GENERIC);
+      synchronized (this) {
+        if (!done) {
+          hedgeTimer = timer;
+          return;
+        }
+      }
+      timer.cancel();
+    }
+
+    private void hedge() {
+      synchronized (this) {
+        if (done || hedged) {
+          return;
+        }
+        if (!tryAcquireHedge()) {
+          budgetExhausted.inc();
+          return;
+        }
+        hedged = true;
+      }
+      hedges.inc();
+      attempt(true);
+    }
+
+    void attempt(boolean isHedge) {
+      synchronized (this) {
+        pending++;
+      }
+      final long startNanos = System.nanoTime();
+      ActionListener<T> attemptListener = new ActionListener<T>() {
+        @Override
+        public void onResponse(T result) {
+          // Every successful attempt tells how long the service takes, whether it won or not
+          recordLatency(System.nanoTime() - startNanos);
+          synchronized (HedgedCall.this) {
+            pending--;
+            if (done) {
+              return;
+            }
+            done = true;
+          }
+          cancelHedge();
+          if (isHedge) {
+            hedgeWins.inc();
+          }
+          listener.onResponse(result);
+        }
+
+        @Override
+        public void onFailure(Exception e) {
+          synchronized (HedgedCall.this) {
+            pending--;
+            if (done) {
+              return;
+            }
+            if (failure != null) {
+              e.addSuppressed(failure);
+            }
+            failure = e;
+            // Wait for the other attempt, or fail without hedging if the call failed before the hedge delay
+            if (pending > 0) {
+              return;
+            }
+            done = true;
+          }
+          cancelHedge();
+          listener.onFailure(e);
+        }
+      };
+      try {
+        call.accept(attemptListener);
+      } catch (Exception e) {
+        attemptListener.onFailure(e);
+      }
+    }
+
+    private void cancelHedge() {
+      Scheduler.ScheduledCancellable timer;
+      synchronized (this) {
+        timer = hedgeTimer;
+      }
+      if (timer != null) {
+        timer.cancel();
+      }
+    }
+  }
+}
@@ -10,11 +10,14 @@ package org.opensearch.search.relevance.transformer.kendraintelligentranking.cli
 import com.amazonaws.http.HttpResponse;
 import com.amazonaws.http.HttpResponseHandler;
 
-import java.nio.charset.StandardCharsets;
+import org.opensearch.search.relevance.transformer.kendraintelligentranking.model.dto.RescoreResult;
 
-public class SimpleResponseHandler implements HttpResponseHandler<String> {
-  @Override public String handle(HttpResponse response) throws Exception {
-    return new String(response.getContent().readAllBytes(), StandardCharsets.UTF_8);
+/**
+ * Parses rescore results straight from the response stream
+ */
+public class RescoreResponseHandler implements HttpResponseHandler<RescoreResult> {
+  @Override public RescoreResult handle(HttpResponse response) throws Exception {
+    return RescoreCodec.decode(response.getContent());
   }
 
   @Override public boolean needsConnectionLeftOpen() {
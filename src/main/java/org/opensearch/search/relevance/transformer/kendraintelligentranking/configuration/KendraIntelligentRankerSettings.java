@@ -7,6 +7,7 @@
  */
 package org.opensearch.search.relevance.transformer.kendraintelligentranking.configuration;
 
+import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.Collections;
 import java.util.List;
@@ -15,6 +16,10 @@ import org.opensearch.common.settings.SecureSetting;
 import org.opensearch.core.common.settings.SecureString;
 import org.opensearch.common.settings.Setting;
 import org.opensearch.common.settings.Setting.Property;
+import org.opensearch.common.unit.TimeValue;
+import org.opensearch.core.common.unit.ByteSizeUnit;
+import org.opensearch.core.common.unit.ByteSizeValue;
+import org.opensearch.search.relevance.transformer.RemoteTransportSettings;
 
 public class KendraIntelligentRankerSettings {
 
@@ -115,8 +120,73 @@ public class KendraIntelligentRankerSettings {
 
   public static final Setting<String> ASSUME_ROLE_ARN_SETTING = Setting.simpleString("kendra_intelligent_ranking.service.assume_role_arn", Setting.Property.NodeScope);
 
+  /**
+   * Maximum memory used by the node-level cache of rescore results. Set to 0 to disable caching.
+   */
+  public static final Setting<ByteSizeValue> RESCORE_CACHE_SIZE_SETTING = Setting.byteSizeSetting("kendra_intelligent_ranking.rescore_cache.size",
+      new ByteSizeValue(10, ByteSizeUnit.MB), Setting.Property.NodeScope);
+
+  /**
+   * Time after which a cached rescore result expires, bounding how long changes on the Kendra side take to show up.
+   */
+  public static final Setting<TimeValue> RESCORE_CACHE_TTL_SETTING = Setting.timeSetting("kendra_intelligent_ranking.rescore_cache.ttl",
+      TimeValue.timeValueMinutes(10), TimeValue.timeValueSeconds(1), Setting.Property.NodeScope);
+
+  /**
+   * Maximum memory used by the node-level cache of passages generated from documents. Set to 0 to disable caching.
+   */
+  public static final Setting<ByteSizeValue> PASSAGE_CACHE_SIZE_SETTING = Setting.byteSizeSetting("kendra_intelligent_ranking.passage_cache.size",
+      new ByteSizeValue(20, ByteSizeUnit.MB), Setting.Property.NodeScope);
+
+  /**
+   * Minimum number of hits to rerank for which passage generation and scoring is spread over the preprocess thread pool.
+   * Set above the doc limit to always preprocess on the calling thread.
+   */
+  public static final Setting<Integer> PARALLEL_PREPROCESS_THRESHOLD_SETTING = Setting.intSetting(
+      "kendra_intelligent_ranking.preprocess.parallel_threshold", 16, 2, Setting.Property.NodeScope);
+
+  /**
+   * Maximum number of searches waiting on an identical rescore call in flight, beyond which searches make their own
+   * call. Set to 0 to disable coalescing of identical rescore calls.
+   */
+  public static final Setting<Integer> RESCORE_COALESCING_MAX_WAITERS_SETTING = Setting.intSetting(
+      "kendra_intelligent_ranking.rescore_coalescing.max_waiters", 100, 0, Setting.Property.NodeScope);
+
+  /**
+   * Time after which a search stops waiting for an identical rescore call, and returns the original ranking.
+   */
+  public static final Setting<TimeValue> RESCORE_COALESCING_WAIT_TIMEOUT_SETTING = Setting.timeSetting(
+      "kendra_intelligent_ranking.rescore_coalescing.wait_timeout", TimeValue.timeValueSeconds(10), TimeValue.timeValueMillis(1),
+      Setting.Property.NodeScope);
+
+  /**
+   * Maximum number of hedged rescore calls, as a percentage of rescore calls. Set to 0 to disable hedging.
+   */
+  public static final Setting<Integer> HEDGING_BUDGET_PERCENT_SETTING = Setting.intSetting(
+      "kendra_intelligent_ranking.hedging.budget_percent", 0, 0, 100, Setting.Property.NodeScope);
+
+  /**
+   * Percentile of recent rescore latencies after which a rescore call is hedged.
+   */
+  public static final Setting<Integer> HEDGING_DELAY_PERCENTILE_SETTING = Setting.intSetting(
+      "kendra_intelligent_ranking.hedging.delay_percentile", 95, 50, 99, Setting.Property.NodeScope);
+
+  /**
+   * Minimum time after which a rescore call is hedged, however fast recent calls were.
+   */
+  public static final Setting<TimeValue> HEDGING_MIN_DELAY_SETTING = Setting.timeSetting(
+      "kendra_intelligent_ranking.hedging.min_delay", TimeValue.timeValueMillis(20), TimeValue.timeValueMillis(1),
+      Setting.Property.NodeScope);
+
+  /**
+   * Connection pool, timeouts and request compression of the client of the rescore API. The rescore API accepts
+   * gzipped request bodies, which carry the passages of every hit to rerank.
+   */
+  public static final RemoteTransportSettings.Group TRANSPORT_SETTINGS =
+      RemoteTransportSettings.Group.withRequestCompression("kendra_intelligent_ranking");
+
   public static List<Setting<?>> getAllSettings() {
-    return Arrays.asList(
+    List<Setting<?>> settings = new ArrayList<>(Arrays.asList(
       KENDRA_ORDER_SETTING,
       KENDRA_BODY_FIELD_SETTING,
       KENDRA_TITLE_FIELD_SETTING,
@@ -127,7 +197,18 @@ public class KendraIntelligentRankerSettings {
       SERVICE_ENDPOINT_SETTING,
       SERVICE_REGION_SETTING,
       EXECUTION_PLAN_ID_SETTING,
-      ASSUME_ROLE_ARN_SETTING
-    );
+      ASSUME_ROLE_ARN_SETTING,
+      RESCORE_CACHE_SIZE_SETTING,
+      RESCORE_CACHE_TTL_SETTING,
+      PASSAGE_CACHE_SIZE_SETTING,
+      PARALLEL_PREPROCESS_THRESHOLD_SETTING,
+      RESCORE_COALESCING_MAX_WAITERS_SETTING,
+      RESCORE_COALESCING_WAIT_TIMEOUT_SETTING,
+      HEDGING_BUDGET_PERCENT_SETTING,
+      HEDGING_DELAY_PERCENTILE_SETTING,
+      HEDGING_MIN_DELAY_SETTING
+    ));
+    settings.addAll(TRANSPORT_SETTINGS.getAllSettings());
+    return settings;
   }
 }
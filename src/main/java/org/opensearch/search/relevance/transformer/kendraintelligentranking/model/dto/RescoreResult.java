@@ -7,38 +7,60 @@
  */
 package org.opensearch.search.relevance.transformer.kendraintelligentranking.model.dto;
 
-import com.fasterxml.jackson.databind.PropertyNamingStrategies;
-import com.fasterxml.jackson.databind.annotation.JsonNaming;
-
-import java.util.List;
-
-@JsonNaming(PropertyNamingStrategies.UpperCamelCaseStrategy.class)
+/**
+ * Result of a rescore call. Result items are held as parallel arrays of document IDs and scores rather than as
+ * one object per item, as results are parsed straight from the response and may be kept in the rescore cache.
+ */
 public class RescoreResult {
   private String rescoreId;
-  private List<RescoreResultItem> resultItems;
+  private String[] documentIds;
+  private float[] scores;
+
+  public RescoreResult() {
+  }
+
+  /**
+   * @param rescoreId   identifier associated with the scores
+   * @param documentIds IDs of the rescored documents, in the order returned by the service
+   * @param scores      scores of the rescored documents, in the same order as the IDs
+   */
+  public RescoreResult(String rescoreId, String[] documentIds, float[] scores) {
+    if (documentIds.length != scores.length) {
+      throw new IllegalArgumentException("Got " + documentIds.length + " document IDs for " + scores.length + " scores");
+    }
+    this.rescoreId = rescoreId;
+    this.documentIds = documentIds;
+    this.scores = scores;
+  }
 
   public String getRescoreId() {
     return rescoreId;
   }
 
-  public List<RescoreResultItem> getResultItems() {
-    return resultItems;
+  /**
+   * @return false if the service returned no result items
+   */
+  public boolean hasResultItems() {
+    return documentIds != null;
+  }
+
+  public int getResultItemCount() {
+    return documentIds == null ? 0 : documentIds.length;
+  }
+
+  public String getDocumentId(int index) {
+    return documentIds[index];
+  }
+
+  public float getScore(int index) {
+    return scores[index];
   }
 
   /**
-   * Setter used for unit tests.
    * @param rescoreId The identifier associated with the scores that Amazon Kendra Intelligent Ranking
    *                  gives to the results.
    */
   public void setRescoreId(String rescoreId) {
     this.rescoreId = rescoreId;
   }
-
-  /**
-   * Setter used for unit tests.
-   * @param resultItems A list of result items for documents with new relevancy scores.
-   */
-  public void setResultItems(List<RescoreResultItem> resultItems) {
-    this.resultItems = resultItems;
-  }
 }
@@ -0,0 +1,98 @@
+/*
+ * SPDX-License-Identifier: Apache-2.0
+ *
+ * The OpenSearch Contributors require contributions made to
+ * this file be licensed under the Apache-2.0 license or a
+ * compatible open source license.
+ */
+
+package org.opensearch.search.relevance.transformer.kendraintelligentranking.pipeline;
+
+import org.opensearch.ingest.AbstractProcessor;
+import org.opensearch.ingest.ConfigurationUtils;
+import org.opensearch.ingest.IngestDocument;
+import org.opensearch.ingest.Processor;
+import org.opensearch.search.relevance.transformer.kendraintelligentranking.preprocess.PassageGenerator;
+import org.opensearch.search.relevance.transformer.kendraintelligentranking.preprocess.PrecomputedPassages;
+
+import java.util.Map;
+
+/**
+ * This is an ingest {@link Processor} that generates the passages used by kendra re-ranking when a document is
+ * indexed, and stores them in the document so that the body field does not need to be tokenized at search time.
+ */
+public class KendraPassageProcessor extends AbstractProcessor {
+    /**
+     * key to reference this processor type from an ingest pipeline
+     */
+    public static final String TYPE = "kendra_passages";
+    private final String field;
+    private final boolean ignoreMissing;
+    private final PassageGenerator passageGenerator;
+
+    /**
+     * Constructor that apply configuration for passage generation
+     *
+     * @param tag           processor tag
+     * @param description   processor description
+     * @param field         body field to generate passages from
+     * @param ignoreMissing whether documents missing the field are passed through unchanged
+     */
+    public KendraPassageProcessor(String tag, String description, String field, boolean ignoreMissing) {
+        super(tag, description);
+        this.field = field;
+        this.ignoreMissing = ignoreMissing;
+        this.passageGenerator = new PassageGenerator();
+    }
+
+    /**
+     * Gets the type of the processor.
+     */
+    @Override
+    public String getType() {
+        return TYPE;
+    }
+
+    String getField() {
+        return field;
+    }
+
+    boolean isIgnoreMissing() {
+        return ignoreMissing;
+    }
+
+    /**
+     * Generate passages from the body field and store them under {@link PrecomputedPassages#FIELD_PREFIX}
+     */
+    @Override
+    public IngestDocument execute(IngestDocument ingestDocument) {
+        Object body = ingestDocument.getFieldValue(field, Object.class, ignoreMissing);
+        if (body == null) {
+            if (ignoreMissing) {
+                return ingestDocument;
+            }
+            throw new IllegalArgumentException("field [" + field + "] is null, cannot generate passages.");
+        }
+        ingestDocument.setFieldValue(PrecomputedPassages.fieldName(field),
+                PrecomputedPassages.encode(passageGenerator.generatePassages(body.toString())));
+        return ingestDocument;
+    }
+
+    /**
+     * This is a factory that creates the KendraPassageProcessor
+     */
+    public static final class Factory implements Processor.Factory {
+
+        @Override
+        public KendraPassageProcessor create(
+                Map<String, Processor.Factory> processorFactories,
+                String tag,
+                String description,
+                Map<String, Object> config
+        ) throws Exception {
+            String field = ConfigurationUtils.readStringProperty(TYPE, tag, config, "field");
+            boolean ignoreMissing = ConfigurationUtils.readBooleanProperty(TYPE, tag, config, "ignore_missing", false);
+            return new KendraPassageProcessor(tag, description, field, ignoreMissing);
+        }
+    }
+}
@@ -10,9 +10,13 @@ package org.opensearch.search.relevance.transformer.kendraintelligentranking.pip
 
 import org.apache.logging.log4j.LogManager;
 import org.apache.logging.log4j.Logger;
+import org.opensearch.action.ActionListener;
 import org.opensearch.action.search.SearchRequest;
 import org.opensearch.action.search.SearchResponse;
 import org.opensearch.action.search.SearchResponseSections;
+import org.opensearch.action.support.PlainActionFuture;
+import org.opensearch.common.unit.TimeValue;
+import org.opensearch.common.util.concurrent.AbstractRunnable;
 import org.opensearch.ingest.ConfigurationUtils;
 import org.opensearch.search.SearchHits;
 import org.opensearch.search.aggregations.InternalAggregations;
@@ -21,11 +25,18 @@ import org.opensearch.search.pipeline.AbstractProcessor;
 import org.opensearch.search.pipeline.Processor;
 import org.opensearch.search.pipeline.SearchResponseProcessor;
 import org.opensearch.search.profile.SearchProfileShardResults;
+import org.opensearch.search.relevance.transformer.RemoteClientRegistry;
+import org.opensearch.search.relevance.transformer.RerankDeadline;
+import org.opensearch.search.relevance.transformer.RerankDeadlineExceededException;
+import org.opensearch.search.relevance.transformer.RerankDeadlineTracker;
 import org.opensearch.search.relevance.transformer.kendraintelligentranking.KendraIntelligentRanker;
+import org.opensearch.search.relevance.transformer.kendraintelligentranking.KendraRankerComponents;
 import org.opensearch.search.relevance.transformer.kendraintelligentranking.client.KendraClientSettings;
 import org.opensearch.search.relevance.transformer.kendraintelligentranking.client.KendraHttpClient;
 import org.opensearch.search.relevance.transformer.kendraintelligentranking.configuration.KendraIntelligentRankingConfiguration;
+import org.opensearch.threadpool.ThreadPool;
 
+import static org.opensearch.search.relevance.configuration.Constants.RERANK_THREAD_POOL_NAME;
 import static org.opensearch.search.relevance.transformer.kendraintelligentranking.configuration.Constants.KENDRA_DEFAULT_DOC_LIMIT;
 
 import java.util.Collections;
@@ -41,12 +52,14 @@ public class KendraRankingResponseProcessor extends AbstractProcessor implements
      * key to reference this processor type from a search pipeline
      */
     public static final String TYPE = "kendra_ranking";
-    private final List<String> titleField;
-    private final List<String> bodyField;
-    private final int docLimit;
     private final String tag;
     private final String description;
-    private final KendraHttpClient kendraClient;
+    // Built once for the processor and shared by concurrent searches, as neither holds per-search state
+    private final KendraIntelligentRanker ranker;
+    private final KendraIntelligentRankingConfiguration configuration;
+    private final TimeValue rerankTimeout;
+    private final RerankDeadlineTracker rerankDeadlineTracker;
+    private final ThreadPool threadPool;
 
     private static final Logger logger = LogManager.getLogger(KendraRankingResponseProcessor.class);
 
@@ -59,22 +72,31 @@ public class KendraRankingResponseProcessor extends AbstractProcessor implements
      * @param titleField     titleField applied to kendra re-ranking
      * @param bodyField      bodyField applied to kendra re-ranking
      * @param inputDocLimit  docLimit applied to kendra re-ranking
+     * @param rerankTimeout  time allowed for re-ranking, or null for no timeout other than the search request timeout
      * @param kendraClient   kendraClient to connect with kendra
+     * @param components     caches, coalescing, deadline tracking and thread pool shared by all kendra processors
      */
-    public KendraRankingResponseProcessor(String tag, String description,  boolean ignoreFailure, List<String> titleField, List<String> bodyField, Integer inputDocLimit, KendraHttpClient kendraClient) {
+    public KendraRankingResponseProcessor(String tag, String description,  boolean ignoreFailure, List<String> titleField, List<String> bodyField, Integer inputDocLimit, TimeValue rerankTimeout, KendraHttpClient kendraClient, KendraRankerComponents components) {
         super(tag, description, ignoreFailure);
-        this.titleField = titleField;
-        this.bodyField = bodyField;
+        this.rerankTimeout = rerankTimeout;
+        this.rerankDeadlineTracker = components.getRerankDeadlineTracker();
+        this.threadPool = components.getThreadPool();
         this.tag = tag;
         this.description = description;
-        this.kendraClient = kendraClient;
         int docLimit;
         if (inputDocLimit == null) {
             docLimit = KENDRA_DEFAULT_DOC_LIMIT;
         } else {
             docLimit = inputDocLimit;
         }
-        this.docLimit = docLimit;
+        this.ranker = new KendraIntelligentRanker(kendraClient, components);
+        this.configuration = new KendraIntelligentRankingConfiguration(1,
+                new KendraIntelligentRankingConfiguration.KendraIntelligentRankingProperties(
+                        unmodifiableListOrNull(bodyField), unmodifiableListOrNull(titleField), docLimit));
+    }
+
+    private static List<String> unmodifiableListOrNull(List<String> fields) {
+        return fields == null ? null : Collections.unmodifiableList(fields);
     }
 
     /**
@@ -101,9 +123,16 @@ public class KendraRankingResponseProcessor extends AbstractProcessor implements
         return description;
     }
 
+    TimeValue getRerankTimeout() {
+        // Visible for testing
+        return rerankTimeout;
+    }
+
 
     /**
-     * Transform the response hit and apply kendra re-ranking logic
+     * Transform the response hit and apply kendra re-ranking logic. Re-ranking runs on the rerank executor, and the
+     * calling thread only waits for its result, which the rerank deadline bounds. If the executor is saturated, the
+     * response is returned with its original ranking.
      */
     @Override
     public SearchResponse processResponse(SearchRequest request, SearchResponse response) throws Exception {
@@ -115,29 +144,68 @@ public class KendraRankingResponseProcessor extends AbstractProcessor implements
             return response;
         }
 
-        KendraIntelligentRankingConfiguration.KendraIntelligentRankingProperties properties = new KendraIntelligentRankingConfiguration.KendraIntelligentRankingProperties(bodyField, titleField, docLimit);
-        KendraIntelligentRankingConfiguration configuration = new KendraIntelligentRankingConfiguration(1, properties);
-        KendraIntelligentRanker ranker = new KendraIntelligentRanker(this.kendraClient);
-        SearchRequest processedRequest = ranker.preprocessRequest(request, configuration);
-
-        if (ranker.shouldTransform(processedRequest, configuration)) {
-            long startTime = System.nanoTime();
-            SearchHits reRankedSearchHits = ranker.transform(hits, processedRequest, configuration);
-            long timeTookMillis = TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - startTime);
-
-            final SearchResponseSections internalResponse = new InternalSearchResponse(reRankedSearchHits,
-                    (InternalAggregations) response.getAggregations(), response.getSuggest(),
-                    new SearchProfileShardResults(response.getProfileResults()), response.isTimedOut(),
-                    response.isTerminatedEarly(), response.getNumReducePhases());
-
-            final SearchResponse newResponse = new SearchResponse(internalResponse, response.getScrollId(),
-                    response.getTotalShards(), response.getSuccessfulShards(),
-                    response.getSkippedShards(), timeTookMillis, response.getShardFailures(),
-                    response.getClusters());
-            logger.info("kendra ranking processor took " + timeTookMillis + " ms");
-            return newResponse;
-        } else
-            return response;
+        PlainActionFuture<SearchResponse> future = PlainActionFuture.newFuture();
+        rerank(request, response, future);
+        try {
+            return future.actionGet();
+        } catch (RerankDeadlineExceededException e) {
+            // Recorded on the calling thread, so that the response header reaches the client
+            return onDeadlineExceeded(response, e);
+        }
+    }
+
+    private void rerank(SearchRequest request, SearchResponse response, ActionListener<SearchResponse> responseListener) {
+        threadPool.executor(RERANK_THREAD_POOL_NAME).execute(new AbstractRunnable() {
+            @Override
+            protected void doRun() {
+                SearchRequest processedRequest = ranker.preprocessRequest(request, configuration);
+
+                if (ranker.shouldTransform(processedRequest, configuration)) {
+                    long startTime = System.nanoTime();
+                    RerankDeadline deadline = RerankDeadline.forSearchResponse(threadPool, request, response, rerankTimeout);
+                    ranker.transformAsync(response.getHits(), processedRequest, configuration, deadline, ActionListener.wrap(
+                            reRankedSearchHits -> responseListener.onResponse(buildResponse(response, reRankedSearchHits, startTime)),
+                            responseListener::onFailure));
+                } else {
+                    responseListener.onResponse(response);
+                }
+            }
+
+            @Override
+            public void onRejection(Exception e) {
+                // Fall back to the original ranking rather than queueing more rerank work
+                logger.warn("Rerank thread pool rejected the request. Returning search response without re-ranking.", e);
+                responseListener.onResponse(response);
+            }
+
+            @Override
+            public void onFailure(Exception e) {
+                responseListener.onFailure(e);
+            }
+        });
+    }
+
+    private SearchResponse onDeadlineExceeded(SearchResponse response, Exception e) {
+        logger.warn("kendra ranking processor missed the rerank deadline. Returning search response without re-ranking. {}",
+                e.getMessage());
+        rerankDeadlineTracker.recordMiss(threadPool.getThreadContext(), TYPE);
+        return response;
+    }
+
+    private SearchResponse buildResponse(SearchResponse response, SearchHits reRankedSearchHits, long startTime) {
+        long timeTookMillis = TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - startTime);
+
+        final SearchResponseSections internalResponse = new InternalSearchResponse(reRankedSearchHits,
+                (InternalAggregations) response.getAggregations(), response.getSuggest(),
+                new SearchProfileShardResults(response.getProfileResults()), response.isTimedOut(),
+                response.isTerminatedEarly(), response.getNumReducePhases());
+
+        final SearchResponse newResponse = new SearchResponse(internalResponse, response.getScrollId(),
+                response.getTotalShards(), response.getSuccessfulShards(),
+                response.getSkippedShards(), timeTookMillis, response.getShardFailures(),
+                response.getClusters());
+        logger.info("kendra ranking processor took " + timeTookMillis + " ms");
+        return newResponse;
     }
 
     /**
@@ -146,13 +214,20 @@ public class KendraRankingResponseProcessor extends AbstractProcessor implements
     public static final class Factory implements Processor.Factory<SearchResponseProcessor>  {
 
         private final KendraClientSettings clientSettings;
+        private final RemoteClientRegistry<KendraClientSettings, KendraHttpClient> clientRegistry;
+        private final KendraRankerComponents components;
 
         /**
          * Constructor for factory
-         * @param kendraClientSettings credentials to create kendra client
+         * @param kendraClientSettings settings identifying the kendra client to use
+         * @param clientRegistry       node-level registry of kendra clients, shared by all processors
+         * @param components           caches, coalescing, deadline tracking and thread pool shared by all processors
          */
-        public Factory(KendraClientSettings kendraClientSettings) {
+        public Factory(KendraClientSettings kendraClientSettings, RemoteClientRegistry<KendraClientSettings, KendraHttpClient> clientRegistry,
+                       KendraRankerComponents components) {
             this.clientSettings = kendraClientSettings;
+            this.clientRegistry = clientRegistry;
+            this.components = components;
         }
 
         public KendraRankingResponseProcessor create(
@@ -166,14 +241,24 @@ public class KendraRankingResponseProcessor extends AbstractProcessor implements
             List<String> titleField = Collections.singletonList(ConfigurationUtils.readOptionalStringProperty(TYPE, tag, config, "title_field"));
             List<String> bodyField = Collections.singletonList(ConfigurationUtils.readStringProperty(TYPE, tag, config, "body_field"));
             String inputDocLimit = ConfigurationUtils.readOptionalStringOrIntProperty(TYPE, tag, config, "doc_limit");
-            KendraHttpClient kendraClient = new KendraHttpClient(this.clientSettings);
+            String inputRerankTimeout = ConfigurationUtils.readOptionalStringProperty(TYPE, tag, config, "rerank_timeout");
+            TimeValue rerankTimeout;
+            try {
+                rerankTimeout = TimeValue.parseTimeValue(inputRerankTimeout, null, "rerank_timeout");
+            } catch (IllegalArgumentException e) {
+                throw ConfigurationUtils.newConfigurationException(TYPE, tag, "rerank_timeout", e.getMessage());
+            }
             int docLimit;
             if (inputDocLimit == null) {
                 docLimit = KENDRA_DEFAULT_DOC_LIMIT;
             } else {
                 docLimit = Integer.parseInt(inputDocLimit);
             }
-            return new KendraRankingResponseProcessor(tag, description, ignoreFailure, titleField, bodyField, docLimit, kendraClient);
+            // Processors share the client of the node, released when the node closes or earlier once the processor is unreachable
+            RemoteClientRegistry.Lease<KendraHttpClient> clientLease = clientRegistry.acquire(clientSettings);
+            KendraRankingResponseProcessor processor = new KendraRankingResponseProcessor(tag, description, ignoreFailure, titleField, bodyField, docLimit, rerankTimeout, clientLease.get(), components);
+            clientLease.releaseWhenUnreachable(processor);
+            return processor;
         }
     }
 }
@@ -0,0 +1,109 @@
+/*
+ * SPDX-License-Identifier: Apache-2.0
+ *
+ * The OpenSearch Contributors require contributions made to
+ * this file be licensed under the Apache-2.0 license or a
+ * compatible open source license.
+ */
+package org.opensearch.search.relevance.transformer.kendraintelligentranking.preprocess;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.Executor;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.function.IntFunction;
+
+/**
+ * Runs independent per-hit preprocessing tasks, spreading them over a bounded executor when there are enough hits to
+ * pay for the hand-off, and returns the results in hit order.
+ * The calling thread always takes part in the work, and helpers claim hits from a shared counter, so a saturated or
+ * rejecting executor only reduces parallelism: the caller never waits on a task that has not started.
+ */
+public class ParallelPreprocessor {
+  private static final ParallelPreprocessor SEQUENTIAL = new ParallelPreprocessor(null, 1, Integer.MAX_VALUE);
+
+  private final Executor executor;
+  private final int maxParallelism;
+  private final int parallelThreshold;
+
+  /**
+   * @param executor bounded executor running the helper tasks
+   * @param maxParallelism maximum number of threads, including the caller, working on one request
+   * @param parallelThreshold minimum number of hits for which work is handed to the executor
+   */
+  public ParallelPreprocessor(Executor executor, int maxParallelism, int parallelThreshold) {
+    this.executor = executor;
+    this.maxParallelism = maxParallelism;
+    this.parallelThreshold = parallelThreshold;
+  }
+
+  /**
+   * @return a preprocessor that runs every task on the calling thread
+   */
+  public static ParallelPreprocessor sequential() {
+    return SEQUENTIAL;
+  }
+
+  /**
+   * Apply a task to every index in [0, count)
+   * @param count number of tasks
+   * @param task task run for each index. It must be safe to call from several threads at once.
+   * @return results indexed like the tasks
+   */
+  public <T> List<T> process(final int count, final IntFunction<T> task) {
+    if (executor == null || maxParallelism <= 1 || count < Math.max(2, parallelThreshold)) {
+      List<T> results = new ArrayList<>(count);
+      for (int i = 0; i < count; ++i) {
+        results.add(task.apply(i));
+      }
+      return results;
+    }
+
+    final Object[] results = new Object[count];
+    final AtomicInteger nextIndex = new AtomicInteger();
+    final CountDownLatch completed = new CountDownLatch(count);
+    final AtomicReference<RuntimeException> failure = new AtomicReference<>();
+    final Runnable worker = () -> {
+      for (int i = nextIndex.getAndIncrement(); i < count; i = nextIndex.getAndIncrement()) {
+        try {
+          if (failure.get() == null) {
+            results[i] = task.apply(i);
+          }
+        } catch (RuntimeException e) {
+          failure.compareAndSet(null, e);
+        } finally {
+          completed.countDown();
+        }
+      }
+    };
+
+    final int helperCount = Math.min(count, maxParallelism) - 1;
+    for (int i = 0; i < helperCount; ++i) {
+      try {
+        executor.execute(worker);
+      } catch (RejectedExecutionException e) {
+        // The executor is saturated, so the threads already working take the remaining hits
+        break;
+      }
+    }
+    worker.run();
+
+    // Every hit has been claimed, so this only waits for hits that helpers are already processing
+    try {
+      completed.await();
+    } catch (InterruptedException e) {
+      Thread.currentThread().interrupt();
+      throw new IllegalStateException("Interrupted while preprocessing hits", e);
+    }
+    if (failure.get() != null) {
+      throw failure.get();
+    }
+    @SuppressWarnings("unchecked")
+    List<T> orderedResults = (List<T>) Arrays.asList(results);
+    return orderedResults;
+  }
+}
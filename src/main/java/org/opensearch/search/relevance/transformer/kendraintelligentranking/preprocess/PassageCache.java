@@ -0,0 +1,198 @@
+/*
+ * SPDX-License-Identifier: Apache-2.0
+ *
+ * The OpenSearch Contributors require contributions made to
+ * this file be licensed under the Apache-2.0 license or a
+ * compatible open source license.
+ */
+package org.opensearch.search.relevance.transformer.kendraintelligentranking.preprocess;
+
+import static org.opensearch.index.seqno.SequenceNumbers.UNASSIGNED_SEQ_NO;
+import static org.opensearch.search.relevance.transformer.kendraintelligentranking.configuration.KendraIntelligentRankerSettings.PASSAGE_CACHE_SIZE_SETTING;
+
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.function.Supplier;
+
+import org.apache.lucene.util.BytesRef;
+import org.opensearch.common.cache.Cache;
+import org.opensearch.common.cache.CacheBuilder;
+import org.opensearch.common.hash.MurmurHash3;
+import org.opensearch.common.settings.Settings;
+import org.opensearch.core.common.bytes.BytesReference;
+import org.opensearch.core.common.unit.ByteSizeValue;
+import org.opensearch.core.index.shard.ShardId;
+import org.opensearch.search.SearchHit;
+
+/**
+ * Node-level LRU cache of the passages generated from a document field, so that documents that are returned by many
+ * queries are split into sentences and tokenized once per version rather than once per request.
+ * Entries are keyed by document version, using the shard along with _seq_no and _primary_term when they are returned
+ * with the hit and a hash of the document source otherwise, so updated documents never see stale passages.
+ * The shard is identified by the UUID of its index rather than the index name, as an index deleted and recreated
+ * under the same name, or a document with the same _id routed to another shard, reuses the same _seq_no and
+ * _primary_term.
+ */
+public class PassageCache {
+  // Rough per-object overheads used to weigh entries against the configured cache size
+  private static final long ENTRY_BASE_BYTES = 128;
+  private static final long PER_LIST_BYTES = 40;
+  private static final long PER_TOKEN_BYTES = 48;
+  private static final long SHARD_ID_BYTES = 96;
+
+  private final Cache<Key, List<List<String>>> cache;
+
+  /**
+   * Create a cache sized from the node settings. A size of 0 disables caching.
+   * @param settings node settings
+   */
+  public PassageCache(Settings settings) {
+    this(PASSAGE_CACHE_SIZE_SETTING.get(settings));
+  }
+
+  public PassageCache(ByteSizeValue maxSize) {
+    if (maxSize.getBytes() <= 0) {
+      this.cache = null;
+    } else {
+      this.cache = CacheBuilder.<Key, List<List<String>>>builder()
+          .setMaximumWeight(maxSize.getBytes())
+          .weigher(PassageCache::weigh)
+          .build();
+    }
+  }
+
+  /**
+   * @return a cache that never stores passages
+   */
+  public static PassageCache disabled() {
+    return new PassageCache(ByteSizeValue.ZERO);
+  }
+
+  public boolean isEnabled() {
+    return cache != null;
+  }
+
+  /**
+   * Get the passages generated from a field of a search hit, generating and caching them on a miss
+   * @param hit search hit the field value was read from
+   * @param fieldName name of the field passages are generated from
+   * @param passageSupplier generates passages on a cache miss
+   * @return passages, where each passage is a list of tokens. The passages must not be modified.
+   */
+  public List<List<String>> getOrGenerate(SearchHit hit, String fieldName, Supplier<List<List<String>>> passageSupplier) {
+    if (cache == null) {
+      return passageSupplier.get();
+    }
+    Key key = buildKey(hit, fieldName);
+    if (key == null) {
+      return passageSupplier.get();
+    }
+    List<List<String>> passages = cache.get(key);
+    if (passages == null) {
+      passages = passageSupplier.get();
+      cache.put(key, passages);
+    }
+    return passages;
+  }
+
+  public void invalidateAll() {
+    if (cache != null) {
+      cache.invalidateAll();
+    }
+  }
+
+  /**
+   * @return hit, miss and eviction counts along with the current size of the cache
+   */
+  public Map<String, Object> stats() {
+    Map<String, Object> stats = new LinkedHashMap<>();
+    stats.put("enabled", cache != null);
+    if (cache != null) {
+      Cache.CacheStats cacheStats = cache.stats();
+      stats.put("count", cache.count());
+      stats.put("size_in_bytes", cache.weight());
+      stats.put("hit_count", cacheStats.getHits());
+      stats.put("miss_count", cacheStats.getMisses());
+      stats.put("evictions", cacheStats.getEvictions());
+    }
+    return stats;
+  }
+
+  static Key buildKey(SearchHit hit, String fieldName) {
+    ShardId shardId = hit.getShard() == null ? null : hit.getShard().getShardId();
+    if (hit.getSeqNo() != UNASSIGNED_SEQ_NO && shardId != null) {
+      return new Key(shardId, hit.getId(), fieldName, hit.getSeqNo(), hit.getPrimaryTerm());
+    }
+    // Without the shard, _seq_no and _primary_term do not identify a version
+    BytesReference source = hit.getSourceRef();
+    if (source == null) {
+      return null;
+    }
+    BytesRef bytes = source.toBytesRef();
+    MurmurHash3.Hash128 hash = MurmurHash3.hash128(bytes.bytes, bytes.offset, bytes.length, 0, new MurmurHash3.Hash128());
+    return new Key(shardId, hit.getId(), fieldName, hash.h1, hash.h2);
+  }
+
+  private static long weigh(Key key, List<List<String>> passages) {
+    long weight = ENTRY_BASE_BYTES + key.ramBytesUsed();
+    for (List<String> passage : passages) {
+      weight += PER_LIST_BYTES;
+      for (String token : passage) {
+        weight += PER_TOKEN_BYTES + 2L * token.length();
+      }
+    }
+    return weight;
+  }
+
+  /**
+   * Identifies a version of a document field
+   */
+  static final class Key {
+    // Includes the UUID of the index, may be null if the hit does not carry its shard
+    private final ShardId shardId;
+    private final String id;
+    private final String fieldName;
+    // Either _seq_no and _primary_term, or the two halves of a 128-bit hash of the source
+    private final long version1;
+    private final long version2;
+    private final int hashCode;
+
+    Key(ShardId shardId, String id, String fieldName, long version1, long version2) {
+      this.shardId = shardId;
+      this.id = id;
+      this.fieldName = fieldName;
+      this.version1 = version1;
+      this.version2 = version2;
+      this.hashCode = Objects.hash(shardId, id, fieldName, version1, version2);
+    }
+
+    long ramBytesUsed() {
+      return (shardId == null ? 0 : SHARD_ID_BYTES + 2L * shardId.getIndexName().length())
+          + 2L * (id.length() + fieldName.length());
+    }
+
+    @Override
+    public boolean equals(Object o) {
+      if (this == o) {
+        return true;
+      }
+      if (o == null || getClass() != o.getClass()) {
+        return false;
+      }
+      Key other = (Key) o;
+      return hashCode == other.hashCode &&
+          version1 == other.version1 &&
+          version2 == other.version2 &&
+          Objects.equals(shardId, other.shardId) &&
+          id.equals(other.id) &&
+          fieldName.equals(other.fieldName);
+    }
+
+    @Override
+    public int hashCode() {
+      return hashCode;
+    }
+  }
+}
@@ -9,7 +9,6 @@ package org.opensearch.search.relevance.transformer.kendraintelligentranking.pre
 
 import java.util.ArrayList;
 import java.util.List;
-import java.util.stream.Collectors;
 
 public class PassageGenerator {
   private static final int MAX_SENTENCE_LENGTH_IN_TOKENS = 35;
@@ -24,17 +23,34 @@ public class PassageGenerator {
     this.textTokenizer = new TextTokenizer();
   }
 
+  /**
+   * Split a document into overlapping passages of tokens, using the passage sizes expected by Kendra Intelligent Ranking
+   * @param document input document
+   * @return List of passages, where each passage is a list of tokens
+   */
+  public List<List<String>> generatePassages(final String document) {
+    return generatePassages(document, MAX_SENTENCE_LENGTH_IN_TOKENS, MIN_PASSAGE_LENGTH_IN_TOKENS, MAX_PASSAGE_COUNT);
+  }
+
   public List<List<String>> generatePassages(final String document, final int maxSentenceLengthInTokens,
       final int minPassageLengthInTokens, final int maxPassageCount) {
     if (document == null || document.isBlank()) {
       return new ArrayList<>();
     }
 
-    List<List<String>> tokenizedSentences = generateTokenizedSentences(document, maxSentenceLengthInTokens);
-
     // To generate N passages with overlap, generate N/2 + 1 passages first, then overlap and exclude last passage
+    final int basePassageCount = maxPassageCount / 2 + 1;
+
+    // A base passage ends with the first sentence that brings it to the minimum length, and sentences are at most
+    // 1.5 times the maximum sentence length, so the base passages never use more tokens than this. Combining sentences
+    // also looks ahead up to half a minimum passage length to decide whether to merge the tail of the document.
+    // Tokenizing stops once that many tokens are found, so that the rest of a long document is never processed.
+    final long maxTokenCount = (long) basePassageCount * (minPassageLengthInTokens - 1 + maxSentenceLengthInTokens
+        + maxSentenceLengthInTokens / 2) + minPassageLengthInTokens / 2 + 1;
+    List<List<String>> tokenizedSentences = generateTokenizedSentences(document, maxSentenceLengthInTokens, maxTokenCount);
+
     List<List<List<String>>> passages = combineSentencesIntoPassages(tokenizedSentences, 
-        minPassageLengthInTokens, (maxPassageCount / 2 + 1));
+        minPassageLengthInTokens, basePassageCount);
 
     return generatePassagesWithOverlap(passages);
   }
@@ -42,9 +58,6 @@ public class PassageGenerator {
 
   List<List<String>> generatePassagesWithOverlap(final List<List<List<String>>> passages) {
     final int passageCount = passages.size();
-    final List<Integer> passageSentenceCounts = passages.stream()
-        .map(p -> p.size())
-        .collect(Collectors.toList());
 
     // Generate list of passages, with each passage being a list of tokens, by combining sentences in each passage
     List<List<String>> passagesWithOverlap = new ArrayList<>();
@@ -60,10 +73,11 @@ public class PassageGenerator {
 
     for (int i = 0; i < (passageCount - 1); ++i) {
       // Start at the middle sentence of the first passage
-      final int firstPassageMidSentenceIndex = (int) Math.floor(passageSentenceCounts.get(i) / 2.0);
+      final int passageSentenceCount = passages.get(i).size();
+      final int firstPassageMidSentenceIndex = (int) Math.floor(passageSentenceCount / 2.0);
 
       // Stop at the middle sentence of the next passage. If there is only one sentence, take it
-      final int nextPassageMidSentenceIndex = (int) Math.max(1, Math.floor(passageSentenceCounts.get(i + 1) / 2.0));
+      final int nextPassageMidSentenceIndex = (int) Math.max(1, Math.floor(passages.get(i + 1).size() / 2.0));
 
       // Add first passage to overall list, combining tokenized sentences into a single list of tokens
       passagesWithOverlap.add(combineSentencesIntoSinglePassage(passages.get(i)));
@@ -72,7 +86,7 @@ public class PassageGenerator {
       final List<String> newPassage = new ArrayList<>();
       // Use final integer values for stream operation
       newPassage.addAll(combineSentencesIntoSinglePassage(
-          passages.get(i).subList(firstPassageMidSentenceIndex, passageSentenceCounts.get(i))));
+          passages.get(i).subList(firstPassageMidSentenceIndex, passageSentenceCount)));
       newPassage.addAll(combineSentencesIntoSinglePassage(
           passages.get(i + 1).subList(0, nextPassageMidSentenceIndex)));
 
@@ -85,9 +99,15 @@ public class PassageGenerator {
   }
 
   List<String> combineSentencesIntoSinglePassage(final List<List<String>> tokenizedSentences) {
-    return tokenizedSentences.stream()
-        .flatMap(List::stream)
-        .collect(Collectors.toList());
+    int tokenCount = 0;
+    for (List<String> tokenizedSentence : tokenizedSentences) {
+      tokenCount += tokenizedSentence.size();
+    }
+    final List<String> passage = new ArrayList<>(tokenCount);
+    for (List<String> tokenizedSentence : tokenizedSentences) {
+      passage.addAll(tokenizedSentence);
+    }
+    return passage;
   }
 
   /**
@@ -100,10 +120,11 @@ public class PassageGenerator {
       int minPassageLengthInTokens,
       int maxPassageCount) {
     final int sentenceCount = tokenizedSentences.size();
-    // Maintain list of lengths of each sentence
-    final List<Integer> sentenceLengthsInTokens = tokenizedSentences.stream()
-        .map(s -> s.size())
-        .collect(Collectors.toList());
+    // Token count from each sentence to the end of the document, computed once so that each step is constant time
+    final int[] remainingTokenCounts = new int[sentenceCount + 1];
+    for (int i = sentenceCount - 1; i >= 0; --i) {
+      remainingTokenCounts[i] = remainingTokenCounts[i + 1] + tokenizedSentences.get(i).size();
+    }
 
     int currentPassageLengthInTokens = 0;
     // Each passage is a list of tokenized sentences, tokens from all sentences are not collapsed
@@ -114,14 +135,12 @@ public class PassageGenerator {
     for (int i = 0; i < sentenceCount; ++i) {
       // Add the sentence to the current passage
       currentPassage.add(tokenizedSentences.get(i));
-      currentPassageLengthInTokens += sentenceLengthsInTokens.get(i);
+      currentPassageLengthInTokens += remainingTokenCounts[i] - remainingTokenCounts[i + 1];
 
       // If the token count from all remaining sentences is less than half the minimum passage size,
       // append all remaining sentence to current passage and end
       if (i < (sentenceCount - 1)) {
-        final int tokenCountFromRemainingSentences = sentenceLengthsInTokens.subList(i + 1, sentenceCount).stream()
-            .reduce(0, Integer::sum);
-        if (tokenCountFromRemainingSentences <= (minPassageLengthInTokens / 2)) {
+        if (remainingTokenCounts[i + 1] <= (minPassageLengthInTokens / 2)) {
           currentPassage.addAll(tokenizedSentences.subList(i + 1, sentenceCount));
           passages.add(currentPassage);
           break;
@@ -151,13 +170,27 @@ public class PassageGenerator {
    * @return List, where each member of the list is a list of tokens
    */
   List<List<String>> generateTokenizedSentences(final String document, final int maxSentenceLengthInTokens) {
+    return generateTokenizedSentences(document, maxSentenceLengthInTokens, Long.MAX_VALUE);
+  }
+
+  /**
+   * Split a text document into tokenized sentences, while breaking up large sentences. Sentences are tokenized in place
+   * as the document is split, in a single pass that stops after the sentence that reaches {@code maxTokenCount} tokens.
+   * @param document input document
+   * @param maxTokenCount number of tokens after which the rest of the document is skipped
+   * @return List, where each member of the list is a list of tokens
+   */
+  List<List<String>> generateTokenizedSentences(final String document, final int maxSentenceLengthInTokens,
+      final long maxTokenCount) {
     List<List<String>> tokenizedSentences = new ArrayList<>();
+    long[] tokenCount = new long[1];
 
-    List<String> sentences = sentenceSplitter.split(document);
-    for (String sentence: sentences) {
-      List<String> currentSentence = textTokenizer.tokenize(sentence);
+    sentenceSplitter.split(document, (sentenceStart, sentenceEnd) -> {
+      List<String> currentSentence = new ArrayList<>();
+      textTokenizer.tokenize(document, sentenceStart, sentenceEnd,
+          (buffer, offset, length) -> currentSentence.add(new String(buffer, offset, length)));
       if (currentSentence.isEmpty()) {
-        continue;
+        return true;
       }
       // Break up long sentences
       if (currentSentence.size() <= maxSentenceLengthInTokens) {
@@ -176,7 +209,9 @@ public class PassageGenerator {
               Math.min(sentenceLengthInTokens, i + maxSentenceLengthInTokens)));
         }
       }
-    }
+      tokenCount[0] += currentSentence.size();
+      return tokenCount[0] < maxTokenCount;
+    });
     return tokenizedSentences;
   }
 }
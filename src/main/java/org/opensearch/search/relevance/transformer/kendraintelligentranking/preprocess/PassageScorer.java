@@ -0,0 +1,94 @@
+/*
+ * SPDX-License-Identifier: Apache-2.0
+ *
+ * The OpenSearch Contributors require contributions made to
+ * this file be licensed under the Apache-2.0 license or a
+ * compatible open source license.
+ */
+package org.opensearch.search.relevance.transformer.kendraintelligentranking.preprocess;
+
+import java.util.List;
+
+/**
+ * BM25 scoring of the passages of a document against interned {@link QueryTerms}. Produces the same scores as
+ * {@link BM25Scorer}, but only counts query terms, keeping counts and document frequencies in primitive arrays
+ * indexed by term ID, so that scoring does not allocate or box.
+ */
+public class PassageScorer {
+  private final double b;
+  private final double k1;
+  private final int[] queryTermIds;
+  private final int termCount;
+  // Occurrences of each query term in each passage, indexed by passage * termCount + term ID
+  private final int[] termCounts;
+  private final int[] passageLengths;
+  private final double[] idfs;
+  private final double averagePassageLength; // avdl
+
+  /**
+   * Initialize dataset.
+   *
+   * @param b           free parameter for BM25
+   * @param k1          free parameter for BM25
+   * @param queryTerms  query terms, interned once per request
+   * @param passages    list of passages, each passage is represented by a list of words
+   */
+  public PassageScorer(double b, double k1, QueryTerms queryTerms, List<List<String>> passages) {
+    this.b = b;
+    this.k1 = k1;
+    this.queryTermIds = queryTerms.termIds();
+    this.termCount = queryTerms.termCount();
+    final int passageCount = passages.size();
+    this.termCounts = new int[passageCount * termCount];
+    this.passageLengths = new int[passageCount];
+
+    final int[] documentFrequencies = new int[termCount];
+    double totalPassageLength = 0;
+    for (int i = 0; i < passageCount; ++i) {
+      final List<String> passage = passages.get(i);
+      passageLengths[i] = passage.size();
+      totalPassageLength += passage.size();
+      if (termCount == 0) {
+        continue;
+      }
+      final int base = i * termCount;
+      for (String token : passage) {
+        final int termId = queryTerms.termId(token);
+        if (termId >= 0 && termCounts[base + termId]++ == 0) {
+          ++documentFrequencies[termId];
+        }
+      }
+    }
+    this.averagePassageLength = totalPassageLength / passageCount;
+
+    this.idfs = new double[termCount];
+    for (int termId = 0; termId < termCount; ++termId) {
+      if (documentFrequencies[termId] > 0) {
+        idfs[termId] = Math.log10((double) passageCount / documentFrequencies[termId]);
+      }
+    }
+  }
+
+  /**
+   * Calculate the BM25 score of a passage given the query.
+   *
+   * @param passageIndex index of the passage in the passages the scorer was built with
+   * @return the BM25 score
+   */
+  public double score(int passageIndex) {
+    double score = 0;
+    final int base = passageIndex * termCount;
+    final int passageLength = passageLengths[passageIndex];
+    for (int termId : queryTermIds) {
+      final int count = termCounts[base + termId];
+      if (count == 0) {
+        continue;
+      }
+      double termFrequency = (double) count / passageLength;
+      double denominator = termFrequency + k1 * (1 - b + b * passageLength / averagePassageLength);
+      double numerator = idfs[termId] * termFrequency * (k1 + 1);
+      score += numerator / denominator;
+    }
+    return score;
+  }
+}
@@ -0,0 +1,85 @@
+/*
+ * SPDX-License-Identifier: Apache-2.0
+ *
+ * The OpenSearch Contributors require contributions made to
+ * this file be licensed under the Apache-2.0 license or a
+ * compatible open source license.
+ */
+package org.opensearch.search.relevance.transformer.kendraintelligentranking.preprocess;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+
+import org.opensearch.common.xcontent.support.XContentMapValues;
+
+/**
+ * Encoding of passages generated at index time, stored in the document source under {@link #FIELD_PREFIX} so that
+ * they can be read back at search time instead of tokenizing the body field again.
+ * Each passage is stored as a single string of space-separated tokens, which is far more compact in the source than
+ * an array per passage. Tokens never contain whitespace.
+ * The {@link #FIELD_PREFIX} object should be mapped with {@code "enabled": false} so that it is kept in the source
+ * without being indexed.
+ */
+public final class PrecomputedPassages {
+  /**
+   * Object in the document source holding precomputed passages, keyed by the name of the field they were generated from
+   */
+  public static final String FIELD_PREFIX = "_kendra_passages";
+  private static final String TOKEN_SEPARATOR = " ";
+
+  private PrecomputedPassages() {
+  }
+
+  /**
+   * @param fieldName name of the field passages are generated from
+   * @return path of the source field holding the precomputed passages of {@code fieldName}
+   */
+  public static String fieldName(String fieldName) {
+    return FIELD_PREFIX + "." + fieldName;
+  }
+
+  /**
+   * @param passages passages, where each passage is a list of tokens
+   * @return passages encoded for storage in the document source
+   */
+  public static List<String> encode(List<List<String>> passages) {
+    List<String> encodedPassages = new ArrayList<>(passages.size());
+    for (List<String> passage : passages) {
+      encodedPassages.add(String.join(TOKEN_SEPARATOR, passage));
+    }
+    return encodedPassages;
+  }
+
+  /**
+   * Read the precomputed passages of a field from a document source
+   * @param sourceMap document source
+   * @param fieldName name of the field passages were generated from
+   * @return passages, where each passage is a list of tokens, or null if the document has no precomputed passages
+   */
+  public static List<List<String>> read(Map<String, Object> sourceMap, String fieldName) {
+    return decode(XContentMapValues.extractValue(fieldName(fieldName), sourceMap));
+  }
+
+  /**
+   * Decode precomputed passages read from the document source
+   * @param value value of the {@link #fieldName} source field
+   * @return passages, where each passage is a list of tokens, or null if the value does not hold precomputed passages
+   */
+  public static List<List<String>> decode(Object value) {
+    if (!(value instanceof List)) {
+      return null;
+    }
+    List<?> encodedPassages = (List<?>) value;
+    List<List<String>> passages = new ArrayList<>(encodedPassages.size());
+    for (Object encodedPassage : encodedPassages) {
+      if (!(encodedPassage instanceof String)) {
+        return null;
+      }
+      String passage = (String) encodedPassage;
+      passages.add(passage.isEmpty() ? new ArrayList<>() : Arrays.asList(passage.split(TOKEN_SEPARATOR)));
+    }
+    return passages;
+  }
+}
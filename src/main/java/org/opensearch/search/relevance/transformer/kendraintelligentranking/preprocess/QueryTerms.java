@@ -0,0 +1,86 @@
+/*
+ * SPDX-License-Identifier: Apache-2.0
+ *
+ * The OpenSearch Contributors require contributions made to
+ * this file be licensed under the Apache-2.0 license or a
+ * compatible open source license.
+ */
+package org.opensearch.search.relevance.transformer.kendraintelligentranking.preprocess;
+
+import java.util.List;
+
+/**
+ * Query tokens interned to dense int term IDs, built once per request and shared by the scoring of every document.
+ * Term lookups use an open-addressing table, so mapping document tokens to term IDs does not box or allocate.
+ */
+public final class QueryTerms {
+  private static final int NO_TERM = -1;
+
+  // Query tokens as term IDs, in query order and including repeated tokens
+  private final int[] termIds;
+  private final int termCount;
+  private final String[] tableTerms;
+  private final int[] tableTermIds;
+  private final int tableMask;
+
+  /**
+   * @param queryTokens tokenized query
+   */
+  public QueryTerms(List<String> queryTokens) {
+    int tableSize = Integer.highestOneBit(Math.max(1, queryTokens.size()) * 2 + 1) << 1;
+    this.tableTerms = new String[tableSize];
+    this.tableTermIds = new int[tableSize];
+    this.tableMask = tableSize - 1;
+    this.termIds = new int[queryTokens.size()];
+
+    int termCount = 0;
+    for (int i = 0; i < queryTokens.size(); ++i) {
+      final String token = queryTokens.get(i);
+      int slot = slot(token);
+      while (tableTerms[slot] != null && !tableTerms[slot].equals(token)) {
+        slot = (slot + 1) & tableMask;
+      }
+      if (tableTerms[slot] == null) {
+        tableTerms[slot] = token;
+        tableTermIds[slot] = termCount++;
+      }
+      termIds[i] = tableTermIds[slot];
+    }
+    this.termCount = termCount;
+  }
+
+  /**
+   * @return number of distinct query terms. Term IDs range from 0 to this value, exclusive.
+   */
+  public int termCount() {
+    return termCount;
+  }
+
+  /**
+   * @return query tokens as term IDs, in query order and including repeated tokens. Must not be modified.
+   */
+  int[] termIds() {
+    return termIds;
+  }
+
+  /**
+   * @param token document token
+   * @return the term ID of the token, or -1 if it is not a query term
+   */
+  public int termId(String token) {
+    int slot = slot(token);
+    String term;
+    while ((term = tableTerms[slot]) != null) {
+      if (term.equals(token)) {
+        return tableTermIds[slot];
+      }
+      slot = (slot + 1) & tableMask;
+    }
+    return NO_TERM;
+  }
+
+  private int slot(String token) {
+    final int hash = token.hashCode();
+    return (hash ^ (hash >>> 16)) & tableMask;
+  }
+}
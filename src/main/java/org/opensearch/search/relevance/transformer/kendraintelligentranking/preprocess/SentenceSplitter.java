@@ -18,6 +18,9 @@ import java.util.regex.Pattern;
 import java.util.stream.Collectors;
 
 public class SentenceSplitter {
+  // Creating a rule-based BreakIterator is expensive, so each thread reuses its own instance through setText
+  private static final ThreadLocal<BreakIterator> SENTENCE_ITERATOR =
+      ThreadLocal.withInitial(() -> BreakIterator.getSentenceInstance(Locale.ENGLISH));
 
   /**
    * Split the input text into sentences
@@ -25,23 +28,52 @@ public class SentenceSplitter {
    * @return list of strings, each a sentence
    */
   public List<String> split(final String text) {
+    List<String> sentences = new ArrayList();
+    split(text, (start, end) -> sentences.add(text.substring(start, end)));
+    return sentences;
+  }
+
+  /**
+   * Split the input text into sentences without copying them, emitting the offsets of each sentence in the text.
+   * Trailing whitespace is excluded from sentences, and blank sentences are skipped.
+   * @param text input text
+   * @param consumer notified with the offsets of each sentence. The consumer must not call back into the splitter.
+   */
+  public void split(final String text, final SentenceConsumer consumer) {
     if (text == null) {
-      return new ArrayList<>();
+      return;
     }
 
-    final BreakIterator breakIterator = BreakIterator.getSentenceInstance(Locale.ENGLISH);
+    final BreakIterator breakIterator = SENTENCE_ITERATOR.get();
     breakIterator.setText(text);
 
-    List<String> sentences = new ArrayList();
-    int start = breakIterator.first();
-    String currentSentence;
-
-    for (int end = breakIterator.next(); end != BreakIterator.DONE; start = end, end = breakIterator.next()) {
-      currentSentence = text.substring(start, end).stripTrailing();
-      if (!currentSentence.isEmpty()) {
-        sentences.add(currentSentence);
+    try {
+      int start = breakIterator.first();
+      for (int end = breakIterator.next(); end != BreakIterator.DONE; start = end, end = breakIterator.next()) {
+        int sentenceEnd = end;
+        while (sentenceEnd > start && Character.isWhitespace(text.charAt(sentenceEnd - 1))) {
+          --sentenceEnd;
+        }
+        if (sentenceEnd > start && !consumer.accept(start, sentenceEnd)) {
+          break;
+        }
       }
+    } finally {
+      // Do not hold on to the text between calls
+      breakIterator.setText("");
     }
-    return sentences;
+  }
+
+  /**
+   * Receives sentences emitted by {@link #split(String, SentenceConsumer)}
+   */
+  @FunctionalInterface
+  public interface SentenceConsumer {
+    /**
+     * @param start offset of the first character of the sentence
+     * @param end offset after the last character of the sentence
+     * @return true to continue splitting, false to stop
+     */
+    boolean accept(int start, int end);
   }
 }
@@ -8,20 +8,20 @@
 package org.opensearch.search.relevance.transformer.kendraintelligentranking.preprocess;
 
 import com.ibm.icu.text.BreakIterator;
+import java.text.StringCharacterIterator;
 import java.util.ArrayList;
 import java.util.Arrays;
-import java.util.HashSet;
 import java.util.List;
 import java.util.Locale;
-import java.util.Set;
-import java.util.regex.Matcher;
 import java.util.regex.Pattern;
 import java.util.stream.Collectors;
 
+import org.apache.lucene.analysis.CharArraySet;
+
 public class TextTokenizer {
   private static final int MINIMUM_WORD_LENGTH = 2;
   private static final int MAXIMUM_WORD_LENGTH = 25;
-  private static final Set<String> STOP_WORDS = new HashSet<>(
+  private static final CharArraySet STOP_WORDS = CharArraySet.unmodifiableSet(new CharArraySet(
       Arrays.asList("i", "me", "my", "myself", "we", "our", "ours", "ourselves", "you", "your", "yours", "yourself", "yourselves", "he", "him", "his",
           "himself", "she", "her", "hers", "herself", "it", "its", "itself", "they", "them", "their", "theirs", "themselves", "what", "which", "who",
           "whom", "this", "that", "these", "those", "am", "is", "are", "was", "were", "be", "been", "being", "have", "has", "had", "having", "do",
@@ -29,9 +29,48 @@ public class TextTokenizer {
           "about", "against", "between", "into", "through", "during", "before", "after", "above", "below", "to", "from", "up", "down", "in", "out",
           "on", "off", "over", "under", "again", "further", "then", "once", "here", "there", "when", "where", "why", "how", "all", "any", "both",
           "each", "few", "more", "most", "other", "some", "such", "no", "nor", "not", "only", "own", "same", "so", "than", "too", "very", "s", "t",
-          "can", "will", "just", "don", "should", "now"));
+          "can", "will", "just", "don", "should", "now"), false));
   private static final Pattern ALL_PUNCTUATIONS_REGEX = Pattern.compile("^\\p{Pc}+$|^\\p{Pd}+$|^\\p{Pe}+$|^\\p{Pf}+$|^\\p{Pi}+$|^\\p{Po}+$|^\\p{Ps}+$");
   private static final Pattern PUNCTUATIONS_REGEX_PATTERN = Pattern.compile("\\p{Pc}|\\p{Pd}|\\p{Pe}|\\p{Pf}|\\p{Pi}|\\p{Po}|\\p{Ps}");
+  // ASCII characters in the punctuation categories matched by the patterns above
+  private static final boolean[] ASCII_PUNCTUATION = new boolean[128];
+  static {
+    for (char c = 0; c < ASCII_PUNCTUATION.length; ++c) {
+      switch (Character.getType(c)) {
+        case Character.CONNECTOR_PUNCTUATION:
+        case Character.DASH_PUNCTUATION:
+        case Character.END_PUNCTUATION:
+        case Character.FINAL_QUOTE_PUNCTUATION:
+        case Character.INITIAL_QUOTE_PUNCTUATION:
+        case Character.OTHER_PUNCTUATION:
+        case Character.START_PUNCTUATION:
+          ASCII_PUNCTUATION[c] = true;
+          break;
+        default:
+          break;
+      }
+    }
+  }
+  // Word segmenter and token buffer reused by all calls on a thread
+  private static final ThreadLocal<TokenizerState> STATE = ThreadLocal.withInitial(TokenizerState::new);
+
+  /**
+   * Receives tokens emitted by {@link #tokenize(String, TokenConsumer)}
+   */
+  @FunctionalInterface
+  public interface TokenConsumer {
+    /**
+     * @param buffer buffer holding the token, which is only valid until this method returns
+     * @param offset offset of the token in the buffer
+     * @param length length of the token
+     */
+    void accept(char[] buffer, int offset, int length);
+  }
+
+  private static final class TokenizerState {
+    private final BreakIterator wordIterator = BreakIterator.getWordInstance(Locale.ENGLISH);
+    private final char[] buffer = new char[MAXIMUM_WORD_LENGTH];
+  }
 
   public List<List<String>> tokenize(List<String> texts) {
     if (texts == null) {
@@ -49,42 +88,101 @@ public class TextTokenizer {
    * @return list of tokens
    */
   public List<String> tokenize(String text) {
+    List<String> tokens = new ArrayList<>();
+    tokenize(text, (buffer, offset, length) -> tokens.add(new String(buffer, offset, length)));
+    return tokens;
+  }
+
+  /**
+   * Split the input text into tokens like {@link #tokenize(String)}, emitting each token into a reused buffer rather
+   * than allocating strings. ASCII words, which make up almost all of the text we rerank, are lowercased and filtered
+   * by scanning characters directly; words with other characters fall back to the string-based rules.
+   * @param text input text
+   * @param consumer notified with each token. The buffer is reused for the next token, and the consumer must not
+   *                 call back into the tokenizer.
+   */
+  public void tokenize(String text, TokenConsumer consumer) {
     if (text == null) {
-      return new ArrayList<>();
+      return;
     }
+    tokenize(text, 0, text.length(), consumer);
+  }
 
-    final BreakIterator breakIterator = BreakIterator.getWordInstance(Locale.ENGLISH);
-    breakIterator.setText(text);
+  /**
+   * Split a range of the input text into tokens like {@link #tokenize(String, TokenConsumer)}, without copying the range
+   * @param text input text
+   * @param start offset of the first character of the range
+   * @param end offset after the last character of the range
+   * @param consumer notified with each token. The buffer is reused for the next token, and the consumer must not
+   *                 call back into the tokenizer.
+   */
+  public void tokenize(String text, int start, int end, TokenConsumer consumer) {
+    final TokenizerState state = STATE.get();
+    final BreakIterator breakIterator = state.wordIterator;
+    // Word boundaries are found within the range only, as if it had been copied out of the text
+    breakIterator.setText(new StringCharacterIterator(text, start, end, start));
+    try {
+      int wordStart = breakIterator.first();
+      for (int wordEnd = breakIterator.next(); wordEnd != BreakIterator.DONE; wordStart = wordEnd, wordEnd = breakIterator.next()) {
+        tokenizeWord(text, wordStart, wordEnd, state.buffer, consumer);
+      }
+    } finally {
+      // Do not hold on to the text between calls
+      breakIterator.setText("");
+    }
+  }
 
-    List<String> tokens = new ArrayList();
-    int start = breakIterator.first();
-    String currentWord;
-    for (int end = breakIterator.next(); end != BreakIterator.DONE; start = end, end = breakIterator.next()) {
-      currentWord = text.substring(start, end).stripTrailing().toLowerCase(Locale.ENGLISH);
-      if (currentWord.isEmpty()) {
+  private void tokenizeWord(final String text, final int start, int end, final char[] buffer, final TokenConsumer consumer) {
+    while (end > start && Character.isWhitespace(text.charAt(end - 1))) {
+      --end;
+    }
+    for (int i = start; i < end; ++i) {
+      if (text.charAt(i) >= ASCII_PUNCTUATION.length) {
+        tokenizeNonAsciiWord(text.substring(start, end), buffer, consumer);
+        return;
+      }
+    }
+    // Split long words
+    for (int chunkStart = start; chunkStart < end; chunkStart += MAXIMUM_WORD_LENGTH) {
+      final int length = Math.min(end - chunkStart, MAXIMUM_WORD_LENGTH);
+      boolean allPunctuation = true;
+      for (int i = 0; i < length; ++i) {
+        final char c = text.charAt(chunkStart + i);
+        buffer[i] = (c >= 'A' && c <= 'Z') ? (char) (c + ('a' - 'A')) : c;
+        allPunctuation &= ASCII_PUNCTUATION[c];
+      }
+      // Filter out punctuation, short words, numbers
+      if (allPunctuation || length < MINIMUM_WORD_LENGTH || STOP_WORDS.contains(buffer, 0, length) ||
+          isNumeric(buffer, 0, length)) {
         continue;
       }
-      // Split long words
-      List<String> shortenedTokens = new ArrayList<>();
-      if (currentWord.length() <= MAXIMUM_WORD_LENGTH) {
-        shortenedTokens.add(currentWord);
-      } else {
-        for (int i = 0; i < currentWord.length(); i += MAXIMUM_WORD_LENGTH) {
-          shortenedTokens.add(currentWord.substring(i, Math.min(currentWord.length(), i + MAXIMUM_WORD_LENGTH)));
+      int tokenLength = 0;
+      for (int i = 0; i < length; ++i) {
+        if (!ASCII_PUNCTUATION[buffer[i]]) {
+          buffer[tokenLength++] = buffer[i];
         }
       }
+      if (tokenLength > 0) {
+        consumer.accept(buffer, 0, tokenLength);
+      }
+    }
+  }
+
+  private void tokenizeNonAsciiWord(final String word, final char[] buffer, final TokenConsumer consumer) {
+    final String currentWord = word.toLowerCase(Locale.ENGLISH);
+    // Split long words
+    for (int i = 0; i < currentWord.length(); i += MAXIMUM_WORD_LENGTH) {
+      final String shortenedToken = currentWord.substring(i, Math.min(currentWord.length(), i + MAXIMUM_WORD_LENGTH));
       // Filter out punctuation, short words, numbers
-      for (String shortenedToken : shortenedTokens) {
-        if (!isWordAllPunctuation(shortenedToken) && !STOP_WORDS.contains(shortenedToken) &&
-            shortenedToken.length() >= MINIMUM_WORD_LENGTH && !isNumeric(shortenedToken)) {
-          String tokenWithInWordPunctuationRemoved = removeInWordPunctuation(shortenedToken);
-          if (!tokenWithInWordPunctuationRemoved.isEmpty()) {
-            tokens.add(tokenWithInWordPunctuationRemoved);
-          }
+      if (!isWordAllPunctuation(shortenedToken) && !STOP_WORDS.contains(shortenedToken) &&
+          shortenedToken.length() >= MINIMUM_WORD_LENGTH && !isNumeric(shortenedToken)) {
+        String tokenWithInWordPunctuationRemoved = removeInWordPunctuation(shortenedToken);
+        if (!tokenWithInWordPunctuationRemoved.isEmpty()) {
+          tokenWithInWordPunctuationRemoved.getChars(0, tokenWithInWordPunctuationRemoved.length(), buffer, 0);
+          consumer.accept(buffer, 0, tokenWithInWordPunctuationRemoved.length());
         }
       }
     }
-    return tokens;
   }
 
   boolean isWordAllPunctuation(final String token) {
@@ -92,14 +190,110 @@ public class TextTokenizer {
   }
 
   boolean isNumeric(final String token) {
-    if (token == null) {
+    return token != null && isNumeric(token.toCharArray(), 0, token.length());
+  }
+
+  /**
+   * Check whether the characters form a number accepted by {@link Double#parseDouble}, without parsing it
+   */
+  static boolean isNumeric(final char[] chars, final int offset, final int length) {
+    int i = offset;
+    int end = offset + length;
+    // Leading and trailing whitespace is ignored, like String#trim
+    while (i < end && chars[i] <= ' ') {
+      ++i;
+    }
+    while (end > i && chars[end - 1] <= ' ') {
+      --end;
+    }
+    if (i < end && (chars[i] == '+' || chars[i] == '-')) {
+      ++i;
+    }
+    if (i == end) {
       return false;
     }
-    try {
-      Double.parseDouble(token);
-    } catch (NumberFormatException e) {
+    if (regionMatches(chars, i, end, "NaN") || regionMatches(chars, i, end, "Infinity")) {
+      return true;
+    }
+    if (end - i > 2 && chars[i] == '0' && (chars[i + 1] == 'x' || chars[i + 1] == 'X')) {
+      return isHexNumeric(chars, i + 2, end);
+    }
+    int digitCount = 0;
+    while (i < end && isDigit(chars[i])) {
+      ++i;
+      ++digitCount;
+    }
+    if (i < end && chars[i] == '.') {
+      ++i;
+      while (i < end && isDigit(chars[i])) {
+        ++i;
+        ++digitCount;
+      }
+    }
+    if (digitCount == 0) {
       return false;
     }
+    if (i < end && (chars[i] == 'e' || chars[i] == 'E')) {
+      i = skipExponent(chars, i + 1, end);
+      if (i < 0) {
+        return false;
+      }
+    }
+    return i == end || (i == end - 1 && isFloatTypeSuffix(chars[i]));
+  }
+
+  private static boolean isHexNumeric(final char[] chars, int i, final int end) {
+    int digitCount = 0;
+    while (i < end && Character.digit(chars[i], 16) >= 0) {
+      ++i;
+      ++digitCount;
+    }
+    if (i < end && chars[i] == '.') {
+      ++i;
+      while (i < end && Character.digit(chars[i], 16) >= 0) {
+        ++i;
+        ++digitCount;
+      }
+    }
+    // Hexadecimal numbers require a binary exponent
+    if (digitCount == 0 || i == end || (chars[i] != 'p' && chars[i] != 'P')) {
+      return false;
+    }
+    i = skipExponent(chars, i + 1, end);
+    return i == end || (i == end - 1 && isFloatTypeSuffix(chars[i]));
+  }
+
+  /**
+   * @return index after the signed exponent digits starting at {@code i}, or -1 if there are no digits
+   */
+  private static int skipExponent(final char[] chars, int i, final int end) {
+    if (i < end && (chars[i] == '+' || chars[i] == '-')) {
+      ++i;
+    }
+    final int digitsStart = i;
+    while (i < end && isDigit(chars[i])) {
+      ++i;
+    }
+    return i == digitsStart ? -1 : i;
+  }
+
+  private static boolean isDigit(final char c) {
+    return c >= '0' && c <= '9';
+  }
+
+  private static boolean isFloatTypeSuffix(final char c) {
+    return c == 'f' || c == 'F' || c == 'd' || c == 'D';
+  }
+
+  private static boolean regionMatches(final char[] chars, final int start, final int end, final String expected) {
+    if (end - start != expected.length()) {
+      return false;
+    }
+    for (int i = 0; i < expected.length(); ++i) {
+      if (chars[start + i] != expected.charAt(i)) {
+        return false;
+      }
+    }
     return true;
   }
 
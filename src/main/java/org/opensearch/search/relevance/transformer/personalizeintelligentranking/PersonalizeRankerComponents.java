@@ -0,0 +1,67 @@
+/*
+ * SPDX-License-Identifier: Apache-2.0
+ *
+ * The OpenSearch Contributors require contributions made to
+ * this file be licensed under the Apache-2.0 license or a
+ * compatible open source license.
+ */
+package org.opensearch.search.relevance.transformer.personalizeintelligentranking;
+
+import org.opensearch.search.relevance.transformer.RerankDeadlineTracker;
+import org.opensearch.search.relevance.transformer.SingleFlight;
+import org.opensearch.search.relevance.transformer.personalizeintelligentranking.client.PersonalizeRankingCache;
+import org.opensearch.threadpool.ThreadPool;
+
+import java.util.List;
+
+/**
+ * Node-level components shared by every Personalize ranking processor. They are created once by the plugin, so that
+ * caching, coalescing and stats cover every search reranked by Personalize.
+ */
+public final class PersonalizeRankerComponents {
+    private final PersonalizeRankingCache rankingCache;
+    private final SingleFlight<PersonalizeRankingCache.Key, List<String>> rankingSingleFlight;
+    private final RerankDeadlineTracker rerankDeadlineTracker;
+    private final ThreadPool threadPool;
+
+    /**
+     * @param rankingCache          cache consulted before calling Personalize
+     * @param rankingSingleFlight   coalesces concurrent identical calls to Personalize
+     * @param rerankDeadlineTracker records searches returned without re ranking because Personalize was too slow
+     * @param threadPool            thread pool providing the rerank executor
+     */
+    public PersonalizeRankerComponents(PersonalizeRankingCache rankingCache,
+                                       SingleFlight<PersonalizeRankingCache.Key, List<String>> rankingSingleFlight,
+                                       RerankDeadlineTracker rerankDeadlineTracker,
+                                       ThreadPool threadPool) {
+        this.rankingCache = rankingCache;
+        this.rankingSingleFlight = rankingSingleFlight;
+        this.rerankDeadlineTracker = rerankDeadlineTracker;
+        this.threadPool = threadPool;
+    }
+
+    /**
+     * @param threadPool thread pool providing the rerank executor, or null if only blocking calls are made
+     * @return components that neither cache nor coalesce
+     */
+    public static PersonalizeRankerComponents disabled(ThreadPool threadPool) {
+        return new PersonalizeRankerComponents(PersonalizeRankingCache.disabled(), SingleFlight.disabled(),
+                new RerankDeadlineTracker(), threadPool);
+    }
+
+    public PersonalizeRankingCache getRankingCache() {
+        return rankingCache;
+    }
+
+    public SingleFlight<PersonalizeRankingCache.Key, List<String>> getRankingSingleFlight() {
+        return rankingSingleFlight;
+    }
+
+    public RerankDeadlineTracker getRerankDeadlineTracker() {
+        return rerankDeadlineTracker;
+    }
+
+    public ThreadPool getThreadPool() {
+        return threadPool;
+    }
+}
@@ -13,6 +13,9 @@ import org.apache.logging.log4j.Logger;
 import org.opensearch.action.search.SearchRequest;
 import org.opensearch.action.search.SearchResponse;
 import org.opensearch.action.search.SearchResponseSections;
+import org.opensearch.action.support.PlainActionFuture;
+import org.opensearch.common.unit.TimeValue;
+import org.opensearch.common.util.concurrent.AbstractRunnable;
 import org.opensearch.ingest.ConfigurationUtils;
 import org.opensearch.search.SearchHits;
 import org.opensearch.search.aggregations.InternalAggregations;
@@ -21,6 +24,11 @@ import org.opensearch.search.pipeline.AbstractProcessor;
 import org.opensearch.search.pipeline.Processor;
 import org.opensearch.search.pipeline.SearchResponseProcessor;
 import org.opensearch.search.profile.SearchProfileShardResults;
+import org.opensearch.search.relevance.transformer.RemoteClientRegistry;
+import org.opensearch.search.relevance.transformer.RerankDeadline;
+import org.opensearch.search.relevance.transformer.RerankCircuitBreakingException;
+import org.opensearch.search.relevance.transformer.RerankDeadlineExceededException;
+import org.opensearch.search.relevance.transformer.RerankDeadlineTracker;
 import org.opensearch.search.relevance.transformer.personalizeintelligentranking.client.PersonalizeClient;
 import org.opensearch.search.relevance.transformer.personalizeintelligentranking.client.PersonalizeClientSettings;
 import org.opensearch.search.relevance.transformer.personalizeintelligentranking.client.PersonalizeCredentialsProviderFactory;
@@ -30,11 +38,14 @@ import org.opensearch.search.relevance.transformer.personalizeintelligentranking
 import org.opensearch.search.relevance.transformer.personalizeintelligentranking.reranker.PersonalizedRanker;
 import org.opensearch.search.relevance.transformer.personalizeintelligentranking.reranker.PersonalizedRankerFactory;
 import org.opensearch.search.relevance.transformer.personalizeintelligentranking.utils.ValidationUtil;
+import org.opensearch.threadpool.ThreadPool;
 
 import java.util.Map;
 import java.util.concurrent.TimeUnit;
 import java.util.function.BiFunction;
 
+import static org.opensearch.search.relevance.configuration.Constants.RERANK_THREAD_POOL_NAME;
+
 /**
  * This is a {@link SearchResponseProcessor} that applies Personalized intelligent ranking
  */
@@ -47,6 +58,11 @@ public class PersonalizeRankingResponseProcessor extends AbstractProcessor imple
     private final String description;
     private final PersonalizeClient personalizeClient;
     private final PersonalizeIntelligentRankerConfiguration rankerConfig;
+    // Built once for the processor and shared by concurrent searches, as it holds no per-search state
+    private final PersonalizedRanker ranker;
+    private final TimeValue rerankTimeout;
+    private final RerankDeadlineTracker rerankDeadlineTracker;
+    private final ThreadPool threadPool;
 
     /**
      * Constructor for Personalize ranking response processor
@@ -56,17 +72,25 @@ public class PersonalizeRankingResponseProcessor extends AbstractProcessor imple
      * @param ignoreFailure processor ignoreFailure config
      * @param rankerConfig  personalize ranker config
      * @param client        personalize client
+     * @param rerankTimeout time allowed for re ranking, or null for no timeout other than the search request timeout
+     * @param components    node-level components shared by all personalize processors
      */
     public PersonalizeRankingResponseProcessor(String tag,
                                                String description,
                                                boolean ignoreFailure,
                                                PersonalizeIntelligentRankerConfiguration rankerConfig,
-                                               PersonalizeClient client) {
+                                               PersonalizeClient client,
+                                               TimeValue rerankTimeout,
+                                               PersonalizeRankerComponents components) {
         super(tag, description, ignoreFailure);
         this.tag = tag;
         this.description = description;
         this.rankerConfig = rankerConfig;
         this.personalizeClient = client;
+        this.ranker = new PersonalizedRankerFactory().getPersonalizedRanker(rankerConfig, client, components);
+        this.rerankTimeout = rerankTimeout;
+        this.rerankDeadlineTracker = components.getRerankDeadlineTracker();
+        this.threadPool = components.getThreadPool();
     }
 
     /**
@@ -85,13 +109,54 @@ public class PersonalizeRankingResponseProcessor extends AbstractProcessor imple
             logger.info("TotalHits = 0. Returning search response without applying Personalize transform");
             return response;
         }
+
+        // The call to Personalize runs on the rerank executor. The calling thread only waits for its result, which the
+        // rerank deadline bounds. If the executor is saturated, the response is returned with its original ranking.
+        PlainActionFuture<SearchResponse> future = PlainActionFuture.newFuture();
+        threadPool.executor(RERANK_THREAD_POOL_NAME).execute(new AbstractRunnable() {
+            @Override
+            protected void doRun() {
+                future.onResponse(personalize(request, response));
+            }
+
+            @Override
+            public void onRejection(Exception e) {
+                // Fall back to the original ranking rather than queueing more rerank work
+                logger.warn("Rerank thread pool rejected the request. Returning search response without applying Personalize transform.", e);
+                future.onResponse(response);
+            }
+
+            @Override
+            public void onFailure(Exception e) {
+                future.onFailure(e);
+            }
+        });
+        try {
+            return future.actionGet();
+        } catch (RerankDeadlineExceededException e) {
+            // Recorded on the calling thread, so that the response header reaches the client
+            logger.warn("Personalize missed the rerank deadline. Returning search response without applying Personalize transform. {}",
+                    e.getMessage());
+            rerankDeadlineTracker.recordMiss(threadPool.getThreadContext(), TYPE);
+            return response;
+        }
+    }
+
+    private SearchResponse personalize(SearchRequest request, SearchResponse response) {
+        SearchHits hits = response.getHits();
         logger.info("Personalizing search results.");
         PersonalizeRequestParameters personalizeRequestParameters =
                 PersonalizeRequestParameterUtil.getPersonalizeRequestParameters(request);
-        PersonalizedRankerFactory rankerFactory = new PersonalizedRankerFactory();
-        PersonalizedRanker ranker = rankerFactory.getPersonalizedRanker(rankerConfig, personalizeClient);
         long startTime = System.nanoTime();
-        SearchHits personalizedHits = ranker.rerank(hits, personalizeRequestParameters);
+        RerankDeadline deadline = RerankDeadline.forSearchResponse(threadPool, request, response, rerankTimeout);
+        SearchHits personalizedHits;
+        try {
+            personalizedHits = ranker.rerank(hits, personalizeRequestParameters, deadline);
+        } catch (RerankCircuitBreakingException e) {
+            logger.warn("Personalize circuit breaker rejected the call. Returning search response without applying Personalize transform. {}",
+                    e.getMessage());
+            return response;
+        }
         long personalizeTimeTookMs = TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - startTime);
 
         final SearchResponseSections transformedSearchResponseSections = new InternalSearchResponse(personalizedHits,
@@ -141,16 +206,25 @@ public class PersonalizeRankingResponseProcessor extends AbstractProcessor imple
         private static final String RECIPE_CONFIG_NAME = "recipe";
         private static final String REGION_CONFIG_NAME = "aws_region";
         private static final String WEIGHT_CONFIG_NAME = "weight";
-        PersonalizeClientSettings personalizeClientSettings;
-        private final BiFunction<AWSCredentialsProvider, String, PersonalizeClient> clientBuilder;
+        private static final String RERANK_TIMEOUT_CONFIG_NAME = "rerank_timeout";
+        private final RemoteClientRegistry<PersonalizeClient.Key, PersonalizeClient> clientRegistry;
+        private final PersonalizeRankerComponents components;
 
-        Factory(PersonalizeClientSettings settings, BiFunction<AWSCredentialsProvider, String, PersonalizeClient> clientBuilder) {
-            this.personalizeClientSettings = settings;
-            this.clientBuilder = clientBuilder;
+        Factory(PersonalizeClientSettings settings, PersonalizeRankerComponents components,
+                BiFunction<AWSCredentialsProvider, String, PersonalizeClient> clientBuilder) {
+            this(new RemoteClientRegistry<>("personalize", key -> clientBuilder.apply(
+                    PersonalizeCredentialsProviderFactory.getCredentialsProvider(settings, key.getIamRoleArn(), key.getAwsRegion()),
+                    key.getAwsRegion())), components);
         }
 
-        public Factory(PersonalizeClientSettings settings) {
-            this(settings, PersonalizeClient::new);
+        /**
+         * @param clientRegistry node-level registry of Personalize clients, shared by all processors
+         * @param components     node-level caching, coalescing and stats, shared by all processors
+         */
+        public Factory(RemoteClientRegistry<PersonalizeClient.Key, PersonalizeClient> clientRegistry,
+                       PersonalizeRankerComponents components) {
+            this.clientRegistry = clientRegistry;
+            this.components = components;
         }
 
         @Override
@@ -161,24 +235,37 @@ public class PersonalizeRankingResponseProcessor extends AbstractProcessor imple
             String itemIdField = ConfigurationUtils.readOptionalStringProperty(TYPE, tag, config, ITEM_ID_FIELD_CONFIG_NAME);
             String awsRegion = ConfigurationUtils.readStringProperty(TYPE, tag, config, REGION_CONFIG_NAME);
             double weight = ConfigurationUtils.readDoubleProperty(TYPE, tag, config, WEIGHT_CONFIG_NAME);
+            String inputRerankTimeout = ConfigurationUtils.readOptionalStringProperty(TYPE, tag, config, RERANK_TIMEOUT_CONFIG_NAME);
+            TimeValue rerankTimeout;
+            try {
+                rerankTimeout = TimeValue.parseTimeValue(inputRerankTimeout, null, RERANK_TIMEOUT_CONFIG_NAME);
+            } catch (IllegalArgumentException e) {
+                throw ConfigurationUtils.newConfigurationException(TYPE, tag, RERANK_TIMEOUT_CONFIG_NAME, e.getMessage());
+            }
 
             PersonalizeIntelligentRankerConfiguration rankerConfig =
                     new PersonalizeIntelligentRankerConfiguration(personalizeCampaign, iamRoleArn, recipe, itemIdField, awsRegion, weight);
             ValidationUtil.validatePersonalizeIntelligentRankerConfiguration(rankerConfig, TYPE, tag);
 
-            final PersonalizeClient personalizeClient;
+            final RemoteClientRegistry.Lease<PersonalizeClient> clientLease;
             switch (pipelineContext.getPipelineSource()) {
                 case SEARCH_REQUEST:
                     throw new IllegalStateException(TYPE + " processor may not be instantiated as part of a search request. Create a named search pipeline instead.");
                 case UPDATE_PIPELINE:
-                    AWSCredentialsProvider credentialsProvider = PersonalizeCredentialsProviderFactory.getCredentialsProvider(personalizeClientSettings, iamRoleArn, awsRegion);
-                    personalizeClient = clientBuilder.apply(credentialsProvider, awsRegion);
+                    // Processors calling the same region with the same role share a client, which is released when
+                    // the node closes or earlier once the processor is unreachable
+                    clientLease = clientRegistry.acquire(new PersonalizeClient.Key(awsRegion, iamRoleArn));
                     break;
                 case VALIDATE_PIPELINE:
                 default:
-                    personalizeClient = null; // Do not instantiate client on validation
+                    clientLease = null; // Do not instantiate client on validation
             }
-            return new PersonalizeRankingResponseProcessor(tag, description, ignoreFailure, rankerConfig, personalizeClient);
+            PersonalizeRankingResponseProcessor processor = new PersonalizeRankingResponseProcessor(tag, description, ignoreFailure, rankerConfig,
+                    clientLease == null ? null : clientLease.get(), rerankTimeout, components);
+            if (clientLease != null) {
+                clientLease.releaseWhenUnreachable(processor);
+            }
+            return processor;
         }
     }
 
@@ -186,4 +273,9 @@ public class PersonalizeRankingResponseProcessor extends AbstractProcessor imple
         // Visible for testing
         return personalizeClient;
     }
+
+    TimeValue getRerankTimeout() {
+        // Visible for testing
+        return rerankTimeout;
+    }
 }
@@ -10,21 +10,30 @@ package org.opensearch.search.relevance.transformer.personalizeintelligentrankin
 import com.amazonaws.AmazonServiceException;
 import com.amazonaws.ClientConfiguration;
 import com.amazonaws.auth.AWSCredentialsProvider;
+import com.amazonaws.auth.STSAssumeRoleSessionCredentialsProvider;
+import com.amazonaws.http.timers.client.ClientExecutionTimeoutException;
 import com.amazonaws.services.personalizeruntime.AmazonPersonalizeRuntime;
 import com.amazonaws.services.personalizeruntime.AmazonPersonalizeRuntimeClientBuilder;
 import com.amazonaws.services.personalizeruntime.model.GetPersonalizedRankingRequest;
 import com.amazonaws.services.personalizeruntime.model.GetPersonalizedRankingResult;
+import org.opensearch.search.relevance.transformer.RemoteTransportSettings;
+import org.opensearch.search.relevance.transformer.RerankCircuitBreaker;
+import org.opensearch.search.relevance.transformer.RerankCircuitBreakingException;
+import org.opensearch.search.relevance.transformer.RerankDeadlineExceededException;
 
 import java.io.Closeable;
 import java.io.IOException;
 import java.security.AccessController;
 import java.security.PrivilegedAction;
+import java.util.Objects;
 
 /**
  * Amazon Personalize client implementation for getting personalized ranking
  */
 public class PersonalizeClient implements Closeable {
     private final AmazonPersonalizeRuntime personalizeRuntime;
+    private final AWSCredentialsProvider credentialsProvider;
+    private final RerankCircuitBreaker circuitBreaker;
     private static final String USER_AGENT_PREFIX = "PersonalizeOpenSearchPlugin";
 
     /**
@@ -33,9 +42,23 @@ public class PersonalizeClient implements Closeable {
      * @param awsRegion AWS region where Amazon Personalize campaign is hosted
      */
     public PersonalizeClient(AWSCredentialsProvider credentialsProvider, String awsRegion) {
-        ClientConfiguration clientConfiguration = AccessController.doPrivileged(
-                (PrivilegedAction<ClientConfiguration>) () -> new ClientConfiguration()
-                .withUserAgentPrefix(USER_AGENT_PREFIX));
+        this(credentialsProvider, awsRegion, RerankCircuitBreaker.disabled(), RemoteTransportSettings.defaults());
+    }
+
+    /**
+     * Constructor for Amazon Personalize client
+     * @param credentialsProvider Credentials to be used for accessing Amazon Personalize
+     * @param awsRegion AWS region where Amazon Personalize campaign is hosted
+     * @param circuitBreaker Circuit breaker rejecting calls right away while Amazon Personalize is failing
+     * @param transportSettings Connection pool, timeouts and response compression of the client
+     */
+    public PersonalizeClient(AWSCredentialsProvider credentialsProvider, String awsRegion, RerankCircuitBreaker circuitBreaker,
+                             RemoteTransportSettings transportSettings) {
+        this.credentialsProvider = credentialsProvider;
+        this.circuitBreaker = circuitBreaker;
+        ClientConfiguration clientConfiguration = transportSettings.toClientConfiguration()
+                .withUserAgentPrefix(USER_AGENT_PREFIX)
+                .withGzip(transportSettings.isResponseCompressionEnabled());
         personalizeRuntime = AccessController.doPrivileged(
                 (PrivilegedAction<AmazonPersonalizeRuntime>) () -> AmazonPersonalizeRuntimeClientBuilder.standard()
                         .withCredentials(credentialsProvider)
@@ -56,12 +79,25 @@ public class PersonalizeClient implements Closeable {
      * Get Personalized ranking using Personalized runtime client
      * @param request Get personalized ranking request
      * @return Personalized ranking results
+     * @throws RerankCircuitBreakingException if the call is rejected by the circuit breaker
+     * @throws RerankDeadlineExceededException if the execution timeout of the request elapsed
      */
     public GetPersonalizedRankingResult getPersonalizedRanking(GetPersonalizedRankingRequest request) {
         GetPersonalizedRankingResult result;
         try {
-            result = AccessController.doPrivileged(
-                    (PrivilegedAction<GetPersonalizedRankingResult>) () -> personalizeRuntime.getPersonalizedRanking(request));
+            result = circuitBreaker.executeBlocking(() -> AccessController.doPrivileged(
+                    (PrivilegedAction<GetPersonalizedRankingResult>) () -> {
+                        try {
+                            return personalizeRuntime.getPersonalizedRanking(request);
+                        } catch (ClientExecutionTimeoutException ex) {
+                            if (request.getSdkClientExecutionTimeout() != null) {
+                                // The caller ran out of time, which the circuit breaker does not count against Personalize
+                                throw new RerankDeadlineExceededException("Personalize did not respond within [{}] ms",
+                                        request.getSdkClientExecutionTimeout());
+                            }
+                            throw ex;
+                        }
+                    }));
         } catch (AmazonServiceException ex) {
             throw ex;
         }
@@ -73,5 +109,56 @@ public class PersonalizeClient implements Closeable {
         if (personalizeRuntime != null) {
             personalizeRuntime.shutdown();
         }
+        // Role credentials are refreshed by a thread of their own, which is stopped with them
+        if (credentialsProvider instanceof STSAssumeRoleSessionCredentialsProvider) {
+            ((STSAssumeRoleSessionCredentialsProvider) credentialsProvider).close();
+        }
+    }
+
+    /**
+     * Key identifying the Personalize clients that can be shared, which call the same region with the same role
+     */
+    public static final class Key {
+        private final String awsRegion;
+        private final String iamRoleArn;
+
+        /**
+         * @param awsRegion  AWS region where Amazon Personalize campaign is hosted
+         * @param iamRoleArn IAM role assumed to access Amazon Personalize, or null to use the node credentials
+         */
+        public Key(String awsRegion, String iamRoleArn) {
+            this.awsRegion = awsRegion;
+            this.iamRoleArn = iamRoleArn;
+        }
+
+        public String getAwsRegion() {
+            return awsRegion;
+        }
+
+        public String getIamRoleArn() {
+            return iamRoleArn;
+        }
+
+        @Override
+        public boolean equals(Object o) {
+            if (this == o) {
+                return true;
+            }
+            if (o == null || getClass() != o.getClass()) {
+                return false;
+            }
+            Key key = (Key) o;
+            return Objects.equals(awsRegion, key.awsRegion) && Objects.equals(iamRoleArn, key.iamRoleArn);
+        }
+
+        @Override
+        public int hashCode() {
+            return Objects.hash(awsRegion, iamRoleArn);
+        }
+
+        @Override
+        public String toString() {
+            return "region=" + awsRegion + ", role=" + iamRoleArn;
+        }
     }
 }
\ No newline at end of file
@@ -17,9 +17,13 @@ import org.opensearch.common.settings.SecureSetting;
 import org.opensearch.common.settings.Setting;
 import org.opensearch.common.settings.Settings;
 import org.opensearch.common.settings.SettingsException;
+import org.opensearch.common.unit.TimeValue;
+import org.opensearch.search.relevance.transformer.RemoteTransportSettings;
 
+import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.Collection;
+import java.util.List;
 
 /**
  * Container for personalize client settings such as AWS credentials
@@ -43,6 +47,27 @@ public final class PersonalizeClientSettings {
      */
     public static final Setting<SecureString> SESSION_TOKEN_SETTING = SecureSetting.secureString("personalized_search_ranking.aws.session_token", null);
 
+    /**
+     * Maximum number of searches waiting on an identical Personalize call in flight, beyond which searches make their
+     * own call. Set to 0 to disable coalescing of identical Personalize calls.
+     */
+    public static final Setting<Integer> RANKING_COALESCING_MAX_WAITERS_SETTING = Setting.intSetting(
+            "personalized_search_ranking.ranking_coalescing.max_waiters", 100, 0, Setting.Property.NodeScope);
+
+    /**
+     * Time after which a search stops waiting for an identical Personalize call.
+     */
+    public static final Setting<TimeValue> RANKING_COALESCING_WAIT_TIMEOUT_SETTING = Setting.timeSetting(
+            "personalized_search_ranking.ranking_coalescing.wait_timeout", TimeValue.timeValueSeconds(10),
+            TimeValue.timeValueMillis(1), Setting.Property.NodeScope);
+
+    /**
+     * Connection pool, timeouts and response compression of Personalize clients. Ranking requests are small lists of
+     * item IDs, so only responses are worth compressing.
+     */
+    public static final RemoteTransportSettings.Group TRANSPORT_SETTINGS =
+            RemoteTransportSettings.Group.withResponseCompression("personalized_search_ranking");
+
     private final AWSCredentials credentials;
 
     protected PersonalizeClientSettings(AWSCredentials credentials) {
@@ -50,11 +75,15 @@ public final class PersonalizeClientSettings {
     }
 
     public static Collection<? extends Setting<?>> getAllSettings() {
-        return Arrays.asList(
+        List<Setting<?>> settings = new ArrayList<>(Arrays.asList(
                 ACCESS_KEY_SETTING,
                 SECRET_KEY_SETTING,
-                SESSION_TOKEN_SETTING
-        );
+                SESSION_TOKEN_SETTING,
+                RANKING_COALESCING_MAX_WAITERS_SETTING,
+                RANKING_COALESCING_WAIT_TIMEOUT_SETTING
+        ));
+        settings.addAll(TRANSPORT_SETTINGS.getAllSettings());
+        return settings;
     }
 
     public AWSCredentials getCredentials() {
@@ -0,0 +1,189 @@
+/*
+ * SPDX-License-Identifier: Apache-2.0
+ *
+ * The OpenSearch Contributors require contributions made to
+ * this file be licensed under the Apache-2.0 license or a
+ * compatible open source license.
+ */
+package org.opensearch.search.relevance.transformer.personalizeintelligentranking.client;
+
+import org.opensearch.common.cache.Cache;
+import org.opensearch.common.cache.CacheBuilder;
+import org.opensearch.common.settings.Setting;
+import org.opensearch.common.settings.Settings;
+import org.opensearch.common.unit.TimeValue;
+import org.opensearch.core.common.unit.ByteSizeUnit;
+import org.opensearch.core.common.unit.ByteSizeValue;
+
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+
+/**
+ * Node-level cache of Personalize rankings, so that a user paging through or refreshing the same results does not
+ * call Personalize again for every page.
+ */
+public class PersonalizeRankingCache {
+
+    /**
+     * Maximum memory used by the cache. Set to 0 to disable caching.
+     */
+    public static final Setting<ByteSizeValue> RANKING_CACHE_SIZE_SETTING = Setting.byteSizeSetting(
+            "personalized_search_ranking.ranking_cache.size", new ByteSizeValue(10, ByteSizeUnit.MB), Setting.Property.NodeScope);
+
+    /**
+     * Time after which a cached ranking expires, bounding how long new user interactions take to affect rankings.
+     */
+    public static final Setting<TimeValue> RANKING_CACHE_TTL_SETTING = Setting.timeSetting(
+            "personalized_search_ranking.ranking_cache.ttl", TimeValue.timeValueMinutes(5), TimeValue.timeValueSeconds(1),
+            Setting.Property.NodeScope);
+
+    // Rough per-object overheads used to weigh entries against the configured cache size
+    private static final long ENTRY_BASE_BYTES = 128;
+    private static final long PER_STRING_BYTES = 48;
+
+    private final Cache<Key, List<String>> cache;
+
+    /**
+     * Create a cache sized from the node settings
+     * @param settings node settings
+     */
+    public PersonalizeRankingCache(Settings settings) {
+        this(RANKING_CACHE_SIZE_SETTING.get(settings), RANKING_CACHE_TTL_SETTING.get(settings));
+    }
+
+    public PersonalizeRankingCache(ByteSizeValue maxSize, TimeValue ttl) {
+        if (maxSize.getBytes() <= 0) {
+            this.cache = null;
+        } else {
+            this.cache = CacheBuilder.<Key, List<String>>builder()
+                    .setMaximumWeight(maxSize.getBytes())
+                    .setExpireAfterWrite(ttl)
+                    .weigher(PersonalizeRankingCache::weigh)
+                    .build();
+        }
+    }
+
+    /**
+     * @return a cache that never stores rankings
+     */
+    public static PersonalizeRankingCache disabled() {
+        return new PersonalizeRankingCache(ByteSizeValue.ZERO, TimeValue.MINUS_ONE);
+    }
+
+    public static Collection<? extends Setting<?>> getAllSettings() {
+        return Arrays.asList(
+                RANKING_CACHE_SIZE_SETTING,
+                RANKING_CACHE_TTL_SETTING
+        );
+    }
+
+    public boolean isEnabled() {
+        return cache != null;
+    }
+
+    /**
+     * Get the cached ranking for a Personalize request
+     * @param key ranking request key
+     * @return item IDs in the order ranked by Personalize, or null on a miss
+     */
+    public List<String> get(Key key) {
+        if (cache == null) {
+            return null;
+        }
+        return cache.get(key);
+    }
+
+    /**
+     * Cache the ranking returned by Personalize
+     * @param key ranking request key
+     * @param rankedItemIds item IDs in the order ranked by Personalize
+     */
+    public void put(Key key, List<String> rankedItemIds) {
+        if (cache == null) {
+            return;
+        }
+        cache.put(key, Collections.unmodifiableList(rankedItemIds));
+    }
+
+    /**
+     * @return hit, miss and eviction counts, hit rate and the current size of the cache
+     */
+    public Map<String, Object> stats() {
+        Map<String, Object> stats = new LinkedHashMap<>();
+        stats.put("enabled", cache != null);
+        if (cache != null) {
+            Cache.CacheStats cacheStats = cache.stats();
+            long lookups = cacheStats.getHits() + cacheStats.getMisses();
+            stats.put("count", cache.count());
+            stats.put("size_in_bytes", cache.weight());
+            stats.put("hit_count", cacheStats.getHits());
+            stats.put("miss_count", cacheStats.getMisses());
+            stats.put("hit_rate", lookups == 0 ? 0.0 : (double) cacheStats.getHits() / lookups);
+            stats.put("evictions", cacheStats.getEvictions());
+        }
+        return stats;
+    }
+
+    private static long weigh(Key key, List<String> rankedItemIds) {
+        return ENTRY_BASE_BYTES + key.ramBytesUsed() + stringsBytes(rankedItemIds);
+    }
+
+    private static long stringsBytes(Collection<String> strings) {
+        long bytes = 0;
+        for (String s : strings) {
+            bytes += PER_STRING_BYTES + 2L * s.length();
+        }
+        return bytes;
+    }
+
+    /**
+     * Identifies a Personalize ranking request by campaign, user, context and the ordered item IDs to rank
+     */
+    public static final class Key {
+        private final String campaignArn;
+        private final String userId;
+        private final Map<String, String> context;
+        private final List<String> itemIds;
+        private final int hashCode;
+
+        public Key(String campaignArn, String userId, Map<String, String> context, List<String> itemIds) {
+            this.campaignArn = campaignArn;
+            this.userId = userId;
+            this.context = context == null ? Collections.emptyMap() : context;
+            this.itemIds = itemIds;
+            this.hashCode = Objects.hash(campaignArn, userId, this.context, itemIds);
+        }
+
+        long ramBytesUsed() {
+            long bytes = 2L * campaignArn.length() + 2L * userId.length() + stringsBytes(itemIds);
+            bytes += stringsBytes(context.keySet()) + stringsBytes(context.values());
+            return bytes;
+        }
+
+        @Override
+        public boolean equals(Object o) {
+            if (this == o) {
+                return true;
+            }
+            if (o == null || getClass() != o.getClass()) {
+                return false;
+            }
+            Key other = (Key) o;
+            return hashCode == other.hashCode &&
+                    campaignArn.equals(other.campaignArn) &&
+                    userId.equals(other.userId) &&
+                    context.equals(other.context) &&
+                    itemIds.equals(other.itemIds);
+        }
+
+        @Override
+        public int hashCode() {
+            return hashCode;
+        }
+    }
+}
@@ -8,6 +8,8 @@
 package org.opensearch.search.relevance.transformer.personalizeintelligentranking.reranker;
 
 import org.opensearch.search.SearchHits;
+import org.opensearch.search.relevance.transformer.RerankDeadline;
+import org.opensearch.search.relevance.transformer.RerankDeadlineExceededException;
 import org.opensearch.search.relevance.transformer.personalizeintelligentranking.requestparameter.PersonalizeRequestParameters;
 
 public interface PersonalizedRanker {
@@ -19,4 +21,20 @@ public interface PersonalizedRanker {
      * @return Re ranked search hits
      */
     SearchHits rerank(SearchHits hits, PersonalizeRequestParameters requestParameters);
+
+    /**
+     * Re rank search hits, giving up once the deadline passes. The default implementation only checks the deadline
+     * before re ranking.
+     * @param hits              Search hits to re rank
+     * @param requestParameters Request parameters for Personalize present in search request
+     * @param deadline          Deadline by which re ranking must complete
+     * @return Re ranked search hits
+     * @throws RerankDeadlineExceededException if the deadline passes first, leaving the hits unchanged
+     */
+    default SearchHits rerank(SearchHits hits, PersonalizeRequestParameters requestParameters, RerankDeadline deadline) {
+        if (deadline.isExpired()) {
+            throw new RerankDeadlineExceededException("Rerank deadline passed before calling Personalize");
+        }
+        return rerank(hits, requestParameters);
+    }
 }
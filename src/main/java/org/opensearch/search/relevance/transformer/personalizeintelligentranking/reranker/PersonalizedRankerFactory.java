@@ -9,6 +9,7 @@ package org.opensearch.search.relevance.transformer.personalizeintelligentrankin
 
 import org.apache.logging.log4j.LogManager;
 import org.apache.logging.log4j.Logger;
+import org.opensearch.search.relevance.transformer.personalizeintelligentranking.PersonalizeRankerComponents;
 import org.opensearch.search.relevance.transformer.personalizeintelligentranking.client.PersonalizeClient;
 import org.opensearch.search.relevance.transformer.personalizeintelligentranking.configuration.PersonalizeIntelligentRankerConfiguration;
 import org.opensearch.search.relevance.transformer.personalizeintelligentranking.reranker.impl.AmazonPersonalizedRankerImpl;
@@ -25,12 +26,14 @@ public class PersonalizedRankerFactory {
      * Create an instance of Personalize ranker based on ranker configuration
      * @param config Personalize ranker configuration
      * @param client Personalize client
+     * @param components Node-level caching and coalescing of Personalize rankings
      * @return Personalize ranker instance
      */
-    public PersonalizedRanker getPersonalizedRanker(PersonalizeIntelligentRankerConfiguration config, PersonalizeClient client){
+    public PersonalizedRanker getPersonalizedRanker(PersonalizeIntelligentRankerConfiguration config, PersonalizeClient client,
+                                                    PersonalizeRankerComponents components){
         PersonalizedRanker ranker = null;
         if (config.getRecipe().equals(AMAZON_PERSONALIZED_RANKING_RECIPE_NAME)) {
-            ranker = new AmazonPersonalizedRankerImpl(config, client);
+            ranker = new AmazonPersonalizedRankerImpl(config, client, components);
         } else {
             logger.error("Personalize recipe provided in configuration is not supported for re ranking search results");
             //TODO : throw user error exception
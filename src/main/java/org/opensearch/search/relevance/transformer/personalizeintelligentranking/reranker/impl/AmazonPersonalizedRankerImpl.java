@@ -12,21 +12,30 @@ import com.amazonaws.services.personalizeruntime.model.GetPersonalizedRankingRes
 import com.amazonaws.services.personalizeruntime.model.PredictedItem;
 import org.apache.logging.log4j.LogManager;
 import org.apache.logging.log4j.Logger;
+import org.opensearch.OpenSearchTimeoutException;
 import org.opensearch.ingest.ConfigurationUtils;
 import org.opensearch.search.SearchHit;
 import org.opensearch.search.SearchHits;
+import org.opensearch.search.relevance.transformer.RerankCircuitBreakingException;
+import org.opensearch.search.relevance.transformer.RerankDeadline;
+import org.opensearch.search.relevance.transformer.RerankDeadlineExceededException;
+import org.opensearch.search.relevance.transformer.SingleFlight;
+import org.opensearch.search.relevance.transformer.SourceFieldExtractor;
 import org.opensearch.search.relevance.transformer.personalizeintelligentranking.PersonalizeRankingResponseProcessor;
+import org.opensearch.search.relevance.transformer.personalizeintelligentranking.PersonalizeRankerComponents;
 import org.opensearch.search.relevance.transformer.personalizeintelligentranking.client.PersonalizeClient;
+import org.opensearch.search.relevance.transformer.personalizeintelligentranking.client.PersonalizeRankingCache;
 import org.opensearch.search.relevance.transformer.personalizeintelligentranking.configuration.PersonalizeIntelligentRankerConfiguration;
 import org.opensearch.search.relevance.transformer.personalizeintelligentranking.requestparameter.PersonalizeRequestParameters;
 import org.opensearch.search.relevance.transformer.personalizeintelligentranking.reranker.PersonalizedRanker;
 
 import java.util.ArrayList;
 import java.util.Arrays;
+import java.util.Collections;
 import java.util.Comparator;
 import java.util.List;
-import java.util.LinkedList;
 import java.util.Map;
+import java.util.Objects;
 import java.util.stream.Collectors;
 
 /**
@@ -36,10 +45,20 @@ public class AmazonPersonalizedRankerImpl implements PersonalizedRanker {
     private static final Logger logger = LogManager.getLogger(AmazonPersonalizedRankerImpl.class);
     private final PersonalizeIntelligentRankerConfiguration rankerConfig;
     private final PersonalizeClient personalizeClient;
+    private final PersonalizeRankingCache rankingCache;
+    private final SingleFlight<PersonalizeRankingCache.Key, List<String>> rankingSingleFlight;
+    /**
+     * @param config     Personalize ranker configuration
+     * @param client     Personalize client
+     * @param components caching and coalescing shared by every Personalize ranker of the node
+     */
     public AmazonPersonalizedRankerImpl(PersonalizeIntelligentRankerConfiguration config,
-                                        PersonalizeClient client) {
+                                        PersonalizeClient client,
+                                        PersonalizeRankerComponents components) {
         this.rankerConfig = config;
         this.personalizeClient = client;
+        this.rankingCache = components.getRankingCache();
+        this.rankingSingleFlight = components.getRankingSingleFlight();
     }
 
     /**
@@ -50,6 +69,20 @@ public class AmazonPersonalizedRankerImpl implements PersonalizedRanker {
      */
     @Override
     public SearchHits rerank(SearchHits hits, PersonalizeRequestParameters requestParameters) {
+        return rerank(hits, requestParameters, RerankDeadline.NONE);
+    }
+
+    /**
+     * Re rank search hits using Personalize campaign that uses Personalized Ranking recipe, bounding the call to
+     * Personalize by the deadline
+     * @param hits              search hits returned by open search
+     * @param requestParameters request parameters for Personalize present in search request
+     * @param deadline          deadline by which re ranking must complete
+     * @return search hits re ranked using Amazon Personalize
+     * @throws RerankDeadlineExceededException if Personalize does not respond before the deadline
+     */
+    @Override
+    public SearchHits rerank(SearchHits hits, PersonalizeRequestParameters requestParameters, RerankDeadline deadline) {
         try {
             validatePersonalizeRequestParams(requestParameters);
             List<SearchHit> originalHits = Arrays.asList(hits.getHits());
@@ -58,20 +91,11 @@ public class AmazonPersonalizedRankerImpl implements PersonalizedRanker {
                 logger.info("Not applying Personalized ranking. Given value for weight configuration: {}", rankerConfig.getWeight());
                 return hits;
             }
-            String itemIdfield = rankerConfig.getItemIdField();
-            List<String> documentIdsToRank;
-            // If item field is not specified in the configuration then use default _id field.
-            if (itemIdfield != null && !itemIdfield.isBlank()) {
-                documentIdsToRank = originalHits.stream()
-                        .filter(h -> h.getSourceAsMap().get(itemIdfield) != null)
-                        .map(h -> h.getSourceAsMap().get(itemIdfield).toString())
-                        .collect(Collectors.toList());
-            } else {
-                documentIdsToRank = originalHits.stream()
-                        .filter(h -> h.getId() != null)
-                        .map(h -> h.getId())
-                        .collect(Collectors.toList());
-            }
+            // Item ID of each hit, or null if it has none. Read once, as it is also needed to combine scores.
+            List<String> itemIds = getItemIds(originalHits);
+            List<String> documentIdsToRank = itemIds.stream()
+                    .filter(Objects::nonNull)
+                    .collect(Collectors.toList());
             if (documentIdsToRank.size() == 0) {
                 throw ConfigurationUtils.newConfigurationException(PersonalizeRankingResponseProcessor.TYPE, "", "item_id_field",
                         "no item ids found to apply Personalized reranking. Please check configured value for item_id_field");
@@ -87,41 +111,105 @@ public class AmazonPersonalizedRankerImpl implements PersonalizedRanker {
                 logger.info("Personalize context provided in the search request");
             }
 
-            GetPersonalizedRankingRequest personalizeRequest = new GetPersonalizedRankingRequest()
-                    .withCampaignArn(rankerConfig.getPersonalizeCampaign())
-                    .withInputList(documentIdsToRank)
-                    .withContext(context)
-                    .withUserId(userId);
-            GetPersonalizedRankingResult result = personalizeClient.getPersonalizedRanking(personalizeRequest);
+            PersonalizeRankingCache.Key cacheKey = new PersonalizeRankingCache.Key(rankerConfig.getPersonalizeCampaign(),
+                    userId, context, documentIdsToRank);
+            List<String> personalizedRankedItems = rankingCache.get(cacheKey);
+            if (personalizedRankedItems == null) {
+                if (deadline.isExpired()) {
+                    throw new RerankDeadlineExceededException("Rerank deadline passed before calling Personalize");
+                }
+                // Identical concurrent searches for the same user and context share a single call
+                personalizedRankedItems = getPersonalizedRanking(cacheKey, documentIdsToRank, userId, context, deadline);
+            } else {
+                logger.info("Using cached Personalize ranking for User ID: {}", userId);
+            }
 
-            SearchHits personalizedHits = combineScores(hits, result);
+            SearchHits personalizedHits = combineScores(hits, itemIds, personalizedRankedItems);
             return personalizedHits;
+        } catch (RerankDeadlineExceededException ex) {
+            // Not an error, the caller falls back to the original ranking
+            throw ex;
+        } catch (RerankCircuitBreakingException ex) {
+            // Not an error either, Personalize is known to be failing and was not called
+            logger.debug("Personalize call rejected. {}", ex.getMessage());
+            throw ex;
         } catch (Exception ex) {
             logger.error("Failed to re rank with Personalize.", ex);
             throw ex;
         }
     }
 
-    //Combine open search hits and personalize campaign response
-    private SearchHits combineScores(SearchHits originalHits, GetPersonalizedRankingResult personalizedRankingResult) {
-        List<PredictedItem> personalziedRanking = personalizedRankingResult.getPersonalizedRanking();
-        List<String> personalizedRankedItemsList = new LinkedList<>();
-        for (PredictedItem item : personalziedRanking) {
-            personalizedRankedItemsList.add(item.getItemId());
+    private List<String> getPersonalizedRanking(PersonalizeRankingCache.Key cacheKey, List<String> documentIdsToRank,
+                                                String userId, Map<String, String> context, RerankDeadline deadline) {
+        try {
+            return rankingSingleFlight.executeBlocking(cacheKey, () -> {
+                GetPersonalizedRankingRequest personalizeRequest = new GetPersonalizedRankingRequest()
+                        .withCampaignArn(rankerConfig.getPersonalizeCampaign())
+                        .withInputList(documentIdsToRank)
+                        .withContext(context)
+                        .withUserId(userId);
+                if (deadline.isBounded()) {
+                    // A zero timeout disables the SDK timeout, so always allow at least a millisecond
+                    personalizeRequest.setSdkClientExecutionTimeout((int) Math.min(Integer.MAX_VALUE,
+                            Math.max(1, deadline.remaining().millis())));
+                }
+                GetPersonalizedRankingResult result = personalizeClient.getPersonalizedRanking(personalizeRequest);
+                List<String> rankedItems = Collections.unmodifiableList(result.getPersonalizedRanking().stream()
+                        .map(PredictedItem::getItemId)
+                        .collect(Collectors.toList()));
+                rankingCache.put(cacheKey, rankedItems);
+                return rankedItems;
+            }, deadline.remaining());
+        } catch (RerankDeadlineExceededException ex) {
+            // Personalize did not respond within the execution timeout set from the deadline
+            throw ex;
+        } catch (OpenSearchTimeoutException ex) {
+            if (deadline.isExpired()) {
+                throw new RerankDeadlineExceededException("Identical Personalize call did not complete before the rerank deadline");
+            }
+            throw ex;
+        }
+    }
+
+    /**
+     * Get the item ID of each hit, reading only the item ID field from the source of each hit
+     * @param hits search hits
+     * @return item IDs in hit order, with null for hits that have no item ID
+     */
+    private List<String> getItemIds(List<SearchHit> hits) {
+        String itemIdField = rankerConfig.getItemIdField();
+        List<String> itemIds = new ArrayList<>(hits.size());
+        // If item field is not specified in the configuration then use default _id field.
+        if (itemIdField != null && !itemIdField.isBlank()) {
+            SourceFieldExtractor sourceFieldExtractor = new SourceFieldExtractor(itemIdField);
+            for (SearchHit hit : hits) {
+                Object itemId = sourceFieldExtractor.extract(hit).get(itemIdField);
+                itemIds.add(itemId == null ? null : itemId.toString());
+            }
+        } else {
+            for (SearchHit hit : hits) {
+                itemIds.add(hit.getId());
+            }
         }
+        return itemIds;
+    }
+
+    //Combine open search hits and personalize campaign ranking
+    private SearchHits combineScores(SearchHits originalHits, List<String> itemIds, List<String> personalizedRankedItemsList) {
         int totalHits = originalHits.getHits().length;
         List<SearchHit> rerankedHits = new ArrayList<>(totalHits);
         float maxScore = 0f;
         double weight = rankerConfig.getWeight();
+        // Check every hit before updating any score, so that a failure leaves the hits unchanged
         for (int i = 0 ; i < totalHits ; i++) {
-            String openSearchItemId;
-            SearchHit hit = originalHits.getAt(i);
-            String itemIdField = rankerConfig.getItemIdField();
-            if (itemIdField != null && !(itemIdField.isBlank())) {
-                openSearchItemId = hit.getSourceAsMap().get(rankerConfig.getItemIdField()).toString();
-            } else {
-                openSearchItemId = hit.getId();
+            if (itemIds.get(i) == null) {
+                throw ConfigurationUtils.newConfigurationException(PersonalizeRankingResponseProcessor.TYPE, "", "item_id_field",
+                        "document [" + originalHits.getAt(i).getId() + "] has no item id to apply Personalized reranking");
             }
+        }
+        for (int i = 0 ; i < totalHits ; i++) {
+            SearchHit hit = originalHits.getAt(i);
+            String openSearchItemId = itemIds.get(i);
             int openSearchRank = i + 1;
             int personalizedRank = personalizedRankedItemsList.indexOf(openSearchItemId) + 1;
             float combinedScore = (float) (((1- weight) / (Math.log(openSearchRank + 1) / Math.log(2)))
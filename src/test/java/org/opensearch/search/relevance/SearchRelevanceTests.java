@@ -7,8 +7,42 @@
  */
 package org.opensearch.search.relevance;
 
+import org.opensearch.common.settings.Settings;
 import org.opensearch.test.OpenSearchTestCase;
+import org.opensearch.threadpool.ExecutorBuilder;
+import org.opensearch.threadpool.FixedExecutorBuilder;
+
+import java.util.List;
+
+import static org.opensearch.search.relevance.configuration.Constants.PREPROCESS_THREAD_POOL_NAME;
+import static org.opensearch.search.relevance.configuration.Constants.PREPROCESS_THREAD_POOL_QUEUE_SIZE;
+import static org.opensearch.search.relevance.configuration.Constants.RERANK_THREAD_POOL_NAME;
+import static org.opensearch.search.relevance.configuration.Constants.RERANK_THREAD_POOL_QUEUE_SIZE;
 
 public class SearchRelevanceTests extends OpenSearchTestCase {
-    // Add unit tests for your plugin
+
+    public void testRerankExecutorIsFixedAndBounded() {
+        Settings settings = Settings.builder().put("node.processors", 1).build();
+        List<ExecutorBuilder<?>> executorBuilders = new SearchRelevancePlugin().getExecutorBuilders(settings);
+        assertEquals(2, executorBuilders.size());
+        FixedExecutorBuilder executorBuilder = (FixedExecutorBuilder) executorBuilders.get(0);
+        assertTrue(executorBuilder.getRegisteredSettings().stream()
+                .anyMatch(s -> s.getKey().equals("thread_pool." + RERANK_THREAD_POOL_NAME + ".queue_size")
+                        && s.get(settings).equals(RERANK_THREAD_POOL_QUEUE_SIZE)));
+        assertTrue(executorBuilder.getRegisteredSettings().stream()
+                .anyMatch(s -> s.getKey().equals("thread_pool." + RERANK_THREAD_POOL_NAME + ".size")
+                        && s.get(settings).equals(1)));
+    }
+
+    public void testPreprocessExecutorIsFixedAndBounded() {
+        Settings settings = Settings.builder().put("node.processors", 1).build();
+        List<ExecutorBuilder<?>> executorBuilders = new SearchRelevancePlugin().getExecutorBuilders(settings);
+        FixedExecutorBuilder executorBuilder = (FixedExecutorBuilder) executorBuilders.get(1);
+        assertTrue(executorBuilder.getRegisteredSettings().stream()
+                .anyMatch(s -> s.getKey().equals("thread_pool." + PREPROCESS_THREAD_POOL_NAME + ".queue_size")
+                        && s.get(settings).equals(PREPROCESS_THREAD_POOL_QUEUE_SIZE)));
+        assertTrue(executorBuilder.getRegisteredSettings().stream()
+                .anyMatch(s -> s.getKey().equals("thread_pool." + PREPROCESS_THREAD_POOL_NAME + ".size")
+                        && s.get(settings).equals(1)));
+    }
 }
@@ -9,27 +9,35 @@ package org.opensearch.search.relevance.actionfilter;
 
 import org.apache.lucene.search.TotalHits;
 import org.mockito.Mockito;
+import org.opensearch.OpenSearchException;
+import org.opensearch.Version;
 import org.opensearch.action.ActionListener;
-import org.opensearch.action.admin.indices.settings.get.GetSettingsAction;
-import org.opensearch.action.admin.indices.settings.get.GetSettingsRequest;
-import org.opensearch.action.admin.indices.settings.get.GetSettingsResponse;
 import org.opensearch.action.delete.DeleteAction;
 import org.opensearch.action.delete.DeleteRequest;
 import org.opensearch.action.delete.DeleteRequestBuilder;
 import org.opensearch.action.delete.DeleteResponse;
+import org.opensearch.action.search.MultiSearchAction;
+import org.opensearch.action.search.MultiSearchRequest;
+import org.opensearch.action.search.MultiSearchResponse;
 import org.opensearch.action.search.SearchAction;
 import org.opensearch.action.search.SearchRequest;
 import org.opensearch.action.search.SearchRequestBuilder;
 import org.opensearch.action.search.SearchResponse;
 import org.opensearch.action.search.ShardSearchFailure;
 import org.opensearch.action.support.ActionFilterChain;
-import org.opensearch.client.Client;
+import org.opensearch.cluster.ClusterChangedEvent;
+import org.opensearch.cluster.ClusterName;
+import org.opensearch.cluster.ClusterState;
+import org.opensearch.cluster.metadata.IndexMetadata;
+import org.opensearch.cluster.metadata.Metadata;
 import org.opensearch.core.common.bytes.BytesReference;
 import org.opensearch.common.document.DocumentField;
 import org.opensearch.core.common.io.stream.StreamInput;
 import org.opensearch.core.common.io.stream.StreamOutput;
 import org.opensearch.common.settings.Setting;
 import org.opensearch.common.settings.Settings;
+import org.opensearch.common.unit.TimeValue;
+import org.opensearch.common.util.concurrent.AbstractRunnable;
 import org.opensearch.common.xcontent.json.JsonXContent;
 import org.opensearch.core.xcontent.XContentBuilder;
 import org.opensearch.core.xcontent.XContentParser;
@@ -37,36 +45,62 @@ import org.opensearch.search.SearchHit;
 import org.opensearch.search.SearchHits;
 import org.opensearch.search.builder.SearchSourceBuilder;
 import org.opensearch.search.internal.InternalSearchResponse;
-import org.opensearch.search.relevance.client.OpenSearchClient;
+import org.opensearch.search.relevance.SearchRelevancePlugin;
 import org.opensearch.search.relevance.configuration.ResultTransformerConfiguration;
 import org.opensearch.search.relevance.configuration.ResultTransformerConfigurationFactory;
 import org.opensearch.search.relevance.configuration.SearchConfigurationExtBuilder;
+import org.opensearch.search.relevance.transformer.RerankDeadline;
+import org.opensearch.search.relevance.transformer.RerankDeadlineTracker;
 import org.opensearch.search.relevance.transformer.ResultTransformer;
 import org.opensearch.tasks.Task;
+import org.opensearch.common.util.concurrent.ThreadContext;
 import org.opensearch.test.OpenSearchTestCase;
+import org.opensearch.threadpool.ExecutorBuilder;
+import org.opensearch.threadpool.TestThreadPool;
+import org.opensearch.threadpool.ThreadPool;
 
 import java.io.IOException;
+import java.util.Arrays;
 import java.util.Collections;
 import java.util.List;
 import java.util.Map;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.TimeUnit;
 import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
 import java.util.concurrent.atomic.AtomicReference;
 import java.util.function.Consumer;
+import java.util.stream.Collectors;
 
 import static org.mockito.ArgumentMatchers.any;
-import static org.mockito.ArgumentMatchers.eq;
 import static org.mockito.Mockito.doAnswer;
 import static org.mockito.Mockito.mock;
+import static org.opensearch.search.relevance.configuration.Constants.RERANK_THREAD_POOL_NAME;
 
 public class SearchActionFilterTests extends OpenSearchTestCase {
 
+    private ThreadPool threadPool;
+
+    @Override
+    public void setUp() throws Exception {
+        super.setUp();
+        threadPool = new TestThreadPool(getTestName(),
+                new SearchRelevancePlugin().getExecutorBuilders(Settings.EMPTY).toArray(new ExecutorBuilder<?>[0]));
+    }
+
+    @Override
+    public void tearDown() throws Exception {
+        ThreadPool.terminate(threadPool, 10, TimeUnit.SECONDS);
+        super.tearDown();
+    }
+
     /**
      * This filter only operates on search requests. Other request types (e.g. Delete) will still pass through.
      */
     public void testIgnoresDelete() {
-        Client client = Mockito.mock(Client.class);
-        OpenSearchClient openSearchClient = new OpenSearchClient(client);
-        SearchActionFilter searchActionFilter = new SearchActionFilter(Collections.emptyList(), openSearchClient);
+        SearchActionFilter searchActionFilter = new SearchActionFilter(new TransformerPlanCache(Collections.emptyList()), new RerankDeadlineTracker(), threadPool);
 
         Task task = Mockito.mock(Task.class);
         DeleteRequest deleteRequest = new DeleteRequestBuilder(null, DeleteAction.INSTANCE).request();
@@ -81,9 +115,7 @@ public class SearchActionFilterTests extends OpenSearchTestCase {
      * Test short-circuit code path where we skip the filter if no index is specified.
      */
     public void testIgnoresSearchRequestOnZeroIndices() {
-        Client client = Mockito.mock(Client.class);
-        OpenSearchClient openSearchClient = new OpenSearchClient(client);
-        SearchActionFilter searchActionFilter = new SearchActionFilter(Collections.emptyList(), openSearchClient);
+        SearchActionFilter searchActionFilter = new SearchActionFilter(new TransformerPlanCache(Collections.emptyList()), new RerankDeadlineTracker(), threadPool);
 
         Task task = Mockito.mock(Task.class);
         SearchRequest searchRequest = new SearchRequestBuilder(null, SearchAction.INSTANCE).request();
@@ -98,9 +130,7 @@ public class SearchActionFilterTests extends OpenSearchTestCase {
      * Test short-circuit code path where we skip the filter if multiple indices are specified.
      */
     public void testIgnoresSearchRequestOnMultipleIndices() {
-        Client client = Mockito.mock(Client.class);
-        OpenSearchClient openSearchClient = new OpenSearchClient(client);
-        SearchActionFilter searchActionFilter = new SearchActionFilter(Collections.emptyList(), openSearchClient);
+        SearchActionFilter searchActionFilter = new SearchActionFilter(new TransformerPlanCache(Collections.emptyList()), new RerankDeadlineTracker(), threadPool);
 
         Task task = Mockito.mock(Task.class);
         SearchRequest searchRequest = new SearchRequestBuilder(null, SearchAction.INSTANCE)
@@ -113,31 +143,28 @@ public class SearchActionFilterTests extends OpenSearchTestCase {
         assertTrue(proceedCalled.get());
     }
 
-    private static Client buildMockClient(String indexName, Settings... settings) {
-        Client client = Mockito.mock(Client.class);
-
-        Settings.Builder settingsBuilder = Settings.builder();
+    private static TransformerPlanCache buildPlanCache(List<ResultTransformer> transformers, String indexName, Settings... settings) {
+        Settings.Builder settingsBuilder = Settings.builder()
+                .put(IndexMetadata.SETTING_VERSION_CREATED, Version.CURRENT)
+                .put(IndexMetadata.SETTING_NUMBER_OF_SHARDS, 1)
+                .put(IndexMetadata.SETTING_NUMBER_OF_REPLICAS, 0);
         for (Settings settingsEntry : settings) {
             settingsBuilder.put(settingsEntry);
         }
-        Settings settingsObj = settingsBuilder.build();
-        Map<String, Settings> indexSettingsMap = Map.of(indexName, settingsObj);
-        GetSettingsResponse getSettingsResponse = new GetSettingsResponse(indexSettingsMap, Collections.emptyMap());
-        doAnswer(invocation -> {
-            ActionListener<GetSettingsResponse> responseListener = invocation.getArgument(2);
-            responseListener.onResponse(getSettingsResponse);
-            return null;
-        }).when(client).execute(eq(GetSettingsAction.INSTANCE), any(GetSettingsRequest.class), any(ActionListener.class));
-        return client;
+        IndexMetadata indexMetadata = IndexMetadata.builder(indexName).settings(settingsBuilder).build();
+        ClusterState clusterState = ClusterState.builder(new ClusterName("test"))
+                .metadata(Metadata.builder().put(indexMetadata, false))
+                .build();
+        TransformerPlanCache transformerPlanCache = new TransformerPlanCache(transformers);
+        transformerPlanCache.clusterChanged(new ClusterChangedEvent("test", clusterState, ClusterState.EMPTY_STATE));
+        return transformerPlanCache;
     }
 
     /**
      * Probe the code path where we have one index, but no transformers.
      */
     public void testOperatesOnSingleIndexWithNoTransformers() {
-        Client client = buildMockClient("index");
-        OpenSearchClient openSearchClient = new OpenSearchClient(client);
-        SearchActionFilter searchActionFilter = new SearchActionFilter(Collections.emptyList(), openSearchClient);
+        SearchActionFilter searchActionFilter = new SearchActionFilter(buildPlanCache(Collections.emptyList(), "index"), new RerankDeadlineTracker(), threadPool);
 
         Task task = Mockito.mock(Task.class);
         SearchRequest searchRequest = new SearchRequestBuilder(null, SearchAction.INSTANCE)
@@ -251,12 +278,10 @@ public class SearchActionFilterTests extends OpenSearchTestCase {
      * index setting, the transformer will not be called.
      */
     public void testTransformerDoesNotRunWhenNotEnabled() {
-        Client client = buildMockClient("index");
-        OpenSearchClient openSearchClient = new OpenSearchClient(client);
 
         MockTransformer mockTransformer = new MockTransformer();
 
-        SearchActionFilter searchActionFilter = new SearchActionFilter(List.of(mockTransformer), openSearchClient);
+        SearchActionFilter searchActionFilter = new SearchActionFilter(buildPlanCache(List.of(mockTransformer), "index"), new RerankDeadlineTracker(), threadPool);
 
         Task task = Mockito.mock(Task.class);
         SearchRequest searchRequest = new SearchRequestBuilder(null, SearchAction.INSTANCE)
@@ -268,8 +293,8 @@ public class SearchActionFilterTests extends OpenSearchTestCase {
         ActionListener<SearchResponse> mockListener = mock(ActionListener.class);
         searchActionFilter.apply(task, SearchAction.NAME, searchRequest, mockListener, searchFilterChain);
         assertTrue(proceedCalled.get());
-        // We should try to check for index-level settings
-        assertTrue(mockTransformer.getTransformerSettingsWasCalled);
+        // Index-level settings are compiled from the cluster state, and never read on the search path
+        assertFalse(mockTransformer.getTransformerSettingsWasCalled);
         assertFalse(mockTransformer.preproccessRequestWasCalled);
         assertFalse(mockTransformer.transformWasCalled);
         assertFalse(mockTransformer.shouldTransformWasCalled);
@@ -278,13 +303,11 @@ public class SearchActionFilterTests extends OpenSearchTestCase {
     /**
      * Should be able to enable transformer explicitly in a search request.
      */
-    public void testTransformEnabledInRequest() throws IOException {
-        Client client = buildMockClient("index");
-        OpenSearchClient openSearchClient = new OpenSearchClient(client);
+    public void testTransformEnabledInRequest() throws Exception {
 
         MockTransformer mockTransformer = new MockTransformer();
 
-        SearchActionFilter searchActionFilter = new SearchActionFilter(List.of(mockTransformer), openSearchClient);
+        SearchActionFilter searchActionFilter = new SearchActionFilter(buildPlanCache(List.of(mockTransformer), "index"), new RerankDeadlineTracker(), threadPool);
 
         Task task = Mockito.mock(Task.class);
         SearchRequest searchRequest = new SearchRequestBuilder(null, SearchAction.INSTANCE)
@@ -321,6 +344,8 @@ public class SearchActionFilterTests extends OpenSearchTestCase {
             }
         };
         searchActionFilter.apply(task, SearchAction.NAME, searchRequest, downstreamListener, searchFilterChain);
+        // Transformers run on the rerank thread pool, so the listener is notified asynchronously
+        assertBusy(() -> assertTrue(onResponseCalled.get() || onFailureCalled.get()));
         assertTrue(proceedCalled.get());
         // We should NOT try to check for index-level settings, because we saw request-level settings
         assertFalse(mockTransformer.getTransformerSettingsWasCalled);
@@ -354,18 +379,16 @@ public class SearchActionFilterTests extends OpenSearchTestCase {
     /**
      * Should be able to enable transformer on all queries via index setting.
      */
-    public void testTransformEnabledByIndexSetting() throws IOException {
+    public void testTransformEnabledByIndexSetting() throws Exception {
         String prefix = "index.plugin.searchrelevance.result_transformer." +
                 MockTransformer.NAME;
         Settings enablePluginSettings = Settings.builder()
                 .put(prefix + ".order", 1)
                 .build();
-        Client client = buildMockClient("index", enablePluginSettings);
-        OpenSearchClient openSearchClient = new OpenSearchClient(client);
 
         MockTransformer mockTransformer = new MockTransformer();
 
-        SearchActionFilter searchActionFilter = new SearchActionFilter(List.of(mockTransformer), openSearchClient);
+        SearchActionFilter searchActionFilter = new SearchActionFilter(buildPlanCache(List.of(mockTransformer), "index", enablePluginSettings), new RerankDeadlineTracker(), threadPool);
 
         Task task = Mockito.mock(Task.class);
         SearchRequest searchRequest = new SearchRequestBuilder(null, SearchAction.INSTANCE)
@@ -393,9 +416,11 @@ public class SearchActionFilterTests extends OpenSearchTestCase {
             }
         };
         searchActionFilter.apply(task, SearchAction.NAME, searchRequest, downstreamListener, searchFilterChain);
+        // Transformers run on the rerank thread pool, so the listener is notified asynchronously
+        assertBusy(() -> assertTrue(onResponseCalled.get() || onFailureCalled.get()));
         assertTrue(proceedCalled.get());
-        // We should NOT try to check for index-level settings, because we saw request-level settings
-        assertTrue(mockTransformer.getTransformerSettingsWasCalled);
+        // Index-level settings are compiled from the cluster state, and never read on the search path
+        assertFalse(mockTransformer.getTransformerSettingsWasCalled);
         assertTrue(mockTransformer.preproccessRequestWasCalled);
         assertTrue(mockTransformer.transformWasCalled);
         assertTrue(mockTransformer.shouldTransformWasCalled);
@@ -407,9 +432,7 @@ public class SearchActionFilterTests extends OpenSearchTestCase {
      * Verify that even if the transformer overrides source, from, and fetchSource, the original values get applied
      * in the end.
      */
-    public void testOutputUsesOriginalSourceParameters() throws IOException {
-        Client client = buildMockClient("index");
-        OpenSearchClient openSearchClient = new OpenSearchClient(client);
+    public void testOutputUsesOriginalSourceParameters() throws Exception {
 
         MockTransformer mockTransformer = new MockTransformer(request -> {
             // Modify the request to always fetch source + request results 0-50
@@ -419,7 +442,7 @@ public class SearchActionFilterTests extends OpenSearchTestCase {
                     .fetchSource(true);
         });
 
-        SearchActionFilter searchActionFilter = new SearchActionFilter(List.of(mockTransformer), openSearchClient);
+        SearchActionFilter searchActionFilter = new SearchActionFilter(buildPlanCache(List.of(mockTransformer), "index"), new RerankDeadlineTracker(), threadPool);
 
         Task task = Mockito.mock(Task.class);
         SearchRequest searchRequest = new SearchRequestBuilder(null, SearchAction.INSTANCE)
@@ -461,6 +484,8 @@ public class SearchActionFilterTests extends OpenSearchTestCase {
             }
         };
         searchActionFilter.apply(task, SearchAction.NAME, searchRequest, downstreamListener, searchFilterChain);
+        // Transformers run on the rerank thread pool, so the listener is notified asynchronously
+        assertBusy(() -> assertTrue(onResponseCalled.get() || onFailureCalled.get()));
         assertTrue(proceedCalled.get());
         // We should NOT try to check for index-level settings, because we saw request-level settings
         assertFalse(mockTransformer.getTransformerSettingsWasCalled);
@@ -482,9 +507,7 @@ public class SearchActionFilterTests extends OpenSearchTestCase {
     /**
      * Check that we handle the case where the transformer returns top N, but the "from" starts after that.
      */
-    public void testReturnEmptyWhenOriginalFromExceedsHitCount() throws IOException {
-        Client client = buildMockClient("index");
-        OpenSearchClient openSearchClient = new OpenSearchClient(client);
+    public void testReturnEmptyWhenOriginalFromExceedsHitCount() throws Exception {
 
         MockTransformer mockTransformer = new MockTransformer(request -> {
             // Modify the request to always fetch source + request results 0-50
@@ -494,7 +517,7 @@ public class SearchActionFilterTests extends OpenSearchTestCase {
                     .fetchSource(true);
         });
 
-        SearchActionFilter searchActionFilter = new SearchActionFilter(List.of(mockTransformer), openSearchClient);
+        SearchActionFilter searchActionFilter = new SearchActionFilter(buildPlanCache(List.of(mockTransformer), "index"), new RerankDeadlineTracker(), threadPool);
 
         Task task = Mockito.mock(Task.class);
         SearchRequest searchRequest = new SearchRequestBuilder(null, SearchAction.INSTANCE)
@@ -536,6 +559,8 @@ public class SearchActionFilterTests extends OpenSearchTestCase {
             }
         };
         searchActionFilter.apply(task, SearchAction.NAME, searchRequest, downstreamListener, searchFilterChain);
+        // Transformers run on the rerank thread pool, so the listener is notified asynchronously
+        assertBusy(() -> assertTrue(onResponseCalled.get() || onFailureCalled.get()));
         assertTrue(proceedCalled.get());
         // We should NOT try to check for index-level settings, because we saw request-level settings
         assertFalse(mockTransformer.getTransformerSettingsWasCalled);
@@ -549,4 +574,520 @@ public class SearchActionFilterTests extends OpenSearchTestCase {
         SearchResponse response = returnedResponse.get();
         assertEquals(0, response.getHits().getHits().length);
     }
-}
\ No newline at end of file
+
+    /**
+     * A transformer that completes on another thread should resume the filter chain, and the downstream
+     * listener should see the thread context of the original request.
+     */
+    public void testAsyncTransformerCompletesOnAnotherThread() throws Exception {
+        ThreadContext threadContext = threadPool.getThreadContext();
+
+        MockTransformer mockTransformer = new MockTransformer() {
+            @Override
+            public void transformAsync(SearchHits hits, SearchRequest request, ResultTransformerConfiguration configuration,
+                                       ActionListener<SearchHits> listener) {
+                threadPool.generic().execute(() -> {
+                    // Simulate a remote client's thread, which does not carry the request's context
+                    try (ThreadContext.StoredContext ignored = threadContext.stashContext()) {
+                        listener.onResponse(transform(hits, request, configuration));
+                    }
+                });
+            }
+        };
+
+        SearchActionFilter searchActionFilter = new SearchActionFilter(buildPlanCache(List.of(mockTransformer), "index"), new RerankDeadlineTracker(), threadPool);
+
+        Task task = Mockito.mock(Task.class);
+        SearchRequest searchRequest = new SearchRequestBuilder(null, SearchAction.INSTANCE)
+                .setSource(
+                        new SearchSourceBuilder()
+                                .ext(
+                                        Collections.singletonList(new SearchConfigurationExtBuilder()
+                                                .setResultTransformers(
+                                                        Collections.singletonList(MOCK_TRANSFORMER_CONFIGURATION)
+                                                )
+                                        )
+                                )
+                ).setIndices("index")
+                .request();
+        SearchResponse searchResponse = buildMockSearchResponse(10);
+        ActionFilterChain<SearchRequest, SearchResponse> searchFilterChain =
+                (task1, action, request, listener) -> listener.onResponse(searchResponse);
+
+        CountDownLatch latch = new CountDownLatch(1);
+        AtomicReference<String> headerSeenDownstream = new AtomicReference<>();
+        AtomicReference<SearchResponse> returnedResponse = new AtomicReference<>();
+        ActionListener<SearchResponse> downstreamListener = ActionListener.wrap(r -> {
+            headerSeenDownstream.set(threadContext.getHeader("test_header"));
+            returnedResponse.set(r);
+            latch.countDown();
+        }, e -> latch.countDown());
+
+        try (ThreadContext.StoredContext ignored = threadContext.stashContext()) {
+            threadContext.putHeader("test_header", "test_value");
+            searchActionFilter.apply(task, SearchAction.NAME, searchRequest, downstreamListener, searchFilterChain);
+        }
+        assertTrue(latch.await(10, TimeUnit.SECONDS));
+        assertTrue(mockTransformer.transformWasCalled);
+        assertNotNull(returnedResponse.get());
+        assertEquals(10, returnedResponse.get().getHits().getHits().length);
+        assertEquals("test_value", headerSeenDownstream.get());
+    }
+
+    /**
+     * A transformer that misses the deadline set by the request timeout should leave the original ranking, and mark
+     * the response.
+     */
+    public void testReturnOriginalRankingWhenTransformerMissesDeadline() throws Exception {
+        ThreadContext threadContext = threadPool.getThreadContext();
+
+        MockTransformer mockTransformer = new MockTransformer() {
+            @Override
+            public void transformAsync(SearchHits hits, SearchRequest request, ResultTransformerConfiguration configuration,
+                                       RerankDeadline deadline, ActionListener<SearchHits> listener) {
+                // Never responds, like a remote service that hangs
+                deadline.bound(listener);
+            }
+        };
+        RerankDeadlineTracker rerankDeadlineTracker = new RerankDeadlineTracker();
+        SearchActionFilter searchActionFilter = new SearchActionFilter(buildPlanCache(List.of(mockTransformer), "index"), rerankDeadlineTracker, threadPool);
+
+        Task task = Mockito.mock(Task.class);
+        SearchRequest searchRequest = new SearchRequestBuilder(null, SearchAction.INSTANCE)
+                .setSource(
+                        new SearchSourceBuilder()
+                                .timeout(TimeValue.timeValueMillis(50))
+                                .ext(
+                                        Collections.singletonList(new SearchConfigurationExtBuilder()
+                                                .setResultTransformers(
+                                                        Collections.singletonList(MOCK_TRANSFORMER_CONFIGURATION)
+                                                )
+                                        )
+                                )
+                ).setIndices("index")
+                .request();
+        SearchResponse searchResponse = buildMockSearchResponse(10);
+        List<String> originalIds = Arrays.stream(searchResponse.getHits().getHits()).map(SearchHit::getId).collect(Collectors.toList());
+        ActionFilterChain<SearchRequest, SearchResponse> searchFilterChain =
+                (task1, action, request, listener) -> listener.onResponse(searchResponse);
+
+        CountDownLatch latch = new CountDownLatch(1);
+        AtomicReference<List<String>> headerSeenDownstream = new AtomicReference<>();
+        AtomicReference<SearchResponse> returnedResponse = new AtomicReference<>();
+        ActionListener<SearchResponse> downstreamListener = ActionListener.wrap(r -> {
+            headerSeenDownstream.set(threadContext.getResponseHeaders().get(RerankDeadlineTracker.RESPONSE_HEADER));
+            returnedResponse.set(r);
+            latch.countDown();
+        }, e -> latch.countDown());
+
+        try (ThreadContext.StoredContext ignored = threadContext.stashContext()) {
+            searchActionFilter.apply(task, SearchAction.NAME, searchRequest, downstreamListener, searchFilterChain);
+        }
+        assertTrue(latch.await(10, TimeUnit.SECONDS));
+        assertNotNull(returnedResponse.get());
+        assertEquals(originalIds,
+                Arrays.stream(returnedResponse.get().getHits().getHits()).map(SearchHit::getId).collect(Collectors.toList()));
+        assertEquals(List.of(MockTransformer.NAME), headerSeenDownstream.get());
+        assertEquals(Map.of(MockTransformer.NAME, 1L), rerankDeadlineTracker.stats());
+    }
+
+    /**
+     * The rerank timeout of the index applies when the request timeout is longer.
+     */
+    public void testIndexRerankTimeoutAppliesWithLongerRequestTimeout() throws Exception {
+        ThreadContext threadContext = threadPool.getThreadContext();
+        String prefix = "index.plugin.searchrelevance.result_transformer." + MockTransformer.NAME;
+        Settings indexSettings = Settings.builder()
+                .put(prefix + ".order", 1)
+                .put(SearchActionFilter.RERANK_TIMEOUT_SETTING.getKey(), "50ms")
+                .build();
+
+        AtomicReference<TimeValue> remaining = new AtomicReference<>();
+        MockTransformer mockTransformer = new MockTransformer() {
+            @Override
+            public void transformAsync(SearchHits hits, SearchRequest request, ResultTransformerConfiguration configuration,
+                                       RerankDeadline deadline, ActionListener<SearchHits> listener) {
+                remaining.set(deadline.remaining());
+                // Never responds, like a remote service that hangs
+                deadline.bound(listener);
+            }
+        };
+        RerankDeadlineTracker rerankDeadlineTracker = new RerankDeadlineTracker();
+        SearchActionFilter searchActionFilter = new SearchActionFilter(
+                buildPlanCache(List.of(mockTransformer), "index", indexSettings), rerankDeadlineTracker, threadPool);
+
+        Task task = Mockito.mock(Task.class);
+        SearchRequest searchRequest = new SearchRequestBuilder(null, SearchAction.INSTANCE)
+                .setSource(new SearchSourceBuilder().timeout(TimeValue.timeValueSeconds(10)))
+                .setIndices("index")
+                .request();
+        SearchResponse searchResponse = buildMockSearchResponse(10);
+        List<String> originalIds = Arrays.stream(searchResponse.getHits().getHits()).map(SearchHit::getId).collect(Collectors.toList());
+        ActionFilterChain<SearchRequest, SearchResponse> searchFilterChain =
+                (task1, action, request, listener) -> listener.onResponse(searchResponse);
+
+        CountDownLatch latch = new CountDownLatch(1);
+        AtomicReference<List<String>> headerSeenDownstream = new AtomicReference<>();
+        AtomicReference<SearchResponse> returnedResponse = new AtomicReference<>();
+        ActionListener<SearchResponse> downstreamListener = ActionListener.wrap(r -> {
+            headerSeenDownstream.set(threadContext.getResponseHeaders().get(RerankDeadlineTracker.RESPONSE_HEADER));
+            returnedResponse.set(r);
+            latch.countDown();
+        }, e -> latch.countDown());
+
+        try (ThreadContext.StoredContext ignored = threadContext.stashContext()) {
+            searchActionFilter.apply(task, SearchAction.NAME, searchRequest, downstreamListener, searchFilterChain);
+        }
+        assertTrue(latch.await(5, TimeUnit.SECONDS));
+        assertTrue(remaining.get().millis() <= 50);
+        assertNotNull(returnedResponse.get());
+        assertEquals(originalIds,
+                Arrays.stream(returnedResponse.get().getHits().getHits()).map(SearchHit::getId).collect(Collectors.toList()));
+        assertEquals(List.of(MockTransformer.NAME), headerSeenDownstream.get());
+        assertEquals(Map.of(MockTransformer.NAME, 1L), rerankDeadlineTracker.stats());
+    }
+
+    /**
+     * A failing transformer should fail the search through the listener.
+     */
+    public void testTransformerFailureNotifiesListener() throws Exception {
+
+        MockTransformer mockTransformer = new MockTransformer() {
+            @Override
+            public SearchHits transform(SearchHits hits, SearchRequest request, ResultTransformerConfiguration configuration) {
+                throw new IllegalStateException("transformer failed");
+            }
+        };
+
+        SearchActionFilter searchActionFilter = new SearchActionFilter(buildPlanCache(List.of(mockTransformer), "index"), new RerankDeadlineTracker(), threadPool);
+
+        Task task = Mockito.mock(Task.class);
+        SearchRequest searchRequest = new SearchRequestBuilder(null, SearchAction.INSTANCE)
+                .setSource(
+                        new SearchSourceBuilder()
+                                .ext(
+                                        Collections.singletonList(new SearchConfigurationExtBuilder()
+                                                .setResultTransformers(
+                                                        Collections.singletonList(MOCK_TRANSFORMER_CONFIGURATION)
+                                                )
+                                        )
+                                )
+                ).setIndices("index")
+                .request();
+        SearchResponse searchResponse = buildMockSearchResponse(10);
+        ActionFilterChain<SearchRequest, SearchResponse> searchFilterChain =
+                (task1, action, request, listener) -> listener.onResponse(searchResponse);
+
+        AtomicReference<Exception> failure = new AtomicReference<>();
+        ActionListener<SearchResponse> downstreamListener = ActionListener.wrap(r -> fail("expected failure"), failure::set);
+        searchActionFilter.apply(task, SearchAction.NAME, searchRequest, downstreamListener, searchFilterChain);
+
+        assertBusy(() -> assertNotNull(failure.get()));
+        assertTrue(failure.get() instanceof OpenSearchException);
+        assertTrue(failure.get().getCause() instanceof IllegalStateException);
+    }
+
+    /**
+     * If the rerank thread pool is saturated, the original ranking is returned, trimmed to the original from/size.
+     */
+    public void testReturnOriginalRankingWhenRerankPoolRejects() throws Exception {
+
+        MockTransformer mockTransformer = new MockTransformer(request -> {
+            // Modify the request to always fetch source + request results 0-50
+            request.source()
+                    .from(0)
+                    .size(50)
+                    .fetchSource(true);
+        });
+
+        ExecutorService rejectingExecutor = Mockito.mock(ExecutorService.class);
+        doAnswer(invocation -> {
+            AbstractRunnable runnable = invocation.getArgument(0);
+            runnable.onRejection(new RejectedExecutionException("rejected"));
+            return null;
+        }).when(rejectingExecutor).execute(any(Runnable.class));
+        ThreadPool rejectingThreadPool = Mockito.mock(ThreadPool.class);
+        Mockito.when(rejectingThreadPool.getThreadContext()).thenReturn(threadPool.getThreadContext());
+        Mockito.when(rejectingThreadPool.executor(RERANK_THREAD_POOL_NAME)).thenReturn(rejectingExecutor);
+
+        SearchActionFilter searchActionFilter = new SearchActionFilter(buildPlanCache(List.of(mockTransformer), "index"), new RerankDeadlineTracker(), rejectingThreadPool);
+
+        Task task = Mockito.mock(Task.class);
+        SearchRequest searchRequest = new SearchRequestBuilder(null, SearchAction.INSTANCE)
+                .setSource(
+                        new SearchSourceBuilder()
+                                .from(10)
+                                .size(10)
+                                .fetchSource(false)
+                                .ext(
+                                        Collections.singletonList(new SearchConfigurationExtBuilder()
+                                                .setResultTransformers(
+                                                        Collections.singletonList(MOCK_TRANSFORMER_CONFIGURATION)
+                                                )
+                                        )
+                                )
+                ).setIndices("index")
+                .request();
+        SearchResponse searchResponse = buildMockSearchResponse(50);
+        ActionFilterChain<SearchRequest, SearchResponse> searchFilterChain =
+                (task1, action, request, listener) -> listener.onResponse(searchResponse);
+
+        AtomicReference<SearchResponse> returnedResponse = new AtomicReference<>();
+        ActionListener<SearchResponse> downstreamListener = ActionListener.wrap(returnedResponse::set, e -> fail(e.getMessage()));
+        searchActionFilter.apply(task, SearchAction.NAME, searchRequest, downstreamListener, searchFilterChain);
+
+        assertTrue(mockTransformer.preproccessRequestWasCalled);
+        assertFalse(mockTransformer.transformWasCalled);
+        assertNotNull(returnedResponse.get());
+        SearchResponse response = returnedResponse.get();
+        assertEquals(10, response.getHits().getHits().length);
+        for (int i = 0; i < 10; i++) {
+            assertEquals("doc" + (10 + i), response.getHits().getHits()[i].field("title").getValue());
+            assertFalse(response.getHits().getHits()[i].hasSource());
+        }
+    }
+
+    /**
+     * Hits are handed to transformers without being copied, and the response is built from the hits they return.
+     */
+    public void testTransformsHitsWithoutCopying() throws Exception {
+        SearchResponse searchResponse = buildMockSearchResponse(10);
+
+        AtomicReference<SearchHits> transformerInput = new AtomicReference<>();
+        MockTransformer mockTransformer = new MockTransformer() {
+            @Override
+            public SearchHits transform(SearchHits hits, SearchRequest request, ResultTransformerConfiguration configuration) {
+                transformerInput.set(hits);
+                SearchHit[] reversedHits = new SearchHit[hits.getHits().length];
+                for (int i = 0; i < reversedHits.length; i++) {
+                    reversedHits[i] = hits.getHits()[reversedHits.length - i - 1];
+                    reversedHits[i].score(i);
+                }
+                return new SearchHits(reversedHits, hits.getTotalHits(), reversedHits.length);
+            }
+        };
+        SearchActionFilter searchActionFilter = new SearchActionFilter(buildPlanCache(List.of(mockTransformer), "index"), new RerankDeadlineTracker(), threadPool);
+
+        Task task = Mockito.mock(Task.class);
+        SearchRequest searchRequest = new SearchRequestBuilder(null, SearchAction.INSTANCE)
+                .setSource(
+                        new SearchSourceBuilder()
+                                .ext(
+                                        Collections.singletonList(new SearchConfigurationExtBuilder()
+                                                .setResultTransformers(
+                                                        Collections.singletonList(MOCK_TRANSFORMER_CONFIGURATION)
+                                                )
+                                        )
+                                )
+                ).setIndices("index")
+                .request();
+        ActionFilterChain<SearchRequest, SearchResponse> searchFilterChain =
+                (task1, action, request, listener) -> listener.onResponse(searchResponse);
+
+        AtomicReference<SearchResponse> returnedResponse = new AtomicReference<>();
+        ActionListener<SearchResponse> downstreamListener = ActionListener.wrap(returnedResponse::set, e -> fail(e.getMessage()));
+        searchActionFilter.apply(task, SearchAction.NAME, searchRequest, downstreamListener, searchFilterChain);
+
+        assertBusy(() -> assertNotNull(returnedResponse.get()));
+        assertSame(searchResponse.getHits(), transformerInput.get());
+        SearchHit[] returnedHits = returnedResponse.get().getHits().getHits();
+        assertEquals(10, returnedHits.length);
+        for (int i = 0; i < 10; i++) {
+            assertSame(searchResponse.getHits().getHits()[9 - i], returnedHits[i]);
+            assertEquals(i, returnedHits[i].getScore(), 0);
+            assertEquals("doc" + (9 - i), returnedHits[i].field("title").getValue());
+            assertTrue(returnedHits[i].hasSource());
+        }
+    }
+
+    /**
+     * Each search of a multi search is transformed as soon as its own response arrives.
+     */
+    public void testTransformsEachMultiSearchResponseAsItArrives() throws Exception {
+
+        AtomicInteger transformCount = new AtomicInteger();
+        MockTransformer mockTransformer = new MockTransformer() {
+            @Override
+            public SearchHits transform(SearchHits hits, SearchRequest request, ResultTransformerConfiguration configuration) {
+                transformCount.incrementAndGet();
+                return super.transform(hits, request, configuration);
+            }
+        };
+        SearchActionFilter searchActionFilter = new SearchActionFilter(buildPlanCache(List.of(mockTransformer), "index"), new RerankDeadlineTracker(), threadPool);
+
+        Task task = Mockito.mock(Task.class);
+        MultiSearchRequest multiSearchRequest = new MultiSearchRequest();
+        for (int from : new int[] {0, 5}) {
+            multiSearchRequest.add(new SearchRequestBuilder(null, SearchAction.INSTANCE)
+                    .setSource(
+                            new SearchSourceBuilder()
+                                    .from(from)
+                                    .size(5)
+                                    .ext(
+                                            Collections.singletonList(new SearchConfigurationExtBuilder()
+                                                    .setResultTransformers(
+                                                            Collections.singletonList(MOCK_TRANSFORMER_CONFIGURATION)
+                                                    )
+                                            )
+                                    )
+                    ).setIndices("index")
+                    .request());
+        }
+        // Searches across several indices are not transformed
+        multiSearchRequest.add(new SearchRequestBuilder(null, SearchAction.INSTANCE)
+                .setIndices("index1", "index2")
+                .request());
+        // Failed searches are returned as they are
+        multiSearchRequest.add(new SearchRequestBuilder(null, SearchAction.INSTANCE)
+                .setSource(
+                        new SearchSourceBuilder()
+                                .ext(
+                                        Collections.singletonList(new SearchConfigurationExtBuilder()
+                                                .setResultTransformers(
+                                                        Collections.singletonList(MOCK_TRANSFORMER_CONFIGURATION)
+                                                )
+                                        )
+                                )
+                ).setIndices("index")
+                .request());
+
+        SearchResponse[] searchResponses = new SearchResponse[] {
+                buildMockSearchResponse(20), buildMockSearchResponse(20), buildMockSearchResponse(20)};
+        Exception searchFailure = new OpenSearchException("search failed");
+        ActionFilterChain<MultiSearchRequest, MultiSearchResponse> multiSearchFilterChain =
+                (task1, action, request, listener) -> {
+                    List<SearchRequest> searchRequests = request.requests();
+                    MultiSearchResponse.Item[] items = new MultiSearchResponse.Item[searchRequests.size()];
+                    AtomicInteger pendingSearches = new AtomicInteger(searchRequests.size());
+                    Runnable onSearchDone = () -> {
+                        if (pendingSearches.decrementAndGet() == 0) {
+                            listener.onResponse(new MultiSearchResponse(items, 1));
+                        }
+                    };
+                    for (int i = 0; i < searchRequests.size(); i++) {
+                        int slot = i;
+                        // Each search of the multi search goes through the filter on its own
+                        ActionFilterChain<SearchRequest, SearchResponse> searchFilterChain =
+                                (task2, action2, request2, listener2) -> {
+                                    if (slot == 3) {
+                                        listener2.onFailure(searchFailure);
+                                    } else {
+                                        listener2.onResponse(searchResponses[slot]);
+                                    }
+                                };
+                        searchActionFilter.apply(task, SearchAction.NAME, searchRequests.get(slot),
+                                ActionListener.wrap(r -> {
+                                    items[slot] = new MultiSearchResponse.Item(r, null);
+                                    onSearchDone.run();
+                                }, e -> {
+                                    items[slot] = new MultiSearchResponse.Item(null, e);
+                                    onSearchDone.run();
+                                }),
+                                searchFilterChain);
+                    }
+                };
+
+        AtomicReference<MultiSearchResponse> returnedResponse = new AtomicReference<>();
+        ActionListener<MultiSearchResponse> downstreamListener = ActionListener.wrap(returnedResponse::set, e -> fail(e.getMessage()));
+        searchActionFilter.apply(task, MultiSearchAction.NAME, multiSearchRequest, downstreamListener, multiSearchFilterChain);
+
+        assertBusy(() -> assertNotNull(returnedResponse.get()));
+        assertEquals(2, transformCount.get());
+
+        MultiSearchResponse.Item[] items = returnedResponse.get().getResponses();
+        assertEquals(4, items.length);
+        for (int item = 0; item < 2; item++) {
+            assertFalse(items[item].isFailure());
+            SearchHit[] hits = items[item].getResponse().getHits().getHits();
+            assertEquals(5, hits.length);
+            for (int i = 0; i < 5; i++) {
+                assertEquals("doc" + (item * 5 + i), hits[i].field("title").getValue());
+            }
+        }
+        assertSame(searchResponses[2], items[2].getResponse());
+        assertSame(searchFailure, items[3].getFailure());
+    }
+
+    /**
+     * A search of a multi search is transformed without waiting for a slower search of the multi search, so it does
+     * not miss its rerank deadline.
+     */
+    public void testMultiSearchDeadlineExcludesWaitForOtherSearches() throws Exception {
+        AtomicInteger transformCount = new AtomicInteger();
+        MockTransformer mockTransformer = new MockTransformer() {
+            @Override
+            public SearchHits transform(SearchHits hits, SearchRequest request, ResultTransformerConfiguration configuration) {
+                transformCount.incrementAndGet();
+                return super.transform(hits, request, configuration);
+            }
+        };
+        RerankDeadlineTracker rerankDeadlineTracker = new RerankDeadlineTracker();
+        SearchActionFilter searchActionFilter = new SearchActionFilter(buildPlanCache(List.of(mockTransformer), "index"), rerankDeadlineTracker, threadPool);
+
+        Task task = Mockito.mock(Task.class);
+        MultiSearchRequest multiSearchRequest = new MultiSearchRequest();
+        // The fast search has a short deadline, the slow one has none
+        for (TimeValue timeout : new TimeValue[] {TimeValue.timeValueMillis(200), null}) {
+            multiSearchRequest.add(new SearchRequestBuilder(null, SearchAction.INSTANCE)
+                    .setSource(
+                            new SearchSourceBuilder()
+                                    .timeout(timeout)
+                                    .ext(
+                                            Collections.singletonList(new SearchConfigurationExtBuilder()
+                                                    .setResultTransformers(
+                                                            Collections.singletonList(MOCK_TRANSFORMER_CONFIGURATION)
+                                                    )
+                                            )
+                                    )
+                    ).setIndices("index")
+                    .request());
+        }
+
+        SearchResponse[] searchResponses = new SearchResponse[] {buildMockSearchResponse(10), buildMockSearchResponse(10)};
+        AtomicBoolean fastSearchDoneBeforeSlowSearch = new AtomicBoolean();
+        ActionFilterChain<MultiSearchRequest, MultiSearchResponse> multiSearchFilterChain =
+                (task1, action, request, listener) -> {
+                    List<SearchRequest> searchRequests = request.requests();
+                    MultiSearchResponse.Item[] items = new MultiSearchResponse.Item[searchRequests.size()];
+                    AtomicInteger pendingSearches = new AtomicInteger(searchRequests.size());
+                    for (int i = 0; i < searchRequests.size(); i++) {
+                        int slot = i;
+                        ActionFilterChain<SearchRequest, SearchResponse> searchFilterChain =
+                                (task2, action2, request2, listener2) -> {
+                                    if (slot == 0) {
+                                        listener2.onResponse(searchResponses[slot]);
+                                    } else {
+                                        // Takes longer than the deadline of the fast search
+                                        threadPool.schedule(() -> listener2.onResponse(searchResponses[slot]),
+                                                TimeValue.timeValueMillis(500), ThreadPool.Names.GENERIC);
+                                    }
+                                };
+                        searchActionFilter.apply(task, SearchAction.NAME, searchRequests.get(slot),
+                                ActionListener.wrap(r -> {
+                                    items[slot] = new MultiSearchResponse.Item(r, null);
+                                    if (slot == 0) {
+                                        fastSearchDoneBeforeSlowSearch.set(items[1] == null);
+                                    }
+                                    if (pendingSearches.decrementAndGet() == 0) {
+                                        listener.onResponse(new MultiSearchResponse(items, 1));
+                                    }
+                                }, e -> fail(e.getMessage())),
+                                searchFilterChain);
+                    }
+                };
+
+        AtomicReference<MultiSearchResponse> returnedResponse = new AtomicReference<>();
+        ActionListener<MultiSearchResponse> downstreamListener = ActionListener.wrap(returnedResponse::set, e -> fail(e.getMessage()));
+        searchActionFilter.apply(task, MultiSearchAction.NAME, multiSearchRequest, downstreamListener, multiSearchFilterChain);
+
+        assertBusy(() -> assertNotNull(returnedResponse.get()));
+        assertEquals(2, transformCount.get());
+        assertTrue(fastSearchDoneBeforeSlowSearch.get());
+        assertEquals(Collections.emptyMap(), rerankDeadlineTracker.stats());
+        MultiSearchResponse.Item[] items = returnedResponse.get().getResponses();
+        for (int i = 0; i < items.length; i++) {
+            assertFalse(items[i].isFailure());
+            assertNotSame(searchResponses[i], items[i].getResponse());
+        }
+    }
+}
@@ -0,0 +1,116 @@
+/*
+ * SPDX-License-Identifier: Apache-2.0
+ *
+ * The OpenSearch Contributors require contributions made to
+ * this file be licensed under the Apache-2.0 license or a
+ * compatible open source license.
+ */
+package org.opensearch.search.relevance.actionfilter;
+
+import org.opensearch.Version;
+import org.opensearch.cluster.ClusterChangedEvent;
+import org.opensearch.cluster.ClusterName;
+import org.opensearch.cluster.ClusterState;
+import org.opensearch.cluster.metadata.IndexMetadata;
+import org.opensearch.cluster.metadata.Metadata;
+import org.opensearch.common.settings.Settings;
+import org.opensearch.common.unit.TimeValue;
+import org.opensearch.search.relevance.configuration.ResultTransformerConfiguration;
+import org.opensearch.search.relevance.transformer.ResultTransformer;
+import org.opensearch.search.relevance.transformer.kendraintelligentranking.KendraIntelligentRanker;
+import org.opensearch.search.relevance.transformer.kendraintelligentranking.configuration.KendraIntelligentRankingConfiguration;
+import org.opensearch.search.relevance.transformer.kendraintelligentranking.configuration.KendraIntelligentRankingConfigurationFactory;
+import org.opensearch.test.OpenSearchTestCase;
+
+import java.util.List;
+
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+import static org.opensearch.search.relevance.transformer.kendraintelligentranking.configuration.Constants.BODY_FIELD_SETTING_NAME;
+import static org.opensearch.search.relevance.transformer.kendraintelligentranking.configuration.Constants.ORDER_SETTING_NAME;
+
+public class TransformerPlanCacheTests extends OpenSearchTestCase {
+
+    private TransformerPlanCache transformerPlanCache;
+    private ClusterState clusterState;
+
+    @Override
+    public void setUp() throws Exception {
+        super.setUp();
+        ResultTransformer kendraTransformer = mock(ResultTransformer.class);
+        when(kendraTransformer.getConfigurationFactory()).thenReturn(KendraIntelligentRankingConfigurationFactory.INSTANCE);
+        transformerPlanCache = new TransformerPlanCache(List.of(kendraTransformer));
+        clusterState = ClusterState.builder(new ClusterName("test")).build();
+    }
+
+    private void applyIndices(IndexMetadata... indices) {
+        Metadata.Builder metadata = Metadata.builder();
+        for (IndexMetadata indexMetadata : indices) {
+            metadata.put(indexMetadata, false);
+        }
+        ClusterState previousState = clusterState;
+        clusterState = ClusterState.builder(previousState).metadata(metadata).incrementVersion().build();
+        transformerPlanCache.clusterChanged(new ClusterChangedEvent("test", clusterState, previousState));
+    }
+
+    private static IndexMetadata buildIndex(String indexName, Settings settings) {
+        return IndexMetadata.builder(indexName)
+                .settings(Settings.builder()
+                        .put(IndexMetadata.SETTING_VERSION_CREATED, Version.CURRENT)
+                        .put(IndexMetadata.SETTING_NUMBER_OF_SHARDS, 1)
+                        .put(IndexMetadata.SETTING_NUMBER_OF_REPLICAS, 0)
+                        .put(settings))
+                .build();
+    }
+
+    private static Settings kendraSettings(int order, String bodyField) {
+        return Settings.builder()
+                .put(ORDER_SETTING_NAME, order)
+                .putList(BODY_FIELD_SETTING_NAME, bodyField)
+                .build();
+    }
+
+    public void testPlansFollowIndexSettings() {
+        IndexMetadata plain = buildIndex("plain", Settings.EMPTY);
+        IndexMetadata ranked = buildIndex("ranked", Settings.builder()
+                .put(kendraSettings(1, "body"))
+                .put(SearchActionFilter.RERANK_TIMEOUT_SETTING.getKey(), "200ms")
+                .build());
+        applyIndices(plain, ranked);
+
+        assertNull(transformerPlanCache.getPlan("plain"));
+        assertNull(transformerPlanCache.getPlan("unknown"));
+        TransformerPlanCache.TransformerPlan plan = transformerPlanCache.getPlan("ranked");
+        List<ResultTransformerConfiguration> configs = plan.getConfigs();
+        assertEquals(1, configs.size());
+        assertEquals(KendraIntelligentRanker.NAME, configs.get(0).getTransformerName());
+        assertEquals(List.of("body"),
+                ((KendraIntelligentRankingConfiguration) configs.get(0)).getProperties().getBodyFields());
+        assertEquals(TimeValue.timeValueMillis(200), plan.getRerankTimeout());
+
+        // Plans of indices whose metadata did not change are kept as is
+        IndexMetadata other = buildIndex("other", kendraSettings(1, "text"));
+        applyIndices(plain, ranked, other);
+        assertSame(plan, transformerPlanCache.getPlan("ranked"));
+        assertNotNull(transformerPlanCache.getPlan("other"));
+
+        // Updated settings are compiled into a new plan
+        IndexMetadata updated = IndexMetadata.builder(ranked)
+                .settings(Settings.builder().put(ranked.getSettings()).putList(BODY_FIELD_SETTING_NAME, "content"))
+                .settingsVersion(ranked.getSettingsVersion() + 1)
+                .build();
+        applyIndices(plain, updated, other);
+        assertEquals(List.of("content"), ((KendraIntelligentRankingConfiguration) transformerPlanCache.getPlan("ranked")
+                .getConfigs().get(0)).getProperties().getBodyFields());
+
+        // Plans of deleted indices are dropped
+        applyIndices(plain, other);
+        assertNull(transformerPlanCache.getPlan("ranked"));
+    }
+
+    public void testInvalidSettingsFailLookup() {
+        applyIndices(buildIndex("invalid", kendraSettings(2, "body")));
+        TransformerPlanCache.TransformerPlan plan = transformerPlanCache.getPlan("invalid");
+        expectThrows(IllegalArgumentException.class, plan::getConfigs);
+    }
+}
@@ -0,0 +1,61 @@
+/*
+ * SPDX-License-Identifier: Apache-2.0
+ *
+ * The OpenSearch Contributors require contributions made to
+ * this file be licensed under the Apache-2.0 license or a
+ * compatible open source license.
+ */
+package org.opensearch.search.relevance.stats;
+
+import org.opensearch.Version;
+import org.opensearch.cluster.ClusterName;
+import org.opensearch.cluster.node.DiscoveryNode;
+import org.opensearch.common.io.stream.BytesStreamOutput;
+import org.opensearch.common.xcontent.json.JsonXContent;
+import org.opensearch.core.common.bytes.BytesReference;
+import org.opensearch.core.common.io.stream.StreamInput;
+import org.opensearch.core.xcontent.ToXContent;
+import org.opensearch.core.xcontent.XContentBuilder;
+import org.opensearch.test.OpenSearchTestCase;
+
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+
+public class SearchRelevanceStatsTests extends OpenSearchTestCase {
+
+    public void testRegisterAndGetStats() {
+        SearchRelevanceStats searchRelevanceStats = new SearchRelevanceStats();
+        searchRelevanceStats.register("b_stats", () -> Map.of("count", 2L));
+        searchRelevanceStats.register("a_stats", () -> Map.of("count", 1L));
+
+        Map<String, Object> stats = searchRelevanceStats.getStats();
+        assertEquals(List.of("a_stats", "b_stats"), List.copyOf(stats.keySet()));
+        assertEquals(Map.of("count", 1L), stats.get("a_stats"));
+
+        expectThrows(IllegalArgumentException.class, () -> searchRelevanceStats.register("a_stats", Collections::emptyMap));
+    }
+
+    public void testResponseSerialization() throws Exception {
+        DiscoveryNode node = new DiscoveryNode("node_name", "node_id", buildNewFakeTransportAddress(), Collections.emptyMap(),
+                Collections.emptySet(), Version.CURRENT);
+        Map<String, Object> stats = Map.of("kendra_rescore_cache", Map.of("hit_count", 3L, "miss_count", 1L));
+        SearchRelevanceStatsResponse response = new SearchRelevanceStatsResponse(new ClusterName("test_cluster"),
+                List.of(new SearchRelevanceNodeStats(node, stats)), Collections.emptyList());
+
+        BytesStreamOutput out = new BytesStreamOutput();
+        response.writeTo(out);
+        StreamInput in = out.bytes().streamInput();
+        SearchRelevanceStatsResponse deserialized = new SearchRelevanceStatsResponse(in);
+        assertEquals(1, deserialized.getNodes().size());
+        assertEquals(stats, deserialized.getNodes().get(0).getStats());
+
+        XContentBuilder builder = JsonXContent.contentBuilder().startObject();
+        deserialized.toXContent(builder, ToXContent.EMPTY_PARAMS);
+        builder.endObject();
+        String json = BytesReference.bytes(builder).utf8ToString();
+        assertTrue(json.contains("\"cluster_name\":\"test_cluster\""));
+        assertTrue(json.contains("\"node_id\":{\"name\":\"node_name\""));
+        assertTrue(json.contains("\"hit_count\":3"));
+    }
+}
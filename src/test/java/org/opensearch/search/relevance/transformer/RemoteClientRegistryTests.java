@@ -0,0 +1,125 @@
+/*
+ * SPDX-License-Identifier: Apache-2.0
+ *
+ * The OpenSearch Contributors require contributions made to
+ * this file be licensed under the Apache-2.0 license or a
+ * compatible open source license.
+ */
+package org.opensearch.search.relevance.transformer;
+
+import java.io.Closeable;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+
+import org.opensearch.test.OpenSearchTestCase;
+
+public class RemoteClientRegistryTests extends OpenSearchTestCase {
+
+  private static final class TestClient implements Closeable {
+    private final String key;
+    private boolean closed;
+
+    TestClient(String key) {
+      this.key = key;
+    }
+
+    @Override
+    public void close() {
+      assertFalse("client closed twice", closed);
+      closed = true;
+    }
+  }
+
+  public void testClientsAreSharedByKey() {
+    List<TestClient> created = new ArrayList<>();
+    RemoteClientRegistry<String, TestClient> registry = new RemoteClientRegistry<>("test", key -> {
+      TestClient client = new TestClient(key);
+      created.add(client);
+      return client;
+    });
+    RemoteClientRegistry.Lease<TestClient> first = registry.acquire("us-west-2");
+    RemoteClientRegistry.Lease<TestClient> second = registry.acquire("us-west-2");
+    RemoteClientRegistry.Lease<TestClient> other = registry.acquire("eu-west-1");
+
+    assertSame(first.get(), second.get());
+    assertNotSame(first.get(), other.get());
+    assertEquals("eu-west-1", other.get().key);
+    assertEquals(2, created.size());
+
+    Map<String, Object> stats = registry.stats();
+    assertEquals(2, stats.get("client_count"));
+    assertEquals(3, stats.get("lease_count"));
+    assertEquals(2L, stats.get("created_count"));
+    assertEquals(0L, stats.get("closed_count"));
+  }
+
+  public void testClientIsClosedWhenLastLeaseIsReleased() {
+    RemoteClientRegistry<String, TestClient> registry = new RemoteClientRegistry<>("test", TestClient::new);
+    RemoteClientRegistry.Lease<TestClient> first = registry.acquire("key");
+    RemoteClientRegistry.Lease<TestClient> second = registry.acquire("key");
+    TestClient client = first.get();
+
+    first.close();
+    // Releasing a lease twice does not release the other lease
+    first.close();
+    assertFalse(client.closed);
+
+    second.close();
+    assertTrue(client.closed);
+    assertEquals(0, registry.stats().get("client_count"));
+    assertEquals(1L, registry.stats().get("closed_count"));
+
+    // A client is created again for users arriving once the previous one was closed
+    RemoteClientRegistry.Lease<TestClient> third = registry.acquire("key");
+    assertNotSame(client, third.get());
+    assertFalse(third.get().closed);
+  }
+
+  public void testLeaseIsReleasedWhenOwnerIsUnreachable() throws Exception {
+    RemoteClientRegistry<String, TestClient> registry = new RemoteClientRegistry<>("test", TestClient::new);
+    RemoteClientRegistry.Lease<TestClient> lease = registry.acquire("key");
+    TestClient client = lease.get();
+    lease.releaseWhenUnreachable(new Object());
+    lease = null;
+
+    assertBusy(() -> {
+      System.gc();
+      assertTrue(client.closed);
+    });
+    assertEquals(0, registry.stats().get("lease_count"));
+  }
+
+  public void testCloseClosesAllClients() {
+    RemoteClientRegistry<String, TestClient> registry = new RemoteClientRegistry<>("test", TestClient::new);
+    RemoteClientRegistry.Lease<TestClient> first = registry.acquire("first");
+    RemoteClientRegistry.Lease<TestClient> second = registry.acquire("second");
+
+    registry.close();
+    assertTrue(first.get().closed);
+    assertTrue(second.get().closed);
+    assertEquals(2L, registry.stats().get("closed_count"));
+
+    assertEquals(0, registry.stats().get("lease_count"));
+
+    // Leases released after the registry closed do not close their client again
+    first.close();
+    second.close();
+    expectThrows(IllegalStateException.class, () -> registry.acquire("first"));
+  }
+
+  public void testCloseReleasesLeasesOfReachableOwners() throws Exception {
+    RemoteClientRegistry<String, TestClient> registry = new RemoteClientRegistry<>("test", TestClient::new);
+    Object owner = new Object();
+    TestClient client = registry.acquire("key").releaseWhenUnreachable(owner).get();
+
+    registry.close();
+    assertTrue(client.closed);
+    assertEquals(0, registry.stats().get("lease_count"));
+
+    // The owner becoming unreachable afterwards does not release the lease again
+    owner = null;
+    System.gc();
+    assertEquals(1L, registry.stats().get("closed_count"));
+  }
+}
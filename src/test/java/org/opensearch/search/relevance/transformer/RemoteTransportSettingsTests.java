@@ -0,0 +1,75 @@
+/*
+ * SPDX-License-Identifier: Apache-2.0
+ *
+ * The OpenSearch Contributors require contributions made to
+ * this file be licensed under the Apache-2.0 license or a
+ * compatible open source license.
+ */
+package org.opensearch.search.relevance.transformer;
+
+import com.amazonaws.ClientConfiguration;
+
+import org.opensearch.common.settings.Settings;
+import org.opensearch.common.unit.TimeValue;
+import org.opensearch.test.OpenSearchTestCase;
+
+public class RemoteTransportSettingsTests extends OpenSearchTestCase {
+
+  private static final RemoteTransportSettings.Group REQUEST_COMPRESSION_SETTINGS =
+      RemoteTransportSettings.Group.withRequestCompression("request_client");
+  private static final RemoteTransportSettings.Group RESPONSE_COMPRESSION_SETTINGS =
+      RemoteTransportSettings.Group.withResponseCompression("response_client");
+
+  public void testDefaults() {
+    RemoteTransportSettings transportSettings = REQUEST_COMPRESSION_SETTINGS.get(Settings.EMPTY);
+    assertEquals(ClientConfiguration.DEFAULT_MAX_CONNECTIONS, transportSettings.getMaxConnections());
+    assertEquals(ClientConfiguration.DEFAULT_CONNECTION_TIMEOUT, transportSettings.getConnectTimeout().millis());
+    assertEquals(ClientConfiguration.DEFAULT_SOCKET_TIMEOUT, transportSettings.getReadTimeout().millis());
+    assertTrue(transportSettings.isTcpKeepAlive());
+    assertFalse(transportSettings.isRequestCompressionEnabled());
+    assertFalse(transportSettings.shouldCompressRequest(Long.MAX_VALUE));
+    assertFalse(transportSettings.isResponseCompressionEnabled());
+  }
+
+  public void testSettingsArePerClient() {
+    Settings settings = Settings.builder()
+        .put("request_client.transport.max_connections", 200)
+        .put("request_client.transport.connection_max_idle", "5s")
+        .put("request_client.transport.tcp_keep_alive", false)
+        .put("request_client.transport.connect_timeout", "1s")
+        .put("request_client.transport.read_timeout", "2s")
+        .put("request_client.transport.request_compression.enabled", true)
+        .put("request_client.transport.request_compression.threshold", "1kb")
+        .put("response_client.transport.max_connections", 20)
+        .put("response_client.transport.response_compression.enabled", true)
+        .build();
+
+    RemoteTransportSettings requestClient = REQUEST_COMPRESSION_SETTINGS.get(settings);
+    assertEquals(200, requestClient.getMaxConnections());
+    assertEquals(TimeValue.timeValueSeconds(5), requestClient.getConnectionMaxIdle());
+    assertFalse(requestClient.isTcpKeepAlive());
+    assertTrue(requestClient.shouldCompressRequest(1024));
+    assertFalse(requestClient.shouldCompressRequest(1023));
+    assertFalse(requestClient.isResponseCompressionEnabled());
+
+    ClientConfiguration clientConfiguration = requestClient.toClientConfiguration();
+    assertEquals(200, clientConfiguration.getMaxConnections());
+    assertEquals(5000, clientConfiguration.getConnectionMaxIdleMillis());
+    assertFalse(clientConfiguration.useTcpKeepAlive());
+    assertEquals(1000, clientConfiguration.getConnectionTimeout());
+    assertEquals(2000, clientConfiguration.getSocketTimeout());
+
+    RemoteTransportSettings responseClient = RESPONSE_COMPRESSION_SETTINGS.get(settings);
+    assertEquals(20, responseClient.getMaxConnections());
+    assertTrue(responseClient.isTcpKeepAlive());
+    assertFalse(responseClient.isRequestCompressionEnabled());
+    assertTrue(responseClient.isResponseCompressionEnabled());
+  }
+
+  public void testClientsOnlyDeclareTheirCompressionSettings() {
+    assertTrue(REQUEST_COMPRESSION_SETTINGS.getAllSettings().stream()
+        .noneMatch(setting -> setting.getKey().contains("response_compression")));
+    assertTrue(RESPONSE_COMPRESSION_SETTINGS.getAllSettings().stream()
+        .noneMatch(setting -> setting.getKey().contains("request_compression")));
+  }
+}
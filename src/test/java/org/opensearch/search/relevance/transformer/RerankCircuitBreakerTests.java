@@ -0,0 +1,177 @@
+/*
+ * SPDX-License-Identifier: Apache-2.0
+ *
+ * The OpenSearch Contributors require contributions made to
+ * this file be licensed under the Apache-2.0 license or a
+ * compatible open source license.
+ */
+package org.opensearch.search.relevance.transformer;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicReference;
+
+import org.opensearch.action.ActionListener;
+import org.opensearch.common.settings.Settings;
+import org.opensearch.common.unit.TimeValue;
+import org.opensearch.test.OpenSearchTestCase;
+
+public class RerankCircuitBreakerTests extends OpenSearchTestCase {
+
+  private final AtomicLong nanoTime = new AtomicLong();
+
+  private RerankCircuitBreaker newBreaker(int failureThreshold, int maxConcurrency) {
+    return new RerankCircuitBreaker("test", failureThreshold, TimeValue.timeValueSeconds(30), maxConcurrency, nanoTime::get);
+  }
+
+  private static String callFailingService(RerankCircuitBreaker breaker) {
+    return breaker.executeBlocking(() -> {
+      throw new IllegalStateException("service unavailable");
+    });
+  }
+
+  public void testOpensAfterConsecutiveFailures() {
+    RerankCircuitBreaker breaker = newBreaker(3, 50);
+    for (int i = 0; i < 2; i++) {
+      expectThrows(IllegalStateException.class, () -> callFailingService(breaker));
+    }
+    // A success resets the count of consecutive failures
+    assertEquals("ok", breaker.executeBlocking(() -> "ok"));
+    for (int i = 0; i < 3; i++) {
+      expectThrows(IllegalStateException.class, () -> callFailingService(breaker));
+    }
+    assertEquals(RerankCircuitBreaker.State.OPEN, breaker.getState());
+
+    expectThrows(RerankCircuitBreakingException.class, () -> breaker.executeBlocking(() -> "not called"));
+    Map<String, Object> stats = breaker.stats();
+    assertEquals("open", stats.get("state"));
+    assertEquals(1L, stats.get("open_count"));
+    assertEquals(1L, stats.get("rejected_open_count"));
+    assertEquals(0, stats.get("in_flight"));
+  }
+
+  public void testProbeClosesBreaker() {
+    RerankCircuitBreaker breaker = newBreaker(1, 50);
+    expectThrows(IllegalStateException.class, () -> callFailingService(breaker));
+    assertEquals(RerankCircuitBreaker.State.OPEN, breaker.getState());
+
+    nanoTime.addAndGet(TimeUnit.SECONDS.toNanos(30));
+    assertEquals("half_open", breaker.stats().get("state"));
+    // Only a single probe is let through while it is in flight
+    List<ActionListener<String>> probes = new ArrayList<>();
+    breaker.<String>execute(probes::add, ActionListener.wrap(r -> {}, e -> fail(e.getMessage())));
+    AtomicReference<Exception> rejection = new AtomicReference<>();
+    breaker.<String>execute(l -> fail("should not be called"), ActionListener.wrap(r -> fail("expected rejection"), rejection::set));
+    assertEquals(1, probes.size());
+    assertTrue(rejection.get() instanceof RerankCircuitBreakingException);
+
+    probes.get(0).onResponse("ok");
+    assertEquals(RerankCircuitBreaker.State.CLOSED, breaker.getState());
+    assertEquals("ok", breaker.executeBlocking(() -> "ok"));
+  }
+
+  public void testFailedProbeReopensBreaker() {
+    RerankCircuitBreaker breaker = newBreaker(1, 50);
+    expectThrows(IllegalStateException.class, () -> callFailingService(breaker));
+    nanoTime.addAndGet(TimeUnit.SECONDS.toNanos(30));
+    expectThrows(IllegalStateException.class, () -> callFailingService(breaker));
+    assertEquals(RerankCircuitBreaker.State.OPEN, breaker.getState());
+    assertEquals(2L, breaker.stats().get("open_count"));
+
+    nanoTime.addAndGet(TimeUnit.SECONDS.toNanos(29));
+    expectThrows(RerankCircuitBreakingException.class, () -> breaker.executeBlocking(() -> "not called"));
+  }
+
+  public void testConcurrencyLimitAdapts() {
+    RerankCircuitBreaker breaker = newBreaker(100, 4);
+    List<ActionListener<String>> calls = new ArrayList<>();
+    List<Exception> rejections = new ArrayList<>();
+    for (int i = 0; i < 5; i++) {
+      breaker.<String>execute(calls::add, ActionListener.wrap(r -> {}, rejections::add));
+    }
+    assertEquals(4, calls.size());
+    assertEquals(1, rejections.size());
+    assertTrue(rejections.get(0) instanceof RerankCircuitBreakingException);
+    assertEquals(1L, breaker.stats().get("rejected_limit_count"));
+
+    // Each failure halves the limit
+    calls.get(0).onFailure(new IllegalStateException("slow down"));
+    assertEquals(2, breaker.stats().get("concurrency_limit"));
+    calls.get(1).onFailure(new IllegalStateException("slow down"));
+    assertEquals(1, breaker.stats().get("concurrency_limit"));
+    calls.get(2).onResponse("ok");
+    calls.get(3).onResponse("ok");
+    assertEquals(0, breaker.stats().get("in_flight"));
+
+    // Successes raise the limit back by one per limit calls, up to the maximum
+    for (int i = 0; i < 20; i++) {
+      breaker.executeBlocking(() -> "ok");
+    }
+    assertEquals(4, breaker.stats().get("concurrency_limit"));
+    assertEquals(RerankCircuitBreaker.State.CLOSED, breaker.getState());
+  }
+
+  public void testDeadlineExceededIsNeutral() {
+    RerankCircuitBreaker breaker = newBreaker(2, 4);
+    List<ActionListener<String>> calls = new ArrayList<>();
+    for (int i = 0; i < 4; i++) {
+      breaker.<String>execute(calls::add, ActionListener.wrap(r -> {}, e -> {}));
+    }
+    // Callers running out of time neither lower the limit nor open the breaker
+    for (ActionListener<String> call : calls) {
+      call.onFailure(new RerankDeadlineExceededException("caller deadline"));
+    }
+    expectThrows(RerankDeadlineExceededException.class, () -> breaker.executeBlocking(() -> {
+      throw new RerankDeadlineExceededException("caller deadline");
+    }));
+    Map<String, Object> stats = breaker.stats();
+    assertEquals("closed", stats.get("state"));
+    assertEquals(4, stats.get("concurrency_limit"));
+    assertEquals(0, stats.get("consecutive_failures"));
+    assertEquals(0, stats.get("in_flight"));
+
+    // A probe that runs out of time lets the next call probe the endpoint
+    expectThrows(IllegalStateException.class, () -> callFailingService(breaker));
+    expectThrows(IllegalStateException.class, () -> callFailingService(breaker));
+    assertEquals(RerankCircuitBreaker.State.OPEN, breaker.getState());
+    nanoTime.addAndGet(TimeUnit.SECONDS.toNanos(30));
+    expectThrows(RerankDeadlineExceededException.class, () -> breaker.executeBlocking(() -> {
+      throw new RerankDeadlineExceededException("caller deadline");
+    }));
+    assertEquals(RerankCircuitBreaker.State.HALF_OPEN, breaker.getState());
+    assertEquals("ok", breaker.executeBlocking(() -> "ok"));
+    assertEquals(RerankCircuitBreaker.State.CLOSED, breaker.getState());
+  }
+
+  public void testDisabledNeverRejects() {
+    RerankCircuitBreaker breaker = RerankCircuitBreaker.disabled();
+    assertFalse(breaker.isEnabled());
+    for (int i = 0; i < 10; i++) {
+      expectThrows(IllegalStateException.class, () -> callFailingService(breaker));
+    }
+    assertEquals("ok", breaker.executeBlocking(() -> "ok"));
+  }
+
+  public void testBreakersAreSharedPerEndpoint() {
+    RerankCircuitBreakers breakers = new RerankCircuitBreakers(Settings.builder()
+        .put(RerankCircuitBreakers.FAILURE_THRESHOLD_SETTING.getKey(), 1)
+        .build());
+    assertSame(breakers.forEndpoint("kendra:endpoint"), breakers.forEndpoint("kendra:endpoint"));
+    expectThrows(IllegalStateException.class, () -> callFailingService(breakers.forEndpoint("kendra:endpoint")));
+    assertEquals("ok", breakers.forEndpoint("personalize:us-west-2").executeBlocking(() -> "ok"));
+
+    Map<String, Object> stats = breakers.stats();
+    assertEquals(List.of("kendra:endpoint", "personalize:us-west-2"), new ArrayList<>(stats.keySet()));
+    assertEquals("open", ((Map<?, ?>) stats.get("kendra:endpoint")).get("state"));
+    assertEquals("closed", ((Map<?, ?>) stats.get("personalize:us-west-2")).get("state"));
+
+    RerankCircuitBreakers disabled = new RerankCircuitBreakers(Settings.builder()
+        .put(RerankCircuitBreakers.FAILURE_THRESHOLD_SETTING.getKey(), 0)
+        .build());
+    assertFalse(disabled.forEndpoint("kendra:endpoint").isEnabled());
+    assertTrue(disabled.stats().isEmpty());
+  }
+}
@@ -0,0 +1,132 @@
+/*
+ * SPDX-License-Identifier: Apache-2.0
+ *
+ * The OpenSearch Contributors require contributions made to
+ * this file be licensed under the Apache-2.0 license or a
+ * compatible open source license.
+ */
+package org.opensearch.search.relevance.transformer;
+
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicReference;
+
+import org.opensearch.action.ActionListener;
+import org.opensearch.action.search.SearchRequest;
+import org.opensearch.action.search.SearchResponse;
+import org.opensearch.common.settings.Settings;
+import org.opensearch.common.unit.TimeValue;
+import org.opensearch.common.util.concurrent.ThreadContext;
+import org.opensearch.search.builder.SearchSourceBuilder;
+import org.opensearch.search.relevance.SearchRelevancePlugin;
+import org.opensearch.test.OpenSearchTestCase;
+import org.opensearch.threadpool.ExecutorBuilder;
+import org.opensearch.threadpool.TestThreadPool;
+import org.opensearch.threadpool.ThreadPool;
+import org.mockito.Mockito;
+
+import static org.opensearch.search.relevance.configuration.Constants.RERANK_THREAD_POOL_NAME;
+
+public class RerankDeadlineTests extends OpenSearchTestCase {
+
+  private ThreadPool threadPool;
+
+  @Override
+  public void setUp() throws Exception {
+    super.setUp();
+    threadPool = new TestThreadPool(getTestName(),
+        new SearchRelevancePlugin().getExecutorBuilders(Settings.EMPTY).toArray(new ExecutorBuilder<?>[0]));
+  }
+
+  @Override
+  public void tearDown() throws Exception {
+    ThreadPool.terminate(threadPool, 10, TimeUnit.SECONDS);
+    super.tearDown();
+  }
+
+  public void testNoTimeoutIsUnbounded() {
+    assertSame(RerankDeadline.NONE, RerankDeadline.after(threadPool, System.nanoTime(), null));
+    assertSame(RerankDeadline.NONE, RerankDeadline.after(threadPool, System.nanoTime(), TimeValue.MINUS_ONE));
+    assertFalse(RerankDeadline.NONE.isBounded());
+    assertFalse(RerankDeadline.NONE.isExpired());
+    assertNull(RerankDeadline.NONE.remaining());
+    ActionListener<String> listener = ActionListener.wrap(r -> {}, e -> {});
+    assertSame(listener, RerankDeadline.NONE.bound(listener));
+  }
+
+  public void testExpiry() {
+    RerankDeadline expired = RerankDeadline.after(threadPool, System.nanoTime(), TimeValue.ZERO);
+    assertTrue(expired.isBounded());
+    assertTrue(expired.isExpired());
+    assertEquals(TimeValue.ZERO, expired.remaining());
+
+    RerankDeadline later = RerankDeadline.after(threadPool, System.nanoTime(), TimeValue.timeValueMinutes(1));
+    assertFalse(later.isExpired());
+    assertSame(expired, later.min(expired));
+    assertSame(expired, expired.min(later));
+    assertSame(later, later.min(RerankDeadline.NONE));
+    assertSame(later, RerankDeadline.NONE.min(later));
+  }
+
+  public void testBoundListenerTimesOut() throws Exception {
+    AtomicInteger responses = new AtomicInteger();
+    AtomicReference<Exception> failure = new AtomicReference<>();
+    AtomicReference<String> failureThread = new AtomicReference<>();
+    ActionListener<String> listener = RerankDeadline.after(threadPool, System.nanoTime(), TimeValue.timeValueMillis(10))
+        .bound(ActionListener.wrap(r -> responses.incrementAndGet(), e -> {
+          if (failureThread.compareAndSet(null, Thread.currentThread().getName())) {
+            failure.set(e);
+          }
+        }));
+    assertBusy(() -> assertNotNull(failure.get()));
+    assertTrue(failure.get() instanceof RerankDeadlineExceededException);
+    // The listener times out on the rerank pool, not on the scheduler thread
+    assertTrue(failureThread.get(), failureThread.get().contains("[" + RERANK_THREAD_POOL_NAME + "]"));
+
+    // Completions after the deadline are dropped
+    listener.onResponse("late");
+    listener.onFailure(new IllegalStateException("late"));
+    assertEquals(0, responses.get());
+    assertTrue(failure.get() instanceof RerankDeadlineExceededException);
+  }
+
+  public void testBoundListenerCompletesBeforeDeadline() throws Exception {
+    AtomicReference<String> response = new AtomicReference<>();
+    AtomicInteger failures = new AtomicInteger();
+    ActionListener<String> listener = RerankDeadline.after(threadPool, System.nanoTime(), TimeValue.timeValueMillis(50))
+        .bound(ActionListener.wrap(response::set, e -> failures.incrementAndGet()));
+    listener.onResponse("result");
+    assertEquals("result", response.get());
+    Thread.sleep(100);
+    assertEquals(0, failures.get());
+  }
+
+  public void testSearchResponseDeadlineAccountsForTimeTaken() {
+    SearchResponse response = Mockito.mock(SearchResponse.class);
+    Mockito.when(response.getTook()).thenReturn(TimeValue.timeValueSeconds(2));
+    SearchRequest request = new SearchRequest().source(new SearchSourceBuilder().timeout(TimeValue.timeValueSeconds(1)));
+    // The search already took longer than the request timeout
+    assertTrue(RerankDeadline.forSearchResponse(threadPool, request, response, null).isExpired());
+
+    request = new SearchRequest().source(new SearchSourceBuilder().timeout(TimeValue.timeValueMinutes(1)));
+    RerankDeadline deadline = RerankDeadline.forSearchResponse(threadPool, request, response, TimeValue.timeValueSeconds(5));
+    assertTrue(deadline.remaining().seconds() <= 5);
+
+    assertFalse(RerankDeadline.forSearchResponse(threadPool, new SearchRequest(), response, null).isBounded());
+  }
+
+  public void testTrackerCountsMissesAndMarksResponse() {
+    RerankDeadlineTracker tracker = new RerankDeadlineTracker();
+    ThreadContext threadContext = threadPool.getThreadContext();
+    try (ThreadContext.StoredContext ignored = threadContext.stashContext()) {
+      tracker.recordMiss(threadContext, "kendra_intelligent_ranking");
+      tracker.recordMiss(threadContext, "kendra_intelligent_ranking");
+      tracker.recordMiss(threadContext, "personalized_search_ranking");
+      assertEquals(List.of("kendra_intelligent_ranking", "personalized_search_ranking"),
+          threadContext.getResponseHeaders().get(RerankDeadlineTracker.RESPONSE_HEADER));
+    }
+    assertEquals(Map.of("kendra_intelligent_ranking", 2L, "personalized_search_ranking", 1L), tracker.stats());
+  }
+}
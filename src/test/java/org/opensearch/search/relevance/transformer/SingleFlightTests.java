@@ -0,0 +1,193 @@
+/*
+ * SPDX-License-Identifier: Apache-2.0
+ *
+ * The OpenSearch Contributors require contributions made to
+ * this file be licensed under the Apache-2.0 license or a
+ * compatible open source license.
+ */
+package org.opensearch.search.relevance.transformer;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicReference;
+
+import org.opensearch.OpenSearchTimeoutException;
+import org.opensearch.action.ActionListener;
+import org.opensearch.common.settings.Settings;
+import org.opensearch.common.unit.TimeValue;
+import org.opensearch.search.relevance.SearchRelevancePlugin;
+import org.opensearch.test.OpenSearchTestCase;
+import org.opensearch.threadpool.ExecutorBuilder;
+import org.opensearch.threadpool.TestThreadPool;
+import org.opensearch.threadpool.ThreadPool;
+
+import static org.opensearch.search.relevance.configuration.Constants.RERANK_THREAD_POOL_NAME;
+
+public class SingleFlightTests extends OpenSearchTestCase {
+
+  private ThreadPool threadPool;
+
+  @Override
+  public void setUp() throws Exception {
+    super.setUp();
+    threadPool = new TestThreadPool(getTestName(),
+        new SearchRelevancePlugin().getExecutorBuilders(Settings.EMPTY).toArray(new ExecutorBuilder<?>[0]));
+  }
+
+  @Override
+  public void tearDown() throws Exception {
+    ThreadPool.terminate(threadPool, 10, TimeUnit.SECONDS);
+    super.tearDown();
+  }
+
+  public void testIdenticalCallsShareResult() {
+    SingleFlight<String, String> singleFlight = new SingleFlight<>(threadPool, 10, TimeValue.timeValueMinutes(1));
+    List<ActionListener<String>> calls = new ArrayList<>();
+    List<String> results = new ArrayList<>();
+    for (int i = 0; i < 5; i++) {
+      singleFlight.execute("key", calls::add, ActionListener.wrap(results::add, e -> fail(e.getMessage())));
+    }
+    List<String> otherResults = new ArrayList<>();
+    singleFlight.execute("other", calls::add, ActionListener.wrap(otherResults::add, e -> fail(e.getMessage())));
+    assertEquals(2, calls.size());
+    assertTrue(results.isEmpty());
+
+    calls.get(0).onResponse("result");
+    assertEquals(List.of("result", "result", "result", "result", "result"), results);
+    assertTrue(otherResults.isEmpty());
+    calls.get(1).onResponse("other result");
+    assertEquals(List.of("other result"), otherResults);
+
+    // Calls made once the identical call completed are not coalesced with it
+    singleFlight.execute("key", calls::add, ActionListener.wrap(results::add, e -> fail(e.getMessage())));
+    assertEquals(3, calls.size());
+
+    Map<String, Object> stats = singleFlight.stats();
+    assertEquals(1, stats.get("in_flight"));
+    assertEquals(3L, stats.get("call_count"));
+    assertEquals(4L, stats.get("coalesced_count"));
+  }
+
+  public void testFailureIsShared() {
+    SingleFlight<String, String> singleFlight = new SingleFlight<>(threadPool, 10, TimeValue.timeValueMinutes(1));
+    List<ActionListener<String>> calls = new ArrayList<>();
+    List<Exception> failures = new ArrayList<>();
+    for (int i = 0; i < 3; i++) {
+      singleFlight.execute("key", calls::add, ActionListener.wrap(r -> fail("expected failure"), failures::add));
+    }
+    IllegalStateException failure = new IllegalStateException("service unavailable");
+    calls.get(0).onFailure(failure);
+    assertEquals(List.of(failure, failure, failure), failures);
+  }
+
+  public void testCallsBeyondWaiterLimitAreNotCoalesced() {
+    SingleFlight<String, String> singleFlight = new SingleFlight<>(threadPool, 2, TimeValue.timeValueMinutes(1));
+    List<ActionListener<String>> calls = new ArrayList<>();
+    AtomicInteger responses = new AtomicInteger();
+    for (int i = 0; i < 5; i++) {
+      singleFlight.execute("key", calls::add, ActionListener.wrap(r -> responses.incrementAndGet(), e -> fail(e.getMessage())));
+    }
+    // One call with two waiters, and two callers over the limit making their own call
+    assertEquals(3, calls.size());
+    assertEquals(2L, singleFlight.stats().get("waiter_limit_reached_count"));
+    for (ActionListener<String> call : calls) {
+      call.onResponse("result");
+    }
+    assertEquals(5, responses.get());
+  }
+
+  public void testWaitersTimeOut() throws Exception {
+    SingleFlight<String, String> singleFlight = new SingleFlight<>(threadPool, 10, TimeValue.timeValueMillis(10));
+    List<ActionListener<String>> calls = new ArrayList<>();
+    AtomicReference<String> callerResult = new AtomicReference<>();
+    singleFlight.execute("key", calls::add, ActionListener.wrap(callerResult::set, e -> fail(e.getMessage())));
+    AtomicReference<Exception> waiterFailure = new AtomicReference<>();
+    AtomicReference<String> waiterThread = new AtomicReference<>();
+    singleFlight.execute("key", calls::add, ActionListener.wrap(r -> fail("expected timeout"), e -> {
+      waiterThread.set(Thread.currentThread().getName());
+      waiterFailure.set(e);
+    }));
+
+    assertBusy(() -> assertNotNull(waiterFailure.get()));
+    assertTrue(waiterFailure.get() instanceof OpenSearchTimeoutException);
+    // The waiter times out on the rerank pool, not on the scheduler thread
+    assertTrue(waiterThread.get(), waiterThread.get().contains("[" + RERANK_THREAD_POOL_NAME + "]"));
+    assertEquals(1L, singleFlight.stats().get("wait_timeout_count"));
+
+    // The call itself is not affected by the waiter timing out
+    calls.get(0).onResponse("result");
+    assertEquals("result", callerResult.get());
+  }
+
+  public void testBlockingCallsShareResult() throws Exception {
+    SingleFlight<String, String> singleFlight = new SingleFlight<>(threadPool, 10, TimeValue.timeValueMinutes(1));
+    CountDownLatch callStarted = new CountDownLatch(1);
+    CountDownLatch completeCall = new CountDownLatch(1);
+    AtomicInteger calls = new AtomicInteger();
+    int numberOfCallers = 4;
+    String[] results = new String[numberOfCallers];
+    Thread[] callers = new Thread[numberOfCallers];
+    for (int i = 0; i < numberOfCallers; i++) {
+      int caller = i;
+      callers[i] = new Thread(() -> results[caller] = singleFlight.executeBlocking("key", () -> {
+        calls.incrementAndGet();
+        callStarted.countDown();
+        try {
+          completeCall.await();
+        } catch (InterruptedException e) {
+          throw new IllegalStateException(e);
+        }
+        return "result";
+      }));
+      callers[i].start();
+      if (i == 0) {
+        callStarted.await();
+      }
+    }
+    assertBusy(() -> assertEquals((long) numberOfCallers - 1, singleFlight.stats().get("coalesced_count")));
+    completeCall.countDown();
+    for (Thread thread : callers) {
+      thread.join();
+    }
+    assertEquals(1, calls.get());
+    for (String result : results) {
+      assertEquals("result", result);
+    }
+  }
+
+  public void testBlockingWaitersTimeOut() throws Exception {
+    SingleFlight<String, String> singleFlight = new SingleFlight<>(threadPool, 10, TimeValue.timeValueMillis(10));
+    CountDownLatch callStarted = new CountDownLatch(1);
+    CountDownLatch completeCall = new CountDownLatch(1);
+    Thread caller = new Thread(() -> singleFlight.executeBlocking("key", () -> {
+      callStarted.countDown();
+      try {
+        completeCall.await();
+      } catch (InterruptedException e) {
+        throw new IllegalStateException(e);
+      }
+      return "result";
+    }));
+    caller.start();
+    callStarted.await();
+    expectThrows(OpenSearchTimeoutException.class, () -> singleFlight.executeBlocking("key", () -> "own result"));
+    completeCall.countDown();
+    caller.join();
+  }
+
+  public void testDisabledNeverCoalesces() {
+    SingleFlight<String, String> singleFlight = SingleFlight.disabled();
+    assertFalse(singleFlight.isEnabled());
+    List<ActionListener<String>> calls = new ArrayList<>();
+    for (int i = 0; i < 3; i++) {
+      singleFlight.execute("key", calls::add, ActionListener.wrap(r -> {}, e -> fail(e.getMessage())));
+    }
+    assertEquals(3, calls.size());
+    assertEquals("result", singleFlight.executeBlocking("key", () -> "result"));
+    assertEquals(Map.of("enabled", false), singleFlight.stats());
+  }
+}
@@ -0,0 +1,86 @@
+/*
+ * SPDX-License-Identifier: Apache-2.0
+ *
+ * The OpenSearch Contributors require contributions made to
+ * this file be licensed under the Apache-2.0 license or a
+ * compatible open source license.
+ */
+package org.opensearch.search.relevance.transformer;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+import java.util.Map;
+
+import org.opensearch.common.xcontent.XContentFactory;
+import org.opensearch.common.xcontent.XContentType;
+import org.opensearch.core.common.bytes.BytesArray;
+import org.opensearch.core.common.bytes.BytesReference;
+import org.opensearch.core.xcontent.XContentBuilder;
+import org.opensearch.search.SearchHit;
+import org.opensearch.test.OpenSearchTestCase;
+
+public class SourceFieldExtractorTests extends OpenSearchTestCase {
+
+  public void testExtractMatchesSourceAsMap() throws IOException {
+    XContentBuilder source = XContentBuilder.builder(randomFrom(XContentType.values()).xContent())
+        .startObject()
+        .field("id", 42)
+        .field("price", 1.5)
+        .field("available", true)
+        .field("body", "Body text")
+        .startObject("ignored").field("body", "Not the body").endObject()
+        .array("tags", "a", "b")
+        .field("missing", (String) null)
+        .endObject();
+    SearchHit hit = buildHit(BytesReference.bytes(source));
+
+    Map<String, Object> fields = new SourceFieldExtractor("id", "price", "available", "body", "tags", "missing", "unknown")
+        .extract(hit);
+    Map<String, Object> sourceAsMap = hit.getSourceAsMap();
+    for (String field : List.of("id", "price", "available", "body", "tags")) {
+      assertEquals(sourceAsMap.get(field), fields.get(field));
+    }
+    assertTrue(fields.containsKey("missing"));
+    assertNull(fields.get("missing"));
+    assertFalse(fields.containsKey("unknown"));
+    assertFalse(fields.containsKey("ignored"));
+  }
+
+  public void testExtractNestedAndDottedFields() throws IOException {
+    XContentBuilder source = XContentFactory.jsonBuilder()
+        .startObject()
+        .field("content.title", "Dotted title")
+        .startObject("content").field("text", "Nested text").startObject("other").field("x", 1).endObject().endObject()
+        .startObject("_kendra_passages").array("content.text", "first passage", "second passage").endObject()
+        .endObject();
+    SearchHit hit = buildHit(BytesReference.bytes(source));
+
+    Map<String, Object> fields = new SourceFieldExtractor("content.title", "content.text", "_kendra_passages.content.text")
+        .extract(hit);
+    assertEquals("Dotted title", fields.get("content.title"));
+    assertEquals("Nested text", fields.get("content.text"));
+    assertEquals(List.of("first passage", "second passage"), fields.get("_kendra_passages.content.text"));
+  }
+
+  public void testStopsOnceAllFieldsAreFound() {
+    // The source is truncated after the requested fields, which would fail a full parse
+    SearchHit hit = buildHit(new BytesArray("{\"title\":\"Title\",\"body\":\"Body\",\"other\":{\"x\":".getBytes(StandardCharsets.UTF_8)));
+    Map<String, Object> fields = new SourceFieldExtractor("body", "title").extract(hit);
+    assertEquals("Title", fields.get("title"));
+    assertEquals("Body", fields.get("body"));
+  }
+
+  public void testNullFieldsAndMissingSource() {
+    SourceFieldExtractor extractor = new SourceFieldExtractor("body", null);
+    assertTrue(extractor.extract(new SearchHit(0, "0", Map.of(), Map.of())).isEmpty());
+    Map<String, Object> fields = extractor.extract(buildHit(new BytesArray("{\"body\":\"Body\"}".getBytes(StandardCharsets.UTF_8))));
+    assertEquals(Map.of("body", "Body"), fields);
+  }
+
+  private static SearchHit buildHit(BytesReference source) {
+    SearchHit hit = new SearchHit(0, "0", Map.of(), Map.of());
+    hit.sourceRef(source);
+    return hit;
+  }
+}
@@ -8,10 +8,13 @@
 package org.opensearch.search.relevance.transformer.kendraintelligentranking;
 
 import org.apache.lucene.search.TotalHits;
+import org.mockito.Mockito;
+import org.opensearch.action.ActionListener;
 import org.opensearch.action.search.SearchRequest;
 import org.opensearch.core.common.bytes.BytesReference;
 import org.opensearch.common.settings.Setting;
 import org.opensearch.common.settings.Settings;
+import org.opensearch.common.unit.TimeValue;
 import org.opensearch.common.xcontent.json.JsonXContent;
 import org.opensearch.core.xcontent.XContentBuilder;
 import org.opensearch.index.query.MatchAllQueryBuilder;
@@ -20,35 +23,55 @@ import org.opensearch.index.query.MultiMatchQueryBuilder;
 import org.opensearch.search.SearchHit;
 import org.opensearch.search.SearchHits;
 import org.opensearch.search.builder.SearchSourceBuilder;
+import org.opensearch.search.relevance.SearchRelevancePlugin;
 import org.opensearch.search.relevance.configuration.ResultTransformerConfiguration;
+import org.opensearch.search.relevance.transformer.RerankDeadline;
+import org.opensearch.search.relevance.transformer.RerankDeadlineExceededException;
+import org.opensearch.search.relevance.transformer.RerankDeadlineTracker;
+import org.opensearch.search.relevance.transformer.SingleFlight;
+import org.opensearch.search.relevance.transformer.kendraintelligentranking.client.KendraClientComponents;
 import org.opensearch.search.relevance.transformer.kendraintelligentranking.client.KendraClientSettings;
 import org.opensearch.search.relevance.transformer.kendraintelligentranking.client.KendraHttpClient;
 import org.opensearch.search.relevance.transformer.kendraintelligentranking.client.KendraIntelligentClientTests;
+import org.opensearch.search.relevance.transformer.kendraintelligentranking.client.KendraRescoreCache;
 import org.opensearch.search.relevance.transformer.kendraintelligentranking.configuration.KendraIntelligentRankerSettings;
 import org.opensearch.search.relevance.transformer.kendraintelligentranking.configuration.KendraIntelligentRankingConfiguration;
 import org.opensearch.search.relevance.transformer.kendraintelligentranking.configuration.KendraIntelligentRankingConfiguration.KendraIntelligentRankingProperties;
+import org.opensearch.search.relevance.transformer.kendraintelligentranking.model.dto.Document;
 import org.opensearch.search.relevance.transformer.kendraintelligentranking.model.dto.RescoreRequest;
 import org.opensearch.search.relevance.transformer.kendraintelligentranking.model.dto.RescoreResult;
-import org.opensearch.search.relevance.transformer.kendraintelligentranking.model.dto.RescoreResultItem;
+import org.opensearch.search.relevance.transformer.kendraintelligentranking.preprocess.ParallelPreprocessor;
+import org.opensearch.search.relevance.transformer.kendraintelligentranking.preprocess.PassageCache;
+import org.opensearch.search.relevance.transformer.kendraintelligentranking.preprocess.PrecomputedPassages;
+
+import org.opensearch.threadpool.ExecutorBuilder;
+import org.opensearch.threadpool.TestThreadPool;
+import org.opensearch.threadpool.ThreadPool;
 
 import java.io.IOException;
+import java.util.ArrayList;
 import java.util.Collections;
 import java.util.List;
 import java.util.Map;
+import java.util.concurrent.TimeUnit;
 import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
 import java.util.concurrent.atomic.AtomicReference;
+import java.util.function.DoubleSupplier;
 import java.util.stream.Collectors;
 
+import static org.opensearch.search.relevance.configuration.Constants.PREPROCESS_THREAD_POOL_NAME;
+
 public class KendraIntelligentRankerTests extends KendraIntelligentClientTests {
 
     public void testGetSettings() {
-        List<Setting<?>> settings = new KendraIntelligentRanker(buildMockHttpClient()).getTransformerSettings();
+        List<Setting<?>> settings = new KendraIntelligentRanker(buildMockHttpClient(), KendraRankerComponents.disabled(null)).getTransformerSettings();
         assertNotNull(settings);
         assertFalse(settings.isEmpty());
     }
 
     public void testPreprocess() {
-        KendraIntelligentRanker ranker = new KendraIntelligentRanker(buildMockHttpClient());
+        KendraIntelligentRanker ranker = new KendraIntelligentRanker(buildMockHttpClient(), KendraRankerComponents.disabled(null));
         KendraIntelligentRankingProperties properties =
                 new KendraIntelligentRankingProperties(List.of("body"), List.of("title"), 50);
         ResultTransformerConfiguration configuration = new KendraIntelligentRankingConfiguration(1, properties);
@@ -64,14 +87,14 @@ public class KendraIntelligentRankerTests extends KendraIntelligentClientTests {
     }
 
     public void testShouldNotTransformWithoutSource() {
-        KendraIntelligentRanker ranker = new KendraIntelligentRanker(buildMockHttpClient());
+        KendraIntelligentRanker ranker = new KendraIntelligentRanker(buildMockHttpClient(), KendraRankerComponents.disabled(null));
         SearchRequest originalRequest = new SearchRequest();
         boolean shouldTransform = ranker.shouldTransform(originalRequest, new KendraIntelligentRankingConfiguration());
         assertFalse(shouldTransform);
     }
 
     public void testShouldNotTransformWithoutQuery() {
-        KendraIntelligentRanker ranker = new KendraIntelligentRanker(buildMockHttpClient());
+        KendraIntelligentRanker ranker = new KendraIntelligentRanker(buildMockHttpClient(), KendraRankerComponents.disabled(null));
         SearchRequest originalRequest = new SearchRequest()
                 .source(new SearchSourceBuilder().query(null));
         boolean shouldTransform = ranker.shouldTransform(originalRequest, new KendraIntelligentRankingConfiguration());
@@ -79,7 +102,7 @@ public class KendraIntelligentRankerTests extends KendraIntelligentClientTests {
     }
 
     public void testShouldNotTransformWithScroll() {
-        KendraIntelligentRanker ranker = new KendraIntelligentRanker(buildMockHttpClient());
+        KendraIntelligentRanker ranker = new KendraIntelligentRanker(buildMockHttpClient(), KendraRankerComponents.disabled(null));
         SearchRequest originalRequest = new SearchRequest()
                 .source(new SearchSourceBuilder())
                 .scroll("5h");
@@ -88,7 +111,7 @@ public class KendraIntelligentRankerTests extends KendraIntelligentClientTests {
     }
 
     public void testShouldNotTransformWithSort() {
-        KendraIntelligentRanker ranker = new KendraIntelligentRanker(buildMockHttpClient());
+        KendraIntelligentRanker ranker = new KendraIntelligentRanker(buildMockHttpClient(), KendraRankerComponents.disabled(null));
         SearchRequest originalRequest = new SearchRequest()
                 .source(new SearchSourceBuilder()
                         .sort("foo"));
@@ -98,23 +121,26 @@ public class KendraIntelligentRankerTests extends KendraIntelligentClientTests {
 
     public void testShouldNotTransformWithInvalidClient() {
         Settings emptySettings = Settings.builder().build();
-        KendraHttpClient emptyClient = new KendraHttpClient(KendraClientSettings.getClientSettings(emptySettings));
+        KendraHttpClient emptyClient = new KendraHttpClient(KendraClientSettings.getClientSettings(emptySettings),
+                KendraClientComponents.defaults());
         testWithInvalidClient(emptyClient);
 
         Settings settingsWithExecutionPlan = Settings.builder()
                 .put(KendraIntelligentRankerSettings.EXECUTION_PLAN_ID_SETTING.getKey(), "foo-plan")
                 .build();
-        testWithInvalidClient(new KendraHttpClient(KendraClientSettings.getClientSettings(settingsWithExecutionPlan)));
+        testWithInvalidClient(new KendraHttpClient(KendraClientSettings.getClientSettings(settingsWithExecutionPlan),
+                KendraClientComponents.defaults()));
 
         Settings settingsWithEndpoint = Settings.builder()
                 .put(KendraIntelligentRankerSettings.SERVICE_ENDPOINT_SETTING.getKey(),
                         "https://kendra-ranking.us-west-2.api.aws")
                 .build();
-        testWithInvalidClient(new KendraHttpClient(KendraClientSettings.getClientSettings(settingsWithEndpoint)));
+        testWithInvalidClient(new KendraHttpClient(KendraClientSettings.getClientSettings(settingsWithEndpoint),
+                KendraClientComponents.defaults()));
     }
 
     private void testWithInvalidClient(KendraHttpClient invalidClient) {
-        KendraIntelligentRanker ranker = new KendraIntelligentRanker(invalidClient);
+        KendraIntelligentRanker ranker = new KendraIntelligentRanker(invalidClient, KendraRankerComponents.disabled(null));
 
         // Otherwise valid search request:
         SearchRequest originalRequest = new SearchRequest()
@@ -129,7 +155,7 @@ public class KendraIntelligentRankerTests extends KendraIntelligentClientTests {
     }
 
     public void testShouldNotTransformIfFromExceedsDocLimit() {
-        KendraIntelligentRanker ranker = new KendraIntelligentRanker(buildMockHttpClient());
+        KendraIntelligentRanker ranker = new KendraIntelligentRanker(buildMockHttpClient(), KendraRankerComponents.disabled(null));
         SearchRequest originalRequest = new SearchRequest()
                 .source(new SearchSourceBuilder()
                         .from(20));
@@ -141,7 +167,7 @@ public class KendraIntelligentRankerTests extends KendraIntelligentClientTests {
     }
 
     public void testShouldTransformTrue() {
-        KendraIntelligentRanker ranker = new KendraIntelligentRanker(buildMockHttpClient());
+        KendraIntelligentRanker ranker = new KendraIntelligentRanker(buildMockHttpClient(), KendraRankerComponents.disabled(null));
         SearchRequest originalRequest = new SearchRequest()
                 .source(new SearchSourceBuilder()
                         .query(new MatchAllQueryBuilder()));
@@ -153,7 +179,7 @@ public class KendraIntelligentRankerTests extends KendraIntelligentClientTests {
     }
 
     public void testTransformInvalidQueryType() {
-        KendraIntelligentRanker ranker = new KendraIntelligentRanker(buildMockHttpClient());
+        KendraIntelligentRanker ranker = new KendraIntelligentRanker(buildMockHttpClient(), KendraRankerComponents.disabled(null));
         SearchRequest originalRequest = new SearchRequest()
                 .source(new SearchSourceBuilder().query(new MatchAllQueryBuilder()));
         KendraIntelligentRankingProperties properties =
@@ -167,7 +193,7 @@ public class KendraIntelligentRankerTests extends KendraIntelligentClientTests {
     }
 
     public void testTransformEmptyHits() {
-        KendraIntelligentRanker ranker = new KendraIntelligentRanker(buildMockHttpClient());
+        KendraIntelligentRanker ranker = new KendraIntelligentRanker(buildMockHttpClient(), KendraRankerComponents.disabled(null));
         SearchRequest originalRequest = new SearchRequest()
                 .source(new SearchSourceBuilder().query(new MatchQueryBuilder("body", "foo")));
         KendraIntelligentRankingProperties properties =
@@ -202,7 +228,7 @@ public class KendraIntelligentRankerTests extends KendraIntelligentClientTests {
         KendraIntelligentRanker ranker = new KendraIntelligentRanker(buildMockHttpClient(r -> {
             didTransform.set(true);
             return new RescoreResult();
-        }));
+        }), KendraRankerComponents.disabled(null));
         ranker.transform(searchHits, originalRequest, configuration);
         assertFalse(didTransform.get());
     }
@@ -234,18 +260,9 @@ public class KendraIntelligentRankerTests extends KendraIntelligentClientTests {
         KendraIntelligentRanker ranker = new KendraIntelligentRanker(buildMockHttpClient(req -> {
             rescoreRequestRef.set(req);
             // Return the top N results in reverse order.
-            List<RescoreResultItem> resultItems = req.getDocuments().stream()
-                    .map(d -> {
-                        RescoreResultItem item = new RescoreResultItem();
-                        item.setDocumentId(d.getGroupId());
-                        item.setScore(randomFloat());
-                        return item;
-                    }).collect(Collectors.toList());
-            Collections.reverse(resultItems);
-            RescoreResult result = new RescoreResult();
-            result.setResultItems(resultItems);
+            List<String> documentIds = getDocumentIds(req);            Collections.reverse(documentIds);            RescoreResult result = buildRescoreResult(documentIds, () -> randomFloat());
             return result;
-        }));
+        }), KendraRankerComponents.disabled(null));
         SearchHits transformedHits = ranker.transform(searchHits, originalRequest, configuration);
 
         assertNotSame(searchHits, transformedHits);
@@ -264,4 +281,349 @@ public class KendraIntelligentRankerTests extends KendraIntelligentClientTests {
         assertArrayEquals(transformedHits.getHits(), bodyOnlyTransformedHits.getHits());
     }
 
-}
\ No newline at end of file
+    public void testTransformHitsAsync() throws IOException {
+        SearchRequest originalRequest = new SearchRequest()
+                .source(new SearchSourceBuilder().query(new MatchQueryBuilder("body", "foo")));
+
+        int docLimit = randomIntBetween(1, 20);
+        KendraIntelligentRankingProperties properties =
+                new KendraIntelligentRankingProperties(List.of("body"), List.of("title"), docLimit);
+        ResultTransformerConfiguration configuration = new KendraIntelligentRankingConfiguration(1, properties);
+
+        int numHits = docLimit + randomInt(20);
+        SearchHits searchHits = buildSearchHits(numHits);
+
+        KendraIntelligentRanker ranker = new KendraIntelligentRanker(buildMockHttpClient(req -> {
+            // Return the top N results in reverse order.
+            List<String> documentIds = getDocumentIds(req);            Collections.reverse(documentIds);            RescoreResult result = buildRescoreResult(documentIds, () -> randomFloat());
+            return result;
+        }), KendraRankerComponents.disabled(null));
+        AtomicReference<SearchHits> transformedHitsRef = new AtomicReference<>();
+        ranker.transformAsync(searchHits, originalRequest, configuration,
+                ActionListener.wrap(transformedHitsRef::set, e -> fail(e.getMessage())));
+
+        SearchHits transformedHits = transformedHitsRef.get();
+        assertNotNull(transformedHits);
+        assertNotSame(searchHits, transformedHits);
+        for (int i = 0; i < docLimit; i++) {
+            assertEquals("doc" + (docLimit - i - 1), transformedHits.getHits()[i].getId());
+        }
+        for (int i = docLimit; i < numHits; i++) {
+            assertEquals("doc" + i, transformedHits.getHits()[i].getId());
+        }
+    }
+
+    public void testTransformAsyncReturnsOriginalHitsOnFailure() throws IOException {
+        SearchRequest originalRequest = new SearchRequest()
+                .source(new SearchSourceBuilder().query(new MatchQueryBuilder("body", "foo")));
+        KendraIntelligentRankingProperties properties =
+                new KendraIntelligentRankingProperties(List.of("body"), List.of("title"), 10);
+        ResultTransformerConfiguration configuration = new KendraIntelligentRankingConfiguration(1, properties);
+        SearchHits searchHits = buildSearchHits(5);
+
+        KendraIntelligentRanker ranker = new KendraIntelligentRanker(buildMockHttpClient(req -> {
+            throw new IllegalStateException("service unavailable");
+        }), KendraRankerComponents.disabled(null));
+        AtomicReference<SearchHits> transformedHitsRef = new AtomicReference<>();
+        ranker.transformAsync(searchHits, originalRequest, configuration,
+                ActionListener.wrap(transformedHitsRef::set, e -> fail(e.getMessage())));
+        assertSame(searchHits, transformedHitsRef.get());
+    }
+
+    public void testTransformUsesRescoreCache() throws IOException {
+        SearchRequest originalRequest = new SearchRequest()
+                .source(new SearchSourceBuilder().query(new MatchQueryBuilder("body", "foo")));
+        KendraIntelligentRankingProperties properties =
+                new KendraIntelligentRankingProperties(List.of("body"), List.of("title"), 10);
+        ResultTransformerConfiguration configuration = new KendraIntelligentRankingConfiguration(1, properties);
+
+        AtomicInteger rescoreCount = new AtomicInteger();
+        KendraRescoreCache rescoreCache = new KendraRescoreCache(Settings.EMPTY);
+        KendraIntelligentRanker ranker = new KendraIntelligentRanker(buildMockHttpClient(req -> {
+            rescoreCount.incrementAndGet();
+            // Return the top N results in reverse order.
+            List<String> documentIds = getDocumentIds(req);            Collections.reverse(documentIds);            RescoreResult result = buildRescoreResult(documentIds, () -> randomFloat());
+            return result;
+        }), new KendraRankerComponents(rescoreCache, PassageCache.disabled(),
+                ParallelPreprocessor.sequential(), SingleFlight.disabled(), new RerankDeadlineTracker(), null));
+
+        SearchHits transformedHits = ranker.transform(buildSearchHits(5), originalRequest, configuration);
+        assertEquals(1, rescoreCount.get());
+
+        // Same query and candidate set is served from the cache, both synchronously and asynchronously
+        SearchHits cachedHits = ranker.transform(buildSearchHits(5), originalRequest, configuration);
+        AtomicReference<SearchHits> cachedAsyncHitsRef = new AtomicReference<>();
+        ranker.transformAsync(buildSearchHits(5), originalRequest, configuration,
+                ActionListener.wrap(cachedAsyncHitsRef::set, e -> fail(e.getMessage())));
+        assertEquals(1, rescoreCount.get());
+        for (int i = 0; i < 5; i++) {
+            assertEquals(transformedHits.getHits()[i].getId(), cachedHits.getHits()[i].getId());
+            assertEquals(transformedHits.getHits()[i].getScore(), cachedHits.getHits()[i].getScore(), 0);
+            assertEquals(transformedHits.getHits()[i].getId(), cachedAsyncHitsRef.get().getHits()[i].getId());
+        }
+
+        // A different candidate set requires a new rescore
+        ranker.transform(buildSearchHits(6), originalRequest, configuration);
+        assertEquals(2, rescoreCount.get());
+
+        Map<String, Object> stats = rescoreCache.stats();
+        assertEquals(2L, stats.get("hit_count"));
+        assertEquals(2L, stats.get("miss_count"));
+        assertEquals(2, stats.get("count"));
+    }
+
+    public void testTransformUsesPassageCache() throws IOException {
+        KendraIntelligentRankingProperties properties =
+                new KendraIntelligentRankingProperties(List.of("body"), List.of("title"), 10);
+        ResultTransformerConfiguration configuration = new KendraIntelligentRankingConfiguration(1, properties);
+
+        List<RescoreRequest> rescoreRequests = new ArrayList<>();
+        PassageCache passageCache = new PassageCache(Settings.EMPTY);
+        KendraIntelligentRanker ranker = new KendraIntelligentRanker(buildMockHttpClient(req -> {
+            rescoreRequests.add(req);
+            List<String> documentIds = getDocumentIds(req);            RescoreResult result = buildRescoreResult(documentIds, () -> randomFloat());
+            return result;
+        }), new KendraRankerComponents(KendraRescoreCache.disabled(), passageCache,
+                ParallelPreprocessor.sequential(), SingleFlight.disabled(), new RerankDeadlineTracker(), null));
+
+        ranker.transform(buildSearchHits(5), new SearchRequest()
+                .source(new SearchSourceBuilder().query(new MatchQueryBuilder("body", "foo"))), configuration);
+        // Passages do not depend on the query, so a different query over the same documents reuses them
+        ranker.transform(buildSearchHits(5), new SearchRequest()
+                .source(new SearchSourceBuilder().query(new MatchQueryBuilder("body", "bar"))), configuration);
+
+        assertEquals(2, rescoreRequests.size());
+        for (int i = 0; i < 5; i++) {
+            assertEquals(rescoreRequests.get(0).getDocuments().get(i).getTokenizedBody(),
+                    rescoreRequests.get(1).getDocuments().get(i).getTokenizedBody());
+        }
+        Map<String, Object> stats = passageCache.stats();
+        assertEquals(5L, stats.get("hit_count"));
+        assertEquals(5L, stats.get("miss_count"));
+        assertEquals(5, stats.get("count"));
+    }
+
+    public void testTransformUsesPrecomputedPassages() throws IOException {
+        SearchRequest originalRequest = new SearchRequest()
+                .source(new SearchSourceBuilder().query(new MatchQueryBuilder("body", "foo")));
+        KendraIntelligentRankingProperties properties =
+                new KendraIntelligentRankingProperties(List.of("body"), List.of("title"), 10);
+        ResultTransformerConfiguration configuration = new KendraIntelligentRankingConfiguration(1, properties);
+
+        AtomicReference<RescoreRequest> rescoreRequestRef = new AtomicReference<>();
+        PassageCache passageCache = new PassageCache(Settings.EMPTY);
+        KendraIntelligentRanker ranker = new KendraIntelligentRanker(buildMockHttpClient(req -> {
+            rescoreRequestRef.set(req);
+            return new RescoreResult(null, new String[] {req.getDocuments().get(0).getGroupId()}, new float[] {1.0f});
+        }), new KendraRankerComponents(KendraRescoreCache.disabled(), passageCache,
+                ParallelPreprocessor.sequential(), SingleFlight.disabled(), new RerankDeadlineTracker(), null));
+
+        XContentBuilder sourceContent = JsonXContent.contentBuilder()
+                .startObject()
+                .field("body", "Body text that is not tokenized at search time")
+                .startObject(PrecomputedPassages.FIELD_PREFIX)
+                .field("body", List.of("precomputed foo passage"))
+                .endObject()
+                .endObject();
+        SearchHit hit = new SearchHit(0, "doc0", Map.of(), Map.of());
+        hit.sourceRef(BytesReference.bytes(sourceContent));
+        ranker.transform(new SearchHits(new SearchHit[] { hit }, new TotalHits(1, TotalHits.Relation.EQUAL_TO), 1.0f),
+                originalRequest, configuration);
+
+        assertEquals(List.of("precomputed", "foo", "passage"), rescoreRequestRef.get().getDocuments().get(0).getTokenizedBody());
+        assertEquals(0L, passageCache.stats().get("miss_count"));
+    }
+
+    public void testParallelPreprocessingKeepsHitOrder() throws Exception {
+        SearchRequest originalRequest = new SearchRequest()
+                .source(new SearchSourceBuilder().query(new MatchQueryBuilder("body", "document number")));
+        KendraIntelligentRankingProperties properties =
+                new KendraIntelligentRankingProperties(List.of("body"), List.of("title"), 50);
+        ResultTransformerConfiguration configuration = new KendraIntelligentRankingConfiguration(1, properties);
+
+        List<RescoreRequest> rescoreRequests = new ArrayList<>();
+        KendraHttpClient client = buildMockHttpClient(req -> {
+            rescoreRequests.add(req);
+            return buildRescoreResult(getDocumentIds(req).stream().distinct().collect(Collectors.toList()), () -> 1.0f);
+        });
+        ThreadPool threadPool = new TestThreadPool(getTestName(),
+                new SearchRelevancePlugin().getExecutorBuilders(Settings.EMPTY).toArray(new ExecutorBuilder<?>[0]));
+        try {
+            new KendraIntelligentRanker(client, KendraRankerComponents.disabled(null)).transform(buildSearchHits(40), originalRequest, configuration);
+            new KendraIntelligentRanker(client, new KendraRankerComponents(KendraRescoreCache.disabled(), PassageCache.disabled(),
+                    new ParallelPreprocessor(threadPool.executor(PREPROCESS_THREAD_POOL_NAME), 4, 2), SingleFlight.disabled(),
+                    new RerankDeadlineTracker(), threadPool))
+                    .transform(buildSearchHits(40), originalRequest, configuration);
+        } finally {
+            ThreadPool.terminate(threadPool, 10, TimeUnit.SECONDS);
+        }
+
+        assertEquals(2, rescoreRequests.size());
+        List<Document> sequentialDocuments = rescoreRequests.get(0).getDocuments();
+        List<Document> parallelDocuments = rescoreRequests.get(1).getDocuments();
+        assertEquals(40, parallelDocuments.size());
+        assertEquals(sequentialDocuments.size(), parallelDocuments.size());
+        for (int i = 0; i < sequentialDocuments.size(); i++) {
+            assertEquals(sequentialDocuments.get(i).getId(), parallelDocuments.get(i).getId());
+            assertEquals(sequentialDocuments.get(i).getTokenizedTitle(), parallelDocuments.get(i).getTokenizedTitle());
+            assertEquals(sequentialDocuments.get(i).getTokenizedBody(), parallelDocuments.get(i).getTokenizedBody());
+        }
+    }
+
+    public void testIdenticalConcurrentRescoresShareOneCall() throws Exception {
+        SearchRequest originalRequest = new SearchRequest()
+                .source(new SearchSourceBuilder().query(new MatchQueryBuilder("body", "foo")));
+        KendraIntelligentRankingProperties properties =
+                new KendraIntelligentRankingProperties(List.of("body"), List.of("title"), 10);
+        ResultTransformerConfiguration configuration = new KendraIntelligentRankingConfiguration(1, properties);
+
+        // Hold on to rescore calls, so that searches arrive while an identical call is in flight
+        List<RescoreRequest> rescoreRequests = new ArrayList<>();
+        List<ActionListener<RescoreResult>> rescoreListeners = new ArrayList<>();
+        KendraHttpClient client = buildMockHttpClient();
+        Mockito.doAnswer(invocation -> {
+            rescoreRequests.add(invocation.getArgument(0));
+            rescoreListeners.add(invocation.getArgument(1));
+            return null;
+        }).when(client).rescoreAsync(Mockito.any(RescoreRequest.class), Mockito.any());
+        ThreadPool threadPool = new TestThreadPool(getTestName(),
+                new SearchRelevancePlugin().getExecutorBuilders(Settings.EMPTY).toArray(new ExecutorBuilder<?>[0]));
+        try {
+            KendraIntelligentRanker ranker = new KendraIntelligentRanker(client, new KendraRankerComponents(KendraRescoreCache.disabled(), PassageCache.disabled(),
+                    ParallelPreprocessor.sequential(), new SingleFlight<>(threadPool, 10, TimeValue.timeValueMinutes(1)),
+                    new RerankDeadlineTracker(), threadPool));
+            List<SearchHits> transformedHits = new ArrayList<>();
+            for (int i = 0; i < 3; i++) {
+                ranker.transformAsync(buildSearchHits(5), originalRequest, configuration,
+                        ActionListener.wrap(transformedHits::add, e -> fail(e.getMessage())));
+            }
+            assertEquals(1, rescoreRequests.size());
+            assertTrue(transformedHits.isEmpty());
+
+            List<String> documentIds = getDocumentIds(rescoreRequests.get(0));            Collections.reverse(documentIds);            RescoreResult result = buildRescoreResult(documentIds, () -> randomFloat());
+            rescoreListeners.get(0).onResponse(result);
+
+            assertEquals(3, transformedHits.size());
+            for (SearchHits hits : transformedHits) {
+                for (int i = 0; i < 5; i++) {
+                    assertEquals("doc" + (4 - i), hits.getHits()[i].getId());
+                }
+            }
+
+            // A different candidate set is not coalesced with the completed call
+            ranker.transformAsync(buildSearchHits(6), originalRequest, configuration,
+                    ActionListener.wrap(transformedHits::add, e -> fail(e.getMessage())));
+            assertEquals(2, rescoreRequests.size());
+        } finally {
+            ThreadPool.terminate(threadPool, 10, TimeUnit.SECONDS);
+        }
+    }
+
+    public void testRescoreMissingDeadlineLeavesHitsUnchanged() throws Exception {
+        SearchRequest originalRequest = new SearchRequest()
+                .source(new SearchSourceBuilder().query(new MatchQueryBuilder("body", "foo")));
+        KendraIntelligentRankingProperties properties =
+                new KendraIntelligentRankingProperties(List.of("body"), List.of("title"), 10);
+        ResultTransformerConfiguration configuration = new KendraIntelligentRankingConfiguration(1, properties);
+
+        List<RescoreRequest> rescoreRequests = new ArrayList<>();
+        List<ActionListener<RescoreResult>> rescoreListeners = new ArrayList<>();
+        KendraHttpClient client = buildMockHttpClient();
+        Mockito.doAnswer(invocation -> {
+            rescoreRequests.add(invocation.getArgument(0));
+            rescoreListeners.add(invocation.getArgument(1));
+            return null;
+        }).when(client).rescoreAsync(Mockito.any(RescoreRequest.class), Mockito.any());
+        ThreadPool threadPool = new TestThreadPool(getTestName(),
+                new SearchRelevancePlugin().getExecutorBuilders(Settings.EMPTY).toArray(new ExecutorBuilder<?>[0]));
+        try {
+            KendraIntelligentRanker ranker = new KendraIntelligentRanker(client, KendraRankerComponents.disabled(threadPool));
+            SearchHits hits = buildSearchHits(5);
+            float[] originalScores = new float[5];
+            for (int i = 0; i < 5; i++) {
+                originalScores[i] = hits.getHits()[i].getScore();
+            }
+            AtomicInteger responses = new AtomicInteger();
+            AtomicReference<Exception> failure = new AtomicReference<>();
+            ranker.transformAsync(hits, originalRequest, configuration,
+                    RerankDeadline.after(threadPool, System.nanoTime(), TimeValue.timeValueMillis(20)),
+                    ActionListener.wrap(r -> responses.incrementAndGet(), failure::set));
+            assertEquals(1, rescoreRequests.size());
+            assertBusy(() -> assertNotNull(failure.get()));
+            assertTrue(failure.get() instanceof RerankDeadlineExceededException);
+
+            // A late result is not applied
+            List<String> documentIds = getDocumentIds(rescoreRequests.get(0));            RescoreResult result = buildRescoreResult(documentIds, () -> 100.0f);
+            rescoreListeners.get(0).onResponse(result);
+            assertEquals(0, responses.get());
+            for (int i = 0; i < 5; i++) {
+                assertEquals("doc" + i, hits.getHits()[i].getId());
+                assertEquals(originalScores[i], hits.getHits()[i].getScore(), 0.0f);
+            }
+
+            // An expired deadline fails without calling the rescore service
+            failure.set(null);
+            ranker.transformAsync(buildSearchHits(5), originalRequest, configuration,
+                    RerankDeadline.after(threadPool, System.nanoTime(), TimeValue.ZERO),
+                    ActionListener.wrap(r -> responses.incrementAndGet(), failure::set));
+            assertTrue(failure.get() instanceof RerankDeadlineExceededException);
+            assertEquals(1, rescoreRequests.size());
+        } finally {
+            ThreadPool.terminate(threadPool, 10, TimeUnit.SECONDS);
+        }
+    }
+
+    public void testInvalidRescoreResultLeavesHitsUnchanged() throws IOException {
+        SearchRequest originalRequest = new SearchRequest()
+                .source(new SearchSourceBuilder().query(new MatchQueryBuilder("body", "foo")));
+        KendraIntelligentRankingProperties properties =
+                new KendraIntelligentRankingProperties(List.of("body"), List.of("title"), 10);
+        ResultTransformerConfiguration configuration = new KendraIntelligentRankingConfiguration(1, properties);
+
+        KendraIntelligentRanker ranker = new KendraIntelligentRanker(buildMockHttpClient(req -> {
+            List<String> documentIds = getDocumentIds(req);
+            documentIds.add("unknown");
+            return buildRescoreResult(documentIds, () -> 100.0f);
+        }), KendraRankerComponents.disabled(null));
+        SearchHits searchHits = buildSearchHits(5);
+        for (int i = 0; i < 5; i++) {
+            searchHits.getHits()[i].score(5 - i);
+        }
+
+        SearchHits transformedHits = ranker.transform(searchHits, originalRequest, configuration);
+        assertSame(searchHits, transformedHits);
+        for (int i = 0; i < 5; i++) {
+            assertEquals(5 - i, transformedHits.getHits()[i].getScore(), 0);
+        }
+    }
+
+    /**
+     * @return IDs of the documents of a rescore request, in request order
+     */
+    private static List<String> getDocumentIds(RescoreRequest rescoreRequest) {
+        return rescoreRequest.getDocuments().stream().map(Document::getGroupId).collect(Collectors.toList());
+    }
+
+    private static RescoreResult buildRescoreResult(List<String> documentIds, DoubleSupplier score) {
+        float[] scores = new float[documentIds.size()];
+        for (int i = 0; i < scores.length; i++) {
+            scores[i] = (float) score.getAsDouble();
+        }
+        return new RescoreResult(null, documentIds.toArray(new String[0]), scores);
+    }
+
+    private static SearchHits buildSearchHits(int numHits) throws IOException {
+        SearchHit[] hitsArray = new SearchHit[numHits];
+        for (int i = 0; i < numHits; i++) {
+            XContentBuilder sourceContent = JsonXContent.contentBuilder()
+                    .startObject()
+                    .field("_id", String.valueOf(i))
+                    .field("body", "Body text for document number " + i)
+                    .field("title", "This is the title for document " + i)
+                    .endObject();
+            hitsArray[i] = new SearchHit(i, "doc" + i, Map.of(), Map.of());
+            hitsArray[i].sourceRef(BytesReference.bytes(sourceContent));
+        }
+        return new SearchHits(hitsArray, new TotalHits(numHits, TotalHits.Relation.EQUAL_TO), 1.0f);
+    }
+}
@@ -101,4 +101,15 @@ public class KendraClientSettingsTests extends OpenSearchTestCase {
     public void testWithSessionTokenButNoCredentials() {
         expectThrows(SettingsException.class, () -> buildClientSettings(false, false, true));
     }
+
+    public void testSettingsWithSameCredentialsAreEqual() throws IOException {
+        KendraClientSettings clientSettings = buildClientSettings(true, true, false);
+        KendraClientSettings sameClientSettings = buildClientSettings(true, true, false);
+
+        assertEquals(clientSettings, sameClientSettings);
+        assertEquals(clientSettings.hashCode(), sameClientSettings.hashCode());
+        assertNotEquals(clientSettings, buildClientSettings(true, true, true));
+        assertNotEquals(clientSettings, buildClientSettings(false, false, false));
+        assertFalse(clientSettings.toString().contains(SECRET_KEY));
+    }
 }
\ No newline at end of file
@@ -9,11 +9,44 @@
 
 package org.opensearch.search.relevance.transformer.kendraintelligentranking.client;
 
+import com.amazonaws.AmazonServiceException;
 import com.amazonaws.auth.BasicAWSCredentials;
 import com.amazonaws.http.IdleConnectionReaper;
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpServer;
+import org.opensearch.action.support.PlainActionFuture;
+import org.opensearch.common.SuppressForbidden;
+import org.opensearch.common.settings.Settings;
+import org.opensearch.common.unit.TimeValue;
+import org.opensearch.core.common.unit.ByteSizeValue;
+import org.opensearch.search.relevance.transformer.RemoteTransportSettings;
+import org.opensearch.search.relevance.transformer.RerankCircuitBreaker;
+import org.opensearch.search.relevance.transformer.kendraintelligentranking.configuration.KendraIntelligentRankerSettings;
+import org.opensearch.search.relevance.transformer.kendraintelligentranking.model.dto.Document;
+import org.opensearch.search.relevance.transformer.kendraintelligentranking.model.dto.RescoreRequest;
+import org.opensearch.search.relevance.transformer.kendraintelligentranking.model.dto.RescoreResult;
 import org.opensearch.test.OpenSearchTestCase;
+import org.opensearch.threadpool.TestThreadPool;
+import org.opensearch.threadpool.ThreadPool;
 
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.net.InetAddress;
+import java.net.InetSocketAddress;
 import java.net.URI;
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.zip.GZIPInputStream;
 
 public class KendraHttpClientTests extends OpenSearchTestCase {
 
@@ -27,10 +60,227 @@ public class KendraHttpClientTests extends OpenSearchTestCase {
                 "myAwesomeRole"
         );
 
-        try (KendraHttpClient client = new KendraHttpClient(settings)) {
+        try (KendraHttpClient client = new KendraHttpClient(settings, KendraClientComponents.defaults())) {
             assertEquals(new URI("http://localhost/rescore-execution-plans/12345678/rescore"), client.buildRescoreURI());
         }
         IdleConnectionReaper.shutdown();
     }
 
-}
\ No newline at end of file
+    @SuppressForbidden(reason = "use a http server to stub the rescore endpoint")
+    public void testRescoreAsync() throws Exception {
+        AtomicReference<String> authorizationHeader = new AtomicReference<>();
+        HttpServer server = HttpServer.create(new InetSocketAddress(InetAddress.getLoopbackAddress(), 0), 0);
+        server.createContext("/rescore-execution-plans/12345678/rescore", exchange -> {
+            authorizationHeader.set(exchange.getRequestHeaders().getFirst("Authorization"));
+            exchange.getRequestBody().readAllBytes();
+            writeResponse(exchange, 200, "{\"RescoreId\":\"rescore-1\",\"ResultItems\":[{\"DocumentId\":\"doc1\",\"Score\":0.5}]}");
+        });
+        server.start();
+        try (KendraHttpClient client = new KendraHttpClient(buildStubSettings(server), KendraClientComponents.defaults())) {
+            PlainActionFuture<RescoreResult> future = PlainActionFuture.newFuture();
+            client.rescoreAsync(buildRescoreRequest(), future);
+            RescoreResult result = future.actionGet(10, TimeUnit.SECONDS);
+
+            assertEquals("rescore-1", result.getRescoreId());
+            assertEquals(1, result.getResultItemCount());
+            assertEquals("doc1", result.getDocumentId(0));
+            assertEquals(0.5f, result.getScore(0), 0.0f);
+            assertNotNull(authorizationHeader.get());
+            assertTrue(authorizationHeader.get().startsWith("AWS4-HMAC-SHA256"));
+        } finally {
+            server.stop(0);
+            IdleConnectionReaper.shutdown();
+        }
+    }
+
+    @SuppressForbidden(reason = "use a http server to stub the rescore endpoint")
+    public void testRescoreAsyncServiceError() throws Exception {
+        HttpServer server = HttpServer.create(new InetSocketAddress(InetAddress.getLoopbackAddress(), 0), 0);
+        server.createContext("/rescore-execution-plans/12345678/rescore", exchange -> {
+            exchange.getRequestBody().readAllBytes();
+            writeResponse(exchange, 400, "{\"Message\":\"bad request\"}");
+        });
+        server.start();
+        try (KendraHttpClient client = new KendraHttpClient(buildStubSettings(server), KendraClientComponents.defaults())) {
+            PlainActionFuture<RescoreResult> future = PlainActionFuture.newFuture();
+            client.rescoreAsync(buildRescoreRequest(), future);
+            ExecutionException e = expectThrows(ExecutionException.class, () -> future.get(10, TimeUnit.SECONDS));
+            assertTrue(e.getCause() instanceof AmazonServiceException);
+            assertEquals(400, ((AmazonServiceException) e.getCause()).getStatusCode());
+        } finally {
+            server.stop(0);
+            IdleConnectionReaper.shutdown();
+        }
+    }
+
+    @SuppressForbidden(reason = "use a http server to stub the rescore endpoint")
+    public void testSlowRescoreIsHedged() throws Exception {
+        AtomicInteger requestCount = new AtomicInteger();
+        CountDownLatch releaseSlowResponse = new CountDownLatch(1);
+        HttpServer server = HttpServer.create(new InetSocketAddress(InetAddress.getLoopbackAddress(), 0), 0);
+        server.setExecutor(Executors.newFixedThreadPool(2));
+        server.createContext("/rescore-execution-plans/12345678/rescore", exchange -> {
+            exchange.getRequestBody().readAllBytes();
+            int request = requestCount.incrementAndGet();
+            if (request == RescoreHedger.MIN_SAMPLES + 1) {
+                // The first call after the hedger warmed up is stuck until the test ends
+                try {
+                    releaseSlowResponse.await(10, TimeUnit.SECONDS);
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                }
+            }
+            writeResponse(exchange, 200, "{\"RescoreId\":\"rescore-" + request + "\",\"ResultItems\":[]}");
+        });
+        server.start();
+        ThreadPool threadPool = new TestThreadPool(getTestName());
+        RescoreHedger hedger = new RescoreHedger(threadPool, 95, TimeValue.timeValueMillis(50), 5);
+        try (KendraHttpClient client = new KendraHttpClient(buildStubSettings(server), new KendraClientComponents(null, hedger,
+                RerankCircuitBreaker.disabled(), RemoteTransportSettings.defaults()))) {
+            for (int i = 0; i < RescoreHedger.MIN_SAMPLES; i++) {
+                PlainActionFuture<RescoreResult> future = PlainActionFuture.newFuture();
+                client.rescoreAsync(buildRescoreRequest(), future);
+                future.actionGet(10, TimeUnit.SECONDS);
+            }
+            assertNotNull(hedger.getHedgeDelay());
+
+            PlainActionFuture<RescoreResult> future = PlainActionFuture.newFuture();
+            client.rescoreAsync(buildRescoreRequest(), future);
+            RescoreResult result = future.actionGet(5, TimeUnit.SECONDS);
+            assertEquals("rescore-" + (RescoreHedger.MIN_SAMPLES + 2), result.getRescoreId());
+
+            Map<String, Object> stats = hedger.stats();
+            assertEquals((long) RescoreHedger.MIN_SAMPLES + 1, stats.get("call_count"));
+            assertEquals(1L, stats.get("hedge_count"));
+            assertEquals(1L, stats.get("hedge_win_count"));
+        } finally {
+            releaseSlowResponse.countDown();
+            server.stop(0);
+            ((ExecutorService) server.getExecutor()).shutdown();
+            ThreadPool.terminate(threadPool, 10, TimeUnit.SECONDS);
+            IdleConnectionReaper.shutdown();
+        }
+    }
+
+    @SuppressForbidden(reason = "use a http server to stub the rescore endpoint")
+    public void testHedgedRescoreDoesNotWaitPastTransportTimeouts() throws Exception {
+        CountDownLatch releaseResponses = new CountDownLatch(1);
+        HttpServer server = HttpServer.create(new InetSocketAddress(InetAddress.getLoopbackAddress(), 0), 0);
+        server.setExecutor(Executors.newFixedThreadPool(2));
+        server.createContext("/rescore-execution-plans/12345678/rescore", exchange -> {
+            exchange.getRequestBody().readAllBytes();
+            // Every call is stuck until the test ends
+            try {
+                releaseResponses.await(10, TimeUnit.SECONDS);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+            writeResponse(exchange, 200, "{\"RescoreId\":\"rescore-1\",\"ResultItems\":[]}");
+        });
+        server.start();
+        ThreadPool threadPool = new TestThreadPool(getTestName());
+        RescoreHedger hedger = new RescoreHedger(threadPool, 95, TimeValue.timeValueMillis(50), 5);
+        RemoteTransportSettings transportSettings = new RemoteTransportSettings(10, TimeValue.timeValueMinutes(1), true,
+                TimeValue.timeValueMillis(100), TimeValue.timeValueMillis(200), false, new ByteSizeValue(0), false);
+        try (KendraHttpClient client = new KendraHttpClient(buildStubSettings(server), new KendraClientComponents(null, hedger,
+                RerankCircuitBreaker.disabled(), transportSettings))) {
+            long startNanos = System.nanoTime();
+            expectThrows(Exception.class, () -> client.rescore(buildRescoreRequest()));
+            assertTrue(TimeUnit.NANOSECONDS.toSeconds(System.nanoTime() - startNanos) < 5);
+        } finally {
+            releaseResponses.countDown();
+            server.stop(0);
+            ((ExecutorService) server.getExecutor()).shutdown();
+            ThreadPool.terminate(threadPool, 10, TimeUnit.SECONDS);
+            IdleConnectionReaper.shutdown();
+        }
+    }
+
+    @SuppressForbidden(reason = "use a http server to stub the rescore endpoint")
+    public void testRescoreAsyncCompressesLargeBodies() throws Exception {
+        AtomicReference<String> contentEncoding = new AtomicReference<>();
+        AtomicReference<byte[]> requestBody = new AtomicReference<>();
+        HttpServer server = HttpServer.create(new InetSocketAddress(InetAddress.getLoopbackAddress(), 0), 0);
+        server.createContext("/rescore-execution-plans/12345678/rescore", exchange -> {
+            contentEncoding.set(exchange.getRequestHeaders().getFirst("Content-Encoding"));
+            requestBody.set(exchange.getRequestBody().readAllBytes());
+            writeResponse(exchange, 200, "{\"RescoreId\":\"rescore-1\",\"ResultItems\":[]}");
+        });
+        server.start();
+        RemoteTransportSettings transportSettings = KendraIntelligentRankerSettings.TRANSPORT_SETTINGS.get(Settings.builder()
+                .put("kendra_intelligent_ranking.transport.request_compression.enabled", true)
+                .put("kendra_intelligent_ranking.transport.request_compression.threshold", "0b")
+                .build());
+        try (KendraHttpClient client = new KendraHttpClient(buildStubSettings(server), new KendraClientComponents(null,
+                RescoreHedger.disabled(), RerankCircuitBreaker.disabled(), transportSettings))) {
+            PlainActionFuture<RescoreResult> future = PlainActionFuture.newFuture();
+            client.rescoreAsync(buildRescoreRequest(), future);
+            assertEquals("rescore-1", future.actionGet(10, TimeUnit.SECONDS).getRescoreId());
+
+            assertEquals("gzip", contentEncoding.get());
+            try (GZIPInputStream gzip = new GZIPInputStream(new ByteArrayInputStream(requestBody.get()))) {
+                String body = new String(gzip.readAllBytes(), StandardCharsets.UTF_8);
+                assertTrue(body, body.startsWith("{\"SearchQuery\":\"query\""));
+            }
+        } finally {
+            server.stop(0);
+            IdleConnectionReaper.shutdown();
+        }
+    }
+
+    @SuppressForbidden(reason = "use a http server to stub the rescore endpoint")
+    public void testRescoreAsyncRespectsKeepAliveTimeout() throws Exception {
+        List<Integer> clientPorts = new CopyOnWriteArrayList<>();
+        HttpServer server = HttpServer.create(new InetSocketAddress(InetAddress.getLoopbackAddress(), 0), 0);
+        server.createContext("/rescore-execution-plans/12345678/rescore", exchange -> {
+            clientPorts.add(exchange.getRemoteAddress().getPort());
+            exchange.getRequestBody().readAllBytes();
+            exchange.getResponseHeaders().add("Keep-Alive", "timeout=1");
+            writeResponse(exchange, 200, "{\"RescoreId\":\"rescore-1\",\"ResultItems\":[]}");
+        });
+        server.start();
+        // The max idle time of the client is longer than the Keep-Alive timeout of the service
+        RemoteTransportSettings transportSettings = KendraIntelligentRankerSettings.TRANSPORT_SETTINGS.get(Settings.builder()
+                .put("kendra_intelligent_ranking.transport.connection_max_idle", "1m")
+                .build());
+        try (KendraHttpClient client = new KendraHttpClient(buildStubSettings(server), new KendraClientComponents(null,
+                RescoreHedger.disabled(), RerankCircuitBreaker.disabled(), transportSettings))) {
+            for (long sleepMillis : new long[] {0, 100, 1500}) {
+                Thread.sleep(sleepMillis);
+                PlainActionFuture<RescoreResult> future = PlainActionFuture.newFuture();
+                client.rescoreAsync(buildRescoreRequest(), future);
+                assertEquals("rescore-1", future.actionGet(10, TimeUnit.SECONDS).getRescoreId());
+            }
+            // The connection is reused within the Keep-Alive timeout, and not after it
+            assertEquals(3, clientPorts.size());
+            assertEquals(clientPorts.get(0), clientPorts.get(1));
+            assertNotEquals(clientPorts.get(1), clientPorts.get(2));
+        } finally {
+            server.stop(0);
+            IdleConnectionReaper.shutdown();
+        }
+    }
+
+    @SuppressForbidden(reason = "use a http server to stub the rescore endpoint")
+    private static KendraClientSettings buildStubSettings(HttpServer server) {
+        return new KendraClientSettings(new BasicAWSCredentials("accessKey", "secretKey"),
+                "http://" + server.getAddress().getHostString() + ":" + server.getAddress().getPort(),
+                "us-west-2",
+                "12345678",
+                null
+        );
+    }
+
+    private static RescoreRequest buildRescoreRequest() {
+        return new RescoreRequest("query", List.of(new Document("doc1@1", "doc1", null, List.of("body", "text"), 1.0f)));
+    }
+
+    @SuppressForbidden(reason = "use a http server to stub the rescore endpoint")
+    private static void writeResponse(HttpExchange exchange, int status, String body) throws IOException {
+        byte[] bytes = body.getBytes(StandardCharsets.UTF_8);
+        exchange.sendResponseHeaders(status, bytes.length);
+        try (OutputStream os = exchange.getResponseBody()) {
+            os.write(bytes);
+        }
+    }
+}
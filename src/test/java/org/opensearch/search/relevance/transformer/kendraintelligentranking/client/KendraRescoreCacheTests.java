@@ -0,0 +1,166 @@
+/*
+ * SPDX-License-Identifier: Apache-2.0
+ *
+ * The OpenSearch Contributors require contributions made to
+ * this file be licensed under the Apache-2.0 license or a
+ * compatible open source license.
+ */
+package org.opensearch.search.relevance.transformer.kendraintelligentranking.client;
+
+import org.opensearch.action.OriginalIndices;
+import org.opensearch.common.settings.Settings;
+import org.opensearch.common.unit.TimeValue;
+import org.opensearch.core.common.bytes.BytesArray;
+import org.opensearch.core.common.unit.ByteSizeUnit;
+import org.opensearch.core.common.unit.ByteSizeValue;
+import org.opensearch.core.index.Index;
+import org.opensearch.core.index.shard.ShardId;
+import org.opensearch.search.SearchHit;
+import org.opensearch.search.SearchShardTarget;
+import org.opensearch.search.relevance.transformer.kendraintelligentranking.model.dto.RescoreResult;
+import org.opensearch.test.OpenSearchTestCase;
+
+import java.util.Map;
+
+public class KendraRescoreCacheTests extends OpenSearchTestCase {
+
+  public void testKeyNormalizesQueryText() {
+    SearchHit[] hits = buildHits(3, "body");
+    assertEquals(KendraRescoreCache.newKey("hello world", "body", "title", hits, 3),
+        KendraRescoreCache.newKey("  hello \t world ", "body", "title", hits, 3));
+    // The query text is sent to the rescore service as it is, so case is significant
+    assertNotEquals(KendraRescoreCache.newKey("Hello World", "body", "title", hits, 3),
+        KendraRescoreCache.newKey("hello world", "body", "title", hits, 3));
+    assertNotEquals(KendraRescoreCache.newKey("hello world", "body", "title", hits, 3),
+        KendraRescoreCache.newKey("hello worlds", "body", "title", hits, 3));
+  }
+
+  public void testKeyDependsOnCandidateSet() {
+    SearchHit[] hits = buildHits(3, "body");
+    KendraRescoreCache.Key key = KendraRescoreCache.newKey("query", "body", "title", hits, 3);
+
+    // Same documents in a different order
+    SearchHit[] reordered = new SearchHit[] {hits[1], hits[0], hits[2]};
+    assertNotEquals(key, KendraRescoreCache.newKey("query", "body", "title", reordered, 3));
+    // Fewer documents
+    assertNotEquals(key, KendraRescoreCache.newKey("query", "body", "title", hits, 2));
+    // Different fields
+    assertNotEquals(key, KendraRescoreCache.newKey("query", "other_body", "title", hits, 3));
+    assertNotEquals(key, KendraRescoreCache.newKey("query", "body", null, hits, 3));
+    // Updated document contents
+    assertNotEquals(key, KendraRescoreCache.newKey("query", "body", "title", buildHits(3, "updated body"), 3));
+    // Different original scores
+    SearchHit[] rescored = buildHits(3, "body");
+    rescored[2].score(0.5f);
+    assertNotEquals(key, KendraRescoreCache.newKey("query", "body", "title", rescored, 3));
+  }
+
+  public void testKeyUsesSeqNoWhenAvailable() {
+    ShardId shardId = new ShardId(new Index("index", "uuid1"), 0);
+    SearchHit[] hits = buildHits(2, "body");
+    for (SearchHit hit : hits) {
+      setVersion(hit, shardId, 7);
+    }
+    KendraRescoreCache.Key key = KendraRescoreCache.newKey("query", "body", null, hits, 2);
+
+    // Source is not hashed when the document version is known
+    SearchHit[] sameVersion = buildHits(2, "other body");
+    for (SearchHit hit : sameVersion) {
+      setVersion(hit, shardId, 7);
+    }
+    assertEquals(key, KendraRescoreCache.newKey("query", "body", null, sameVersion, 2));
+
+    SearchHit[] updated = buildHits(2, "body");
+    setVersion(updated[0], shardId, 7);
+    setVersion(updated[1], shardId, 8);
+    assertNotEquals(key, KendraRescoreCache.newKey("query", "body", null, updated, 2));
+  }
+
+  public void testKeyDependsOnShard() {
+    SearchHit[] hits = buildHits(1, "body");
+    setVersion(hits[0], new ShardId(new Index("index", "uuid1"), 0), 7);
+    KendraRescoreCache.Key key = KendraRescoreCache.newKey("query", "body", null, hits, 1);
+
+    // The same _seq_no and _primary_term in an index recreated under the same name
+    SearchHit[] recreated = buildHits(1, "other body");
+    setVersion(recreated[0], new ShardId(new Index("index", "uuid2"), 0), 7);
+    assertNotEquals(key, KendraRescoreCache.newKey("query", "body", null, recreated, 1));
+    // The same _id routed to another shard
+    SearchHit[] otherShard = buildHits(1, "other body");
+    setVersion(otherShard[0], new ShardId(new Index("index", "uuid1"), 1), 7);
+    assertNotEquals(key, KendraRescoreCache.newKey("query", "body", null, otherShard, 1));
+
+    // Without the shard, _seq_no and _primary_term are ignored
+    SearchHit[] withoutShard = buildHits(1, "updated body");
+    withoutShard[0].setSeqNo(7);
+    withoutShard[0].setPrimaryTerm(1);
+    assertNotEquals(KendraRescoreCache.newKey("query", "body", null, buildHits(1, "body"), 1),
+        KendraRescoreCache.newKey("query", "body", null, withoutShard, 1));
+  }
+
+  public void testGetAndPut() {
+    KendraRescoreCache cache = new KendraRescoreCache(Settings.EMPTY);
+    KendraRescoreCache.Key key = KendraRescoreCache.newKey("query", "body", null, buildHits(3, "body"), 3);
+    assertNull(cache.get(key));
+    RescoreResult rescoreResult = buildRescoreResult(3);
+    cache.put(key, rescoreResult);
+    assertSame(rescoreResult, cache.get(KendraRescoreCache.newKey("query", "body", null, buildHits(3, "body"), 3)));
+
+    Map<String, Object> stats = cache.stats();
+    assertEquals(true, stats.get("enabled"));
+    assertEquals(1, stats.get("count"));
+    assertEquals(1L, stats.get("hit_count"));
+    assertEquals(1L, stats.get("miss_count"));
+    assertTrue((long) stats.get("size_in_bytes") > 0);
+
+    cache.invalidateAll();
+    assertNull(cache.get(key));
+  }
+
+  public void testEvictsWhenFull() {
+    KendraRescoreCache cache = new KendraRescoreCache(new ByteSizeValue(2, ByteSizeUnit.KB), TimeValue.timeValueMinutes(1));
+    SearchHit[] hits = buildHits(3, "body");
+    for (int i = 0; i < 20; i++) {
+      cache.put(KendraRescoreCache.newKey("query " + i, "body", null, hits, 3), buildRescoreResult(3));
+    }
+    Map<String, Object> stats = cache.stats();
+    assertTrue((long) stats.get("size_in_bytes") <= 2048);
+    assertTrue((long) stats.get("evictions") > 0);
+    assertNotNull(cache.get(KendraRescoreCache.newKey("query 19", "body", null, hits, 3)));
+  }
+
+  public void testDisabled() {
+    KendraRescoreCache cache = new KendraRescoreCache(Settings.builder().put("kendra_intelligent_ranking.rescore_cache.size", "0b").build());
+    assertFalse(cache.isEnabled());
+    KendraRescoreCache.Key key = KendraRescoreCache.newKey("query", "body", null, buildHits(3, "body"), 3);
+    cache.put(key, buildRescoreResult(3));
+    assertNull(cache.get(key));
+    assertEquals(Map.of("enabled", false), cache.stats());
+  }
+
+  private static SearchHit[] buildHits(int numHits, String body) {
+    SearchHit[] hits = new SearchHit[numHits];
+    for (int i = 0; i < numHits; i++) {
+      hits[i] = new SearchHit(i, "doc" + i, Map.of(), Map.of());
+      hits[i].sourceRef(new BytesArray("{\"body\":\"" + body + " " + i + "\"}"));
+      hits[i].score(numHits - i);
+    }
+    return hits;
+  }
+
+  private static void setVersion(SearchHit hit, ShardId shardId, long seqNo) {
+    hit.shard(new SearchShardTarget("node", shardId, null, OriginalIndices.NONE));
+    hit.setSeqNo(seqNo);
+    hit.setPrimaryTerm(1);
+  }
+
+  private static RescoreResult buildRescoreResult(int numItems) {
+    String[] documentIds = new String[numItems];
+    float[] scores = new float[numItems];
+    for (int i = 0; i < numItems; i++) {
+      documentIds[i] = "doc" + i;
+      scores[i] = i;
+    }
+    return new RescoreResult(null, documentIds, scores);
+  }
+}
@@ -0,0 +1,121 @@
+/*
+ * SPDX-License-Identifier: Apache-2.0
+ *
+ * The OpenSearch Contributors require contributions made to
+ * this file be licensed under the Apache-2.0 license or a
+ * compatible open source license.
+ */
+package org.opensearch.search.relevance.transformer.kendraintelligentranking.client;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.zip.GZIPInputStream;
+
+import org.opensearch.search.relevance.transformer.kendraintelligentranking.model.dto.Document;
+import org.opensearch.search.relevance.transformer.kendraintelligentranking.model.dto.RescoreRequest;
+import org.opensearch.search.relevance.transformer.kendraintelligentranking.model.dto.RescoreResult;
+import org.opensearch.test.OpenSearchTestCase;
+
+public class RescoreCodecTests extends OpenSearchTestCase {
+
+  public void testEncodeMatchesDataBinding() throws IOException {
+    RescoreRequest rescoreRequest = new RescoreRequest("what is \"opensearch\"", List.of(
+        new Document("doc1@1", "doc1", List.of("opensearch", "search"), List.of("open", "source", "search", "é"), 1.5f),
+        new Document("doc2@1", null, null, List.of("engine"), null)));
+    RescoreCodec codec = new RescoreCodec();
+    RescoreCodec.RequestBody body = codec.encode(rescoreRequest);
+
+    ObjectMapper objectMapper = new ObjectMapper();
+    assertEquals(objectMapper.readTree(objectMapper.writeValueAsString(rescoreRequest)),
+        objectMapper.readTree(body.newInputStream()));
+    assertEquals(body.length(), body.newInputStream().readAllBytes().length);
+    body.release();
+  }
+
+  public void testDecodeSkipsUnknownFields() throws IOException {
+    String response = "{\"RescoreId\":\"rescore-1\",\"Unknown\":{\"Nested\":[1,2]},\"ResultItems\":["
+        + "{\"DocumentId\":\"doc2\",\"Score\":0.75,\"Extra\":[\"x\"]},"
+        + "{\"DocumentId\":\"doc1\",\"Score\":0.5}]}";
+    RescoreResult result = RescoreCodec.decode(new ByteArrayInputStream(response.getBytes(StandardCharsets.UTF_8)));
+
+    assertEquals("rescore-1", result.getRescoreId());
+    assertEquals(2, result.getResultItemCount());
+    assertEquals("doc2", result.getDocumentId(0));
+    assertEquals(0.75f, result.getScore(0), 0.0f);
+    assertEquals("doc1", result.getDocumentId(1));
+    assertEquals(0.5f, result.getScore(1), 0.0f);
+  }
+
+  public void testDecodeManyResultItems() throws IOException {
+    StringBuilder response = new StringBuilder("{\"ResultItems\":[");
+    int numberOfItems = 100;
+    for (int i = 0; i < numberOfItems; i++) {
+      response.append(i == 0 ? "" : ",").append("{\"DocumentId\":\"doc").append(i).append("\",\"Score\":").append(i).append("}");
+    }
+    response.append("],\"RescoreId\":\"rescore-1\"}");
+    RescoreResult result = RescoreCodec.decode(new ByteArrayInputStream(response.toString().getBytes(StandardCharsets.UTF_8)));
+
+    assertEquals("rescore-1", result.getRescoreId());
+    assertEquals(numberOfItems, result.getResultItemCount());
+    assertEquals("doc99", result.getDocumentId(99));
+    assertEquals(99f, result.getScore(99), 0.0f);
+  }
+
+  public void testDecodeWithoutResultItems() throws IOException {
+    RescoreResult result = RescoreCodec.decode(new ByteArrayInputStream("{\"RescoreId\":\"rescore-1\"}".getBytes(StandardCharsets.UTF_8)));
+    assertEquals("rescore-1", result.getRescoreId());
+    assertFalse(result.hasResultItems());
+
+    expectThrows(IOException.class, () -> RescoreCodec.decode(new ByteArrayInputStream(
+        "{\"ResultItems\":[{\"DocumentId\":\"doc1\"}]}".getBytes(StandardCharsets.UTF_8))));
+    expectThrows(IOException.class, () -> RescoreCodec.decode(new ByteArrayInputStream(
+        "[]".getBytes(StandardCharsets.UTF_8))));
+  }
+
+  public void testBuffersAreReusedOnceReleased() throws IOException {
+    RescoreCodec codec = new RescoreCodec();
+    RescoreRequest rescoreRequest = new RescoreRequest("query", List.of(
+        new Document("doc1@1", "doc1", List.of("title"), List.of("body"), 1.0f)));
+    RescoreCodec.RequestBody body = codec.encode(rescoreRequest);
+    byte[] encoded = body.newInputStream().readAllBytes();
+
+    // A hedged attempt holds the body until it completes
+    body.retain();
+    body.release();
+    assertEquals(0, codec.getPooledBufferCount());
+    body.release();
+    assertEquals(1, codec.getPooledBufferCount());
+    expectThrows(IllegalStateException.class, body::retain);
+
+    RescoreCodec.RequestBody reused = codec.encode(rescoreRequest);
+    assertEquals(0, codec.getPooledBufferCount());
+    assertTrue(Arrays.equals(encoded, reused.newInputStream().readAllBytes()));
+    reused.release();
+  }
+
+  public void testCompress() throws IOException {
+    RescoreCodec codec = new RescoreCodec();
+    RescoreRequest rescoreRequest = new RescoreRequest("query", List.of(
+        new Document("doc1@1", "doc1", List.of("title"), Collections.nCopies(1000, "body"), 1.0f)));
+    RescoreCodec.RequestBody body = codec.encode(rescoreRequest);
+    byte[] encoded = body.newInputStream().readAllBytes();
+    assertFalse(body.isCompressed());
+
+    RescoreCodec.RequestBody compressed = codec.compress(body);
+    assertTrue(compressed.isCompressed());
+    assertTrue(compressed.length() < encoded.length);
+    // The uncompressed body is released once compressed
+    assertEquals(1, codec.getPooledBufferCount());
+    try (GZIPInputStream gzip = new GZIPInputStream(compressed.newInputStream())) {
+      assertTrue(Arrays.equals(encoded, gzip.readAllBytes()));
+    }
+    compressed.release();
+    assertEquals(2, codec.getPooledBufferCount());
+  }
+}
@@ -0,0 +1,139 @@
+/*
+ * SPDX-License-Identifier: Apache-2.0
+ *
+ * The OpenSearch Contributors require contributions made to
+ * this file be licensed under the Apache-2.0 license or a
+ * compatible open source license.
+ */
+package org.opensearch.search.relevance.transformer.kendraintelligentranking.client;
+
+import org.opensearch.action.ActionListener;
+import org.opensearch.common.unit.TimeValue;
+import org.opensearch.test.OpenSearchTestCase;
+import org.opensearch.threadpool.TestThreadPool;
+import org.opensearch.threadpool.ThreadPool;
+
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicReference;
+
+public class RescoreHedgerTests extends OpenSearchTestCase {
+
+    private ThreadPool threadPool;
+
+    @Override
+    public void setUp() throws Exception {
+        super.setUp();
+        threadPool = new TestThreadPool(getTestName());
+    }
+
+    @Override
+    public void tearDown() throws Exception {
+        ThreadPool.terminate(threadPool, 10, TimeUnit.SECONDS);
+        super.tearDown();
+    }
+
+    public void testDoesNotHedgeBeforeEnoughLatencies() throws Exception {
+        RescoreHedger hedger = new RescoreHedger(threadPool, 95, TimeValue.timeValueMillis(1), 100);
+        List<ActionListener<String>> attempts = new CopyOnWriteArrayList<>();
+        hedger.<String>execute(attempts::add, ActionListener.wrap(r -> {}, e -> fail(e.getMessage())));
+        Thread.sleep(50);
+        assertEquals(1, attempts.size());
+        assertNull(hedger.getHedgeDelay());
+    }
+
+    public void testHedgeDelayFollowsLatencyPercentile() {
+        RescoreHedger hedger = new RescoreHedger(threadPool, 90, TimeValue.timeValueMillis(1), 5);
+        for (int i = 1; i <= RescoreHedger.MIN_SAMPLES; i++) {
+            hedger.recordLatency(TimeUnit.MILLISECONDS.toNanos(i * 10));
+        }
+        assertEquals(TimeValue.timeValueMillis(180), hedger.getHedgeDelay());
+
+        // The minimum delay applies however fast calls are
+        hedger = new RescoreHedger(threadPool, 90, TimeValue.timeValueMillis(500), 5);
+        for (int i = 1; i <= RescoreHedger.MIN_SAMPLES; i++) {
+            hedger.recordLatency(TimeUnit.MILLISECONDS.toNanos(i * 10));
+        }
+        assertEquals(TimeValue.timeValueMillis(500), hedger.getHedgeDelay());
+    }
+
+    public void testSlowCallIsHedgedAndFirstResultWins() throws Exception {
+        RescoreHedger hedger = warmedUpHedger(100);
+        List<ActionListener<String>> attempts = new CopyOnWriteArrayList<>();
+        AtomicReference<String> result = new AtomicReference<>();
+        hedger.<String>execute(attempts::add, ActionListener.wrap(result::set, e -> fail(e.getMessage())));
+        assertBusy(() -> assertEquals(2, attempts.size()));
+
+        attempts.get(1).onResponse("hedge");
+        attempts.get(0).onResponse("original");
+        assertEquals("hedge", result.get());
+        Map<String, Object> stats = hedger.stats();
+        assertEquals(1L, stats.get("hedge_count"));
+        assertEquals(1L, stats.get("hedge_win_count"));
+    }
+
+    public void testFailureWaitsForOtherAttempt() throws Exception {
+        RescoreHedger hedger = warmedUpHedger(100);
+        List<ActionListener<String>> attempts = new CopyOnWriteArrayList<>();
+        AtomicReference<String> result = new AtomicReference<>();
+        hedger.<String>execute(attempts::add, ActionListener.wrap(result::set, e -> fail(e.getMessage())));
+        assertBusy(() -> assertEquals(2, attempts.size()));
+
+        attempts.get(0).onFailure(new IllegalStateException("throttled"));
+        assertNull(result.get());
+        attempts.get(1).onResponse("hedge");
+        assertEquals("hedge", result.get());
+    }
+
+    public void testFailsOnceEveryAttemptFailed() throws Exception {
+        RescoreHedger hedger = warmedUpHedger(100);
+        List<ActionListener<String>> attempts = new CopyOnWriteArrayList<>();
+        AtomicInteger failures = new AtomicInteger();
+        hedger.<String>execute(attempts::add, ActionListener.wrap(r -> fail("expected failure"), e -> failures.incrementAndGet()));
+        assertBusy(() -> assertEquals(2, attempts.size()));
+
+        attempts.get(1).onFailure(new IllegalStateException("throttled"));
+        assertEquals(0, failures.get());
+        attempts.get(0).onFailure(new IllegalStateException("throttled"));
+        assertEquals(1, failures.get());
+    }
+
+    public void testHedgesAreCappedByBudget() throws Exception {
+        // 5% budget: twenty calls earn a single hedge
+        RescoreHedger hedger = warmedUpHedger(5);
+        List<ActionListener<String>> attempts = new CopyOnWriteArrayList<>();
+        hedger.<String>execute(attempts::add, ActionListener.wrap(r -> {}, e -> fail(e.getMessage())));
+        assertBusy(() -> assertEquals(2, attempts.size()));
+        hedger.<String>execute(attempts::add, ActionListener.wrap(r -> {}, e -> fail(e.getMessage())));
+        assertBusy(() -> assertEquals(1L, hedger.stats().get("budget_exhausted_count")));
+        assertEquals(3, attempts.size());
+        assertEquals(1L, hedger.stats().get("hedge_count"));
+    }
+
+    public void testDisabledNeverHedges() {
+        RescoreHedger hedger = RescoreHedger.disabled();
+        assertFalse(hedger.isEnabled());
+        AtomicInteger attempts = new AtomicInteger();
+        hedger.<String>execute(l -> {
+            attempts.incrementAndGet();
+            l.onResponse("result");
+        }, ActionListener.wrap(r -> assertEquals("result", r), e -> fail(e.getMessage())));
+        assertEquals(1, attempts.get());
+        assertEquals(Map.of("enabled", false), hedger.stats());
+    }
+
+    /**
+     * @return a hedger whose calls, which completed instantly so far, are hedged after a millisecond
+     */
+    private RescoreHedger warmedUpHedger(int budgetPercent) {
+        RescoreHedger hedger = new RescoreHedger(threadPool, 95, TimeValue.timeValueMillis(1), budgetPercent);
+        for (int i = 0; i < RescoreHedger.MIN_SAMPLES; i++) {
+            hedger.<String>execute(l -> l.onResponse("result"), ActionListener.wrap(r -> {}, e -> fail(e.getMessage())));
+        }
+        assertEquals(TimeValue.timeValueMillis(1), hedger.getHedgeDelay());
+        return hedger;
+    }
+}
@@ -0,0 +1,69 @@
+/*
+ * SPDX-License-Identifier: Apache-2.0
+ *
+ * The OpenSearch Contributors require contributions made to
+ * this file be licensed under the Apache-2.0 license or a
+ * compatible open source license.
+ */
+
+package org.opensearch.search.relevance.transformer.kendraintelligentranking.pipeline;
+
+import org.opensearch.OpenSearchParseException;
+import org.opensearch.ingest.IngestDocument;
+import org.opensearch.ingest.RandomDocumentPicks;
+import org.opensearch.search.relevance.transformer.kendraintelligentranking.preprocess.PassageGenerator;
+import org.opensearch.search.relevance.transformer.kendraintelligentranking.preprocess.PrecomputedPassages;
+import org.opensearch.test.OpenSearchTestCase;
+
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+public class KendraPassageProcessorTests extends OpenSearchTestCase {
+
+    private static final String BODY = "This is the first sentence of the document body. Passages are generated from sentences like this one. "
+            + "Tokenizing documents when they are indexed keeps that work off the search path.";
+
+    public void testFactory() throws Exception {
+        KendraPassageProcessor.Factory factory = new KendraPassageProcessor.Factory();
+        Map<String, Object> config = new HashMap<>();
+        config.put("field", "body");
+        config.put("ignore_missing", true);
+        KendraPassageProcessor processor = factory.create(Collections.emptyMap(), "tag", "description", config);
+        assertEquals(KendraPassageProcessor.TYPE, processor.getType());
+        assertEquals("tag", processor.getTag());
+        assertEquals("body", processor.getField());
+        assertTrue(processor.isIgnoreMissing());
+
+        expectThrows(OpenSearchParseException.class, () -> factory.create(Collections.emptyMap(), "tag", null, new HashMap<>()));
+    }
+
+    public void testExecute() throws Exception {
+        IngestDocument ingestDocument = RandomDocumentPicks.randomIngestDocument(random(), new HashMap<>(Map.of("body", BODY)));
+        new KendraPassageProcessor("tag", null, "body", false).execute(ingestDocument);
+
+        List<List<String>> expectedPassages = new PassageGenerator().generatePassages(BODY);
+        assertFalse(expectedPassages.isEmpty());
+        assertEquals(PrecomputedPassages.encode(expectedPassages),
+                ingestDocument.getFieldValue(PrecomputedPassages.fieldName("body"), List.class));
+        // Passages read back from the source match the passages generated at search time
+        assertEquals(expectedPassages, PrecomputedPassages.read(ingestDocument.getSourceAndMetadata(), "body"));
+    }
+
+    public void testExecuteNestedField() throws Exception {
+        IngestDocument ingestDocument = RandomDocumentPicks.randomIngestDocument(random(),
+                new HashMap<>(Map.of("content", new HashMap<>(Map.of("text", BODY)))));
+        new KendraPassageProcessor("tag", null, "content.text", false).execute(ingestDocument);
+        assertEquals(new PassageGenerator().generatePassages(BODY),
+                PrecomputedPassages.read(ingestDocument.getSourceAndMetadata(), "content.text"));
+    }
+
+    public void testMissingField() throws Exception {
+        IngestDocument ingestDocument = RandomDocumentPicks.randomIngestDocument(random(), new HashMap<>(Map.of("title", "title")));
+        expectThrows(IllegalArgumentException.class, () -> new KendraPassageProcessor("tag", null, "body", false).execute(ingestDocument));
+
+        new KendraPassageProcessor("tag", null, "body", true).execute(ingestDocument);
+        assertFalse(ingestDocument.hasField(PrecomputedPassages.FIELD_PREFIX));
+    }
+}
@@ -8,6 +8,7 @@
 package org.opensearch.search.relevance.transformer.kendraintelligentranking.pipeline;
 
 import org.apache.lucene.search.TotalHits;
+import org.mockito.Mockito;
 import org.opensearch.OpenSearchParseException;
 import org.opensearch.action.search.SearchRequest;
 import org.opensearch.action.search.SearchResponse;
@@ -15,6 +16,9 @@ import org.opensearch.action.search.SearchResponseSections;
 import org.opensearch.core.common.bytes.BytesArray;
 import org.opensearch.common.document.DocumentField;
 import org.opensearch.common.settings.Settings;
+import org.opensearch.common.unit.TimeValue;
+import org.opensearch.common.util.concurrent.AbstractRunnable;
+import org.opensearch.common.util.concurrent.ThreadContext;
 import org.opensearch.env.Environment;
 import org.opensearch.env.TestEnvironment;
 import org.opensearch.index.query.MatchQueryBuilder;
@@ -22,11 +26,32 @@ import org.opensearch.index.query.QueryBuilder;
 import org.opensearch.search.SearchHit;
 import org.opensearch.search.SearchHits;
 import org.opensearch.search.builder.SearchSourceBuilder;
+import org.opensearch.search.pipeline.SearchResponseProcessor;
+import org.opensearch.search.relevance.SearchRelevancePlugin;
+import org.opensearch.search.relevance.transformer.RemoteClientRegistry;
+import org.opensearch.search.relevance.transformer.RerankDeadlineTracker;
+import org.opensearch.search.relevance.transformer.SingleFlight;
+import org.opensearch.search.relevance.transformer.kendraintelligentranking.KendraRankerComponents;
+import org.opensearch.search.relevance.transformer.kendraintelligentranking.client.KendraClientComponents;
 import org.opensearch.search.relevance.transformer.kendraintelligentranking.client.KendraClientSettings;
 import org.opensearch.search.relevance.transformer.kendraintelligentranking.client.KendraHttpClient;
 import org.opensearch.search.relevance.transformer.kendraintelligentranking.client.KendraIntelligentClientTests;
+import org.opensearch.search.relevance.transformer.kendraintelligentranking.client.KendraRescoreCache;
+import org.opensearch.search.relevance.transformer.kendraintelligentranking.model.dto.RescoreRequest;
+import org.opensearch.search.relevance.transformer.kendraintelligentranking.model.dto.RescoreResult;
+import org.opensearch.search.relevance.transformer.kendraintelligentranking.preprocess.ParallelPreprocessor;
+import org.opensearch.search.relevance.transformer.kendraintelligentranking.preprocess.PassageCache;
+import org.opensearch.threadpool.ExecutorBuilder;
+import org.opensearch.threadpool.TestThreadPool;
+import org.opensearch.threadpool.ThreadPool;
 
 import java.util.*;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicReference;
+
+import static org.opensearch.search.relevance.configuration.Constants.RERANK_THREAD_POOL_NAME;
 
 
 public class KendraRankingResponseProcessorTests extends KendraIntelligentClientTests {
@@ -35,6 +60,20 @@ public class KendraRankingResponseProcessorTests extends KendraIntelligentClient
     private Environment env = TestEnvironment.newEnvironment(settings);
 
     private KendraClientSettings clientSettings = KendraClientSettings.getClientSettings(env.settings());
+    private ThreadPool threadPool;
+
+    @Override
+    public void setUp() throws Exception {
+        super.setUp();
+        threadPool = new TestThreadPool(getTestName(),
+                new SearchRelevancePlugin().getExecutorBuilders(Settings.EMPTY).toArray(new ExecutorBuilder<?>[0]));
+    }
+
+    @Override
+    public void tearDown() throws Exception {
+        ThreadPool.terminate(threadPool, 10, TimeUnit.SECONDS);
+        super.tearDown();
+    }
 
     private SearchRequest createRequest() {
         QueryBuilder query = new MatchQueryBuilder("body", "value");
@@ -59,7 +98,8 @@ public class KendraRankingResponseProcessorTests extends KendraIntelligentClient
 
     public void testFactory() throws Exception {
 
-        KendraRankingResponseProcessor.Factory factory = new KendraRankingResponseProcessor.Factory( this.clientSettings);
+        KendraRankingResponseProcessor.Factory factory = new KendraRankingResponseProcessor.Factory(this.clientSettings,
+                new RemoteClientRegistry<>("kendra", key -> new KendraHttpClient(this.clientSettings, KendraClientComponents.defaults())), KendraRankerComponents.disabled(threadPool));
 
         //test create without title field, expect exceptions
         expectThrows(OpenSearchParseException.class, () -> factory.create(
@@ -118,20 +158,107 @@ public class KendraRankingResponseProcessorTests extends KendraIntelligentClient
         bodyField.add("body");
 
         //test response with titleField, bodyField and docLimit
-        KendraRankingResponseProcessor processorWtOptionalConfig = new KendraRankingResponseProcessor(null,null,false, titleField,bodyField,500,kendraClient);
+        KendraRankingResponseProcessor processorWtOptionalConfig = new KendraRankingResponseProcessor(null,null,false, titleField,bodyField,500,null, kendraClient, KendraRankerComponents.disabled(threadPool));
         int size = 5;
         SearchResponse reRankedResponse0 = processorWtOptionalConfig.processResponse(createRequest(),createResponse(size));
         assertEquals(size,reRankedResponse0.getHits().getHits().length);
 
         //test response with null doc limit
-        KendraRankingResponseProcessor processorWtTwoConfig = new KendraRankingResponseProcessor(null,null,false, titleField,bodyField,null,kendraClient);
+        KendraRankingResponseProcessor processorWtTwoConfig = new KendraRankingResponseProcessor(null,null,false, titleField,bodyField,null,null, kendraClient, KendraRankerComponents.disabled(threadPool));
         SearchResponse reRankedResponse1 = processorWtTwoConfig.processResponse(createRequest(),createResponse(size));
         assertEquals(size,reRankedResponse1.getHits().getHits().length);
 
         //test response with null doc limit and null title field
-        KendraRankingResponseProcessor processorWtOneConfig = new KendraRankingResponseProcessor(null,null,false,null,bodyField,null,kendraClient);
+        KendraRankingResponseProcessor processorWtOneConfig = new KendraRankingResponseProcessor(null,null,false,null,bodyField,null,null, kendraClient, KendraRankerComponents.disabled(threadPool));
         SearchResponse reRankedResponse2 = processorWtOneConfig.processResponse(createRequest(),createResponse(size));
         assertEquals(size,reRankedResponse2.getHits().getHits().length);
 
     }
+
+    public void testRankingResponseRerankOnRerankPool() throws Exception {
+        AtomicReference<String> rescoreThreadName = new AtomicReference<>();
+        KendraHttpClient kendraClient = buildMockHttpClient(r -> {
+            rescoreThreadName.set(Thread.currentThread().getName());
+            return new RescoreResult();
+        });
+        List<String> bodyField = Collections.singletonList("body");
+        // Search pipelines only call the processor through the interface
+        SearchResponseProcessor processor = new KendraRankingResponseProcessor(null, null, false, null, bodyField, null, null, kendraClient, KendraRankerComponents.disabled(threadPool));
+        int size = 5;
+        SearchResponse originalResponse = createResponse(size);
+        SearchResponse reRankedResponse = processor.processResponse(createRequest(), originalResponse);
+        assertNotSame(originalResponse, reRankedResponse);
+        assertEquals(size, reRankedResponse.getHits().getHits().length);
+        assertTrue(rescoreThreadName.get(), rescoreThreadName.get().contains("[" + RERANK_THREAD_POOL_NAME + "]"));
+    }
+
+    public void testRankingResponseReturnsOriginalResponseOnRejection() throws Exception {
+        KendraHttpClient kendraClient = buildMockHttpClient();
+        List<String> bodyField = Collections.singletonList("body");
+        KendraRankingResponseProcessor processor = new KendraRankingResponseProcessor(null, null, false, null, bodyField, null,
+                null, kendraClient, KendraRankerComponents.disabled(buildRejectingThreadPool()));
+        SearchResponse originalResponse = createResponse(5);
+        assertSame(originalResponse, processor.processResponse(createRequest(), originalResponse));
+        Mockito.verify(kendraClient, Mockito.never()).rescoreAsync(Mockito.any(), Mockito.any());
+    }
+
+    public void testFactoryRerankTimeout() throws Exception {
+        KendraRankingResponseProcessor.Factory factory = new KendraRankingResponseProcessor.Factory(this.clientSettings,
+                new RemoteClientRegistry<>("kendra", key -> buildMockHttpClient()), KendraRankerComponents.disabled(threadPool));
+
+        Map<String, Object> configuration = new HashMap<>();
+        configuration.put("body_field", "body");
+        assertNull(factory.create(Collections.emptyMap(), "tag", null, false, new HashMap<>(configuration), null).getRerankTimeout());
+
+        configuration.put("rerank_timeout", "100ms");
+        assertEquals(TimeValue.timeValueMillis(100),
+                factory.create(Collections.emptyMap(), "tag", null, false, new HashMap<>(configuration), null).getRerankTimeout());
+
+        // -1 disables the timeout, other negative values are invalid
+        configuration.put("rerank_timeout", "-1");
+        assertEquals(TimeValue.MINUS_ONE,
+                factory.create(Collections.emptyMap(), "tag", null, false, new HashMap<>(configuration), null).getRerankTimeout());
+        configuration.put("rerank_timeout", "-5s");
+        expectThrows(OpenSearchParseException.class,
+                () -> factory.create(Collections.emptyMap(), "tag", null, false, new HashMap<>(configuration), null));
+
+        configuration.put("rerank_timeout", "abc");
+        OpenSearchParseException e = expectThrows(OpenSearchParseException.class,
+                () -> factory.create(Collections.emptyMap(), "tag", null, false, new HashMap<>(configuration), null));
+        assertTrue(e.getMessage(), e.getMessage().contains("rerank_timeout"));
+    }
+
+    public void testRankingResponseReturnsOriginalResponseWhenDeadlineIsMissed() throws Exception {
+        KendraHttpClient kendraClient = buildMockHttpClient();
+        // Never responds, like a Kendra Intelligent Ranking service that hangs
+        Mockito.doNothing().when(kendraClient).rescoreAsync(Mockito.any(RescoreRequest.class), Mockito.any());
+        RerankDeadlineTracker rerankDeadlineTracker = new RerankDeadlineTracker();
+        KendraRankingResponseProcessor.Factory factory = new KendraRankingResponseProcessor.Factory(this.clientSettings,
+                new RemoteClientRegistry<>("kendra", key -> kendraClient), new KendraRankerComponents(KendraRescoreCache.disabled(),
+                PassageCache.disabled(), ParallelPreprocessor.sequential(), SingleFlight.disabled(), rerankDeadlineTracker, threadPool));
+        Map<String, Object> configuration = new HashMap<>();
+        configuration.put("body_field", "body");
+        configuration.put("rerank_timeout", "50ms");
+        SearchResponseProcessor processor = factory.create(Collections.emptyMap(), "tag", null, false, configuration, null);
+
+        SearchResponse originalResponse = createResponse(5);
+        ThreadContext threadContext = threadPool.getThreadContext();
+        try (ThreadContext.StoredContext ignored = threadContext.stashContext()) {
+            assertSame(originalResponse, processor.processResponse(createRequest(), originalResponse));
+            assertEquals(List.of(TYPE), threadContext.getResponseHeaders().get(RerankDeadlineTracker.RESPONSE_HEADER));
+        }
+        assertEquals(Map.of(TYPE, 1L), rerankDeadlineTracker.stats());
+    }
+
+    private static ThreadPool buildRejectingThreadPool() {
+        ExecutorService rejectingExecutor = Mockito.mock(ExecutorService.class);
+        Mockito.doAnswer(invocation -> {
+            AbstractRunnable runnable = invocation.getArgument(0);
+            runnable.onRejection(new RejectedExecutionException("rejected"));
+            return null;
+        }).when(rejectingExecutor).execute(Mockito.any(Runnable.class));
+        ThreadPool rejectingThreadPool = Mockito.mock(ThreadPool.class);
+        Mockito.when(rejectingThreadPool.executor(RERANK_THREAD_POOL_NAME)).thenReturn(rejectingExecutor);
+        return rejectingThreadPool;
+    }
 }
@@ -0,0 +1,107 @@
+/*
+ * SPDX-License-Identifier: Apache-2.0
+ *
+ * The OpenSearch Contributors require contributions made to
+ * this file be licensed under the Apache-2.0 license or a
+ * compatible open source license.
+ */
+package org.opensearch.search.relevance.transformer.kendraintelligentranking.preprocess;
+
+import static org.opensearch.search.relevance.configuration.Constants.PREPROCESS_THREAD_POOL_NAME;
+
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.opensearch.common.settings.Settings;
+import org.opensearch.search.relevance.SearchRelevancePlugin;
+import org.opensearch.test.OpenSearchTestCase;
+import org.opensearch.threadpool.ExecutorBuilder;
+import org.opensearch.threadpool.TestThreadPool;
+import org.opensearch.threadpool.ThreadPool;
+
+public class ParallelPreprocessorTests extends OpenSearchTestCase {
+  private ThreadPool threadPool;
+
+  @Override
+  public void setUp() throws Exception {
+    super.setUp();
+    threadPool = new TestThreadPool(getTestName(),
+        new SearchRelevancePlugin().getExecutorBuilders(Settings.EMPTY).toArray(new ExecutorBuilder<?>[0]));
+  }
+
+  @Override
+  public void tearDown() throws Exception {
+    ThreadPool.terminate(threadPool, 10, TimeUnit.SECONDS);
+    super.tearDown();
+  }
+
+  public void testResultsKeepTaskOrder() {
+    ParallelPreprocessor parallelPreprocessor = new ParallelPreprocessor(threadPool.executor(PREPROCESS_THREAD_POOL_NAME), 4, 2);
+    int count = randomIntBetween(2, 200);
+    List<String> results = parallelPreprocessor.process(count, i -> {
+      if (randomBoolean()) {
+        Thread.yield();
+      }
+      return "hit" + i;
+    });
+    assertEquals(count, results.size());
+    for (int i = 0; i < count; ++i) {
+      assertEquals("hit" + i, results.get(i));
+    }
+  }
+
+  public void testStaysOnCallingThreadBelowThreshold() {
+    ParallelPreprocessor parallelPreprocessor = new ParallelPreprocessor(threadPool.executor(PREPROCESS_THREAD_POOL_NAME), 4, 10);
+    Thread caller = Thread.currentThread();
+    List<Boolean> onCaller = parallelPreprocessor.process(9, i -> Thread.currentThread() == caller);
+    assertFalse(onCaller.contains(false));
+
+    onCaller = ParallelPreprocessor.sequential().process(100, i -> Thread.currentThread() == caller);
+    assertFalse(onCaller.contains(false));
+  }
+
+  public void testSpreadsWorkOverExecutor() throws Exception {
+    ParallelPreprocessor parallelPreprocessor = new ParallelPreprocessor(threadPool.executor(PREPROCESS_THREAD_POOL_NAME), 2, 2);
+    Set<Thread> threads = ConcurrentHashMap.newKeySet();
+    assertBusy(() -> {
+      parallelPreprocessor.process(100, i -> {
+        threads.add(Thread.currentThread());
+        try {
+          Thread.sleep(1);
+        } catch (InterruptedException e) {
+          Thread.currentThread().interrupt();
+        }
+        return i;
+      });
+      assertEquals(2, threads.size());
+    });
+  }
+
+  public void testCallerDoesAllWorkWhenExecutorRejects() {
+    AtomicInteger rejections = new AtomicInteger();
+    ParallelPreprocessor parallelPreprocessor = new ParallelPreprocessor(command -> {
+      rejections.incrementAndGet();
+      throw new RejectedExecutionException("rejected");
+    }, 8, 2);
+    List<Integer> results = parallelPreprocessor.process(50, i -> i * 2);
+    for (int i = 0; i < 50; ++i) {
+      assertEquals(Integer.valueOf(i * 2), results.get(i));
+    }
+    assertEquals(1, rejections.get());
+  }
+
+  public void testTaskFailureIsRethrown() {
+    ParallelPreprocessor parallelPreprocessor = new ParallelPreprocessor(threadPool.executor(PREPROCESS_THREAD_POOL_NAME), 4, 2);
+    IllegalArgumentException e = expectThrows(IllegalArgumentException.class, () -> parallelPreprocessor.process(50, i -> {
+      if (i == 17) {
+        throw new IllegalArgumentException("bad hit");
+      }
+      return i;
+    }));
+    assertEquals("bad hit", e.getMessage());
+  }
+}
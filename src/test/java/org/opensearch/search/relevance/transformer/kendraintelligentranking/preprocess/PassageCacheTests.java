@@ -0,0 +1,132 @@
+/*
+ * SPDX-License-Identifier: Apache-2.0
+ *
+ * The OpenSearch Contributors require contributions made to
+ * this file be licensed under the Apache-2.0 license or a
+ * compatible open source license.
+ */
+package org.opensearch.search.relevance.transformer.kendraintelligentranking.preprocess;
+
+import org.opensearch.action.OriginalIndices;
+import org.opensearch.common.settings.Settings;
+import org.opensearch.core.common.bytes.BytesArray;
+import org.opensearch.core.common.unit.ByteSizeUnit;
+import org.opensearch.core.common.unit.ByteSizeValue;
+import org.opensearch.core.index.Index;
+import org.opensearch.core.index.shard.ShardId;
+import org.opensearch.search.SearchHit;
+import org.opensearch.search.SearchShardTarget;
+import org.opensearch.test.OpenSearchTestCase;
+
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Supplier;
+
+public class PassageCacheTests extends OpenSearchTestCase {
+
+  public void testKeyUsesSeqNoWhenAvailable() {
+    ShardId shardId = new ShardId(new Index("index", "uuid1"), 0);
+    SearchHit hit = buildHit("doc1", "body", shardId, 7);
+    // Source is not hashed when the document version is known
+    SearchHit sameVersion = buildHit("doc1", "other body", shardId, 7);
+    assertEquals(PassageCache.buildKey(hit, "body"), PassageCache.buildKey(sameVersion, "body"));
+
+    SearchHit updated = buildHit("doc1", "body", shardId, 8);
+    assertNotEquals(PassageCache.buildKey(hit, "body"), PassageCache.buildKey(updated, "body"));
+    assertNotEquals(PassageCache.buildKey(hit, "body"), PassageCache.buildKey(hit, "title"));
+  }
+
+  public void testKeyDependsOnShard() {
+    SearchHit hit = buildHit("doc1", "body", new ShardId(new Index("index", "uuid1"), 0), 7);
+    // The same _seq_no and _primary_term in an index recreated under the same name
+    SearchHit recreated = buildHit("doc1", "other body", new ShardId(new Index("index", "uuid2"), 0), 7);
+    assertNotEquals(PassageCache.buildKey(hit, "body"), PassageCache.buildKey(recreated, "body"));
+    // The same _id routed to another shard
+    SearchHit otherShard = buildHit("doc1", "other body", new ShardId(new Index("index", "uuid1"), 1), 7);
+    assertNotEquals(PassageCache.buildKey(hit, "body"), PassageCache.buildKey(otherShard, "body"));
+
+    // Without the shard, _seq_no and _primary_term are ignored
+    SearchHit withoutShard = buildHit("doc1", "body");
+    withoutShard.setSeqNo(7);
+    withoutShard.setPrimaryTerm(1);
+    SearchHit updatedWithoutShard = buildHit("doc1", "updated body");
+    updatedWithoutShard.setSeqNo(7);
+    updatedWithoutShard.setPrimaryTerm(1);
+    assertEquals(PassageCache.buildKey(buildHit("doc1", "body"), "body"), PassageCache.buildKey(withoutShard, "body"));
+    assertNotEquals(PassageCache.buildKey(withoutShard, "body"), PassageCache.buildKey(updatedWithoutShard, "body"));
+  }
+
+  public void testKeyFallsBackToSourceHash() {
+    assertEquals(PassageCache.buildKey(buildHit("doc1", "body"), "body"), PassageCache.buildKey(buildHit("doc1", "body"), "body"));
+    assertNotEquals(PassageCache.buildKey(buildHit("doc1", "body"), "body"), PassageCache.buildKey(buildHit("doc2", "body"), "body"));
+    assertNotEquals(PassageCache.buildKey(buildHit("doc1", "body"), "body"),
+        PassageCache.buildKey(buildHit("doc1", "updated body"), "body"));
+    assertNull(PassageCache.buildKey(new SearchHit(1, "doc1", Map.of(), Map.of()), "body"));
+  }
+
+  public void testGetOrGenerate() {
+    PassageCache cache = new PassageCache(Settings.EMPTY);
+    AtomicInteger generateCount = new AtomicInteger();
+    Supplier<List<List<String>>> passageSupplier = () -> {
+      generateCount.incrementAndGet();
+      return List.of(List.of("body", "text"));
+    };
+
+    List<List<String>> passages = cache.getOrGenerate(buildHit("doc1", "body"), "body", passageSupplier);
+    assertSame(passages, cache.getOrGenerate(buildHit("doc1", "body"), "body", passageSupplier));
+    assertEquals(1, generateCount.get());
+    cache.getOrGenerate(buildHit("doc1", "updated body"), "body", passageSupplier);
+    assertEquals(2, generateCount.get());
+
+    Map<String, Object> stats = cache.stats();
+    assertEquals(true, stats.get("enabled"));
+    assertEquals(2, stats.get("count"));
+    assertEquals(1L, stats.get("hit_count"));
+    assertEquals(2L, stats.get("miss_count"));
+    assertTrue((long) stats.get("size_in_bytes") > 0);
+
+    cache.invalidateAll();
+    cache.getOrGenerate(buildHit("doc1", "body"), "body", passageSupplier);
+    assertEquals(3, generateCount.get());
+  }
+
+  public void testEvictsLeastRecentlyUsedWhenFull() {
+    PassageCache cache = new PassageCache(new ByteSizeValue(2, ByteSizeUnit.KB));
+    List<List<String>> passages = List.of(List.of("some", "body", "text"));
+    for (int i = 0; i < 20; i++) {
+      cache.getOrGenerate(buildHit("doc" + i, "body"), "body", () -> passages);
+    }
+    Map<String, Object> stats = cache.stats();
+    assertTrue((long) stats.get("size_in_bytes") <= 2048);
+    assertTrue((long) stats.get("evictions") > 0);
+  }
+
+  public void testDisabled() {
+    PassageCache cache = new PassageCache(Settings.builder().put("kendra_intelligent_ranking.passage_cache.size", "0b").build());
+    assertFalse(cache.isEnabled());
+    AtomicInteger generateCount = new AtomicInteger();
+    for (int i = 0; i < 2; i++) {
+      cache.getOrGenerate(buildHit("doc1", "body"), "body", () -> {
+        generateCount.incrementAndGet();
+        return List.of();
+      });
+    }
+    assertEquals(2, generateCount.get());
+    assertEquals(Map.of("enabled", false), cache.stats());
+  }
+
+  private static SearchHit buildHit(String id, String body) {
+    SearchHit hit = new SearchHit(1, id, Map.of(), Map.of());
+    hit.sourceRef(new BytesArray("{\"body\":\"" + body + "\"}"));
+    return hit;
+  }
+
+  private static SearchHit buildHit(String id, String body, ShardId shardId, long seqNo) {
+    SearchHit hit = buildHit(id, body);
+    hit.shard(new SearchShardTarget("node", shardId, null, OriginalIndices.NONE));
+    hit.setSeqNo(seqNo);
+    hit.setPrimaryTerm(1);
+    return hit;
+  }
+}
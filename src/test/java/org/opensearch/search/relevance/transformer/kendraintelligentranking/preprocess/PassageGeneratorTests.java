@@ -195,6 +195,43 @@ public class PassageGeneratorTests extends OpenSearchTestCase {
     List<List<String>> actual = passageGenerator.generateTokenizedSentences(document, MAX_SENTENCE_LENGTH_IN_TOKENS);
     assertEquals(expected, actual);
   }
-  
 
+  public void testGenerateTokenizedSentencesStopsAtMaxTokenCount() {
+    final String document = String.join(" ", PASSAGE_1_SENTENCE_1, PASSAGE_1_SENTENCE_2,
+        PASSAGE_1_LONG_SENTENCE, PASSAGE_2_SENTENCE_1, PASSAGE_2_SENTENCE_2, PASSAGE_2_LONG_SENTENCE);
+    List<List<String>> allSentences = passageGenerator.generateTokenizedSentences(document, MAX_SENTENCE_LENGTH_IN_TOKENS);
+
+    // Splitting stops after the sentence that reaches the token limit, including all parts of a long sentence
+    assertEquals(allSentences.subList(0, 2), passageGenerator.generateTokenizedSentences(document, MAX_SENTENCE_LENGTH_IN_TOKENS, 5));
+    assertEquals(allSentences.subList(0, 4), passageGenerator.generateTokenizedSentences(document, MAX_SENTENCE_LENGTH_IN_TOKENS, 9));
+    assertEquals(allSentences, passageGenerator.generateTokenizedSentences(document, MAX_SENTENCE_LENGTH_IN_TOKENS, 1000));
+  }
+
+  public void testGeneratePassagesMatchesFullDocument() {
+    final String[] words = {"search", "ranking", "passage", "document", "the", "of", "OpenSearch", "3.14", "e-mail", "naïve", "U.S."};
+    for (int i = 0; i < 50; ++i) {
+      StringBuilder document = new StringBuilder();
+      int wordCount = randomIntBetween(0, 3000);
+      for (int j = 0; j < wordCount; ++j) {
+        document.append(randomFrom(words)).append(randomIntBetween(0, 15) == 0 ? ". " : " ");
+      }
+      final int maxSentenceLengthInTokens = randomIntBetween(2, 40);
+      final int minPassageLengthInTokens = randomIntBetween(1, 120);
+      final int maxPassageCount = randomIntBetween(1, 12);
+
+      // Passages built from every sentence of the document, without stopping early
+      List<List<String>> allSentences = passageGenerator.generateTokenizedSentences(document.toString(), maxSentenceLengthInTokens);
+      // Tokenizing sentences in place matches tokenizing copies of them
+      List<String> tokensFromCopies = new ArrayList<>();
+      for (String sentence : new SentenceSplitter().split(document.toString())) {
+        tokensFromCopies.addAll(new TextTokenizer().tokenize(sentence));
+      }
+      assertEquals(tokensFromCopies, allSentences.stream().flatMap(List::stream).collect(Collectors.toList()));
+      List<List<String>> expected = passageGenerator.generatePassagesWithOverlap(passageGenerator.combineSentencesIntoPassages(
+          allSentences, minPassageLengthInTokens, maxPassageCount / 2 + 1));
+
+      assertEquals(expected, passageGenerator.generatePassages(
+          document.toString(), maxSentenceLengthInTokens, minPassageLengthInTokens, maxPassageCount));
+    }
+  }
 }
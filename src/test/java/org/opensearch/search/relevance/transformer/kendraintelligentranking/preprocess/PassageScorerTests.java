@@ -0,0 +1,61 @@
+/*
+ * SPDX-License-Identifier: Apache-2.0
+ *
+ * The OpenSearch Contributors require contributions made to
+ * this file be licensed under the Apache-2.0 license or a
+ * compatible open source license.
+ */
+package org.opensearch.search.relevance.transformer.kendraintelligentranking.preprocess;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+import org.opensearch.test.OpenSearchTestCase;
+
+public class PassageScorerTests extends OpenSearchTestCase {
+
+  public void testPassageScorer() {
+    TextTokenizer textTokenizer = new TextTokenizer();
+    List<List<String>> passages = Arrays.asList(
+        textTokenizer.tokenize("OpenSearch is powered by the Apache Lucene search library, and it supports a number of search and analytics capabilities."),
+        textTokenizer.tokenize("OpenSearch enables you to easily ingest, secure, search, aggregate, view, and analyze data."),
+        textTokenizer.tokenize("The sky is blue"));
+
+    PassageScorer passageScorer = new PassageScorer(0.75, 1.6,
+        new QueryTerms(textTokenizer.tokenize("Apache Lucene search library")), passages);
+    assertTrue(passageScorer.score(0) > passageScorer.score(1));
+    assertTrue(passageScorer.score(1) > passageScorer.score(2));
+    assertEquals(0, passageScorer.score(2), 0);
+
+    PassageScorer emptyQueryScorer = new PassageScorer(0.75, 1.6, new QueryTerms(new ArrayList<>()), passages);
+    assertEquals(0, emptyQueryScorer.score(0), 0);
+  }
+
+  public void testMatchesBM25Scorer() {
+    final String[] vocabulary = {"search", "ranking", "passage", "document", "query", "index", "shard", "node"};
+    for (int i = 0; i < 100; ++i) {
+      List<List<String>> passages = new ArrayList<>();
+      int passageCount = randomIntBetween(1, 10);
+      for (int j = 0; j < passageCount; ++j) {
+        passages.add(randomTokens(vocabulary, randomIntBetween(1, 200)));
+      }
+      List<String> query = randomTokens(vocabulary, randomIntBetween(0, 6));
+
+      BM25Scorer bm25Scorer = new BM25Scorer(0.75, 1.6, passages);
+      PassageScorer passageScorer = new PassageScorer(0.75, 1.6, new QueryTerms(query), passages);
+      for (int j = 0; j < passageCount; ++j) {
+        // Scores must be identical, so that ties between passages break the same way
+        assertEquals(bm25Scorer.score(query, passages.get(j)), passageScorer.score(j), 0);
+      }
+    }
+  }
+
+  private static List<String> randomTokens(String[] vocabulary, int length) {
+    List<String> tokens = new ArrayList<>(length);
+    for (int i = 0; i < length; ++i) {
+      tokens.add(randomFrom(vocabulary));
+    }
+    return tokens;
+  }
+}
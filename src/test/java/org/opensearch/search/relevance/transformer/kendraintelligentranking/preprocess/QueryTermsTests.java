@@ -0,0 +1,47 @@
+/*
+ * SPDX-License-Identifier: Apache-2.0
+ *
+ * The OpenSearch Contributors require contributions made to
+ * this file be licensed under the Apache-2.0 license or a
+ * compatible open source license.
+ */
+package org.opensearch.search.relevance.transformer.kendraintelligentranking.preprocess;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+
+import org.opensearch.test.OpenSearchTestCase;
+
+public class QueryTermsTests extends OpenSearchTestCase {
+
+  public void testInternsQueryTerms() {
+    QueryTerms queryTerms = new QueryTerms(Arrays.asList("apache", "lucene", "search", "lucene"));
+    assertEquals(3, queryTerms.termCount());
+    assertArrayEquals(new int[] {0, 1, 2, 1}, queryTerms.termIds());
+    assertEquals(0, queryTerms.termId("apache"));
+    assertEquals(1, queryTerms.termId("lucene"));
+    assertEquals(2, queryTerms.termId("search"));
+    assertEquals(-1, queryTerms.termId("library"));
+  }
+
+  public void testEmptyQuery() {
+    QueryTerms queryTerms = new QueryTerms(Collections.emptyList());
+    assertEquals(0, queryTerms.termCount());
+    assertEquals(-1, queryTerms.termId("search"));
+  }
+
+  public void testManyTerms() {
+    List<String> tokens = new ArrayList<>();
+    for (int i = 0; i < 1000; ++i) {
+      tokens.add("term" + i);
+    }
+    QueryTerms queryTerms = new QueryTerms(tokens);
+    assertEquals(1000, queryTerms.termCount());
+    for (int i = 0; i < 1000; ++i) {
+      assertEquals(i, queryTerms.termId("term" + i));
+    }
+    assertEquals(-1, queryTerms.termId("term1000"));
+  }
+}
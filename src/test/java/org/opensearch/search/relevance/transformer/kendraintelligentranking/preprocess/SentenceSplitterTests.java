@@ -7,9 +7,11 @@
  */
 package org.opensearch.search.relevance.transformer.kendraintelligentranking.preprocess;
 
+import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.Collections;
 import java.util.List;
+import java.util.concurrent.atomic.AtomicReference;
 import org.opensearch.test.OpenSearchTestCase;
 
 public class SentenceSplitterTests extends OpenSearchTestCase {
@@ -36,4 +38,37 @@ public class SentenceSplitterTests extends OpenSearchTestCase {
         "Testing lots of spaces    !",
         "and a long word Pneumonoultramicroscopicsilicovolcanoconiosis"), splitSentences);
   }
+
+  public void testSplitIntoOffsets() {
+    final String text = String.join(" ", TEXT_1 + "   ", TEXT_2, TEXT_3);
+    List<String> sentences = new ArrayList<>();
+    sentenceSplitter.split(text, (start, end) -> sentences.add(text.substring(start, end)) && sentences.size() < 2);
+    // Splitting stops when the consumer returns false
+    assertEquals(Arrays.asList(TEXT_1, TEXT_2), sentences);
+  }
+
+  public void testSplitFromMultipleThreads() throws Exception {
+    final String text = String.join(" ", TEXT_1, TEXT_2, TEXT_3, TEXT_4);
+    final List<String> expected = sentenceSplitter.split(text);
+    Thread[] threads = new Thread[4];
+    AtomicReference<Throwable> failure = new AtomicReference<>();
+    for (int i = 0; i < threads.length; i++) {
+      threads[i] = new Thread(() -> {
+        try {
+          // Each thread splits with its own iterator, interleaved with splitting other text
+          for (int j = 0; j < 100; j++) {
+            assertEquals(expected, sentenceSplitter.split(text));
+            assertEquals(Arrays.asList(TEXT_1), sentenceSplitter.split(TEXT_1));
+          }
+        } catch (Throwable t) {
+          failure.compareAndSet(null, t);
+        }
+      });
+      threads[i].start();
+    }
+    for (Thread thread : threads) {
+      thread.join();
+    }
+    assertNull(failure.get());
+  }
 }
@@ -7,9 +7,13 @@
  */
 package org.opensearch.search.relevance.transformer.kendraintelligentranking.preprocess;
 
+import com.ibm.icu.text.BreakIterator;
+import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.Collections;
 import java.util.List;
+import java.util.Locale;
+import java.util.Set;
 
 import org.junit.Assert;
 import org.opensearch.test.OpenSearchTestCase;
@@ -66,4 +70,101 @@ public class TextTokenizerTests extends OpenSearchTestCase {
       assertEquals("Test case " + testCases.get(i) + " failed", expectedResults.get(i), textTokenizer.removeInWordPunctuation(testCases.get(i)));
     }
   }
+
+  public void testIsNumericMatchesParseDouble() {
+    List<String> testCases = Arrays.asList("1e5", "1.e5", ".5", ".", "5.", "1e", "1e+", "1e-3f", "0x1p3", "0x1.8p1d", "0x.p1", "0x1",
+        "NaN", "-Infinity", "nan", "1,000", "12abc", "+", "1d2", "0x", "07");
+    for (String testCase : testCases) {
+      assertEquals("Test case " + testCase + " failed", parsesAsDouble(testCase), textTokenizer.isNumeric(testCase));
+    }
+    final String alphabet = "0123456789.eEpPxX+-dDfF aN";
+    for (int i = 0; i < 1000; ++i) {
+      char[] chars = new char[randomIntBetween(1, 8)];
+      for (int j = 0; j < chars.length; ++j) {
+        chars[j] = alphabet.charAt(randomInt(alphabet.length() - 1));
+      }
+      String testCase = new String(chars);
+      assertEquals("Test case " + testCase + " failed", parsesAsDouble(testCase), textTokenizer.isNumeric(testCase));
+    }
+  }
+
+  public void testTokenizeIntoBuffer() {
+    List<String> tokens = new ArrayList<>();
+    textTokenizer.tokenize(TEXT_4, (buffer, offset, length) -> tokens.add(new String(buffer, offset, length)));
+    assertEquals(EXPECTED_4, tokens);
+    textTokenizer.tokenize((String) null, (buffer, offset, length) -> fail());
+  }
+
+  public void testTokenizeMatchesStringRules() {
+    final String[] words = {"OpenSearch", "the", "it's", "U.S.A.", "3.14", "1,000", "0x1p3", "e-mail", "don't", "naïve", "ÉCOLE",
+        "İstanbul", "ΣΟΦΟΣ", "日本語", "(hello)", "--", "...", "a", "x1", "Pneumonoultramicroscopicsilicovolcanoconiosis", "\t", "\n",
+        "https://opensearch.org/docs", "snake_case", "$100", "#tag", "@user", "emoji\uD83D\uDE00s"};
+    for (int i = 0; i < 200; ++i) {
+      StringBuilder text = new StringBuilder();
+      int wordCount = randomIntBetween(0, 30);
+      for (int j = 0; j < wordCount; ++j) {
+        text.append(randomBoolean() ? randomFrom(words) : randomRealisticUnicodeOfLengthBetween(1, 12));
+        text.append(randomFrom(" ", "  ", ". ", ", ", "\n", ""));
+      }
+      String testCase = text.toString();
+      assertEquals("Test case " + testCase + " failed", tokenizeWithStringRules(testCase), textTokenizer.tokenize(testCase));
+    }
+  }
+
+  public void testTokenizeRange() {
+    final String text = TEXT_1 + TEXT_2 + TEXT_3;
+    final int start = TEXT_1.length();
+    final int end = start + TEXT_2.length();
+    List<String> tokens = new ArrayList<>();
+    textTokenizer.tokenize(text, start, end, (buffer, offset, length) -> tokens.add(new String(buffer, offset, length)));
+    assertEquals(EXPECTED_2, tokens);
+
+    // Words are split at the range boundaries, as if the range had been copied out of the text
+    tokens.clear();
+    textTokenizer.tokenize("opensearch", 2, 6, (buffer, offset, length) -> tokens.add(new String(buffer, offset, length)));
+    assertEquals(List.of("ense"), tokens);
+  }
+
+  private static boolean parsesAsDouble(String text) {
+    try {
+      Double.parseDouble(text);
+      return true;
+    } catch (NumberFormatException e) {
+      return false;
+    }
+  }
+
+  /**
+   * Tokenize by applying the string-based rules to every word, as the tokenizer did before its ASCII fast path
+   */
+  private List<String> tokenizeWithStringRules(String text) {
+    BreakIterator breakIterator = BreakIterator.getWordInstance(Locale.ENGLISH);
+    breakIterator.setText(text);
+    List<String> tokens = new ArrayList<>();
+    int start = breakIterator.first();
+    for (int end = breakIterator.next(); end != BreakIterator.DONE; start = end, end = breakIterator.next()) {
+      String currentWord = text.substring(start, end).stripTrailing().toLowerCase(Locale.ENGLISH);
+      for (int i = 0; i < currentWord.length(); i += 25) {
+        String shortenedToken = currentWord.substring(i, Math.min(currentWord.length(), i + 25));
+        if (!textTokenizer.isWordAllPunctuation(shortenedToken) && !STOP_WORDS.contains(shortenedToken) &&
+            shortenedToken.length() >= 2 && !parsesAsDouble(shortenedToken)) {
+          String token = textTokenizer.removeInWordPunctuation(shortenedToken);
+          if (!token.isEmpty()) {
+            tokens.add(token);
+          }
+        }
+      }
+    }
+    return tokens;
+  }
+
+  private static final Set<String> STOP_WORDS = Set.of("i", "me", "my", "myself", "we", "our", "ours", "ourselves", "you", "your", "yours",
+      "yourself", "yourselves", "he", "him", "his", "himself", "she", "her", "hers", "herself", "it", "its", "itself", "they", "them",
+      "their", "theirs", "themselves", "what", "which", "who", "whom", "this", "that", "these", "those", "am", "is", "are", "was", "were",
+      "be", "been", "being", "have", "has", "had", "having", "do", "does", "did", "doing", "a", "an", "the", "and", "but", "if", "or",
+      "because", "as", "until", "while", "of", "at", "by", "for", "with", "about", "against", "between", "into", "through", "during",
+      "before", "after", "above", "below", "to", "from", "up", "down", "in", "out", "on", "off", "over", "under", "again", "further",
+      "then", "once", "here", "there", "when", "where", "why", "how", "all", "any", "both", "each", "few", "more", "most", "other", "some",
+      "such", "no", "nor", "not", "only", "own", "same", "so", "than", "too", "very", "s", "t", "can", "will", "just", "don", "should",
+      "now");
 }
@@ -8,6 +8,7 @@
 package org.opensearch.search.relevance.transformer.personalizeintelligentranking;
 
 import com.amazonaws.http.IdleConnectionReaper;
+import com.amazonaws.services.personalizeruntime.model.GetPersonalizedRankingRequest;
 import org.apache.lucene.search.TotalHits;
 import org.opensearch.OpenSearchParseException;
 import org.opensearch.action.search.SearchRequest;
@@ -15,18 +16,32 @@ import org.opensearch.action.search.SearchResponse;
 import org.opensearch.action.search.SearchResponseSections;
 import org.opensearch.action.search.ShardSearchFailure;
 import org.opensearch.common.settings.Settings;
+import org.opensearch.common.unit.TimeValue;
+import org.opensearch.common.util.concurrent.AbstractRunnable;
+import org.opensearch.common.util.concurrent.ThreadContext;
 import org.opensearch.env.Environment;
 import org.opensearch.env.TestEnvironment;
 import org.opensearch.search.SearchHit;
 import org.opensearch.search.SearchHits;
 import org.opensearch.search.pipeline.Processor;
+import org.opensearch.search.pipeline.SearchResponseProcessor;
+import org.opensearch.search.relevance.SearchRelevancePlugin;
+import org.opensearch.search.relevance.transformer.RerankCircuitBreakingException;
+import org.opensearch.search.relevance.transformer.RerankDeadlineExceededException;
+import org.opensearch.search.relevance.transformer.RerankDeadlineTracker;
+import org.opensearch.search.relevance.transformer.SingleFlight;
 import org.opensearch.search.relevance.transformer.personalizeintelligentranking.client.PersonalizeClient;
 import org.opensearch.search.relevance.transformer.personalizeintelligentranking.client.PersonalizeClientSettings;
+import org.opensearch.search.relevance.transformer.personalizeintelligentranking.client.PersonalizeRankingCache;
 import org.opensearch.search.relevance.transformer.personalizeintelligentranking.requestparameter.PersonalizeRequestParameters;
 import org.opensearch.search.relevance.transformer.personalizeintelligentranking.utils.PersonalizeRuntimeTestUtil;
 import org.opensearch.search.relevance.transformer.personalizeintelligentranking.utils.SearchTestUtil;
 import org.opensearch.test.OpenSearchTestCase;
+import org.opensearch.threadpool.ExecutorBuilder;
+import org.opensearch.threadpool.TestThreadPool;
+import org.opensearch.threadpool.ThreadPool;
 
+import java.io.IOException;
 import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.Collections;
@@ -34,9 +49,18 @@ import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
 import java.util.Objects;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicReference;
 import java.util.stream.Collectors;
 
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.doAnswer;
 import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.verifyNoInteractions;
+import static org.mockito.Mockito.when;
+import static org.opensearch.search.relevance.configuration.Constants.RERANK_THREAD_POOL_NAME;
 import static org.opensearch.search.relevance.transformer.personalizeintelligentranking.PersonalizeRankingResponseProcessor.TYPE;
 import static org.opensearch.search.relevance.transformer.personalizeintelligentranking.configuration.Constants.AMAZON_PERSONALIZED_RANKING_RECIPE_NAME;
 
@@ -54,10 +78,26 @@ public class PersonalizeRankingResponseProcessorTests extends OpenSearchTestCase
     private static final int NUM_HITS = 10;
 
     private final PersonalizeClientSettings clientSettings = PersonalizeClientSettings.getClientSettings(env.settings());
+    private ThreadPool threadPool;
+
+    @Override
+    public void setUp() throws Exception {
+        super.setUp();
+        threadPool = new TestThreadPool(getTestName(),
+                new SearchRelevancePlugin().getExecutorBuilders(Settings.EMPTY).toArray(new ExecutorBuilder<?>[0]));
+    }
+
+    @Override
+    public void tearDown() throws Exception {
+        ThreadPool.terminate(threadPool, 10, TimeUnit.SECONDS);
+        // Personalize clients start the SDK connection reaper, which must not outlive the test
+        IdleConnectionReaper.shutdown();
+        super.tearDown();
+    }
 
     public void testCreateFactoryThrowsExceptionWithEmptyConfig() {
         PersonalizeRankingResponseProcessor.Factory factory
-                = new PersonalizeRankingResponseProcessor.Factory(this.clientSettings);
+                = new PersonalizeRankingResponseProcessor.Factory(this.clientSettings, PersonalizeRankerComponents.disabled(threadPool), PersonalizeClient::new);
         expectThrows(OpenSearchParseException.class, () -> factory.create(
                 Collections.emptyMap(),
                 null,
@@ -71,7 +111,7 @@ public class PersonalizeRankingResponseProcessorTests extends OpenSearchTestCase
 
     public void testFactoryValidations() {
         PersonalizeRankingResponseProcessor.Factory factory
-                = new PersonalizeRankingResponseProcessor.Factory(this.clientSettings);
+                = new PersonalizeRankingResponseProcessor.Factory(this.clientSettings, PersonalizeRankerComponents.disabled(threadPool), PersonalizeClient::new);
         // Test config without campaign
         Map<String, Object> configuration = new HashMap<>();
         configuration.put("item_id_field", ITEM_ID_FIELD);
@@ -180,7 +220,7 @@ public class PersonalizeRankingResponseProcessorTests extends OpenSearchTestCase
 
     public void testCreateFactoryWithAllPersonalizeConfig() throws Exception {
         PersonalizeRankingResponseProcessor.Factory factory
-                = new PersonalizeRankingResponseProcessor.Factory(this.clientSettings);
+                = new PersonalizeRankingResponseProcessor.Factory(this.clientSettings, PersonalizeRankerComponents.disabled(threadPool), PersonalizeClient::new);
 
         Map<String, Object> configuration = buildPersonalizeResponseProcessorConfig();
 
@@ -196,7 +236,7 @@ public class PersonalizeRankingResponseProcessorTests extends OpenSearchTestCase
     public void testProcessorWithNoHits() throws Exception {
         PersonalizeClient mockClient = mock(PersonalizeClient.class);
         PersonalizeRankingResponseProcessor.Factory factory
-                = new PersonalizeRankingResponseProcessor.Factory(this.clientSettings, (cp, r) -> mockClient);
+                = new PersonalizeRankingResponseProcessor.Factory(this.clientSettings, PersonalizeRankerComponents.disabled(threadPool), (cp, r) -> mockClient);
 
         Map<String, Object> configuration = buildPersonalizeResponseProcessorConfig();
 
@@ -216,7 +256,7 @@ public class PersonalizeRankingResponseProcessorTests extends OpenSearchTestCase
         PersonalizeClient mockClient = PersonalizeRuntimeTestUtil.buildMockPersonalizeClient();
 
         PersonalizeRankingResponseProcessor.Factory factory
-                = new PersonalizeRankingResponseProcessor.Factory(this.clientSettings, (cp, r) -> mockClient);
+                = new PersonalizeRankingResponseProcessor.Factory(this.clientSettings, PersonalizeRankerComponents.disabled(threadPool), (cp, r) -> mockClient);
 
         Map<String, Object> configuration = buildPersonalizeResponseProcessorConfig();
         PersonalizeRankingResponseProcessor personalizeResponseProcessor =
@@ -244,7 +284,7 @@ public class PersonalizeRankingResponseProcessorTests extends OpenSearchTestCase
         PersonalizeClient mockClient = PersonalizeRuntimeTestUtil.buildMockPersonalizeClient();;
 
         PersonalizeRankingResponseProcessor.Factory factory
-                = new PersonalizeRankingResponseProcessor.Factory(this.clientSettings, (cp, r) -> mockClient);
+                = new PersonalizeRankingResponseProcessor.Factory(this.clientSettings, PersonalizeRankerComponents.disabled(threadPool), (cp, r) -> mockClient);
 
         Map<String, Object> configuration = buildPersonalizeResponseProcessorConfig();
         PersonalizeRankingResponseProcessor personalizeResponseProcessor =
@@ -262,7 +302,7 @@ public class PersonalizeRankingResponseProcessorTests extends OpenSearchTestCase
         PersonalizeClient personalizeClient = PersonalizeRuntimeTestUtil.buildMockPersonalizeClient();
 
         PersonalizeRankingResponseProcessor.Factory factory
-                = new PersonalizeRankingResponseProcessor.Factory(this.clientSettings, (cp, r) -> personalizeClient);
+                = new PersonalizeRankingResponseProcessor.Factory(this.clientSettings, PersonalizeRankerComponents.disabled(threadPool), (cp, r) -> personalizeClient);
 
         String itemField = "ITEM_ID";
         Map<String, Object> configuration = buildPersonalizeResponseProcessorConfig();
@@ -288,7 +328,7 @@ public class PersonalizeRankingResponseProcessorTests extends OpenSearchTestCase
         PersonalizeClient personalizeClient = PersonalizeRuntimeTestUtil.buildMockPersonalizeClient();
 
         PersonalizeRankingResponseProcessor.Factory factory
-                = new PersonalizeRankingResponseProcessor.Factory(this.clientSettings, (cp, r) -> personalizeClient);
+                = new PersonalizeRankingResponseProcessor.Factory(this.clientSettings, PersonalizeRankerComponents.disabled(threadPool), (cp, r) -> personalizeClient);
 
         String itemFieldInvalid = "ITEM_ID_NOT_VALID";
         Map<String, Object> configuration = buildPersonalizeResponseProcessorConfig();
@@ -306,7 +346,7 @@ public class PersonalizeRankingResponseProcessorTests extends OpenSearchTestCase
         PersonalizeClient personalizeClient = PersonalizeRuntimeTestUtil.buildMockPersonalizeClient();
 
         PersonalizeRankingResponseProcessor.Factory factory
-                = new PersonalizeRankingResponseProcessor.Factory(this.clientSettings, (cp, r) -> personalizeClient);
+                = new PersonalizeRankingResponseProcessor.Factory(this.clientSettings, PersonalizeRankerComponents.disabled(threadPool), (cp, r) -> personalizeClient);
 
         String itemIdFieldEmpty = "";
         Map<String, Object> configuration = buildPersonalizeResponseProcessorConfig();
@@ -330,6 +370,142 @@ public class PersonalizeRankingResponseProcessorTests extends OpenSearchTestCase
         IdleConnectionReaper.shutdown();
     }
 
+    public void testPersonalizeRankingResponseRerankOnRerankPool() throws Exception {
+        AtomicReference<String> rankingThreadName = new AtomicReference<>();
+        PersonalizeClient personalizeClient = mock(PersonalizeClient.class);
+        when(personalizeClient.getPersonalizedRanking(any())).thenAnswer(invocation -> {
+            rankingThreadName.set(Thread.currentThread().getName());
+            return PersonalizeRuntimeTestUtil.buildGetPersonalizedRankingResult(NUM_HITS);
+        });
+
+        PersonalizeRankingResponseProcessor.Factory factory
+                = new PersonalizeRankingResponseProcessor.Factory(this.clientSettings, PersonalizeRankerComponents.disabled(threadPool), (cp, r) -> personalizeClient);
+
+        Map<String, Object> configuration = buildPersonalizeResponseProcessorConfig();
+        // Search pipelines only call the processor through the interface
+        SearchResponseProcessor responseProcessor =
+                factory.create(Collections.emptyMap(), "testTag", "testingAllFields", false, configuration, UPDATE_CONTEXT);
+
+        PersonalizeRequestParameters personalizeRequestParams = new PersonalizeRequestParameters("user_1", null);
+        SearchRequest request = SearchTestUtil.createSearchRequestWithPersonalizeRequest(personalizeRequestParams);
+        SearchResponse searchResponse = createSearchResponse(NUM_HITS);
+
+        SearchResponse personalizedResponse = responseProcessor.processResponse(request, searchResponse);
+
+        List<String> rerankedDocumentIds = Arrays.stream(personalizedResponse.getHits().getHits())
+                .filter(h -> h.getSourceAsMap().get(ITEM_ID_FIELD) != null)
+                .map(h -> h.getSourceAsMap().get(ITEM_ID_FIELD).toString())
+                .collect(Collectors.toList());
+        ArrayList<String> expectedRankedDocumentIds = PersonalizeRuntimeTestUtil.expectedRankedItemIdsForGivenWeight(NUM_HITS, 1);
+        assertEquals(expectedRankedDocumentIds, rerankedDocumentIds);
+        assertTrue(rankingThreadName.get(), rankingThreadName.get().contains("[" + RERANK_THREAD_POOL_NAME + "]"));
+    }
+
+    public void testPersonalizeRankingResponseReturnsOriginalResponseOnRejection() throws Exception {
+        PersonalizeClient personalizeClient = mock(PersonalizeClient.class);
+        ExecutorService rejectingExecutor = mock(ExecutorService.class);
+        doAnswer(invocation -> {
+            AbstractRunnable runnable = invocation.getArgument(0);
+            runnable.onRejection(new RejectedExecutionException("rejected"));
+            return null;
+        }).when(rejectingExecutor).execute(any(Runnable.class));
+        ThreadPool rejectingThreadPool = mock(ThreadPool.class);
+        when(rejectingThreadPool.executor(RERANK_THREAD_POOL_NAME)).thenReturn(rejectingExecutor);
+
+        PersonalizeRankingResponseProcessor.Factory factory
+                = new PersonalizeRankingResponseProcessor.Factory(this.clientSettings, PersonalizeRankerComponents.disabled(rejectingThreadPool), (cp, r) -> personalizeClient);
+
+        Map<String, Object> configuration = buildPersonalizeResponseProcessorConfig();
+        PersonalizeRankingResponseProcessor responseProcessor =
+                factory.create(Collections.emptyMap(), "testTag", "testingAllFields", false, configuration, UPDATE_CONTEXT);
+
+        PersonalizeRequestParameters personalizeRequestParams = new PersonalizeRequestParameters("user_1", null);
+        SearchRequest request = SearchTestUtil.createSearchRequestWithPersonalizeRequest(personalizeRequestParams);
+        SearchResponse searchResponse = createSearchResponse(NUM_HITS);
+
+        assertSame(searchResponse, responseProcessor.processResponse(request, searchResponse));
+        verifyNoInteractions(personalizeClient);
+    }
+
+    public void testFactoryRerankTimeout() throws Exception {
+        PersonalizeRankingResponseProcessor.Factory factory
+                = new PersonalizeRankingResponseProcessor.Factory(this.clientSettings, PersonalizeRankerComponents.disabled(threadPool), (cp, r) -> mock(PersonalizeClient.class));
+
+        Map<String, Object> configuration = buildPersonalizeResponseProcessorConfig();
+        assertNull(factory.create(Collections.emptyMap(), "testTag", null, false, new HashMap<>(configuration), UPDATE_CONTEXT).getRerankTimeout());
+
+        configuration.put("rerank_timeout", "100ms");
+        assertEquals(TimeValue.timeValueMillis(100),
+                factory.create(Collections.emptyMap(), "testTag", null, false, new HashMap<>(configuration), UPDATE_CONTEXT).getRerankTimeout());
+
+        // -1 disables the timeout, other negative values are invalid
+        configuration.put("rerank_timeout", "-1");
+        assertEquals(TimeValue.MINUS_ONE,
+                factory.create(Collections.emptyMap(), "testTag", null, false, new HashMap<>(configuration), UPDATE_CONTEXT).getRerankTimeout());
+        configuration.put("rerank_timeout", "-5s");
+        expectThrows(OpenSearchParseException.class,
+                () -> factory.create(Collections.emptyMap(), "testTag", null, false, new HashMap<>(configuration), UPDATE_CONTEXT));
+
+        configuration.put("rerank_timeout", "abc");
+        OpenSearchParseException e = expectThrows(OpenSearchParseException.class,
+                () -> factory.create(Collections.emptyMap(), "testTag", null, false, new HashMap<>(configuration), UPDATE_CONTEXT));
+        assertTrue(e.getMessage(), e.getMessage().contains("rerank_timeout"));
+    }
+
+    public void testPersonalizeRankingResponseReturnsOriginalResponseWhenDeadlineIsMissed() throws Exception {
+        PersonalizeClient personalizeClient = mock(PersonalizeClient.class);
+        // Stalls until the SDK client execution timeout set from the deadline fires
+        when(personalizeClient.getPersonalizedRanking(any())).thenAnswer(invocation -> {
+            GetPersonalizedRankingRequest personalizeRequest = invocation.getArgument(0);
+            Thread.sleep(personalizeRequest.getSdkClientExecutionTimeout());
+            throw new RerankDeadlineExceededException("Personalize did not respond within [{}] ms",
+                    personalizeRequest.getSdkClientExecutionTimeout());
+        });
+        RerankDeadlineTracker rerankDeadlineTracker = new RerankDeadlineTracker();
+        PersonalizeRankingResponseProcessor.Factory factory
+                = new PersonalizeRankingResponseProcessor.Factory(this.clientSettings, new PersonalizeRankerComponents(PersonalizeRankingCache.disabled(),
+                SingleFlight.disabled(), rerankDeadlineTracker, threadPool), (cp, r) -> personalizeClient);
+        Map<String, Object> configuration = buildPersonalizeResponseProcessorConfig();
+        configuration.put("rerank_timeout", "50ms");
+        SearchResponseProcessor responseProcessor =
+                factory.create(Collections.emptyMap(), "testTag", "testingAllFields", false, configuration, UPDATE_CONTEXT);
+
+        PersonalizeRequestParameters personalizeRequestParams = new PersonalizeRequestParameters("user_1", null);
+        SearchRequest request = SearchTestUtil.createSearchRequestWithPersonalizeRequest(personalizeRequestParams);
+        SearchResponse searchResponse = createSearchResponse(NUM_HITS);
+
+        ThreadContext threadContext = threadPool.getThreadContext();
+        try (ThreadContext.StoredContext ignored = threadContext.stashContext()) {
+            assertSame(searchResponse, responseProcessor.processResponse(request, searchResponse));
+            assertEquals(List.of(TYPE), threadContext.getResponseHeaders().get(RerankDeadlineTracker.RESPONSE_HEADER));
+        }
+        assertEquals(Map.of(TYPE, 1L), rerankDeadlineTracker.stats());
+    }
+
+    public void testPersonalizeRankingResponseReturnsOriginalResponseWhenCircuitBreakerIsOpen() throws Exception {
+        PersonalizeClient personalizeClient = mock(PersonalizeClient.class);
+        when(personalizeClient.getPersonalizedRanking(any()))
+                .thenThrow(new RerankCircuitBreakingException("Circuit breaker of [{}] is open", "personalize:" + REGION));
+
+        PersonalizeRankingResponseProcessor.Factory factory
+                = new PersonalizeRankingResponseProcessor.Factory(this.clientSettings, PersonalizeRankerComponents.disabled(threadPool), (cp, r) -> personalizeClient);
+        PersonalizeRankingResponseProcessor responseProcessor =
+                factory.create(Collections.emptyMap(), "testTag", "testingAllFields", false, buildPersonalizeResponseProcessorConfig(), UPDATE_CONTEXT);
+
+        PersonalizeRequestParameters personalizeRequestParams = new PersonalizeRequestParameters("user_1", null);
+        SearchRequest request = SearchTestUtil.createSearchRequestWithPersonalizeRequest(personalizeRequestParams);
+        SearchResponse searchResponse = createSearchResponse(NUM_HITS);
+
+        SearchResponse response = responseProcessor.processResponse(request, searchResponse);
+        assertSame(searchResponse, response);
+    }
+
+    private SearchResponse createSearchResponse(int numHits) throws IOException {
+        SearchHits searchHits = SearchTestUtil.getSampleSearchHitsForPersonalize(numHits);
+        SearchResponseSections searchResponseSections = new SearchResponseSections(searchHits, null, null, false, false, null, 0);
+        return new SearchResponse(searchResponseSections, null, 1, 1, 0, 1, new ShardSearchFailure[0], null);
+    }
+
     private SearchResponse createPersonalizedRankingProcessorResponse(PersonalizeRankingResponseProcessor responseProcessor,
                                                                       Map<String, Object> personalizeContext,
                                                                       int numHits) throws Exception {
@@ -37,7 +37,7 @@ public class PersonalizeClientSettingsTests extends OpenSearchTestCase {
 
     public void testWithGetAllSetting() throws IOException {
         PersonalizeClientSettings clientSettings = PersonalizeClientSettingsTestUtil.buildClientSettings(true, true, true);
-        assertEquals(clientSettings.getAllSettings().size(), 3);
+        assertEquals(clientSettings.getAllSettings().size(), 11);
         Setting<SecureString> ACCESS_KEY_SETTING = SecureSetting.secureString("personalized_search_ranking.aws.access_key", null);
         Setting<SecureString> SECRET_KEY_SETTING = SecureSetting.secureString("personalized_search_ranking.aws.secret_key", null);
         Setting<SecureString> SESSION_TOKEN_SETTING = SecureSetting.secureString("personalized_search_ranking.aws.session_token", null);
@@ -0,0 +1,65 @@
+/*
+ * SPDX-License-Identifier: Apache-2.0
+ *
+ * The OpenSearch Contributors require contributions made to
+ * this file be licensed under the Apache-2.0 license or a
+ * compatible open source license.
+ */
+package org.opensearch.search.relevance.transformer.personalizeintelligentranking.client;
+
+import org.opensearch.common.settings.Settings;
+import org.opensearch.common.unit.TimeValue;
+import org.opensearch.core.common.unit.ByteSizeUnit;
+import org.opensearch.core.common.unit.ByteSizeValue;
+import org.opensearch.test.OpenSearchTestCase;
+
+import java.util.List;
+import java.util.Map;
+
+public class PersonalizeRankingCacheTests extends OpenSearchTestCase {
+    private static final String CAMPAIGN_ARN = "arn:aws:personalize:us-west-2:000000000000:campaign/test-campaign";
+
+    public void testKey() {
+        PersonalizeRankingCache.Key key = new PersonalizeRankingCache.Key(CAMPAIGN_ARN, "user", null, List.of("a", "b"));
+        assertEquals(key, new PersonalizeRankingCache.Key(CAMPAIGN_ARN, "user", Map.of(), List.of("a", "b")));
+        assertNotEquals(key, new PersonalizeRankingCache.Key(CAMPAIGN_ARN + "2", "user", null, List.of("a", "b")));
+        assertNotEquals(key, new PersonalizeRankingCache.Key(CAMPAIGN_ARN, "other_user", null, List.of("a", "b")));
+        assertNotEquals(key, new PersonalizeRankingCache.Key(CAMPAIGN_ARN, "user", Map.of("device", "mobile"), List.of("a", "b")));
+        assertNotEquals(key, new PersonalizeRankingCache.Key(CAMPAIGN_ARN, "user", null, List.of("b", "a")));
+    }
+
+    public void testGetAndPut() {
+        PersonalizeRankingCache cache = new PersonalizeRankingCache(Settings.EMPTY);
+        PersonalizeRankingCache.Key key = new PersonalizeRankingCache.Key(CAMPAIGN_ARN, "user", Map.of("device", "mobile"), List.of("a", "b"));
+        assertNull(cache.get(key));
+        cache.put(key, List.of("b", "a"));
+        assertEquals(List.of("b", "a"),
+                cache.get(new PersonalizeRankingCache.Key(CAMPAIGN_ARN, "user", Map.of("device", "mobile"), List.of("a", "b"))));
+
+        Map<String, Object> stats = cache.stats();
+        assertEquals(true, stats.get("enabled"));
+        assertEquals(1, stats.get("count"));
+        assertEquals(0.5, (double) stats.get("hit_rate"), 1e-9);
+        assertTrue((long) stats.get("size_in_bytes") > 0);
+    }
+
+    public void testEvictsWhenFull() {
+        PersonalizeRankingCache cache = new PersonalizeRankingCache(new ByteSizeValue(2, ByteSizeUnit.KB), TimeValue.timeValueMinutes(1));
+        for (int i = 0; i < 20; i++) {
+            cache.put(new PersonalizeRankingCache.Key(CAMPAIGN_ARN, "user" + i, null, List.of("a", "b", "c")), List.of("c", "b", "a"));
+        }
+        Map<String, Object> stats = cache.stats();
+        assertTrue((long) stats.get("size_in_bytes") <= 2048);
+        assertTrue((long) stats.get("evictions") > 0);
+    }
+
+    public void testDisabled() {
+        PersonalizeRankingCache cache = new PersonalizeRankingCache(
+                Settings.builder().put("personalized_search_ranking.ranking_cache.size", "0b").build());
+        assertFalse(cache.isEnabled());
+        PersonalizeRankingCache.Key key = new PersonalizeRankingCache.Key(CAMPAIGN_ARN, "user", null, List.of("a", "b"));
+        cache.put(key, List.of("b", "a"));
+        assertNull(cache.get(key));
+        assertEquals(Map.of("enabled", false), cache.stats());
+    }
+}
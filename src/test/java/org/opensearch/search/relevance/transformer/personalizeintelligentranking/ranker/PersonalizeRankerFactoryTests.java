@@ -8,6 +8,7 @@
 package org.opensearch.search.relevance.transformer.personalizeintelligentranking.ranker;
 
 import org.mockito.Mockito;
+import org.opensearch.search.relevance.transformer.personalizeintelligentranking.PersonalizeRankerComponents;
 import org.opensearch.search.relevance.transformer.personalizeintelligentranking.client.PersonalizeClient;
 import org.opensearch.search.relevance.transformer.personalizeintelligentranking.configuration.PersonalizeIntelligentRankerConfiguration;
 import org.opensearch.search.relevance.transformer.personalizeintelligentranking.reranker.PersonalizedRanker;
@@ -31,7 +32,7 @@ public class PersonalizeRankerFactoryTests extends OpenSearchTestCase {
                 new PersonalizeIntelligentRankerConfiguration(personalizeCampaign, iamRoleArn, AMAZON_PERSONALIZED_RANKING_RECIPE_NAME, itemIdField, region, weight);
 
         PersonalizedRankerFactory factory = new PersonalizedRankerFactory();
-        PersonalizedRanker ranker = factory.getPersonalizedRanker(rankerConfig, client);
+        PersonalizedRanker ranker = factory.getPersonalizedRanker(rankerConfig, client, PersonalizeRankerComponents.disabled(null));
         assertEquals(ranker.getClass(), AmazonPersonalizedRankerImpl.class);
     }
 
@@ -41,7 +42,7 @@ public class PersonalizeRankerFactoryTests extends OpenSearchTestCase {
                 new PersonalizeIntelligentRankerConfiguration(personalizeCampaign, iamRoleArn, "sample-recipe", itemIdField, region, weight);
 
         PersonalizedRankerFactory factory = new PersonalizedRankerFactory();
-        PersonalizedRanker ranker = factory.getPersonalizedRanker(rankerConfig, client);
+        PersonalizedRanker ranker = factory.getPersonalizedRanker(rankerConfig, client, PersonalizeRankerComponents.disabled(null));
         assertNull(ranker);
     }
 }
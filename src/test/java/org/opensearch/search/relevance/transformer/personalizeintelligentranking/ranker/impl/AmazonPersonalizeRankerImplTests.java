@@ -10,9 +10,14 @@ package org.opensearch.search.relevance.transformer.personalizeintelligentrankin
 
 import org.mockito.Mockito;
 import org.opensearch.OpenSearchParseException;
+import org.opensearch.common.settings.Settings;
 import org.opensearch.search.SearchHit;
 import org.opensearch.search.SearchHits;
+import org.opensearch.search.relevance.transformer.RerankDeadlineTracker;
+import org.opensearch.search.relevance.transformer.SingleFlight;
+import org.opensearch.search.relevance.transformer.personalizeintelligentranking.PersonalizeRankerComponents;
 import org.opensearch.search.relevance.transformer.personalizeintelligentranking.client.PersonalizeClient;
+import org.opensearch.search.relevance.transformer.personalizeintelligentranking.client.PersonalizeRankingCache;
 import org.opensearch.search.relevance.transformer.personalizeintelligentranking.configuration.PersonalizeIntelligentRankerConfiguration;
 import org.opensearch.search.relevance.transformer.personalizeintelligentranking.requestparameter.PersonalizeRequestParameters;
 import org.opensearch.search.relevance.transformer.personalizeintelligentranking.reranker.impl.AmazonPersonalizedRankerImpl;
@@ -46,7 +51,7 @@ public class AmazonPersonalizeRankerImplTests extends OpenSearchTestCase {
         PersonalizeClient client = Mockito.mock(PersonalizeClient.class);
         Mockito.when(client.getPersonalizedRanking(any())).thenReturn(PersonalizeRuntimeTestUtil.buildGetPersonalizedRankingResult());
 
-        AmazonPersonalizedRankerImpl ranker = new AmazonPersonalizedRankerImpl(rankerConfig, client);
+        AmazonPersonalizedRankerImpl ranker = new AmazonPersonalizedRankerImpl(rankerConfig, client, PersonalizeRankerComponents.disabled(null));
         PersonalizeRequestParameters requestParameters = new PersonalizeRequestParameters();
         requestParameters.setUserId("28");
         SearchHits responseHits = SearchTestUtil.getSampleSearchHitsForPersonalize(numOfHits);
@@ -61,7 +66,7 @@ public class AmazonPersonalizeRankerImplTests extends OpenSearchTestCase {
         PersonalizeClient client = Mockito.mock(PersonalizeClient.class);
         Mockito.when(client.getPersonalizedRanking(any())).thenReturn(PersonalizeRuntimeTestUtil.buildGetPersonalizedRankingResult());
 
-        AmazonPersonalizedRankerImpl ranker = new AmazonPersonalizedRankerImpl(rankerConfig, client);
+        AmazonPersonalizedRankerImpl ranker = new AmazonPersonalizedRankerImpl(rankerConfig, client, PersonalizeRankerComponents.disabled(null));
         PersonalizeRequestParameters requestParameters = new PersonalizeRequestParameters();
         requestParameters.setUserId("28");
         SearchHits responseHits = SearchTestUtil.getSampleSearchHitsForPersonalize(numOfHits);
@@ -75,7 +80,7 @@ public class AmazonPersonalizeRankerImplTests extends OpenSearchTestCase {
         PersonalizeClient client = Mockito.mock(PersonalizeClient.class);
         Mockito.when(client.getPersonalizedRanking(any())).thenReturn(PersonalizeRuntimeTestUtil.buildGetPersonalizedRankingResult());
 
-        AmazonPersonalizedRankerImpl ranker = new AmazonPersonalizedRankerImpl(rankerConfig, client);
+        AmazonPersonalizedRankerImpl ranker = new AmazonPersonalizedRankerImpl(rankerConfig, client, PersonalizeRankerComponents.disabled(null));
         Map<String, Object> context = new HashMap<>();
         context.put("contextKey", "contextValue");
         PersonalizeRequestParameters requestParameters = new PersonalizeRequestParameters();
@@ -92,7 +97,7 @@ public class AmazonPersonalizeRankerImplTests extends OpenSearchTestCase {
         PersonalizeClient client = Mockito.mock(PersonalizeClient.class);
         Mockito.when(client.getPersonalizedRanking(any())).thenReturn(PersonalizeRuntimeTestUtil.buildGetPersonalizedRankingResult());
 
-        AmazonPersonalizedRankerImpl ranker = new AmazonPersonalizedRankerImpl(rankerConfig, client);
+        AmazonPersonalizedRankerImpl ranker = new AmazonPersonalizedRankerImpl(rankerConfig, client, PersonalizeRankerComponents.disabled(null));
         Map<String, Object> context = new HashMap<>();
         context.put("contextKey", 2);
         PersonalizeRequestParameters requestParameters = new PersonalizeRequestParameters();
@@ -109,7 +114,7 @@ public class AmazonPersonalizeRankerImplTests extends OpenSearchTestCase {
         PersonalizeClient client = Mockito.mock(PersonalizeClient.class);
         Mockito.when(client.getPersonalizedRanking(any())).thenReturn(PersonalizeRuntimeTestUtil.buildGetPersonalizedRankingResult());
 
-        AmazonPersonalizedRankerImpl ranker = new AmazonPersonalizedRankerImpl(rankerConfig, client);
+        AmazonPersonalizedRankerImpl ranker = new AmazonPersonalizedRankerImpl(rankerConfig, client, PersonalizeRankerComponents.disabled(null));
         Map<String, Object> context = new HashMap<>();
         context.put("contextKey", "contextValue");
         PersonalizeRequestParameters requestParameters = new PersonalizeRequestParameters();
@@ -126,7 +131,7 @@ public class AmazonPersonalizeRankerImplTests extends OpenSearchTestCase {
         PersonalizeClient client = Mockito.mock(PersonalizeClient.class);
         Mockito.when(client.getPersonalizedRanking(any())).thenReturn(PersonalizeRuntimeTestUtil.buildGetPersonalizedRankingResult());
 
-        AmazonPersonalizedRankerImpl ranker = new AmazonPersonalizedRankerImpl(rankerConfig, client);
+        AmazonPersonalizedRankerImpl ranker = new AmazonPersonalizedRankerImpl(rankerConfig, client, PersonalizeRankerComponents.disabled(null));
         PersonalizeRequestParameters requestParameters = new PersonalizeRequestParameters();
         requestParameters.setUserId("28");
         SearchHits responseHits = SearchTestUtil.getSampleSearchHitsForPersonalize(numOfHits);
@@ -140,7 +145,7 @@ public class AmazonPersonalizeRankerImplTests extends OpenSearchTestCase {
         PersonalizeClient client = Mockito.mock(PersonalizeClient.class);
         Mockito.when(client.getPersonalizedRanking(any())).thenReturn(PersonalizeRuntimeTestUtil.buildGetPersonalizedRankingResult());
 
-        AmazonPersonalizedRankerImpl ranker = new AmazonPersonalizedRankerImpl(rankerConfig, client);
+        AmazonPersonalizedRankerImpl ranker = new AmazonPersonalizedRankerImpl(rankerConfig, client, PersonalizeRankerComponents.disabled(null));
         PersonalizeRequestParameters requestParameters = new PersonalizeRequestParameters();
         requestParameters.setUserId("28");
         SearchHits responseHits = SearchTestUtil.getSampleSearchHitsForPersonalize(numOfHits);
@@ -154,7 +159,7 @@ public class AmazonPersonalizeRankerImplTests extends OpenSearchTestCase {
         PersonalizeClient client = Mockito.mock(PersonalizeClient.class);
         Mockito.when(client.getPersonalizedRanking(any())).thenReturn(PersonalizeRuntimeTestUtil.buildGetPersonalizedRankingResult(numOfHits));
 
-        AmazonPersonalizedRankerImpl ranker = new AmazonPersonalizedRankerImpl(rankerConfig, client);
+        AmazonPersonalizedRankerImpl ranker = new AmazonPersonalizedRankerImpl(rankerConfig, client, PersonalizeRankerComponents.disabled(null));
         PersonalizeRequestParameters requestParameters = new PersonalizeRequestParameters();
         requestParameters.setUserId("28");
         SearchHits responseHits = SearchTestUtil.getSampleSearchHitsForPersonalize(numOfHits);
@@ -180,7 +185,7 @@ public class AmazonPersonalizeRankerImplTests extends OpenSearchTestCase {
         Mockito.when(client.getPersonalizedRanking(any())).thenReturn(PersonalizeRuntimeTestUtil.buildGetPersonalizedRankingResult(numOfHits));
 
 
-        AmazonPersonalizedRankerImpl ranker = new AmazonPersonalizedRankerImpl(rankerConfig, client);
+        AmazonPersonalizedRankerImpl ranker = new AmazonPersonalizedRankerImpl(rankerConfig, client, PersonalizeRankerComponents.disabled(null));
         PersonalizeRequestParameters requestParameters = new PersonalizeRequestParameters();
         requestParameters.setUserId("28");
         SearchHits responseHits = SearchTestUtil.getSampleSearchHitsForPersonalize(numOfHits);
@@ -205,7 +210,7 @@ public class AmazonPersonalizeRankerImplTests extends OpenSearchTestCase {
         PersonalizeClient client = Mockito.mock(PersonalizeClient.class);
         Mockito.when(client.getPersonalizedRanking(any())).thenReturn(PersonalizeRuntimeTestUtil.buildGetPersonalizedRankingResult(numOfHits));
 
-        AmazonPersonalizedRankerImpl ranker = new AmazonPersonalizedRankerImpl(rankerConfig, client);
+        AmazonPersonalizedRankerImpl ranker = new AmazonPersonalizedRankerImpl(rankerConfig, client, PersonalizeRankerComponents.disabled(null));
         PersonalizeRequestParameters requestParameters = new PersonalizeRequestParameters();
         requestParameters.setUserId("28");
         SearchHits responseHits = SearchTestUtil.getSampleSearchHitsForPersonalize(numOfHits);
@@ -233,7 +238,7 @@ public class AmazonPersonalizeRankerImplTests extends OpenSearchTestCase {
         PersonalizeClient client = Mockito.mock(PersonalizeClient.class);
         Mockito.when(client.getPersonalizedRanking(any())).thenReturn(PersonalizeRuntimeTestUtil.buildGetPersonalizedRankingResult(numOfHits));
 
-        AmazonPersonalizedRankerImpl ranker = new AmazonPersonalizedRankerImpl(rankerConfig, client);
+        AmazonPersonalizedRankerImpl ranker = new AmazonPersonalizedRankerImpl(rankerConfig, client, PersonalizeRankerComponents.disabled(null));
         PersonalizeRequestParameters requestParameters = new PersonalizeRequestParameters();
         requestParameters.setUserId("28");
         SearchHits responseHits = SearchTestUtil.getSampleSearchHitsForPersonalize(numOfHits);
@@ -259,7 +264,7 @@ public class AmazonPersonalizeRankerImplTests extends OpenSearchTestCase {
         Mockito.when(client.getPersonalizedRanking(any())).thenReturn(PersonalizeRuntimeTestUtil.buildGetPersonalizedRankingResult(numOfHits));
 
 
-        AmazonPersonalizedRankerImpl ranker = new AmazonPersonalizedRankerImpl(rankerConfig, client);
+        AmazonPersonalizedRankerImpl ranker = new AmazonPersonalizedRankerImpl(rankerConfig, client, PersonalizeRankerComponents.disabled(null));
         PersonalizeRequestParameters requestParameters = new PersonalizeRequestParameters();
         requestParameters.setUserId("28");
         SearchHits responseHits = SearchTestUtil.getSampleSearchHitsForPersonalize(numOfHits);
@@ -283,7 +288,7 @@ public class AmazonPersonalizeRankerImplTests extends OpenSearchTestCase {
         PersonalizeClient client = Mockito.mock(PersonalizeClient.class);
         Mockito.when(client.getPersonalizedRanking(any())).thenReturn(PersonalizeRuntimeTestUtil.buildGetPersonalizedRankingResult(numOfHits));
 
-        AmazonPersonalizedRankerImpl ranker = new AmazonPersonalizedRankerImpl(rankerConfig, client);
+        AmazonPersonalizedRankerImpl ranker = new AmazonPersonalizedRankerImpl(rankerConfig, client, PersonalizeRankerComponents.disabled(null));
         PersonalizeRequestParameters requestParameters = new PersonalizeRequestParameters();
         requestParameters.setUserId("28");
         SearchHits responseHits = SearchTestUtil.getSampleSearchHitsForPersonalize(numOfHits);
@@ -303,4 +308,35 @@ public class AmazonPersonalizeRankerImplTests extends OpenSearchTestCase {
         assertNotEquals(rerankedDocumentIdsWhenWeightIsOne, rerankedDocumentIds);
         assertNotEquals(rerankedDocumentIdsWhenWeightIsZero, rerankedDocumentIds);
     }
+
+    public void testReRankUsesRankingCache() throws IOException {
+        PersonalizeIntelligentRankerConfiguration rankerConfig =
+                new PersonalizeIntelligentRankerConfiguration(personalizeCampaign, iamRoleArn, recipe, itemIdField, region, 1);
+        PersonalizeClient client = Mockito.mock(PersonalizeClient.class);
+        Mockito.when(client.getPersonalizedRanking(any())).thenReturn(PersonalizeRuntimeTestUtil.buildGetPersonalizedRankingResult(numOfHits));
+        PersonalizeRankingCache rankingCache = new PersonalizeRankingCache(Settings.EMPTY);
+
+        AmazonPersonalizedRankerImpl ranker = new AmazonPersonalizedRankerImpl(rankerConfig, client,
+                new PersonalizeRankerComponents(rankingCache, SingleFlight.disabled(), new RerankDeadlineTracker(), null));
+        PersonalizeRequestParameters requestParameters = new PersonalizeRequestParameters();
+        requestParameters.setUserId("28");
+        SearchHits firstHits = ranker.rerank(SearchTestUtil.getSampleSearchHitsForPersonalize(numOfHits), requestParameters);
+        // Refreshing the same results is served from the cache
+        SearchHits secondHits = ranker.rerank(SearchTestUtil.getSampleSearchHitsForPersonalize(numOfHits), requestParameters);
+        Mockito.verify(client, Mockito.times(1)).getPersonalizedRanking(any());
+        for (int i = 0; i < numOfHits; i++) {
+            assertEquals(firstHits.getHits()[i].getId(), secondHits.getHits()[i].getId());
+        }
+
+        // A different user is not served another user's ranking
+        PersonalizeRequestParameters otherUserParameters = new PersonalizeRequestParameters();
+        otherUserParameters.setUserId("29");
+        ranker.rerank(SearchTestUtil.getSampleSearchHitsForPersonalize(numOfHits), otherUserParameters);
+        Mockito.verify(client, Mockito.times(2)).getPersonalizedRanking(any());
+
+        Map<String, Object> stats = rankingCache.stats();
+        assertEquals(1L, stats.get("hit_count"));
+        assertEquals(2L, stats.get("miss_count"));
+        assertEquals(1.0 / 3, (double) stats.get("hit_rate"), 1e-9);
+    }
 }